@@ -0,0 +1,289 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.framework.check.TransformationChecker;
+import org.deidentifier.arx.framework.check.TransformationCheckerStatistics;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.io.CSVHierarchyInput;
+import org.deidentifier.arx.metric.Metric;
+
+/**
+ * Prepares the internal data structures of the anonymization framework for
+ * micro-benchmarks, in the same way as ARXAnonymizer does before searching
+ * the solution space.
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkSetup {
+
+    /**
+     * Loads a dataset from the data folder. All attributes for which a hierarchy
+     * is available are configured as quasi-identifiers.
+     *
+     * @param dataset The name of the dataset, e.g. "adult"
+     * @return
+     * @throws IOException
+     */
+    public static Data getData(final String dataset) throws IOException {
+
+        final Data data = Data.create("data/" + dataset + ".csv", StandardCharsets.UTF_8, ';');
+        final Pattern pattern = Pattern.compile(Pattern.quote(dataset) + "_hierarchy_(.*?).csv");
+        final File[] files = new File("data").listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return pattern.matcher(name).matches();
+            }
+        });
+        if (files == null) {
+            throw new IOException("Data folder not found");
+        }
+        for (final File file : files) {
+            final Matcher matcher = pattern.matcher(file.getName());
+            if (matcher.matches()) {
+                final CSVHierarchyInput hierarchy = new CSVHierarchyInput(file, StandardCharsets.UTF_8, ';');
+                data.getDefinition().setAttributeType(matcher.group(1), Hierarchy.create(hierarchy.getHierarchy()));
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Creates a synthetic dataset with uniformly distributed values. Each column is a
+     * quasi-identifier with a hierarchy that merges groups of four values per level.
+     *
+     * @param rows
+     * @param columns
+     * @param cardinality The number of distinct values per column
+     * @param seed
+     * @return
+     */
+    public static Data getData(final int rows, final int columns, final int cardinality, final long seed) {
+
+        // Create data
+        final Random random = new Random(seed);
+        final DefaultData data = Data.create();
+        final String[] header = new String[columns];
+        for (int column = 0; column < columns; column++) {
+            header[column] = "attribute-" + column;
+        }
+        data.add(header);
+        for (int row = 0; row < rows; row++) {
+            final String[] tuple = new String[columns];
+            for (int column = 0; column < columns; column++) {
+                tuple[column] = String.valueOf(random.nextInt(cardinality));
+            }
+            data.add(tuple);
+        }
+
+        // Create hierarchy
+        final DefaultHierarchy hierarchy = Hierarchy.create();
+        for (int value = 0; value < cardinality; value++) {
+            final StringBuilder levels = new StringBuilder();
+            levels.append(value);
+            for (int divisor = 4; divisor < cardinality; divisor *= 4) {
+                levels.append(';').append(value / divisor);
+            }
+            levels.append(";*");
+            hierarchy.add(levels.toString().split(";"));
+        }
+        for (int column = 0; column < columns; column++) {
+            data.getDefinition().setAttributeType(header[column], hierarchy);
+        }
+        return data;
+    }
+
+    /** The configuration */
+    private final ARXConfiguration config;
+
+    /** The data manager */
+    private final DataManager      manager;
+
+    /** The solution space */
+    private final SolutionSpace    solutionSpace;
+
+    /**
+     * Encodes the data and initializes the configuration and the quality model.
+     *
+     * @param data
+     * @param config
+     * @throws IOException
+     */
+    public BenchmarkSetup(final Data data, final ARXConfiguration config) throws IOException {
+
+        // Prepare handle
+        final DataHandleInput handle = (DataHandleInput) data.getHandle();
+        final DataDefinition definition = handle.getDefinition();
+        definition.materializeHierarchies(handle);
+        handle.getRegistry().reset();
+
+        // Encode data
+        this.config = config;
+        this.manager = new DataManager(handle.header,
+                                       handle.data,
+                                       handle.dictionary,
+                                       definition,
+                                       new HashMap<String, DistributionAggregateFunction>(),
+                                       config);
+        handle.getRegistry().createInputSubset(config);
+
+        // Initialize
+        config.initialize(manager);
+        this.solutionSpace = new SolutionSpace(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
+        config.getQualityModel().initialize(manager, definition, manager.getDataGeneralized(), manager.getHierarchies(), config);
+    }
+
+    /**
+     * Creates a transformation checker
+     *
+     * @param historySize
+     * @param historyMemoryLimit
+     * @return
+     */
+    public TransformationChecker createChecker(final int historySize, final long historyMemoryLimit) {
+        return new TransformationChecker(manager,
+                                         config.getQualityModel(),
+                                         config.getInternalConfiguration(),
+                                         historySize,
+                                         0.2d,
+                                         0.8d,
+                                         historyMemoryLimit,
+                                         solutionSpace);
+    }
+
+    /**
+     * Creates a groupify operator, which reads transformed data from the buffer of the given transformer
+     *
+     * @param transformer
+     * @return
+     */
+    public HashGroupify createGroupify(final Transformer transformer) {
+        return new HashGroupify((int) (manager.getDataGeneralized().getDataLength() * 0.01d),
+                                config.getInternalConfiguration(),
+                                manager.getAggregationInformation().getHotThreshold(),
+                                manager.getDataGeneralized().getArray(),
+                                transformer.getBuffer(),
+                                manager.getDataAnalyzed().getArray());
+    }
+
+    /**
+     * Creates a history
+     *
+     * @param size
+     * @param memoryLimit
+     * @return
+     */
+    public History createHistory(final int size, final long memoryLimit) {
+        int initialSize = (int) (manager.getDataGeneralized().getDataLength() * 0.01d);
+        return new History(manager.getDataGeneralized().getArray().getNumRows(),
+                           size,
+                           0.2d,
+                           0.8d,
+                           memoryLimit,
+                           config.getInternalConfiguration(),
+                           new IntArrayDictionary(initialSize),
+                           new IntArrayDictionary(initialSize),
+                           solutionSpace,
+                           new TransformationCheckerStatistics());
+    }
+
+    /**
+     * Creates a transformer
+     *
+     * @param numThreads
+     * @return
+     */
+    public Transformer createTransformer(final int numThreads) {
+        int initialSize = (int) (manager.getDataGeneralized().getDataLength() * 0.01d);
+        return new Transformer(manager.getDataGeneralized().getArray(),
+                               manager.getDataAnalyzed().getArray(),
+                               manager.getAggregationInformation().getHotThreshold(),
+                               manager.getHierarchies(),
+                               config.getInternalConfiguration(),
+                               new IntArrayDictionary(initialSize),
+                               new IntArrayDictionary(initialSize),
+                               numThreads);
+    }
+
+    /**
+     * Returns the internal configuration
+     * @return
+     */
+    public ARXConfigurationInternal getConfiguration() {
+        return config.getInternalConfiguration();
+    }
+
+    /**
+     * Returns the data manager
+     * @return
+     */
+    public DataManager getManager() {
+        return manager;
+    }
+
+    /**
+     * Returns the quality model
+     * @return
+     */
+    public Metric<?> getMetric() {
+        return config.getQualityModel();
+    }
+
+    /**
+     * Returns the transformation in the middle of the solution space, i.e. the transformation
+     * which generalizes each attribute to the middle of its hierarchy
+     * @return
+     */
+    public Transformation getMiddle() {
+        final int[] min = manager.getHierarchiesMinLevels();
+        final int[] max = manager.getHierarchiesMaxLevels();
+        final int[] generalization = new int[min.length];
+        for (int i = 0; i < generalization.length; i++) {
+            generalization[i] = (min[i] + max[i]) / 2;
+        }
+        return solutionSpace.getTransformation(generalization);
+    }
+
+    /**
+     * Returns the solution space
+     * @return
+     */
+    public SolutionSpace getSolutionSpace() {
+        return solutionSpace;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.BenchmarkSetup;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the complete anonymization process with FLASH on the datasets
+ * from the data folder. Datasets and their hierarchies are expected to be
+ * found in "data/[dataset].csv" and "data/[dataset]_hierarchy_[attribute].csv".
+ * Only the adult dataset is contained in the repository, which is why it is the
+ * default. Other datasets can be selected with JMH's "-p" option, e.g.
+ * "-p dataset=adult,cup,fars,ihis,atus".
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BenchmarkAnonymization {
+
+    /** The dataset */
+    @Param({ "adult" })
+    public String           dataset;
+
+    /** The parameter k */
+    @Param({ "5" })
+    public int              k;
+
+    /** The suppression limit */
+    @Param({ "0.04" })
+    public double           suppressionLimit;
+
+    /** The number of threads */
+    @Param({ "1" })
+    public int              threads;
+
+    /** The data */
+    private Data            data;
+
+    /** The configuration */
+    private ARXConfiguration config;
+
+    /**
+     * Prepares the benchmark
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        data = BenchmarkSetup.getData(dataset);
+        config = ARXConfiguration.create(suppressionLimit, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(k));
+        config.setNumThreads(threads);
+    }
+
+    /**
+     * Anonymizes the data
+     * @return
+     * @throws IOException
+     */
+    @Benchmark
+    public ARXResult anonymize() throws IOException {
+        data.getHandle().release();
+        return new ARXAnonymizer().anonymize(data, config);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXConfiguration.DataStorage;
+import org.deidentifier.arx.BenchmarkSetup;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks hashing and comparing rows of the encoded input data
+ * with the different storage layouts.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BenchmarkDataMatrix {
+
+    /** The dataset */
+    @Param({ "adult" })
+    public String      dataset;
+
+    /** The storage layout */
+    @Param({ "HEAP", "OFF_HEAP", "PACKED" })
+    public DataStorage storage;
+
+    /** The matrix */
+    private DataMatrix matrix;
+
+    /**
+     * Prepares the benchmark
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setDataStorage(storage);
+        matrix = new BenchmarkSetup(BenchmarkSetup.getData(dataset), config).getManager().getDataGeneralized().getArray();
+    }
+
+    /**
+     * Compares all neighboring rows
+     * @return
+     */
+    @Benchmark
+    public int equals() {
+        int result = 0;
+        for (int row = 1; row < matrix.getNumRows(); row++) {
+            result += matrix.equals(row - 1, row) ? 1 : 0;
+        }
+        return result;
+    }
+
+    /**
+     * Compares all neighboring rows, ignoring the outlier flag
+     * @return
+     */
+    @Benchmark
+    public int equalsIgnoringOutliers() {
+        int result = 0;
+        for (int row = 1; row < matrix.getNumRows(); row++) {
+            result += matrix.equalsIgnoringOutliers(row - 1, row) ? 1 : 0;
+        }
+        return result;
+    }
+
+    /**
+     * Hashes all rows
+     * @return
+     */
+    @Benchmark
+    public int hashCodes() {
+        int result = 0;
+        for (int row = 0; row < matrix.getNumRows(); row++) {
+            result ^= matrix.hashCode(row);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks merging frequency distributions of sensitive values, as performed
+ * when equivalence classes are merged during roll-ups or restored from snapshots.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BenchmarkDistribution {
+
+    /** The number of distinct values per distribution */
+    @Param({ "10", "100", "1000" })
+    public int           size;
+
+    /** The number of distributions */
+    @Param({ "100" })
+    public int           count;
+
+    /** The distributions */
+    private Distribution[] distributions;
+
+    /** The distributions in packed form */
+    private int[][][]      packed;
+
+    /**
+     * Prepares the benchmark
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(0xDEADBEEF);
+        distributions = new Distribution[count];
+        packed = new int[count][][];
+        for (int i = 0; i < count; i++) {
+            distributions[i] = new Distribution();
+            for (int j = 0; j < size; j++) {
+                distributions[i].add(random.nextInt(size * 2), 1 + random.nextInt(10));
+            }
+            packed[i] = distributions[i].pack();
+        }
+    }
+
+    /**
+     * Merges all distributions
+     * @return
+     */
+    @Benchmark
+    public Distribution merge() {
+        Distribution result = new Distribution();
+        for (Distribution distribution : distributions) {
+            result.merge(distribution);
+        }
+        return result;
+    }
+
+    /**
+     * Merges all distributions from their packed representation
+     * @return
+     */
+    @Benchmark
+    public Distribution mergePacked() {
+        Distribution result = new Distribution();
+        for (int[][] distribution : packed) {
+            result.merge(distribution[0], distribution[1]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkSetup;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks building equivalence classes from transformed data and analyzing them.
+ * The data is transformed once during setup, so that only the groupify operator is measured.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BenchmarkHashGroupify {
+
+    /** The dataset */
+    @Param({ "adult" })
+    public String          dataset;
+
+    /** The parameter k */
+    @Param({ "5" })
+    public int             k;
+
+    /** The target */
+    private HashGroupify   groupify;
+
+    /** The number of rows */
+    private int            rows;
+
+    /** The transformation */
+    private Transformation transformation;
+
+    /**
+     * Prepares the benchmark
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(k));
+        BenchmarkSetup setup = new BenchmarkSetup(BenchmarkSetup.getData(dataset), config);
+        Transformer transformer = setup.createTransformer(1);
+        transformation = setup.getMiddle();
+        transformer.apply(0L, transformation.getGeneralization(), setup.createGroupify(transformer));
+        groupify = setup.createGroupify(transformer);
+        rows = setup.getManager().getDataGeneralized().getArray().getNumRows();
+    }
+
+    /**
+     * Adds all transformed rows
+     * @return
+     */
+    @Benchmark
+    public HashGroupify add() {
+        groupify.stateClear();
+        for (int row = 0; row < rows; row++) {
+            groupify.addFromBuffer(row, -1, row, 1, -1);
+        }
+        return groupify;
+    }
+
+    /**
+     * Adds all transformed rows and checks the privacy model
+     * @return
+     */
+    @Benchmark
+    public boolean addAndAnalyze() {
+        add();
+        groupify.stateAnalyze(transformation, true);
+        return groupify.isPrivacyModelFulfilled();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkSetup;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.linearbits.jhpl.JHPLIterator.LongIterator;
+
+/**
+ * Benchmarks storing snapshots in the history and retrieving them. The snapshot of one
+ * transformation is stored for the given number of transformations, with uncompressed
+ * storage (memory limit of -1) or compressed storage with the given memory limit.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BenchmarkHistory {
+
+    /** The dataset */
+    @Param({ "adult" })
+    public String                     dataset;
+
+    /** The memory limit in bytes, -1 for uncompressed storage */
+    @Param({ "-1", "0", "1048576" })
+    public long                       memoryLimit;
+
+    /** The number of snapshots */
+    @Param({ "200" })
+    public int                        size;
+
+    /** The history */
+    private History                   history;
+
+    /** The groupify operator */
+    private HashGroupify              groupify;
+
+    /** The top transformation */
+    private int[]                     top;
+
+    /** The transformations */
+    private final List<Transformation> transformations = new ArrayList<Transformation>();
+
+    /**
+     * Prepares the benchmark
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+
+        // Prepare
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        BenchmarkSetup setup = new BenchmarkSetup(BenchmarkSetup.getData(dataset), config);
+        SolutionSpace solutionSpace = setup.getSolutionSpace();
+        history = setup.createHistory(size, memoryLimit == -1 ? Long.MAX_VALUE : memoryLimit);
+        history.setStorageStrategy(StorageStrategy.ALL);
+
+        // Transform
+        Transformer transformer = setup.createTransformer(1);
+        groupify = transformer.apply(0L, setup.getMiddle().getGeneralization(), setup.createGroupify(transformer));
+        transformer.shutdown();
+
+        // Collect transformations below the top transformation
+        top = solutionSpace.getTop().getGeneralization();
+        int level = solutionSpace.getTop().getLevel();
+        for (int i = 0; i < level && transformations.size() < size; i++) {
+            for (LongIterator iter = solutionSpace.unsafeGetLevel(i); iter.hasNext() && transformations.size() < size;) {
+                transformations.add(solutionSpace.getTransformation(iter.next()));
+            }
+        }
+        store();
+    }
+
+    /**
+     * Frees resources
+     */
+    @TearDown
+    public void tearDown() {
+        history.reset();
+    }
+
+    /**
+     * Retrieves the smallest snapshot for the top transformation
+     * @return
+     */
+    @Benchmark
+    public int[] get() {
+        return history.get(top);
+    }
+
+    /**
+     * Stores all snapshots
+     * @return
+     */
+    @Benchmark
+    public History store() {
+        history.reset();
+        for (Transformation transformation : transformations) {
+            history.store(transformation, groupify, null);
+        }
+        return history;
+    }
+}
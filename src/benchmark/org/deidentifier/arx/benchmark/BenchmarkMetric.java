@@ -0,0 +1,129 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkSetup;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLossWithBound;
+import org.deidentifier.arx.metric.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks computing the information loss of a transformation with the
+ * most important quality models.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BenchmarkMetric {
+
+    /**
+     * Returns the quality model with the given name
+     * @param name
+     * @return
+     */
+    private static Metric<?> getMetric(String name) {
+        switch (name) {
+        case "AECS":
+            return Metric.createAECSMetric();
+        case "Ambiguity":
+            return Metric.createAmbiguityMetric();
+        case "Discernability":
+            return Metric.createDiscernabilityMetric();
+        case "Entropy":
+            return Metric.createEntropyMetric();
+        case "Height":
+            return Metric.createHeightMetric();
+        case "KLDivergence":
+            return Metric.createKLDivergenceMetric();
+        case "Loss":
+            return Metric.createLossMetric();
+        case "NormalizedEntropy":
+            return Metric.createNormalizedEntropyMetric();
+        case "Precision":
+            return Metric.createPrecisionMetric();
+        default:
+            throw new IllegalArgumentException("Unknown quality model: " + name);
+        }
+    }
+
+    /** The dataset */
+    @Param({ "adult" })
+    public String          dataset;
+
+    /** The quality model */
+    @Param({ "AECS", "Ambiguity", "Discernability", "Entropy", "Height", "KLDivergence", "Loss", "NormalizedEntropy", "Precision" })
+    public String          metric;
+
+    /** The quality model */
+    private Metric<?>      model;
+
+    /** The groupify operator */
+    private HashGroupify   groupify;
+
+    /** The transformation */
+    private Transformation transformation;
+
+    /**
+     * Prepares the benchmark
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(1d, getMetric(metric));
+        config.addPrivacyModel(new KAnonymity(5));
+        BenchmarkSetup setup = new BenchmarkSetup(BenchmarkSetup.getData(dataset), config);
+        Transformer transformer = setup.createTransformer(1);
+        transformation = setup.getMiddle();
+        groupify = transformer.apply(0L, transformation.getGeneralization(), setup.createGroupify(transformer));
+        groupify.stateAnalyze(transformation, true);
+        transformer.shutdown();
+        model = setup.getMetric();
+    }
+
+    /**
+     * Computes the information loss
+     * @return
+     */
+    @Benchmark
+    public InformationLossWithBound<?> getInformationLoss() {
+        return model.getInformationLoss(transformation, groupify);
+    }
+}
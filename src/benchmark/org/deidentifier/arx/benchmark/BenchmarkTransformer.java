@@ -0,0 +1,108 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkSetup;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks transforming the complete input data. The number of quasi-identifiers
+ * determines the implementation used, i.e. Transformer01 to Transformer15 and
+ * TransformerAll for more than 15 quasi-identifiers. Synthetic data is used to
+ * cover all implementations.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BenchmarkTransformer {
+
+    /** The number of quasi-identifiers */
+    @Param({ "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15", "16" })
+    public int           dimensions;
+
+    /** The number of rows */
+    @Param({ "100000" })
+    public int           rows;
+
+    /** The number of threads */
+    @Param({ "1" })
+    public int           threads;
+
+    /** The transformer */
+    private Transformer  transformer;
+
+    /** The target */
+    private HashGroupify groupify;
+
+    /** The transformation */
+    private int[]        transformation;
+
+    /**
+     * Prepares the benchmark
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(5));
+        BenchmarkSetup setup = new BenchmarkSetup(BenchmarkSetup.getData(rows, dimensions, 256, 0xDEADBEEF), config);
+        transformer = setup.createTransformer(threads);
+        groupify = setup.createGroupify(transformer);
+        transformation = setup.getMiddle().getGeneralization();
+    }
+
+    /**
+     * Frees resources
+     */
+    @TearDown
+    public void tearDown() {
+        transformer.shutdown();
+    }
+
+    /**
+     * Transforms the data
+     * @return
+     */
+    @Benchmark
+    public HashGroupify apply() {
+        return transformer.apply(0L, transformation, groupify);
+    }
+}
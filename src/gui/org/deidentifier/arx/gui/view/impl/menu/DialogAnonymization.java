@@ -97,7 +97,8 @@ public class DialogAnonymization extends TitleAreaDialog {
         this.localRecodingAvailable = true;
         this.heuristicSearchStepLimitAvailable = true;
         this.heuristicSearchTimeLimitAvailable = true;
-        this.optimalSearchAvailable = model.getSolutionSpaceSize() <= model.getHeuristicSearchThreshold();
+        this.optimalSearchAvailable = model.getHeuristicSearchThreshold() == Integer.MAX_VALUE ||
+                                      model.getSolutionSpaceSize() <= model.getHeuristicSearchThreshold();
         for (PrivacyCriterion c : model.getInputConfig().getCriteria()) {
             if (!c.isLocalRecodingSupported()) {
                 this.localRecodingAvailable = false;
@@ -241,7 +241,7 @@ public class ViewRisksQuasiIdentifiersTable extends ViewRisks<AnalysisContextRis
             public void run() throws InterruptedException {
                 // Timestamp
                 long time = System.currentTimeMillis();
-                risks = builder.getAttributeRisks();
+                risks = builder.getAttributeRisks(Integer.MAX_VALUE, Runtime.getRuntime().availableProcessors());
 
                 // Our users are patient
                 while (System.currentTimeMillis() - time < MINIMAL_WORKING_TIME && !stopped) {
@@ -17,25 +17,43 @@
 
 package org.deidentifier.arx;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.ARXConfiguration.HeuristicSearchAlgorithm;
 import org.deidentifier.arx.ARXConfiguration.SearchStepSemantics;
 import org.deidentifier.arx.AttributeType.MicroAggregationFunction;
 import org.deidentifier.arx.algorithm.AbstractAlgorithm;
 import org.deidentifier.arx.algorithm.DataDependentEDDPAlgorithm;
 import org.deidentifier.arx.algorithm.FLASHAlgorithm;
 import org.deidentifier.arx.algorithm.FLASHStrategy;
+import org.deidentifier.arx.algorithm.GeneticAlgorithm;
 import org.deidentifier.arx.algorithm.LIGHTNINGAlgorithm;
+import org.deidentifier.arx.common.ThreadUtil;
 import org.deidentifier.arx.criteria.BasicBLikeness;
 import org.deidentifier.arx.criteria.DDisclosurePrivacy;
 import org.deidentifier.arx.criteria.EDDifferentialPrivacy;
 import org.deidentifier.arx.criteria.EnhancedBLikeness;
+import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
 import org.deidentifier.arx.criteria.KAnonymity;
 import org.deidentifier.arx.criteria.LDiversity;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
 import org.deidentifier.arx.criteria.TCloseness;
 import org.deidentifier.arx.framework.check.TransformationChecker;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
@@ -85,6 +103,9 @@ public class ARXAnonymizer { // NO_UCD
         /** Whether the optimum has been found */
         final boolean               optimumFound;
 
+        /** Performance statistics */
+        final ARXPerformanceStatistics performance;
+
         /**
          * Creates a new instance.
          *
@@ -94,13 +115,16 @@ public class ARXAnonymizer { // NO_UCD
          * @param manager the manager
          * @param algorithm
          * @param time
+         * @param optimumFound
+         * @param performance
          */
         Result(final TransformationChecker checker,
                final SolutionSpace solutionSpace,
                final DataManager manager,
                final AbstractAlgorithm algorithm,
                final long time,
-               final boolean optimumFound) {
+               final boolean optimumFound,
+               final ARXPerformanceStatistics performance) {
             this.checker = checker;
             this.solutionSpace = solutionSpace;
             this.manager = manager;
@@ -108,6 +132,7 @@ public class ARXAnonymizer { // NO_UCD
             this.time = time;
             this.optimum = algorithm.getGlobalOptimum();
             this.optimumFound = optimumFound;
+            this.performance = performance;
         }
 
         /**
@@ -136,13 +161,17 @@ public class ARXAnonymizer { // NO_UCD
                                  lattice,
                                  System.currentTimeMillis() - time,
                                  solutionSpace,
-                                 optimumFound);      
+                                 optimumFound,
+                                 performance);      
         }
     }
 
     /** History size. */
     private int         historySize          = 200;
 
+    /** Memory budget of the history. */
+    private long        historyMemoryLimit   = Long.MAX_VALUE;
+
     /** The listener, if any. */
     private ARXListener listener             = null;
 
@@ -203,7 +232,9 @@ public class ARXAnonymizer { // NO_UCD
         handle.getRegistry().reset();
         
         // Create manager
+        long time = System.nanoTime();
         DataManager manager = getDataManager(handle, handle.getDefinition(), config);
+        time = System.nanoTime() - time;
 
         // Attach subset to handle
         handle.getRegistry().createInputSubset(config);
@@ -214,9 +245,113 @@ public class ARXAnonymizer { // NO_UCD
 
 
         // Execute
-        return anonymize(manager, handle.getDefinition(), config).asResult(config, handle);
+        return anonymize(manager, handle.getDefinition(), config, time).asResult(config, handle);
     }
-    
+
+    /**
+     * Performs data anonymization with multiple configurations. The data is encoded only once
+     * and the search is performed for each configuration sequentially.
+     *
+     * @param data The data
+     * @param configs The privacy configs
+     * @return One ARXResult per configuration, in the same order
+     * @throws IOException
+     * @see #anonymize(Data, List, int)
+     */
+    public List<ARXResult> anonymize(final Data data, List<ARXConfiguration> configs) throws IOException {
+        return anonymize(data, configs, 1);
+    }
+
+    /**
+     * Performs data anonymization with multiple configurations. The data is encoded only once
+     * and the resulting DataManager is shared by the searches, which are performed concurrently
+     * with the given number of threads. Each concurrent search maintains its own history of
+     * snapshots, which means that memory requirements grow with the number of threads. All results
+     * are associated with the given data and remain valid until it is anonymized again.<br>
+     * <br>
+     * All configurations must be compatible with one shared encoding of the data: they must use
+     * the same data storage and research subset, quality models must handle microaggregation in the
+     * same way, privacy and quality models must not be shared between configurations and
+     * differential privacy as well as t-closeness with hierarchical distance are not supported.
+     * If a listener has been set, it will be notified by all searches.
+     *
+     * @param data The data
+     * @param configs The privacy configs
+     * @param numThreads The number of searches to perform concurrently
+     * @return One ARXResult per configuration, in the same order
+     * @throws IOException
+     */
+    public List<ARXResult> anonymize(final Data data, List<ARXConfiguration> configs, int numThreads) throws IOException {
+
+        // Check
+        if (configs == null) {
+            throw new NullPointerException("Configurations must not be null");
+        }
+        if (configs.isEmpty()) {
+            throw new IllegalArgumentException("At least one configuration must be specified");
+        }
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be >= 1");
+        }
+        if (((DataHandleInput)data.getHandle()).isLocked()){
+            throw new RuntimeException("This data handle is locked. Please release it first");
+        }
+
+        // Update registry
+        final DataHandle handle = data.getHandle();
+        handle.getDefinition().materializeHierarchies(handle);
+        for (ARXConfiguration config : configs) {
+            checkBeforeEncoding(handle, config);
+        }
+        checkBeforeSharing(handle.getDefinition(), configs);
+        handle.getRegistry().reset();
+
+        // Create manager
+        long time = System.nanoTime();
+        final DataManager manager = getDataManager(handle, handle.getDefinition(), configs.get(0));
+        final long encodingTime = System.nanoTime() - time;
+
+        // Attach subset to handle
+        handle.getRegistry().createInputSubset(configs.get(0));
+
+        // Attach arrays to data handle
+        ((DataHandleInput)handle).update(manager.getDataGeneralized().getArray(),
+                                         manager.getDataAnalyzed().getArray());
+
+        // Execute
+        List<Result> results = new ArrayList<Result>();
+        if (numThreads == 1 || configs.size() == 1) {
+            for (ARXConfiguration config : configs) {
+                results.add(anonymize(manager, handle.getDefinition(), config, encodingTime));
+            }
+        } else {
+            ExecutorService executor = ThreadUtil.createThreadPool(Math.min(numThreads, configs.size()), "ARX Anonymizer");
+            try {
+                List<Future<Result>> futures = new ArrayList<Future<Result>>();
+                for (final ARXConfiguration config : configs) {
+                    futures.add(executor.submit(new Callable<Result>() {
+                        @Override
+                        public Result call() throws Exception {
+                            return anonymize(manager, handle.getDefinition(), config, encodingTime);
+                        }
+                    }));
+                }
+                for (Future<Result> future : futures) {
+                    results.add(ThreadUtil.get(future, IOException.class, "Interrupted while anonymizing data"));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        // Create results
+        List<ARXResult> list = new ArrayList<ARXResult>();
+        for (int i = 0; i < configs.size(); i++) {
+            list.add(results.get(i).asResult(configs.get(i), handle));
+        }
+        return list;
+    }
+
     /**
      * Returns the maximum number of snapshots allowed to store in the history.
      * 
@@ -225,6 +360,15 @@ public class ARXAnonymizer { // NO_UCD
     public int getHistorySize() {
         return historySize;
     }
+
+    /**
+     * Returns the memory budget of the history in bytes.
+     * 
+     * @return The budget
+     */
+    public long getHistoryMemoryLimit() {
+        return historyMemoryLimit;
+    }
     
     /**
      * Gets the snapshot size.
@@ -264,6 +408,20 @@ public class ARXAnonymizer { // NO_UCD
         this.historySize = historySize;
     }
 
+    /**
+     * Sets the memory budget of the history in bytes. If a budget is set, snapshots
+     * are compressed and the least recently used snapshots are moved to a temporary
+     * file when the budget is exceeded. This allows storing more snapshots for large
+     * datasets. Set to Long.MAX_VALUE to store uncompressed snapshots in memory [default].
+     * 
+     * @param bytes
+     *            The budget
+     */
+    public void setHistoryMemoryLimit(final long bytes) {
+        if (bytes < 0) { throw new IllegalArgumentException("Memory limit must be positive or 0"); }
+        this.historyMemoryLimit = bytes;
+    }
+
     /**
      * Sets a listener.
      * 
@@ -584,6 +742,52 @@ public class ARXAnonymizer { // NO_UCD
         }
     }
 
+    /**
+     * Checks whether all configurations can be executed with one shared data manager.
+     *
+     * @param definition
+     * @param configs
+     */
+    private void checkBeforeSharing(final DataDefinition definition, final List<ARXConfiguration> configs) {
+
+        boolean microaggregation = !definition.getQuasiIdentifiersWithMicroaggregation().isEmpty();
+        ARXConfiguration first = configs.get(0);
+        DataSubset subset = first.getSubset();
+        Set<Object> models = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        for (ARXConfiguration config : configs) {
+
+            // Check privacy models which depend on the encoding
+            if (config.isPrivacyModelSpecified(EDDifferentialPrivacy.class)) {
+                throw new IllegalArgumentException("Differential privacy is not supported when anonymizing with multiple configurations");
+            }
+            if (config.isPrivacyModelSpecified(HierarchicalDistanceTCloseness.class)) {
+                throw new IllegalArgumentException("T-closeness with hierarchical distance is not supported when anonymizing with multiple configurations");
+            }
+
+            // Check parameters which define the encoding
+            if (config.getDataStorage() != first.getDataStorage()) {
+                throw new IllegalArgumentException("All configurations must use the same data storage");
+            }
+            if (microaggregation && config.getQualityModel().isAbleToHandleMicroaggregation() != first.getQualityModel().isAbleToHandleMicroaggregation()) {
+                throw new IllegalArgumentException("All quality models must handle microaggregation in the same way");
+            }
+            DataSubset other = config.getSubset();
+            if ((subset == null) != (other == null) || (subset != null && !Arrays.equals(subset.getArray(), other.getArray()))) {
+                throw new IllegalArgumentException("All configurations must use the same research subset");
+            }
+
+            // Check instances, which are initialized with the data
+            if (!models.add(config.getQualityModel())) {
+                throw new IllegalArgumentException("Configurations must not share quality models");
+            }
+            for (PrivacyCriterion c : config.getPrivacyModels()) {
+                if (!models.add(c)) {
+                    throw new IllegalArgumentException("Configurations must not share privacy models");
+                }
+            }
+        }
+    }
+
     /**
      * Returns a map of all microaggregation functions
      * @param definition
@@ -620,7 +824,13 @@ public class ARXAnonymizer { // NO_UCD
             }
         }
 
-        if (config.isHeuristicSearchEnabled() || solutionSpace.getSize() > config.getHeuristicSearchThreshold()) {
+        int threshold = config.getHeuristicSearchThreshold();
+        if (config.isHeuristicSearchEnabled() || (threshold != Integer.MAX_VALUE && solutionSpace.getSize() > threshold) ||
+            !FLASHAlgorithm.isSupported(solutionSpace)) {
+            if (config.getHeuristicSearchAlgorithm() == HeuristicSearchAlgorithm.GENETIC) {
+                return GeneticAlgorithm.create(solutionSpace, checker, config.getHeuristicSearchTimeLimit(),
+                                               config.getHeuristicSearchStepLimit(SearchStepSemantics.CHECKS, numQIs));
+            }
             return LIGHTNINGAlgorithm.create(solutionSpace, checker, config.getHeuristicSearchTimeLimit(),
                                              config.getHeuristicSearchStepLimit(SearchStepSemantics.CHECKS, numQIs));
             
@@ -654,18 +864,65 @@ public class ARXAnonymizer { // NO_UCD
         return manager;
     }
 
+    /**
+     * Returns configurations with initialized copies of the privacy models and the quality model
+     * of the given configuration, one for each thread checking transformations concurrently.
+     * Copies are created via serialization.
+     *
+     * @param manager
+     * @param definition
+     * @param config
+     * @return
+     * @throws IOException
+     */
+    private List<ARXConfigurationInternal> getWorkerConfigurations(final DataManager manager,
+                                                                   final DataDefinition definition,
+                                                                   final ARXConfiguration config) throws IOException {
+
+        // Check
+        List<ARXConfigurationInternal> result = new ArrayList<ARXConfigurationInternal>();
+        if (config.getNumThreads() <= 1) {
+            return result;
+        }
+
+        // Serialize
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(config);
+        out.close();
+
+        // Copy and initialize
+        for (int i = 0; i < config.getNumThreads(); i++) {
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+            ARXConfiguration copy;
+            try {
+                copy = (ARXConfiguration) in.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            } finally {
+                in.close();
+            }
+            copy.initialize(manager);
+            copy.getQualityModel().initialize(manager, definition, manager.getDataGeneralized(), manager.getHierarchies(), copy);
+            result.add(copy.getInternalConfiguration());
+        }
+        return result;
+    }
+
     /**
      * Reset a previous lattice and run the algorithm.
      *
      * @param manager
      * @param definition
      * @param config
+     * @param encodingTime Time spent encoding the data in nanoseconds
      * @return
      * @throws IOException
      */
     protected Result anonymize(final DataManager manager,
                                final DataDefinition definition,
-                               final ARXConfiguration config) throws IOException {
+                               final ARXConfiguration config,
+                               final long encodingTime) throws IOException {
 
         // Initialize
         config.initialize(manager);
@@ -686,7 +943,9 @@ public class ARXAnonymizer { // NO_UCD
                                                                         historySize,
                                                                         snapshotSizeDataset,
                                                                         snapshotSizeSnapshot,
-                                                                        solutionSpace);
+                                                                        historyMemoryLimit,
+                                                                        solutionSpace,
+                                                                        getWorkerConfigurations(manager, definition, config));
 
         // Create an algorithm instance
         AbstractAlgorithm algorithm = getAlgorithm(config,
@@ -704,8 +963,14 @@ public class ARXAnonymizer { // NO_UCD
         // Free resources
         checker.reset();
         
+        // Collect performance statistics
+        ARXPerformanceStatistics performance = new ARXPerformanceStatistics(checker.getStatistics(), encodingTime);
+        if (listener instanceof ARXPerformanceListener) {
+            ((ARXPerformanceListener) listener).performance(performance);
+        }
+        
         // Return the result
-        return new Result(checker, solutionSpace, manager, algorithm, time, optimumFound);
+        return new Result(checker, solutionSpace, manager, algorithm, time, optimumFound, performance);
     }
 
     /**
@@ -714,6 +979,7 @@ public class ARXAnonymizer { // NO_UCD
      */
     protected void parse(ARXAnonymizer anonymizer) {
         this.historySize = anonymizer.historySize;
+        this.historyMemoryLimit = anonymizer.historyMemoryLimit;
         this.snapshotSizeDataset = anonymizer.snapshotSizeDataset;
         this.snapshotSizeSnapshot = anonymizer.snapshotSizeSnapshot;
         this.maxQuasiIdentifiers = anonymizer.maxQuasiIdentifiers;
@@ -54,13 +54,15 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
     }
     
     /** Default value */
-    public static final boolean DEFAULT_DETERMINISTIC   = true;
+    public static final boolean DEFAULT_DETERMINISTIC     = true;
     /** Default value */
-    public static final int     DEFAULT_MAX_RECORDS     = 100000;
+    public static final int     DEFAULT_MAX_RECORDS       = 100000;
     /** Default value */
-    public static final int     DEFAULT_NUMBER_OF_FOLDS = 10;
+    public static final int     DEFAULT_NUMBER_OF_FOLDS   = 10;
     /** Default value */
-    public static final int     DEFAULT_VECTOR_LENGTH   = 1000;
+    public static final int     DEFAULT_VECTOR_LENGTH     = 1000;
+    /** Default value */
+    public static final int     DEFAULT_NUMBER_OF_THREADS = 1;
 
     /** Deterministic */
     private boolean             deterministic           = DEFAULT_DETERMINISTIC;
@@ -74,6 +76,8 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
     private int                 vectorLength            = DEFAULT_VECTOR_LENGTH;
     /** Modified */
     private boolean             modified                = false;
+    /** Threads */
+    private Integer             numberOfThreads         = DEFAULT_NUMBER_OF_THREADS;
 
     /**
      * Creates a new instance with default settings
@@ -89,13 +93,15 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
      * @param numberOfFolds
      * @param seed
      * @param vectorLength
+     * @param numberOfThreads
      */
-    protected ARXClassificationConfiguration(boolean deterministic, int maxRecords, int numberOfFolds, long seed, int vectorLength) {
+    protected ARXClassificationConfiguration(boolean deterministic, int maxRecords, int numberOfFolds, long seed, int vectorLength, int numberOfThreads) {
         this.deterministic = deterministic;
         this.maxRecords = maxRecords;
         this.numberOfFolds = numberOfFolds;
         this.seed = seed;
         this.vectorLength = vectorLength;
+        this.numberOfThreads = numberOfThreads;
     }
 
     @Override
@@ -115,6 +121,17 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
         return numberOfFolds;
     }
 
+    /**
+     * Returns the number of threads used for evaluating folds concurrently
+     * @return
+     */
+    public int getNumThreads() {
+        if (this.numberOfThreads == null) {
+            this.numberOfThreads = DEFAULT_NUMBER_OF_THREADS;
+        }
+        return numberOfThreads;
+    }
+
     /**
      * @return the seed
      */
@@ -155,6 +172,7 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
         this.setNumFolds(config.numberOfFolds);
         this.setSeed((int)config.seed);
         this.setVectorLength(config.vectorLength);
+        this.setNumThreads(config.getNumThreads());
     }
     
     /**
@@ -193,6 +211,24 @@ public abstract class ARXClassificationConfiguration<T extends ARXClassification
         this.modified = true;
     }
     
+    /**
+     * Sets the number of threads used for evaluating folds concurrently. Each fold
+     * is trained and evaluated independently, results are identical to the ones
+     * obtained with a single thread. The default is 1.
+     * @param numberOfThreads
+     */
+    @SuppressWarnings("unchecked")
+    public T setNumThreads(int numberOfThreads) {
+        if (numberOfThreads <= 0) {
+            throw new IllegalArgumentException("Must be >0");
+        }
+        if (this.getNumThreads() != numberOfThreads) {
+            setModified();
+            this.numberOfThreads = numberOfThreads;
+        }
+        return (T)this;
+    }
+    
     /**
      * @param numberOfFolds the numberOfFolds to set
      */
@@ -127,6 +127,14 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.getMonotonicityOfUtility();
         }
 
+        /**
+         * Returns the number of threads to use for checking transformations
+         * @return
+         */
+        public int getNumThreads() {
+            return config.getNumThreads();
+        }
+
         /**
          * 
          *
@@ -327,6 +335,33 @@ public class ARXConfiguration implements Serializable, Cloneable {
         EXPANSIONS
     }
 
+    /**
+     * The algorithm used for heuristic search.
+     */
+    public static enum HeuristicSearchAlgorithm {
+        
+        /** Best-first search with greedy depth-first steps, performed by a single thread */
+        LIGHTNING,
+        
+        /** Genetic search, which checks populations of transformations with all configured threads */
+        GENETIC
+    }
+
+    /**
+     * The type of storage used for data during anonymization.
+     */
+    public static enum DataStorage {
+        
+        /** Arrays on the heap */
+        HEAP,
+        
+        /** Off-heap memory, supports more than 2^31-1 cells */
+        OFF_HEAP,
+        
+        /** Bit-packed arrays on the heap, sized to the domains of the attributes */
+        PACKED
+    }
+
     /** Absolute suppression limit. */
     private int                                absMaxOutliers                        = 0;
 
@@ -381,6 +416,9 @@ public class ARXConfiguration implements Serializable, Cloneable {
     /** The heuristic algorithm will terminate after the given number of search steps */
     private Integer                            heuristicSearchStepLimit              = Integer.MAX_VALUE;
 
+    /** The algorithm used for heuristic search */
+    private HeuristicSearchAlgorithm           heuristicSearchAlgorithm              = HeuristicSearchAlgorithm.LIGHTNING;
+
     /** Cost/benefit configuration */
     private ARXCostBenefitConfiguration        costBenefitConfiguration              = ARXCostBenefitConfiguration.create();
 
@@ -393,6 +431,15 @@ public class ARXConfiguration implements Serializable, Cloneable {
     /** Semantics of heuristic search steps */
     private SearchStepSemantics                searchStepSemantics                   = SearchStepSemantics.CHECKS;
 
+    /** Number of threads to use for checking transformations */
+    private Integer                            numThreads                            = 1;
+
+    /** Number of threads to use for local recoding */
+    private Integer                            numThreadsForLocalRecoding            = 1;
+
+    /** The type of storage used for data during anonymization */
+    private DataStorage                        dataStorage                           = DataStorage.HEAP;
+
     /**
      * Creates a new configuration without tuple suppression.
      */
@@ -519,9 +566,14 @@ public class ARXConfiguration implements Serializable, Cloneable {
         result.heuristicSearchEnabled = this.heuristicSearchEnabled;
         result.heuristicSearchThreshold = this.heuristicSearchThreshold;
         result.heuristicSearchTimeLimit = this.heuristicSearchTimeLimit;
+        result.heuristicSearchStepLimit = this.heuristicSearchStepLimit;
+        result.heuristicSearchAlgorithm = this.heuristicSearchAlgorithm;
         result.costBenefitConfiguration = this.getCostBenefitConfiguration().clone();
         result.dpSearchBudget = this.dpSearchBudget;
         result.searchStepSemantics = this.searchStepSemantics;
+        result.numThreads = this.numThreads;
+        result.numThreadsForLocalRecoding = this.numThreadsForLocalRecoding;
+        result.dataStorage = this.dataStorage;
         if (this.attributeWeights != null) {
             result.attributeWeights = new HashMap<String, Double>(this.attributeWeights);
         } else {
@@ -572,6 +624,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.costBenefitConfiguration;
     }
     
+    /**
+     * Returns the type of storage used for data during anonymization.
+     * The default is <code>DataStorage.HEAP</code>.
+     * @return
+     */
+    public DataStorage getDataStorage() {
+        if (this.dataStorage == null) {
+            this.dataStorage = DataStorage.HEAP;
+        }
+        return this.dataStorage;
+    }
+
     /**
      * Returns the privacy budget to use for the data-dependent
      * differential privacy search algorithm. The default is 0.1.
@@ -584,6 +648,17 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.dpSearchBudget;
     }
     
+    /**
+     * Returns the algorithm used for heuristic search. The default is <code>HeuristicSearchAlgorithm.LIGHTNING</code>.
+     * @return
+     */
+    public HeuristicSearchAlgorithm getHeuristicSearchAlgorithm() {
+        if (this.heuristicSearchAlgorithm == null) {
+            this.heuristicSearchAlgorithm = HeuristicSearchAlgorithm.LIGHTNING;
+        }
+        return this.heuristicSearchAlgorithm;
+    }
+
     /**
      * The heuristic search algorithm will terminate after the returned number of steps.
      * The default is <code>Integer.MAX_VALUE</code>, i.e. no limit.
@@ -627,7 +702,8 @@ public class ARXConfiguration implements Serializable, Cloneable {
     
     /**
      * When the size of the solution space exceeds the returned number of transformations,
-     * ARX will use a heuristic search strategy. The default is 100.000.
+     * ARX will use a heuristic search strategy. The default is 100.000. A threshold of
+     * Integer.MAX_VALUE means that solution spaces of any size will be searched optimally.
      * @return
      */
     public int getHeuristicSearchThreshold() {
@@ -660,6 +736,30 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return relMaxOutliers;
     }
     
+    /**
+     * Returns the number of threads that will be used for checking transformations.
+     * The default is 1.
+     * @return
+     */
+    public int getNumThreads() {
+        if (this.numThreads == null) {
+            this.numThreads = 1;
+        }
+        return this.numThreads;
+    }
+
+    /**
+     * Returns the number of threads that will be used for local recoding.
+     * The default is 1.
+     * @return
+     */
+    public int getNumThreadsForLocalRecoding() {
+        if (this.numThreadsForLocalRecoding == null) {
+            this.numThreadsForLocalRecoding = 1;
+        }
+        return this.numThreadsForLocalRecoding;
+    }
+
     /**
      * Returns whether the privacy model is monotonic
      * @return
@@ -969,6 +1069,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this;
     }
     
+    /**
+     * Sets the type of storage used for data during anonymization. Off-heap storage
+     * reduces heap usage and supports datasets with more than 2^31-1 cells. Packed
+     * storage uses the minimal number of bits for the values of each quasi-identifier.
+     * The default is <code>DataStorage.HEAP</code>.
+     * @param storage
+     */
+    public void setDataStorage(DataStorage storage) {
+        if (storage == null) { throw new NullPointerException("Storage must not be null"); }
+        this.dataStorage = storage;
+    }
+
     /**
      * Sets the privacy budget to use for the data-dependent
      * differential privacy search algorithm. The default is 0.1.
@@ -979,6 +1091,17 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.dpSearchBudget = budget;
     }
 
+    /**
+     * Sets the algorithm used for heuristic search. The default is <code>HeuristicSearchAlgorithm.LIGHTNING</code>.
+     * The genetic algorithm checks transformations with the number of threads specified via
+     * {@link #setNumThreads(int)}.
+     * @param algorithm
+     */
+    public void setHeuristicSearchAlgorithm(HeuristicSearchAlgorithm algorithm) {
+        if (algorithm == null) { throw new NullPointerException("Algorithm must not be null"); }
+        this.heuristicSearchAlgorithm = algorithm;
+    }
+
     /**
      * Sets whether ARX will use a heuristic search strategy. The default is false.
      * @param heuristicSearchEnabled
@@ -1010,7 +1133,14 @@ public class ARXConfiguration implements Serializable, Cloneable {
 
     /**
      * When the size of the solution space exceeds the given number of transformations,
-     * ARX will use a heuristic search strategy. The default is 100.000.
+     * ARX will use a heuristic search strategy. The default is 100.000. A threshold of
+     * Integer.MAX_VALUE means that the size of the solution space is not limited.
+     * Note that optimal search still visits every transformation on each level of the
+     * solution space to determine whether it has been pruned, even if most transformations
+     * have been pruned. Execution times will therefore grow with the size of the solution space.
+     * Moreover, the transformations on each level are materialized. Solution spaces with more
+     * than Integer.MAX_VALUE - 8 transformations on a single level are therefore always searched
+     * heuristically, regardless of this threshold.
      * @param numberOfTransformations
      * @return
      */
@@ -1028,6 +1158,30 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.heuristicSearchTimeLimit = timeInMillis;
     }
     
+    /**
+     * Sets the number of threads that will be used for checking transformations.
+     * Results are identical to the ones obtained with a single thread.
+     * The default is 1.
+     * @param numThreads
+     */
+    public void setNumThreads(int numThreads) {
+        if (numThreads <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Sets the number of threads that will be used for local recoding. If all privacy
+     * models support it, the records to optimize are split into as many partitions,
+     * which are then recoded independently of each other and concurrently. As classes are
+     * only formed within partitions, results may differ from the ones obtained with a
+     * single thread. The default is 1.
+     * @param numThreads
+     */
+    public void setNumThreadsForLocalRecoding(int numThreads) {
+        if (numThreads <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.numThreadsForLocalRecoding = numThreads;
+    }
+
     /**
      * Allows for a certain percentage of outliers and thus
      * triggers tuple suppression.
@@ -0,0 +1,39 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx;
+
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * A listener which is additionally notified about improved transformations during the search.
+ *
+ * @author Fabian Prasser
+ */
+public interface ARXImprovementListener extends ARXListener {
+
+    /**
+     * Reports a transformation which is better than all transformations found before, as soon as
+     * it has been found by the search algorithm. The search can be terminated early by returning
+     * false. In this case, the result of the anonymization process will be based on the best
+     * transformation found so far and it will not be considered to be optimal.
+     *
+     * @param transformation The generalization levels of the transformation
+     * @param informationLoss The information loss of the transformation
+     * @return Whether the search should be continued
+     */
+    public boolean improvement(int[] transformation, InformationLoss<?> informationLoss);
+}
@@ -0,0 +1,285 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.Serializable;
+
+import org.deidentifier.arx.framework.check.TransformationCheckerStatistics;
+import org.deidentifier.arx.framework.check.TransformationCheckerStateMachine.TransitionType;
+
+/**
+ * Performance statistics about the phases of an anonymization process. All times
+ * are measured in nanoseconds. When transformations are checked in parallel,
+ * times are summed up over all threads.
+ *
+ * @author Fabian Prasser
+ */
+public class ARXPerformanceStatistics implements Serializable {
+
+    /**
+     * Types of transitions between transformations
+     *
+     * @author Fabian Prasser
+     */
+    public static enum Transition {
+
+        /** Equivalence classes of a predecessor have been merged */
+        ROLLUP,
+
+        /** Data has been transformed from a snapshot of a predecessor */
+        SNAPSHOT,
+
+        /** All records have been transformed */
+        UNOPTIMIZED
+    }
+
+    /** SVUID */
+    private static final long serialVersionUID = -1596408462916404331L;
+
+    /** Time spent encoding data */
+    private long              encodingTime;
+
+    /** Number of transitions per type */
+    private long[]            transitions      = new long[Transition.values().length];
+
+    /** Time spent transforming data per type of transition */
+    private long[]            transitionTimes  = new long[Transition.values().length];
+
+    /** Number of transformations checked */
+    private long              checks;
+
+    /** Total number of equivalence classes */
+    private long              classes;
+
+    /** Maximal number of equivalence classes */
+    private long              classesMax;
+
+    /** Time spent evaluating privacy models */
+    private long              privacyModelTime;
+
+    /** Time spent evaluating quality models */
+    private long              qualityModelTime;
+
+    /** Snapshots found in the history */
+    private long              historyHits;
+
+    /** Snapshots not found in the history */
+    private long              historyMisses;
+
+    /** Snapshots stored in the history */
+    private long              historyStores;
+
+    /** Snapshots evicted from the history */
+    private long              historyEvictions;
+
+    /**
+     * Creates an instance representing the fact that no anonymization has been performed
+     */
+    protected ARXPerformanceStatistics() {
+        // Empty by design
+    }
+
+    /**
+     * Clone constructor
+     * @param other
+     */
+    private ARXPerformanceStatistics(ARXPerformanceStatistics other) {
+        this.encodingTime = other.encodingTime;
+        this.transitions = other.transitions.clone();
+        this.transitionTimes = other.transitionTimes.clone();
+        this.checks = other.checks;
+        this.classes = other.classes;
+        this.classesMax = other.classesMax;
+        this.privacyModelTime = other.privacyModelTime;
+        this.qualityModelTime = other.qualityModelTime;
+        this.historyHits = other.historyHits;
+        this.historyMisses = other.historyMisses;
+        this.historyStores = other.historyStores;
+        this.historyEvictions = other.historyEvictions;
+    }
+
+    /**
+     * Creates a new instance
+     * @param statistics Statistics collected while checking transformations
+     * @param encodingTime Time spent encoding data
+     */
+    protected ARXPerformanceStatistics(TransformationCheckerStatistics statistics, long encodingTime) {
+        this.encodingTime = encodingTime;
+        for (Transition transition : Transition.values()) {
+            TransitionType type = TransitionType.valueOf(transition.name());
+            this.transitions[transition.ordinal()] = statistics.getTransitions(type);
+            this.transitionTimes[transition.ordinal()] = statistics.getTransitionTime(type);
+        }
+        this.checks = statistics.getChecks();
+        this.classes = statistics.getClasses();
+        this.classesMax = statistics.getClassesMax();
+        this.privacyModelTime = statistics.getPrivacyModelTime();
+        this.qualityModelTime = statistics.getQualityModelTime();
+        this.historyHits = statistics.getHistoryHits();
+        this.historyMisses = statistics.getHistoryMisses();
+        this.historyStores = statistics.getHistoryStores();
+        this.historyEvictions = statistics.getHistoryEvictions();
+    }
+
+    @Override
+    public ARXPerformanceStatistics clone() {
+        return new ARXPerformanceStatistics(this);
+    }
+
+    /**
+     * Returns the average number of equivalence classes of the transformations checked
+     * @return
+     */
+    public double getAverageNumberOfEquivalenceClasses() {
+        return checks == 0 ? 0d : (double) classes / (double) checks;
+    }
+
+    /**
+     * Returns the time spent encoding data
+     * @return
+     */
+    public long getEncodingTime() {
+        return encodingTime;
+    }
+
+    /**
+     * Returns the maximal number of equivalence classes of the transformations checked
+     * @return
+     */
+    public long getMaximalNumberOfEquivalenceClasses() {
+        return classesMax;
+    }
+
+    /**
+     * Returns the number of transformations checked
+     * @return
+     */
+    public long getNumberOfChecks() {
+        return checks;
+    }
+
+    /**
+     * Returns the number of snapshots evicted from the history, because it was full
+     * @return
+     */
+    public long getNumberOfHistoryEvictions() {
+        return historyEvictions;
+    }
+
+    /**
+     * Returns the number of lookups in the history which returned a snapshot
+     * @return
+     */
+    public long getNumberOfHistoryHits() {
+        return historyHits;
+    }
+
+    /**
+     * Returns the number of lookups in the history which did not return a snapshot
+     * @return
+     */
+    public long getNumberOfHistoryMisses() {
+        return historyMisses;
+    }
+
+    /**
+     * Returns the number of snapshots stored in the history
+     * @return
+     */
+    public long getNumberOfHistoryStores() {
+        return historyStores;
+    }
+
+    /**
+     * Returns the number of transitions of the given type
+     * @param transition
+     * @return
+     */
+    public long getNumberOfTransitions(Transition transition) {
+        return transitions[transition.ordinal()];
+    }
+
+    /**
+     * Returns the time spent evaluating privacy models
+     * @return
+     */
+    public long getPrivacyModelTime() {
+        return privacyModelTime;
+    }
+
+    /**
+     * Returns the time spent evaluating the quality model
+     * @return
+     */
+    public long getQualityModelTime() {
+        return qualityModelTime;
+    }
+
+    /**
+     * Returns the time spent transforming data with transitions of the given type
+     * @param transition
+     * @return
+     */
+    public long getTransitionTime(Transition transition) {
+        return transitionTimes[transition.ordinal()];
+    }
+
+    /**
+     * Returns new statistics that are a merger of this and the other statistics
+     * @param statistics
+     * @return
+     */
+    public ARXPerformanceStatistics merge(ARXPerformanceStatistics statistics) {
+        ARXPerformanceStatistics result = this.clone();
+        result.encodingTime += statistics.encodingTime;
+        for (int i = 0; i < transitions.length; i++) {
+            result.transitions[i] += statistics.transitions[i];
+            result.transitionTimes[i] += statistics.transitionTimes[i];
+        }
+        result.checks += statistics.checks;
+        result.classes += statistics.classes;
+        result.classesMax = Math.max(result.classesMax, statistics.classesMax);
+        result.privacyModelTime += statistics.privacyModelTime;
+        result.qualityModelTime += statistics.qualityModelTime;
+        result.historyHits += statistics.historyHits;
+        result.historyMisses += statistics.historyMisses;
+        result.historyStores += statistics.historyStores;
+        result.historyEvictions += statistics.historyEvictions;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Performance statistics {\n");
+        builder.append(" - Encoding time: ").append(encodingTime).append(" [ns]\n");
+        builder.append(" - Transformations checked: ").append(checks).append("\n");
+        for (Transition transition : Transition.values()) {
+            builder.append(" - Transitions (").append(transition).append("): ").append(getNumberOfTransitions(transition));
+            builder.append(" in ").append(getTransitionTime(transition)).append(" [ns]\n");
+        }
+        builder.append(" - Equivalence classes (avg, max): ").append(getAverageNumberOfEquivalenceClasses());
+        builder.append(", ").append(classesMax).append("\n");
+        builder.append(" - Privacy model time: ").append(privacyModelTime).append(" [ns]\n");
+        builder.append(" - Quality model time: ").append(qualityModelTime).append(" [ns]\n");
+        builder.append(" - History (hits, misses, stores, evictions): ").append(historyHits).append(", ");
+        builder.append(historyMisses).append(", ").append(historyStores).append(", ").append(historyEvictions).append("\n");
+        builder.append("}");
+        return builder.toString();
+    }
+}
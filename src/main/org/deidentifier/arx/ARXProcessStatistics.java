@@ -270,6 +270,9 @@ public class ARXProcessStatistics implements Serializable {
     /** Duration */
     private long              duration;
 
+    /** Performance statistics */
+    private ARXPerformanceStatistics performance = new ARXPerformanceStatistics();
+
     /**
      * Clone constructor
      * @param other
@@ -279,6 +282,7 @@ public class ARXProcessStatistics implements Serializable {
         this.transformationsTotal = other.transformationsTotal;
         this.duration = other.duration;
         this.initialNumberOfRecords = other.initialNumberOfRecords;
+        this.performance = other.getPerformanceStatistics().clone();
         this.steps = new ArrayList<>();
         for (Step step : other.steps) {
             this.steps.add(step.clone());
@@ -298,8 +302,13 @@ public class ARXProcessStatistics implements Serializable {
      * @param optimum
      * @param isOptimal
      * @param duration
+     * @param performance
      */
-    protected ARXProcessStatistics(ARXLattice lattice, ARXNode optimum, boolean isOptimal, long duration) {
+    protected ARXProcessStatistics(ARXLattice lattice,
+                                   ARXNode optimum,
+                                   boolean isOptimal,
+                                   long duration,
+                                   ARXPerformanceStatistics performance) {
         
         // Add step
         if (optimum != null) {
@@ -308,6 +317,7 @@ public class ARXProcessStatistics implements Serializable {
 
         // Compute statistics
         this.duration += duration;
+        this.performance = performance;
         this.transformationsTotal += lattice.getVirtualSize();        
         for (final ARXNode[] level : lattice.getLevels()) {
             for (final ARXNode node : level) {
@@ -347,6 +357,7 @@ public class ARXProcessStatistics implements Serializable {
         this.initialNumberOfRecords = initialNumberOfRecords;
         this.transformationsTotal += result.solutionSpace.getSize();
         this.duration += duration;
+        this.performance = result.performance;
         
         // Collect number of checked transformations
         for (LongIterator iterator = result.solutionSpace.getMaterializedTransformations(); iterator.hasNext();) {
@@ -378,6 +389,15 @@ public class ARXProcessStatistics implements Serializable {
         return new ARXLattice(this);
     }
     
+    /**
+     * Returns performance statistics about the phases of the process
+     * @return
+     */
+    public ARXPerformanceStatistics getPerformanceStatistics() {
+        // Statistics are not available for results of previous versions
+        return this.performance != null ? this.performance : new ARXPerformanceStatistics();
+    }
+
     /**
      * Returns the number of steps performed
      * @return
@@ -470,5 +490,6 @@ public class ARXProcessStatistics implements Serializable {
         this.transformationsTotal += stats.transformationsTotal;
         this.transformationsChecked += stats.transformationsChecked;
         this.duration += stats.duration;
+        this.performance = this.getPerformanceStatistics().merge(stats.getPerformanceStatistics());
     }
 }
\ No newline at end of file
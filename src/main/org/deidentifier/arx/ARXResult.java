@@ -19,11 +19,17 @@ package org.deidentifier.arx;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.ARXAnonymizer.Result;
 import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.common.ThreadUtil;
 import org.deidentifier.arx.criteria.PrivacyCriterion;
 import org.deidentifier.arx.exceptions.RollbackRequiredException;
 import org.deidentifier.arx.framework.check.TransformationApplicator;
@@ -46,6 +52,9 @@ import org.deidentifier.arx.metric.Metric;
  */
 public class ARXResult {
 
+    /** Minimal number of records per partition for parallel local recoding */
+    private static final int                MIN_RECORDS_PER_PARTITION = 100;
+
     /** Anonymizer */
     private ARXAnonymizer                   anonymizer;
 
@@ -149,8 +158,7 @@ public class ARXResult {
         // Initialize the metric
         metric.initialize(manager, definition, manager.getDataGeneralized(), manager.getHierarchies(), config);
 
-        this.buffer = new DataMatrix(manager.getDataGeneralized().getArray().getNumRows(), 
-                                     manager.getDataGeneralized().getArray().getNumColumns());
+        this.buffer = manager.getDataGeneralized().getArray().createEmpty(manager.getDataGeneralized().getArray().getNumRows());
         
         // Initialize the result
         this.registry = handle.getRegistry();
@@ -160,7 +168,7 @@ public class ARXResult {
         this.lattice = lattice;
         this.optimalTransformation = lattice.getOptimum();
         this.solutionSpace = solutionSpace;
-        this.statistics = statistics != null ? statistics : new ARXProcessStatistics(lattice, optimalTransformation, lattice._legacySearchedWithFlash(), time);
+        this.statistics = statistics != null ? statistics : new ARXProcessStatistics(lattice, optimalTransformation, lattice._legacySearchedWithFlash(), time, new ARXPerformanceStatistics());
         this.optimumFound = this.statistics.isSolutationAvailable() ? this.statistics.getStep(0).isOptimal() : false;
         this.duration = this.statistics.getDuration();
     }
@@ -178,6 +186,7 @@ public class ARXResult {
      * @param duration
      * @param solutionSpace
      * @param optimumFound
+     * @param performance
      */
     protected ARXResult(ARXAnonymizer anonymizer,
                         DataRegistry registry,
@@ -188,7 +197,8 @@ public class ARXResult {
                         ARXLattice lattice,
                         long duration,
                         SolutionSpace solutionSpace,
-                        boolean optimumFound) {
+                        boolean optimumFound,
+                        ARXPerformanceStatistics performance) {
 
         this.anonymizer = anonymizer;
         this.registry = registry;
@@ -201,7 +211,7 @@ public class ARXResult {
         this.duration = duration;
         this.solutionSpace = solutionSpace;
         this.optimumFound = optimumFound;
-        this.statistics = new ARXProcessStatistics(lattice, optimalTransformation, optimumFound, duration);
+        this.statistics = new ARXProcessStatistics(lattice, optimalTransformation, optimumFound, duration, performance);
     }
 
     /**
@@ -636,90 +646,68 @@ public class ARXResult {
         }
         initialRecords = baselineRecords - initialRecords;
         
-        // Everything that is used from here on, needs to be either
-        // (a) state-less, or
-        // (b) a fresh copy of the original configuration.
-
-        // We start by creating a projected instance of the configuration
-        // - All privacy models will be cloned
-        // - Subsets will be projected accordingly
-        // - Utility measures will be cloned
-        ARXConfiguration config = this.config.getInstanceForLocalRecoding(rowset, gsFactor);
-        if (!Double.isNaN(records)) {
-            double absoluteRecords = records * baselineRecords;
-            double relativeRecords = absoluteRecords / (double)rowset.size();
-            relativeRecords = relativeRecords < 0d ? 0d : relativeRecords;
-            relativeRecords = relativeRecords > 1d ? 1d : relativeRecords;
-            config.setSuppressionLimit(1d - relativeRecords);
-        }
-        
-        // In the data definition, only microaggregation functions maintain a state, but these 
-        // are cloned, when cloning the definition
-        // TODO: This is probably not necessary, because they are used from the data manager,
-        //       which in turn creates a clone by itself
-        DataDefinition definition = this.definition.clone();
-        
-        // Clone the data manager
-        DataManager manager = this.manager.getSubsetInstance(rowset);
-        
-        // Create an anonymizer
-        ARXAnonymizer anonymizer = new ARXAnonymizer();
-        if (listener != null) {
-            anonymizer.setListener(listener);
-        }
-        if (this.anonymizer != null) {
-            anonymizer.parse(this.anonymizer);
-        }
+        // Split into partitions which can be recoded independently
+        RowSet[] partitions = getPartitionsForLocalRecoding(rowset, output.getNumRows());
         
         // Anonymize
-        Result result = null;
-        try {
-            result = anonymizer.anonymize(manager, definition, config);
-        } catch (IOException e) {
-            // This should not happen at this point in time, as data has already been read from the source
-            throw new RuntimeException("Internal error: unexpected IO issue");
+        double absoluteRecords = records * baselineRecords;
+        Result[] results = new Result[partitions.length];
+        if (partitions.length == 1) {
+            results[0] = optimizeFast(rowset, absoluteRecords, gsFactor, listener);
+        } else {
+            results = optimizeFast(partitions, absoluteRecords, gsFactor, listener);
         }
         
         // Break, if no solution has been found
-        if (result.optimum == null) {
+        boolean found = false;
+        for (Result result : results) {
+            found |= result.optimum != null;
+        }
+        if (!found) {
             return new ARXProcessStatistics();
         }
         
         // Else, merge the results back into the given handle
-        TransformedData data = result.checker.getApplicator().applyTransformation(result.optimum, output.getOutputBufferMicroaggregated().getDictionary());
-        int newIndex = -1;
-        DataMatrix oldGeneralized = output.getOutputBufferGeneralized().getArray();
-        DataMatrix oldMicroaggregated = output.getOutputBufferMicroaggregated().getArray();
-        DataMatrix newGeneralized = data.bufferGeneralized.getArray();
-        DataMatrix newMicroaggregated = data.bufferMicroaggregated.getArray();
-        
         try {
             
-            int optimized = 0;
-            for (int oldIndex = 0; oldIndex < rowset.length(); oldIndex++) {
-                if (rowset.contains(oldIndex)) {
-                    newIndex++;
-                    if (oldGeneralized != null && oldGeneralized.getNumRows() != 0) {
-                        oldGeneralized.copyFrom(oldIndex, newGeneralized, newIndex);
-                        optimized += (newGeneralized.get(newIndex, 0) & Data.OUTLIER_MASK) != 0 ? 0 : 1;
-                    }
-                    if (oldMicroaggregated != null && oldMicroaggregated.getNumRows() != 0) {
-                        oldMicroaggregated.copyFrom(oldIndex, newMicroaggregated, newIndex);
-                    }
+            ARXProcessStatistics statistics = null;
+            int[] optimized = new int[partitions.length];
+            int optimizedTotal = 0;
+            for (int partition = 0; partition < partitions.length; partition++) {
+                
+                // Skip partitions without a solution
+                Result result = results[partition];
+                if (result.optimum == null) {
+                    continue;
                 }
+                
+                // Apply and merge
+                optimized[partition] = merge(output, partitions[partition], result);
+                optimizedTotal += optimized[partition];
+                
+                // Update data types
+                output.updateDataTypes(result.optimum.getGeneralization());
             }
             
-            // Update data types
-            output.updateDataTypes(result.optimum.getGeneralization());
-            
-            // Mark as optimized
-            if (optimized != 0) {
+            // Mark as optimized and discard numeric representations of the modified data
+            if (optimizedTotal != 0) {
                 output.setOptimized(true);
+                registry.invalidateNumericColumns(output);
             }
             
             // Done
             time = System.currentTimeMillis() - time;
-            return new ARXProcessStatistics(result, initialRecords, optimized, time);
+            for (int partition = 0; partition < partitions.length; partition++) {
+                Result result = results[partition];
+                if (result.optimum != null) {
+                    ARXProcessStatistics _statistics = new ARXProcessStatistics(result,
+                                                                                initialRecords,
+                                                                                optimized[partition],
+                                                                                statistics == null ? time : 0L);
+                    statistics = statistics == null ? _statistics : statistics.merge(_statistics);
+                }
+            }
+            return statistics;
             
         // If anything happens in the above block, the operation needs to be rolled back, because
         // the buffer might be in an inconsistent state
@@ -806,7 +794,9 @@ public class ARXResult {
             ARXProcessStatistics _statistics = optimize(handle, gsFactor);
             optimizedCurrent = 0;
             if (_statistics.isSolutationAvailable()) {
-                optimizedCurrent = _statistics.getStep(0).getNumberOfRecordsTransformed();
+                for (ARXProcessStatistics.Step step : _statistics.getSteps()) {
+                    optimizedCurrent += step.getNumberOfRecordsTransformed();
+                }
                 statistics = statistics.merge(_statistics);
             }
             optimizedTotal += optimizedCurrent;
@@ -919,7 +909,9 @@ public class ARXResult {
             });
             optimizedCurrent = 0;
             if (_statistics.isSolutationAvailable()) {
-                optimizedCurrent = _statistics.getStep(0).getNumberOfRecordsTransformed();
+                for (ARXProcessStatistics.Step step : _statistics.getSteps()) {
+                    optimizedCurrent += step.getNumberOfRecordsTransformed();
+                }
                 statistics = statistics.merge(_statistics);
             }
             optimizedTotal += optimizedCurrent;
@@ -935,6 +927,212 @@ public class ARXResult {
         return statistics;
     }
     
+    /**
+     * Splits the given records into partitions which are recoded independently of each other.
+     * This is only done if requested and if all privacy models support it. Records are
+     * assigned round-robin, so that each partition is a sample of all records.
+     * @param rowset
+     * @param numRows
+     * @return
+     */
+    private RowSet[] getPartitionsForLocalRecoding(RowSet rowset, int numRows) {
+        
+        // Check if partitioning is supported
+        boolean supported = config.getNumThreadsForLocalRecoding() > 1;
+        for (PrivacyCriterion c : config.getPrivacyModels()) {
+            supported &= c.isLocalRecodingPartitioningSupported();
+        }
+        
+        // Determine number of partitions
+        int minSize = MIN_RECORDS_PER_PARTITION;
+        if (config.getMinimalGroupSize() != Integer.MAX_VALUE) {
+            minSize = Math.max(minSize, config.getMinimalGroupSize());
+        }
+        int numPartitions = !supported ? 1 : Math.min(config.getNumThreadsForLocalRecoding(), rowset.size() / minSize);
+        if (numPartitions <= 1) {
+            return new RowSet[] { rowset };
+        }
+        
+        // Create partitions
+        RowSet[] partitions = new RowSet[numPartitions];
+        for (int i = 0; i < numPartitions; i++) {
+            partitions[i] = RowSet.create(numRows);
+        }
+        int index = 0;
+        for (int row = 0; row < rowset.length(); row++) {
+            if (rowset.contains(row)) {
+                partitions[index++ % numPartitions].add(row);
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Merges the result of recoding the given records back into the given handle
+     * @param output
+     * @param rowset
+     * @param result
+     * @return The number of records that are not suppressed anymore
+     */
+    private int merge(DataHandleOutput output, RowSet rowset, Result result) {
+        
+        // Apply
+        TransformedData data = result.checker.getApplicator().applyTransformation(result.optimum, output.getOutputBufferMicroaggregated().getDictionary());
+        int newIndex = -1;
+        DataMatrix oldGeneralized = output.getOutputBufferGeneralized().getArray();
+        DataMatrix oldMicroaggregated = output.getOutputBufferMicroaggregated().getArray();
+        DataMatrix newGeneralized = data.bufferGeneralized.getArray();
+        DataMatrix newMicroaggregated = data.bufferMicroaggregated.getArray();
+        
+        // Merge
+        int optimized = 0;
+        for (int oldIndex = 0; oldIndex < rowset.length(); oldIndex++) {
+            if (rowset.contains(oldIndex)) {
+                newIndex++;
+                if (oldGeneralized != null && oldGeneralized.getNumRows() != 0) {
+                    oldGeneralized.copyFrom(oldIndex, newGeneralized, newIndex);
+                    optimized += (newGeneralized.get(newIndex, 0) & Data.OUTLIER_MASK) != 0 ? 0 : 1;
+                }
+                if (oldMicroaggregated != null && oldMicroaggregated.getNumRows() != 0) {
+                    oldMicroaggregated.copyFrom(oldIndex, newMicroaggregated, newIndex);
+                }
+            }
+        }
+        return optimized;
+    }
+
+    /**
+     * Recodes the given records
+     * @param rowset
+     * @param absoluteRecords The number of records to optimize, NaN if not specified
+     * @param gsFactor
+     * @param listener
+     * @return
+     */
+    private Result optimizeFast(RowSet rowset,
+                                double absoluteRecords,
+                                double gsFactor,
+                                ARXListener listener) {
+        
+        // Everything that is used from here on, needs to be either
+        // (a) state-less, or
+        // (b) a fresh copy of the original configuration.
+
+        // We start by creating a projected instance of the configuration
+        // - All privacy models will be cloned
+        // - Subsets will be projected accordingly
+        // - Utility measures will be cloned
+        ARXConfiguration config = this.config.getInstanceForLocalRecoding(rowset, gsFactor);
+        if (!Double.isNaN(absoluteRecords)) {
+            double relativeRecords = absoluteRecords / (double)rowset.size();
+            relativeRecords = relativeRecords < 0d ? 0d : relativeRecords;
+            relativeRecords = relativeRecords > 1d ? 1d : relativeRecords;
+            config.setSuppressionLimit(1d - relativeRecords);
+        }
+        
+        // In the data definition, only microaggregation functions maintain a state, but these 
+        // are cloned, when cloning the definition
+        // TODO: This is probably not necessary, because they are used from the data manager,
+        //       which in turn creates a clone by itself
+        DataDefinition definition = this.definition.clone();
+        
+        // Clone the data manager
+        long encodingTime = System.nanoTime();
+        DataManager manager = this.manager.getSubsetInstance(rowset);
+        encodingTime = System.nanoTime() - encodingTime;
+        
+        // Create an anonymizer
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        if (listener != null) {
+            anonymizer.setListener(listener);
+        }
+        if (this.anonymizer != null) {
+            anonymizer.parse(this.anonymizer);
+        }
+        
+        // Anonymize
+        try {
+            return anonymizer.anonymize(manager, definition, config, encodingTime);
+        } catch (IOException e) {
+            // This should not happen at this point in time, as data has already been read from the source
+            throw new RuntimeException("Internal error: unexpected IO issue");
+        }
+    }
+
+    /**
+     * Recodes the given partitions of records concurrently. Each partition
+     * optimizes a share of the records which is proportional to its size.
+     * @param partitions
+     * @param absoluteRecords The number of records to optimize, NaN if not specified
+     * @param gsFactor
+     * @param listener
+     * @return
+     */
+    private Result[] optimizeFast(final RowSet[] partitions,
+                                  final double absoluteRecords,
+                                  final double gsFactor,
+                                  final ARXListener listener) {
+        
+        // Progress is averaged over all partitions
+        final double[] progress = new double[partitions.length];
+
+        // Total number of records
+        int totalRecords = 0;
+        for (RowSet partition : partitions) {
+            totalRecords += partition.size();
+        }
+        
+        // Prepare
+        ExecutorService executor = ThreadUtil.createThreadPool(partitions.length, "ARX local recoding");
+        
+        try {
+            
+            // Submit
+            List<Future<Result>> futures = new ArrayList<Future<Result>>();
+            for (int i = 0; i < partitions.length; i++) {
+                final int partition = i;
+                final double partitionRecords = absoluteRecords * partitions[i].size() / (double) totalRecords;
+                final ARXListener _listener = new ARXPerformanceListener() {
+                    @Override
+                    public void performance(ARXPerformanceStatistics statistics) {
+                        if (listener instanceof ARXPerformanceListener) {
+                            synchronized (progress) {
+                                ((ARXPerformanceListener) listener).performance(statistics);
+                            }
+                        }
+                    }
+                    @Override
+                    public void progress(double value) {
+                        synchronized (progress) {
+                            progress[partition] = value;
+                            double total = 0d;
+                            for (double _progress : progress) {
+                                total += _progress;
+                            }
+                            listener.progress(total / (double) progress.length);
+                        }
+                    }
+                };
+                futures.add(executor.submit(new Callable<Result>() {
+                    @Override
+                    public Result call() throws Exception {
+                        return optimizeFast(partitions[partition], partitionRecords, gsFactor, _listener);
+                    }
+                }));
+            }
+            
+            // Collect
+            Result[] results = new Result[partitions.length];
+            for (int i = 0; i < partitions.length; i++) {
+                results[i] = ThreadUtil.get(futures.get(i), "Interrupted while recoding partitions");
+            }
+            return results;
+            
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
     /**
      * Returns a map of all microaggregation functions
      * @param definition
@@ -26,6 +26,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.io.BinaryDataInput;
+import org.deidentifier.arx.io.CSVDataEncoder;
 import org.deidentifier.arx.io.CSVDataInput;
 import org.deidentifier.arx.io.CSVOptions;
 import org.deidentifier.arx.io.CSVSyntax;
@@ -117,6 +120,89 @@ public abstract class Data { // NO_UCD
 
     }
 
+    /**
+     * A data object which has already been encoded.
+     *
+     * @author Fabian Prasser
+     */
+    static class EncodedData extends Data {
+
+        /** Header */
+        private final String[]   header;
+
+        /** Distinct values of each column, ordered by code */
+        private final String[][] values;
+
+        /** Codes */
+        private final DataMatrix matrix;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param header the header
+         * @param values the distinct values of each column, ordered by code
+         * @param matrix the codes
+         */
+        private EncodedData(final String[] header, final String[][] values, final DataMatrix matrix) {
+            this.header = header;
+            this.values = values;
+            this.matrix = matrix;
+        }
+
+        @Override
+        protected Integer getLength() {
+            return matrix.getNumRows();
+        }
+
+        @Override
+        protected Iterator<String[]> iterator() {
+            return new Iterator<String[]>() {
+
+                /** Current row, -1 for the header */
+                private int row = header == null ? matrix.getNumRows() : -1;
+
+                @Override
+                public boolean hasNext() {
+                    return row < matrix.getNumRows();
+                }
+
+                @Override
+                public String[] next() throws NoSuchElementException {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    String[] result = new String[header.length];
+                    for (int column = 0; column < result.length; column++) {
+                        result[column] = row == -1 ? header[column] : values[column][matrix.get(row, column)];
+                    }
+                    row++;
+                    return result;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("Remove is not supported");
+                }
+            };
+        }
+
+        /**
+         * Returns the codes
+         * @return
+         */
+        DataMatrix getMatrix() {
+            return matrix;
+        }
+
+        /**
+         * Returns the distinct values of each column, ordered by code
+         * @return
+         */
+        String[][] getValues() {
+            return values;
+        }
+    }
+
     /**
      * A data object for iterators.
      *
@@ -554,12 +640,57 @@ public abstract class Data { // NO_UCD
         return new ArrayData(array);
     }
 
+    /**
+     * Creates a new data object from a CSV file, which is parsed and encoded in one pass. Strings are only
+     * created once for each distinct value and no intermediate rows are materialized. The file is read
+     * immediately.
+     *
+     * @param file A file
+     * @param delimiter The utilized separator character
+     * @return A Data object
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static Data createEncoded(final File file, final Charset charset, final char delimiter) throws IOException {
+        return createEncoded(file, charset, new CSVSyntax(delimiter));
+    }
+
+    /**
+     * Creates a new data object from a CSV file, which is parsed and encoded in one pass. Strings are only
+     * created once for each distinct value and no intermediate rows are materialized. The file is read
+     * immediately.
+     *
+     * @param file the file
+     * @param config the config
+     * @return the data
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static Data createEncoded(final File file, final Charset charset, final CSVSyntax config) throws IOException {
+        CSVDataEncoder encoder = new CSVDataEncoder(file, charset, config);
+        encoder.encode();
+        return new EncodedData(encoder.getHeader(), encoder.getValues(), encoder.getData());
+    }
+
+    /**
+     * Creates a new data object from a file in the binary columnar format written by
+     * <code>BinaryDataOutput</code>. The file is read immediately.
+     *
+     * @param input the input
+     * @return the data
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static Data create(final BinaryDataInput input) throws IOException {
+        return new EncodedData(input.getHeader(), input.getValues(), input.getData());
+    }
+
     /** The data handle. */
     private DataHandleInput handle;
 
     /** The data definition. */
     private DataDefinition  definition = new DataDefinition();
 
+    /** The number of threads used for encoding the data. */
+    private int             numThreads = 1;
+
     /**
      * Returns the data definition.
      *
@@ -583,6 +714,27 @@ public abstract class Data { // NO_UCD
         return handle;
     }
 
+    /**
+     * Returns the number of threads that will be used for encoding the data when
+     * the handle is created. The default is 1.
+     * @return
+     */
+    public int getNumThreadsForEncoding() {
+        return numThreads;
+    }
+
+    /**
+     * Sets the number of threads that will be used for encoding the data when
+     * the handle is created. Rows are read sequentially and encoded in batches
+     * concurrently. The resulting encoding is identical to the one obtained with
+     * a single thread. The default is 1.
+     * @param numThreads
+     */
+    public void setNumThreadsForEncoding(int numThreads) {
+        if (numThreads <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.numThreads = numThreads;
+    }
+
     /**
      * Override to return a length to improve loading
      * @return
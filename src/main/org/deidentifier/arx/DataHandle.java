@@ -42,6 +42,7 @@ import org.deidentifier.arx.DataType.ARXDate;
 import org.deidentifier.arx.DataType.ARXDecimal;
 import org.deidentifier.arx.DataType.ARXInteger;
 import org.deidentifier.arx.DataType.DataTypeDescription;
+import org.deidentifier.arx.DataType.DataTypeWithRatioScale;
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
 import org.deidentifier.arx.certificate.elements.ElementData;
 import org.deidentifier.arx.io.CSVDataOutput;
@@ -87,6 +88,9 @@ public abstract class DataHandle {
 
     /** The current research subset. */
     protected DataHandle                   subset           = null;
+
+    /** Cached numeric representations of columns, indexed by column and suppression handling */
+    private volatile DataHandleNumericColumn[] numericColumns = null;
     
     /**
      * Returns the name of the specified column.
@@ -928,6 +932,47 @@ public abstract class DataHandle {
      */
     protected abstract String[] getDistinctValues(int column, boolean ignoreSuppression, InterruptHandler handler);
 
+    /**
+     * Returns a numeric representation of the given column, which is cached until the data
+     * or the data type of the column changes. Returns null if the column's data type does not
+     * have a ratio scale.
+     *
+     * @param column
+     * @param ignoreSuppression
+     * @return
+     */
+    protected DataHandleNumericColumn getNumericColumn(int column, boolean ignoreSuppression) {
+
+        // Check type
+        checkRegistry();
+        checkColumn(column);
+        DataType<?> type = getDataType(getAttributeName(column));
+        if (!(type instanceof DataTypeWithRatioScale)) {
+            return null;
+        }
+
+        // Lookup without locking, instances are immutable
+        int index = column * 2 + (ignoreSuppression ? 1 : 0);
+        DataHandleNumericColumn[] columns = numericColumns;
+        DataHandleNumericColumn result = columns != null ? columns[index] : null;
+        if (result != null && result.isCompatible(type, ignoreSuppression)) {
+            return result;
+        }
+
+        // Build, if required
+        synchronized (this) {
+            if (numericColumns == null) {
+                numericColumns = new DataHandleNumericColumn[getNumColumns() * 2];
+            }
+            result = numericColumns[index];
+            if (result == null || !result.isCompatible(type, ignoreSuppression)) {
+                result = new DataHandleNumericColumn(this, column, type, ignoreSuppression);
+                numericColumns[index] = result;
+            }
+            return result;
+        }
+    }
+
     /**
      * Returns the registry associated with this handle.
      *
@@ -1007,6 +1052,13 @@ public abstract class DataHandle {
      */
     protected abstract boolean internalReplace(int column, String original, String replacement);
 
+    /**
+     * Discards all cached numeric representations of columns
+     */
+    protected synchronized void invalidateNumericColumns() {
+        numericColumns = null;
+    }
+
     /**
      * Returns whether the data represented by this handle is anonymous
      * @return
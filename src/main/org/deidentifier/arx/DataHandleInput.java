@@ -17,13 +17,19 @@
 
 package org.deidentifier.arx;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.deidentifier.arx.DataHandleInternal.InterruptHandler;
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
+import org.deidentifier.arx.common.ThreadUtil;
 import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.Dictionary;
 
@@ -35,6 +41,56 @@ import org.deidentifier.arx.framework.data.Dictionary;
  */
 public class DataHandleInput extends DataHandle {
 
+    /**
+     * A batch of rows which is encoded with a local dictionary
+     * 
+     * @author Fabian Prasser
+     */
+    private static class Batch implements Callable<Batch> {
+
+        /** Rows */
+        private String[][] rows;
+        /** Number of rows */
+        private int        size;
+        /** Number of columns */
+        private final int  columns;
+        /** Codes of all rows, consecutively */
+        private int[]      codes;
+        /** Local dictionary */
+        private Dictionary dictionary;
+
+        /**
+         * Creates a new instance
+         * @param capacity
+         * @param columns
+         */
+        private Batch(int capacity, int columns) {
+            this.rows = new String[capacity][];
+            this.columns = columns;
+        }
+
+        @Override
+        public Batch call() {
+            this.dictionary = new Dictionary(columns);
+            this.codes = new int[size * columns];
+            int index = 0;
+            for (int row = 0; row < size; row++) {
+                String[] strings = rows[row];
+                for (int i = 0; i < columns; i++) {
+                    String value = (i < strings.length) ? strings[i] : DataType.NULL_VALUE;
+                    value = (value != null) ? value : DataType.NULL_VALUE;
+                    codes[index++] = dictionary.register(i, value);
+                }
+            }
+            this.dictionary.finalizeAll();
+            this.rows = null;
+            return this;
+        }
+    }
+
+    /** Number of rows per batch when encoding with multiple threads. */
+    private static final int BATCH_SIZE = 10000;
+
     /** The data. */
     protected DataMatrix data            = null;
 
@@ -75,14 +131,32 @@ public class DataHandleInput extends DataHandle {
         // Init dictionary
         this.dictionary = new Dictionary(header.length);
         
+        // Data has already been encoded
+        if (data instanceof Data.EncodedData) {
+            
+            // Register values in the order of their codes
+            String[][] values = ((Data.EncodedData) data).getValues();
+            for (int i = 0; i < header.length; i++) {
+                for (String value : values[i]) {
+                    dictionary.register(i, value);
+                }
+            }
+            this.data = ((Data.EncodedData) data).getMatrix();
+            
+        // Parallel code-path
+        } else if (data.getNumThreadsForEncoding() > 1) {
+            
+            // Encode data with multiple threads
+            encode(iterator, data.getLength(), data.getNumThreadsForEncoding());
+            
         // Optimized code-path, if the number of records is known
-        if (data.getLength() != null && data.getLength() > 0) {
+        } else if (data.getLength() != null && data.getLength() > 0) {
             
             // Records
             int records = data.getLength();
 
             // Build array
-            this.data = new DataMatrix(records, header.length);
+            this.data = DataMatrix.create(records, header.length, false);
             
             // Encode data on the fly
             int row = 0;
@@ -123,7 +197,7 @@ public class DataHandleInput extends DataHandle {
             }
     
             // Build array
-            this.data = new DataMatrix(vals.size(), header.length);
+            this.data = DataMatrix.create(vals.size(), header.length, false);
             for (int row = 0; row < vals.size(); row++) {
                 this.data.setRow(row, vals.get(row));
             }
@@ -136,6 +210,133 @@ public class DataHandleInput extends DataHandle {
         this.columnToDataType = getColumnToDataType();
     }
 
+    /**
+     * Encodes the data with the given number of threads. Batches of rows are encoded concurrently
+     * with local dictionaries, which are merged into the global dictionary in the order of the
+     * batches. Codes are therefore identical to the ones assigned when encoding sequentially.
+     *
+     * @param iterator
+     * @param length
+     * @param numThreads
+     */
+    private void encode(Iterator<String[]> iterator, Integer length, int numThreads) {
+        
+        // Prepare
+        final int columns = header.length;
+        final boolean known = length != null && length > 0;
+        if (known) {
+            this.data = DataMatrix.create(length, columns, false);
+        }
+        ExecutorService executor = ThreadUtil.createThreadPool(numThreads, "ARX encoder");
+        
+        try {
+            
+            // Read and submit batches, merging the oldest batch when too many are pending
+            Deque<Future<Batch>> pending = new ArrayDeque<Future<Batch>>();
+            List<Batch> batches = new ArrayList<Batch>();
+            int[] tuple = new int[columns];
+            int rows = 0;
+            int row = 0;
+            while (iterator.hasNext()) {
+                
+                // Fill batch
+                Batch batch = new Batch(BATCH_SIZE, columns);
+                while (batch.size < BATCH_SIZE && iterator.hasNext()) {
+                    
+                    // Check
+                    if (known && rows == length) {
+                        throw new IllegalArgumentException("Number of records exceeds estimate"); 
+                    }
+                    batch.rows[batch.size++] = iterator.next();
+                    rows++;
+                }
+                
+                // Submit
+                pending.add(executor.submit(batch));
+                if (pending.size() >= numThreads * 2) {
+                    Batch merged = merge(ThreadUtil.get(pending.poll(), "Interrupted while encoding data"));
+                    if (known) {
+                        row = copy(merged, row, tuple);
+                    } else {
+                        batches.add(merged);
+                    }
+                }
+            }
+            
+            // Merge remaining batches
+            while (!pending.isEmpty()) {
+                Batch batch = merge(ThreadUtil.get(pending.poll(), "Interrupted while encoding data"));
+                if (known) {
+                    row = copy(batch, row, tuple);
+                } else {
+                    batches.add(batch);
+                }
+            }
+            
+            // Build array
+            if (!known) {
+                this.data = DataMatrix.create(rows, columns, false);
+                for (Batch batch : batches) {
+                    row = copy(batch, row, tuple);
+                }
+            }
+            
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Merges the dictionary of the given batch into the global dictionary and
+     * translates its codes accordingly.
+     * 
+     * @param batch
+     * @return
+     */
+    private Batch merge(Batch batch) {
+        
+        // Merge dictionaries
+        String[][] mapping = batch.dictionary.getMapping();
+        int[][] codes = new int[mapping.length][];
+        for (int column = 0; column < mapping.length; column++) {
+            codes[column] = new int[mapping[column].length];
+            for (int code = 0; code < mapping[column].length; code++) {
+                codes[column][code] = dictionary.register(column, mapping[column][code]);
+            }
+        }
+        batch.dictionary = null;
+        
+        // Translate
+        int index = 0;
+        for (int row = 0; row < batch.size; row++) {
+            for (int column = 0; column < batch.columns; column++) {
+                batch.codes[index] = codes[column][batch.codes[index]];
+                index++;
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Copies the codes of the given batch into the matrix, starting at the given row.
+     * Returns the next row.
+     * 
+     * @param batch
+     * @param row
+     * @param tuple
+     * @return
+     */
+    private int copy(Batch batch, int row, int[] tuple) {
+        int index = 0;
+        for (int i = 0; i < batch.size; i++) {
+            System.arraycopy(batch.codes, index, tuple, 0, batch.columns);
+            this.data.setRow(row++, tuple);
+            index += batch.columns;
+        }
+        batch.codes = null;
+        return row;
+    }
+
     @Override
     public String getAttributeName(final int column) {
         checkRegistry();
@@ -183,6 +183,16 @@ public class DataHandleInternal {
         return handle.getNumColumns();
     }
 
+    /**
+     * Returns a cached numeric representation of the given column, null if its data type does not have a ratio scale
+     * @param column
+     * @param ignoreSuppression
+     * @return
+     */
+    public DataHandleNumericColumn getNumericColumn(int column, boolean ignoreSuppression) {
+        return handle.getNumericColumn(column, ignoreSuppression);
+    }
+
     /**
      * Method
      * @return
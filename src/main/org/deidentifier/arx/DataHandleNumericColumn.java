@@ -0,0 +1,148 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.util.Arrays;
+
+import org.deidentifier.arx.DataType.DataTypeWithRatioScale;
+
+/**
+ * Numeric representation of a column with a data type with ratio scale. Values are
+ * parsed once per distinct value and stored by their dictionary code. Instances are
+ * immutable and can thus be accessed concurrently. They are cached by the data handle
+ * and discarded when its data or the data type of the column changes.
+ *
+ * @author Fabian Prasser
+ */
+public class DataHandleNumericColumn {
+
+    /** Handle */
+    private final DataHandle  handle;
+
+    /** Column */
+    private final int         column;
+
+    /** Data type */
+    private final DataType<?> type;
+
+    /** Whether suppression is ignored */
+    private final boolean     ignoreSuppression;
+
+    /** Numbers indexed by code, NaN for null values, values that could not be parsed and codes not present */
+    private final double[]    numbers;
+
+    /** Whether all values could be parsed */
+    private final boolean     valid;
+
+    /**
+     * Creates a new instance
+     *
+     * @param handle
+     * @param column
+     * @param type
+     * @param ignoreSuppression
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    DataHandleNumericColumn(DataHandle handle, int column, DataType<?> type, boolean ignoreSuppression) {
+
+        // Store
+        this.handle = handle;
+        this.column = column;
+        this.type = type;
+        this.ignoreSuppression = ignoreSuppression;
+
+        // Prepare, the data type is cloned as parsing is not thread-safe
+        DataTypeWithRatioScale rType = (DataTypeWithRatioScale) type.clone();
+        double[] numbers = new double[16];
+        boolean[] parsed = new boolean[16];
+        Arrays.fill(numbers, Double.NaN);
+        boolean valid = true;
+
+        // Parse each distinct value once
+        for (int row = 0; row < handle.getNumRows(); row++) {
+            int code = handle.internalGetEncodedValue(row, column, ignoreSuppression);
+            if (code < 0) {
+                continue;
+            }
+            if (code >= parsed.length) {
+                int length = Math.max(code + 1, parsed.length * 2);
+                numbers = Arrays.copyOf(numbers, length);
+                Arrays.fill(numbers, parsed.length, length, Double.NaN);
+                parsed = Arrays.copyOf(parsed, length);
+            }
+            if (!parsed[code]) {
+                parsed[code] = true;
+                String value = handle.internalGetValue(row, column, ignoreSuppression);
+                try {
+                    Double number = value == null ? null : rType.toDouble(rType.parse(value));
+                    numbers[code] = number != null ? number : Double.NaN;
+                } catch (Exception e) {
+                    numbers[code] = Double.NaN;
+                    valid = false;
+                }
+            }
+        }
+
+        // Store
+        this.numbers = numbers;
+        this.valid = valid;
+    }
+
+    /**
+     * Returns the numeric representation of the given row. Returns NaN for suppressed
+     * values, null values, values that could not be parsed and values that have not been
+     * present when this column was created.
+     *
+     * @param row
+     * @return
+     */
+    public double getDouble(int row) {
+        int code = handle.internalGetEncodedValue(row, column, ignoreSuppression);
+        return code < 0 || code >= numbers.length ? Double.NaN : numbers[code];
+    }
+
+    /**
+     * Returns the data type which has been used for parsing
+     *
+     * @return
+     */
+    public DataType<?> getDataType() {
+        return type;
+    }
+
+    /**
+     * Returns whether all values in this column could be parsed. Null values and suppressed
+     * values are considered to be valid.
+     *
+     * @return
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Returns whether this column has been parsed with the given settings
+     *
+     * @param type
+     * @param ignoreSuppression
+     * @return
+     */
+    boolean isCompatible(DataType<?> type, boolean ignoreSuppression) {
+        return this.type.equals(type) && this.ignoreSuppression == ignoreSuppression;
+    }
+}
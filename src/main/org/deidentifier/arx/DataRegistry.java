@@ -67,6 +67,9 @@ class DataRegistry {
         if (!output.isEmpty()) {
             replaced |= output.values().iterator().next().internalReplace(column, original, replacement);
         }
+        if (replaced) {
+            invalidateNumericColumns();
+        }
         return replaced;
     }
     
@@ -98,6 +101,22 @@ class DataRegistry {
         }
         return subset;
     }
+
+    /**
+     * Discards cached numeric representations of all registered handles
+     */
+    private void invalidateNumericColumns() {
+        input.invalidateNumericColumns();
+        if (inputSubset != null) {
+            inputSubset.invalidateNumericColumns();
+        }
+        for (DataHandle handle : output.values()) {
+            handle.invalidateNumericColumns();
+        }
+        for (DataHandle handle : outputSubset.values()) {
+            handle.invalidateNumericColumns();
+        }
+    }
     
     /**
      * Sort.
@@ -271,6 +290,21 @@ class DataRegistry {
     protected DataHandle getOutputHandle(ARXNode node) {
         return this.output.get(node);
     }
+
+    /**
+     * Discards cached numeric representations of the given output handle and of its subset,
+     * e.g. after its data has been modified by local recoding.
+     *
+     * @param handle
+     */
+    protected void invalidateNumericColumns(DataHandleOutput handle) {
+        handle.invalidateNumericColumns();
+        for (Entry<ARXNode, DataHandleOutput> entry : output.entrySet()) {
+            if (entry.getValue().equals(handle) && outputSubset.containsKey(entry.getKey())) {
+                outputSubset.get(entry.getKey()).invalidateNumericColumns();
+            }
+        }
+    }
     
     /**
      * Implementation of {@link DataHandle#isOutlier(row)}.
@@ -311,6 +345,7 @@ class DataRegistry {
             if (entry.getValue().equals(handle)) {
                 outputSubset.remove(entry.getKey());
                 iter.remove();
+                handle.invalidateNumericColumns();
                 handle.doRelease();
                 return;
             }
@@ -319,6 +354,7 @@ class DataRegistry {
         // Handle input
         if (handle.equals(input)) {
             this.reset();
+            input.invalidateNumericColumns();
             input.doRelease();
         }
     }
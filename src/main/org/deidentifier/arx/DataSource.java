@@ -332,6 +332,47 @@ public class DataSource { // NO_UCD
         }
     }
     
+    /**
+     * Sets the number of rows fetched per round trip from a JDBC source, 0 for the driver's default.
+     *
+     * @param fetchSize
+     */
+    public void setFetchSize(int fetchSize) {
+        if (!(config instanceof ImportConfigurationJDBC)) {
+            throw new IllegalStateException("Only supported by JDBC sources");
+        }
+        ((ImportConfigurationJDBC) config).setFetchSize(fetchSize);
+    }
+
+    /**
+     * Reads data from a JDBC source in parallel by splitting the value range of the given integral
+     * column into key ranges, which are read via separate connections. Rows are imported in
+     * ascending order of key ranges, followed by rows with a null key, so that the order is
+     * the same for each import.
+     *
+     * @param column
+     * @param numThreads
+     */
+    public void setPartitioning(String column, int numThreads) {
+        if (!(config instanceof ImportConfigurationJDBC)) {
+            throw new IllegalStateException("Only supported by JDBC sources");
+        }
+        ((ImportConfigurationJDBC) config).setPartitioning(column, numThreads);
+    }
+
+    /**
+     * Sets whether an XLSX source is parsed incrementally with bounded memory instead of
+     * being loaded into an object model.
+     *
+     * @param streaming
+     */
+    public void setStreaming(boolean streaming) {
+        if (!(config instanceof ImportConfigurationExcel)) {
+            throw new IllegalStateException("Only supported by Excel sources");
+        }
+        ((ImportConfigurationExcel) config).setStreaming(streaming);
+    }
+
     /**
      * Returns the configuration.
      *
@@ -68,6 +68,7 @@ public class ClassificationConfigurationNaiveBayes extends ARXClassificationConf
      * @param numberOfFolds
      * @param seed
      * @param vectorLength
+     * @param numberOfThreads
      * @param type
      * @param sigma
      */
@@ -76,9 +77,10 @@ public class ClassificationConfigurationNaiveBayes extends ARXClassificationConf
                                                     int numberOfFolds,
                                                     long seed,
                                                     int vectorLength,
+                                                    int numberOfThreads,
                                                     Type type,
                                                     double sigma) {
-        super(deterministic, maxRecords, numberOfFolds, seed, vectorLength);
+        super(deterministic, maxRecords, numberOfFolds, seed, vectorLength, numberOfThreads);
         this.type = type;
         this.sigma = sigma;
     }
@@ -90,6 +92,7 @@ public class ClassificationConfigurationNaiveBayes extends ARXClassificationConf
                                                          super.getNumFolds(),
                                                          super.getSeed(),
                                                          super.getVectorLength(),
+                                                         super.getNumThreads(),
                                                          type,
                                                          sigma);
     }
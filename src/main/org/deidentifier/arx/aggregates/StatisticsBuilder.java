@@ -36,6 +36,7 @@ import org.deidentifier.arx.ARXFeatureScaling;
 import org.deidentifier.arx.DataHandle;
 import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.DataHandleInternal.InterruptHandler;
+import org.deidentifier.arx.DataHandleNumericColumn;
 import org.deidentifier.arx.DataScale;
 import org.deidentifier.arx.DataType;
 import org.deidentifier.arx.DataType.ARXString;
@@ -791,7 +792,8 @@ public class StatisticsBuilder {
         }
 
         // Build and return
-        return new StatisticsQuality(input.getHandle(), output, config, interrupt, progress, qis);
+        DataHandleInternal outputHandle = output == this.handle.getHandle() ? this.handle : output.getStatistics().handle;
+        return new StatisticsQuality(input, outputHandle, config, interrupt, progress, qis);
     }
 
     /**
@@ -821,6 +823,7 @@ public class StatisticsBuilder {
         Map<String, StatisticsSummaryOrdinal> ordinal = new HashMap<String, StatisticsSummaryOrdinal>();
         Map<String, DataScale> scales = new HashMap<String, DataScale>();
         Map<String, GeometricMean> geomean = new HashMap<String, GeometricMean>();
+        DataHandleNumericColumn[] numbers = new DataHandleNumericColumn[handle.getNumColumns()];
         
         // Detect scales
         for (int col = 0; col < handle.getNumColumns(); col++) {
@@ -842,6 +845,7 @@ public class StatisticsBuilder {
             
             // Store
             scales.put(attribute, scale);
+            numbers[col] = handle.getNumericColumn(col, false);
             statistics.put(attribute, new DescriptiveStatistics());
             geomean.put(attribute, new GeometricMean());
             ordinal.put(attribute, getSummaryStatisticsOrdinal(handle.getGeneralization(attribute),
@@ -882,7 +886,10 @@ public class StatisticsBuilder {
                     if (!DataType.isAny(value) && !DataType.isNull(value)) {
                         ordinal.get(attribute).addValue(value);
                         if (type instanceof DataTypeWithRatioScale) {
-                            double doubleValue = ((DataTypeWithRatioScale) type).toDouble(type.parse(value));
+                            double doubleValue = numbers[col].getDouble(row);
+                            if (Double.isNaN(doubleValue)) {
+                                doubleValue = ((DataTypeWithRatioScale) type).toDouble(type.parse(value));
+                            }
                             statistics.get(attribute).addValue(doubleValue);
                             geomean.get(attribute).increment(doubleValue + 1d);
                         }
@@ -1335,4 +1342,4 @@ public class StatisticsBuilder {
     void interrupt() {
         this.interrupt.value = true;
     }
-}
+}
@@ -24,6 +24,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.deidentifier.arx.ARXClassificationConfiguration;
 import org.deidentifier.arx.ARXFeatureScaling;
@@ -35,6 +39,7 @@ import org.deidentifier.arx.aggregates.classification.MultiClassLogisticRegressi
 import org.deidentifier.arx.aggregates.classification.MultiClassNaiveBayes;
 import org.deidentifier.arx.aggregates.classification.MultiClassRandomForest;
 import org.deidentifier.arx.aggregates.classification.MultiClassZeroR;
+import org.deidentifier.arx.common.ThreadUtil;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
@@ -235,18 +240,68 @@ public class StatisticsClassification {
         }
     }
     
+    /**
+     * Result of evaluating a single fold
+     * 
+     * @author Fabian Prasser
+     */
+    private static class Fold {
+
+        /** Number of classifications */
+        private final int       size;
+        /** ZeroR errors */
+        private final double[]  zerorErrors;
+        /** ZeroR correctness */
+        private final boolean[] zerorCorrect;
+        /** ZeroR confidences */
+        private final double[]  zerorConfidences;
+        /** Original errors */
+        private final double[]  inputErrors;
+        /** Original correctness */
+        private final boolean[] inputCorrect;
+        /** Original confidences */
+        private final double[]  inputConfidences;
+        /** Output errors, null if no output classifier has been trained */
+        private final double[]  outputErrors;
+        /** Output correctness, null if no output classifier has been trained */
+        private final boolean[] outputCorrect;
+        /** Output confidences, null if no output classifier has been trained */
+        private final double[]  outputConfidences;
+
+        /**
+         * Creates a new instance
+         * @param size
+         * @param numClasses
+         * @param output
+         */
+        private Fold(int size, int numClasses, boolean output) {
+            this.size = size;
+            this.zerorErrors = new double[size];
+            this.zerorCorrect = new boolean[size];
+            this.zerorConfidences = new double[size * (1 + numClasses)];
+            this.inputErrors = new double[size];
+            this.inputCorrect = new boolean[size];
+            this.inputConfidences = new double[size * (1 + numClasses)];
+            this.outputErrors = output ? new double[size] : null;
+            this.outputCorrect = output ? new boolean[size] : null;
+            this.outputConfidences = output ? new double[size * (1 + numClasses)] : null;
+        }
+    }
+    
     /**
      * Returns the classification method for the given config
      * @param interrupt
      * @param specification
      * @param config
      * @param inputHandle
+     * @param seed
      * @return
      */
     private static ClassificationMethod getClassifier(WrappedBoolean interrupt,
                                                       ClassificationDataSpecification specification,
                                                       ARXClassificationConfiguration<?> config,
-                                                      DataHandleInternal inputHandle) {
+                                                      DataHandleInternal inputHandle,
+                                                      long seed) {
         if (config instanceof ClassificationConfigurationLogisticRegression) {
             return new MultiClassLogisticRegression(interrupt, specification, (ClassificationConfigurationLogisticRegression)config, inputHandle);
         } else if (config instanceof ClassificationConfigurationNaiveBayes) {
@@ -254,7 +309,7 @@ public class StatisticsClassification {
             return new MultiClassNaiveBayes(interrupt, specification, (ClassificationConfigurationNaiveBayes)config, inputHandle);
         } else if (config instanceof ClassificationConfigurationRandomForest) {
             System.setProperty("smile.threads", "1");
-            return new MultiClassRandomForest(interrupt, specification, (ClassificationConfigurationRandomForest)config, inputHandle);
+            return new MultiClassRandomForest(interrupt, specification, (ClassificationConfigurationRandomForest)config, inputHandle, seed);
         } else {
             throw new IllegalArgumentException("Unknown type of configuration");
         }
@@ -272,6 +327,8 @@ public class StatisticsClassification {
     private final Random          random;
     /** Measurements */
     private int                   numMeasurements;
+    /** Whether the evaluation of folds should be stopped */
+    private volatile boolean      stopped;
 
     /** ZeroR accuracy */
     private double                zeroRAccuracy;
@@ -335,122 +392,73 @@ public class StatisticsClassification {
             this.random = new Random(config.getSeed());
         }
         
-        // Create specification
+        // Create folds
+        int k = numSamples > config.getNumFolds() ? config.getNumFolds() : numSamples;
+        List<List<Integer>> folds = getFolds(inputHandle.getNumRows(), numSamples, k);
+        int[] rows = new int[numSamples];
+        int index = 0;
+        for (List<Integer> fold : folds) {
+            for (int row : fold) {
+                rows[index++] = row;
+            }
+        }
+        
+        // Create specification, which encodes the features of all rows once
         ClassificationDataSpecification specification = new ClassificationDataSpecification(inputHandle, 
                                                                                             outputHandle, 
                                                                                             scaling,
                                                                                             features,
                                                                                             clazz,
+                                                                                            rows,
                                                                                             interrupt);
 
         // Number of class values
         this.numClasses = specification.classMap.size();
         
-        // Train and evaluate
-        int k = numSamples > config.getNumFolds() ? config.getNumFolds() : numSamples;
-        List<List<Integer>> folds = getFolds(inputHandle.getNumRows(), numSamples, k);
-
-        // Track
-        int classifications = 0;
-        double total = 100d / ((double)numSamples * (double)folds.size());
-        double done = 0d;
+        // Seeds for each fold, which make results independent of the order in which folds are evaluated
+        long[] seeds = new long[folds.size()];
+        for (int fold = 0; fold < seeds.length; fold++) {
+            seeds[fold] = random.nextLong();
+        }
         
+        // Evaluate folds
+        List<Fold> results = evaluate(inputHandle, outputHandle, specification, config, folds, seeds);
+
         // ROC
         double[] inputConfidences = new double[numSamples * ( 1 + numClasses)];
         double[] outputConfidences = (inputHandle == outputHandle) ? null : new double[numSamples * ( 1 + numClasses)];
         double[] zerorConfidences = new double[numSamples * ( 1 + numClasses)];
         int confidencesIndex = 0;
-                
-        // For each fold as a validation set
-        for (int evaluationFold = 0; evaluationFold < folds.size(); evaluationFold++) {
-            
-            // Create classifiers
-            ClassificationMethod inputClassifier = getClassifier(interrupt, specification, config, inputHandle);
-            ClassificationMethod inputZeroR = new MultiClassZeroR(interrupt, specification);
-            ClassificationMethod outputClassifier = null;
-            if (inputHandle != outputHandle) {
-                outputClassifier = getClassifier(interrupt, specification, config, inputHandle);
-            }
+        int classifications = 0;
+        
+        // Merge results in the order of folds
+        for (Fold fold : results) {
             
-            // Try
-            try {
+            for (int i = 0; i < fold.size; i++) {
                 
-                // Train with all training sets
-                boolean trained = false;
-                for (int trainingFold = 0; trainingFold < folds.size(); trainingFold++) {
-                    if (trainingFold != evaluationFold) {                        
-                        for (int index : folds.get(trainingFold)) {
-                            checkInterrupt();
-                            inputClassifier.train(inputHandle, outputHandle, index);
-                            inputZeroR.train(inputHandle, outputHandle, index);
-                            if (outputClassifier != null && !outputHandle.isOutlier(index)) {
-                                outputClassifier.train(outputHandle, outputHandle, index);
-                                trained = true;
-                            }
-                            this.progress.value = (int)((++done) * total);
-                        }
-                    }
-                }
+                // Maintain data about ZeroR
+                this.zeroRAverageError += fold.zerorErrors[i];
+                this.zeroRAccuracy += fold.zerorCorrect[i] ? 1d : 0d;
                 
-                // Close
-                inputClassifier.close();
-                inputZeroR.close();
-                if (outputClassifier != null && trained) {
-                    outputClassifier.close();
-                }
+                // Maintain data about input-based classifier
+                this.originalAverageError += fold.inputErrors[i];
+                this.originalAccuracy += fold.inputCorrect[i] ? 1d : 0d;
                 
-                // Now validate
-                for (int index : folds.get(evaluationFold)) {
-                    
-                    // Check
-                    checkInterrupt();
-                    
-                    // Classify
-                    ClassificationResult resultInput = inputClassifier.classify(inputHandle, index);
-                    ClassificationResult resultInputZR = inputZeroR.classify(inputHandle, index);
-                    ClassificationResult resultOutput = outputClassifier == null || !trained ? null : outputClassifier.classify(outputHandle, index);
-                    classifications++;
-                        
-                    // Correct result
-                    String actualValue = outputHandle.getValue(index, specification.classIndex, true);
-                        
-                    // Maintain data about ZeroR
-                    this.zeroRAverageError += resultInputZR.error(actualValue);
-                    this.zeroRAccuracy += resultInputZR.correct(actualValue) ? 1d : 0d;
-                    double[] confidences = resultInputZR.confidences();
-                    zerorConfidences[confidencesIndex] = index;
-                    System.arraycopy(confidences, 0, zerorConfidences, confidencesIndex + 1, confidences.length);
-
-                    // Maintain data about input-based classifier
-                    boolean correct = resultInput.correct(actualValue);
-                    this.originalAverageError += resultInput.error(actualValue);
-                    this.originalAccuracy += correct ? 1d : 0d;
-                    confidences = resultInput.confidences();
-                    inputConfidences[confidencesIndex] = index;
-                    System.arraycopy(confidences, 0, inputConfidences, confidencesIndex + 1, confidences.length);
-
-                    // Maintain data about output-based                     
-                    if (resultOutput != null) {
-                        correct = resultOutput.correct(actualValue);
-                        this.averageError += resultOutput.error(actualValue);
-                        this.accuracy += correct ? 1d : 0d;
-                        confidences = resultOutput.confidences();
-                        outputConfidences[confidencesIndex] = index;
-                        System.arraycopy(confidences, 0, outputConfidences, confidencesIndex + 1, confidences.length);
-                    }
-                        
-                    // Next
-                    confidencesIndex += numClasses + 1;
-                    
-                    this.progress.value = (int)((++done) * total);
-                }
-            } catch (Exception e) {
-                if (e instanceof ComputationInterruptedException) {
-                    throw e;
-                } else {
-                    throw new UnexpectedErrorException(e);
+                // Maintain data about output-based
+                if (fold.outputErrors != null) {
+                    this.averageError += fold.outputErrors[i];
+                    this.accuracy += fold.outputCorrect[i] ? 1d : 0d;
                 }
+                classifications++;
             }
+            
+            // Confidences
+            System.arraycopy(fold.zerorConfidences, 0, zerorConfidences, confidencesIndex, fold.zerorConfidences.length);
+            System.arraycopy(fold.inputConfidences, 0, inputConfidences, confidencesIndex, fold.inputConfidences.length);
+            if (fold.outputConfidences != null) {
+                System.arraycopy(fold.outputConfidences, 0, outputConfidences, confidencesIndex, fold.outputConfidences.length);
+            }
+            confidencesIndex += fold.size * (numClasses + 1);
         }
         
         // Maintain data about inputZR
@@ -712,11 +720,187 @@ public class StatisticsClassification {
      * Checks whether an interruption happened.
      */
     private void checkInterrupt() {
-        if (interrupt.value) {
+        if (interrupt.value || stopped) {
             throw new ComputationInterruptedException("Interrupted");
         }
     }
 
+    /**
+     * Trains and evaluates classifiers for all folds. If configured, folds are evaluated
+     * concurrently. Results are returned in the order of folds.
+     * 
+     * @param inputHandle
+     * @param outputHandle
+     * @param specification
+     * @param config
+     * @param folds
+     * @param seeds
+     * @return
+     */
+    private List<Fold> evaluate(final DataHandleInternal inputHandle,
+                                final DataHandleInternal outputHandle,
+                                final ClassificationDataSpecification specification,
+                                final ARXClassificationConfiguration<?> config,
+                                final List<List<Integer>> folds,
+                                final long[] seeds) {
+        
+        // Prepare
+        final AtomicInteger done = new AtomicInteger();
+        final double total = 100d / ((double)numSamples * (double)folds.size());
+        List<Fold> result = new ArrayList<>();
+        int numThreads = Math.min(config.getNumThreads(), folds.size());
+        
+        // Sequentially
+        if (numThreads <= 1) {
+            for (int fold = 0; fold < folds.size(); fold++) {
+                result.add(evaluate(inputHandle, outputHandle, specification, config, folds, fold, seeds[fold], done, total));
+            }
+            return result;
+        }
+        
+        // Concurrently
+        ExecutorService executor = ThreadUtil.createThreadPool(numThreads, "ARX classification");
+        try {
+            List<Future<Fold>> futures = new ArrayList<>();
+            for (int fold = 0; fold < folds.size(); fold++) {
+                final int evaluationFold = fold;
+                futures.add(executor.submit(new Callable<Fold>() {
+                    @Override
+                    public Fold call() throws Exception {
+                        return evaluate(inputHandle, outputHandle, specification, config, folds, evaluationFold, seeds[evaluationFold], done, total);
+                    }
+                }));
+            }
+            for (Future<Fold> future : futures) {
+                result.add(ThreadUtil.get(future, "Interrupted while evaluating classifiers"));
+            }
+            return result;
+        } finally {
+            // Stop remaining tasks in case of errors
+            stopped = true;
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Trains classifiers with all but the given fold and evaluates them with the given fold
+     * 
+     * @param inputHandle
+     * @param outputHandle
+     * @param specification
+     * @param config
+     * @param folds
+     * @param evaluationFold
+     * @param seed
+     * @param done
+     * @param total
+     * @return
+     */
+    private Fold evaluate(DataHandleInternal inputHandle,
+                          DataHandleInternal outputHandle,
+                          ClassificationDataSpecification specification,
+                          ARXClassificationConfiguration<?> config,
+                          List<List<Integer>> folds,
+                          int evaluationFold,
+                          long seed,
+                          AtomicInteger done,
+                          double total) {
+        
+        // Create classifiers
+        ClassificationMethod inputClassifier = getClassifier(interrupt, specification, config, inputHandle, seed);
+        ClassificationMethod inputZeroR = new MultiClassZeroR(interrupt, specification);
+        ClassificationMethod outputClassifier = null;
+        if (inputHandle != outputHandle) {
+            outputClassifier = getClassifier(interrupt, specification, config, inputHandle, seed);
+        }
+        
+        // Try
+        try {
+            
+            // Train with all training sets
+            boolean trained = false;
+            for (int trainingFold = 0; trainingFold < folds.size(); trainingFold++) {
+                if (trainingFold != evaluationFold) {                        
+                    for (int index : folds.get(trainingFold)) {
+                        checkInterrupt();
+                        inputClassifier.train(inputHandle, outputHandle, index);
+                        inputZeroR.train(inputHandle, outputHandle, index);
+                        if (outputClassifier != null && !outputHandle.isOutlier(index)) {
+                            outputClassifier.train(outputHandle, outputHandle, index);
+                            trained = true;
+                        }
+                        this.progress.value = (int)(done.incrementAndGet() * total);
+                    }
+                }
+            }
+            
+            // Close
+            inputClassifier.close();
+            inputZeroR.close();
+            if (outputClassifier != null && trained) {
+                outputClassifier.close();
+            }
+            
+            // Now validate
+            List<Integer> rows = folds.get(evaluationFold);
+            Fold fold = new Fold(rows.size(), numClasses, outputClassifier != null && trained);
+            int confidencesIndex = 0;
+            int classification = 0;
+            for (int index : rows) {
+                
+                // Check
+                checkInterrupt();
+                
+                // Classify
+                ClassificationResult resultInput = inputClassifier.classify(inputHandle, index);
+                ClassificationResult resultInputZR = inputZeroR.classify(inputHandle, index);
+                ClassificationResult resultOutput = outputClassifier == null || !trained ? null : outputClassifier.classify(outputHandle, index);
+                    
+                // Correct result
+                String actualValue = outputHandle.getValue(index, specification.classIndex, true);
+                    
+                // Maintain data about ZeroR
+                fold.zerorErrors[classification] = resultInputZR.error(actualValue);
+                fold.zerorCorrect[classification] = resultInputZR.correct(actualValue);
+                double[] confidences = resultInputZR.confidences();
+                fold.zerorConfidences[confidencesIndex] = index;
+                System.arraycopy(confidences, 0, fold.zerorConfidences, confidencesIndex + 1, confidences.length);
+
+                // Maintain data about input-based classifier
+                fold.inputErrors[classification] = resultInput.error(actualValue);
+                fold.inputCorrect[classification] = resultInput.correct(actualValue);
+                confidences = resultInput.confidences();
+                fold.inputConfidences[confidencesIndex] = index;
+                System.arraycopy(confidences, 0, fold.inputConfidences, confidencesIndex + 1, confidences.length);
+
+                // Maintain data about output-based                     
+                if (resultOutput != null) {
+                    fold.outputErrors[classification] = resultOutput.error(actualValue);
+                    fold.outputCorrect[classification] = resultOutput.correct(actualValue);
+                    confidences = resultOutput.confidences();
+                    fold.outputConfidences[confidencesIndex] = index;
+                    System.arraycopy(confidences, 0, fold.outputConfidences, confidencesIndex + 1, confidences.length);
+                }
+                    
+                // Next
+                confidencesIndex += numClasses + 1;
+                classification++;
+                
+                this.progress.value = (int)(done.incrementAndGet() * total);
+            }
+            
+            // Return
+            return fold;
+            
+        } catch (Exception e) {
+            if (e instanceof ComputationInterruptedException) {
+                throw e;
+            } else {
+                throw new UnexpectedErrorException(e);
+            }
+        }
+    }
+
     /**
      * Creates the folds
      * @param numRecords
@@ -23,9 +23,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.DataType;
 import org.deidentifier.arx.aggregates.quality.QualityConfiguration;
 import org.deidentifier.arx.aggregates.quality.QualityDomainShare;
@@ -43,6 +48,9 @@ import org.deidentifier.arx.aggregates.quality.QualityModelRowOrientedDiscernibi
 import org.deidentifier.arx.aggregates.quality.QualityModelRowOrientedSSESST;
 import org.deidentifier.arx.aggregates.quality.QualityModelRowOrientedSquaredError;
 import org.deidentifier.arx.common.Groupify;
+import org.deidentifier.arx.common.GroupifyEncoded;
+import org.deidentifier.arx.common.ThreadUtil;
+import org.deidentifier.arx.common.TupleEncoder;
 import org.deidentifier.arx.common.TupleWrapper;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
@@ -55,6 +63,120 @@ import org.deidentifier.arx.exceptions.ComputationInterruptedException;
  */
 public class StatisticsQuality {
 
+    /**
+     * Evaluates a quality model, falling back to an empty measure if this fails
+     *
+     * @author Fabian Prasser
+     * @param <T>
+     */
+    private abstract class Evaluation<T> implements Callable<T> {
+
+        /** Progress of this evaluation */
+        private final WrappedInteger progress = new WrappedInteger();
+
+        /** Workload */
+        private final int            workload;
+
+        /** Result */
+        private T                    result;
+
+        /**
+         * Creates a new instance
+         * @param workload
+         */
+        private Evaluation(int workload) {
+            this.workload = workload;
+        }
+
+        @Override
+        public T call() {
+            try {
+                result = evaluate(progress, workload);
+                checkInterrupt();
+            } catch (Exception e) {
+                // Fail silently
+                result = getDefault();
+            }
+            progress.value = workload;
+            return result;
+        }
+
+        /**
+         * Evaluates the model
+         * @param progress
+         * @param workload
+         * @return
+         */
+        protected abstract T evaluate(WrappedInteger progress, int workload);
+
+        /**
+         * Returns the measure used in case of failures
+         * @return
+         */
+        protected abstract T getDefault();
+
+        /**
+         * Returns the progress
+         * @return
+         */
+        private int getProgress() {
+            return progress.value;
+        }
+
+        /**
+         * Returns the result
+         * @return
+         */
+        private T getResult() {
+            return result;
+        }
+    }
+
+    /**
+     * Evaluates a column-oriented model
+     *
+     * @author Fabian Prasser
+     */
+    private abstract class EvaluationColumnOriented extends Evaluation<QualityMeasureColumnOriented> {
+
+        /**
+         * Creates a new instance
+         * @param workload
+         */
+        private EvaluationColumnOriented(int workload) {
+            super(workload);
+        }
+
+        @Override
+        protected QualityMeasureColumnOriented getDefault() {
+            return new QualityMeasureColumnOriented();
+        }
+    }
+
+    /**
+     * Evaluates a row-oriented model
+     *
+     * @author Fabian Prasser
+     */
+    private abstract class EvaluationRowOriented extends Evaluation<QualityMeasureRowOriented> {
+
+        /**
+         * Creates a new instance
+         * @param workload
+         */
+        private EvaluationRowOriented(int workload) {
+            super(workload);
+        }
+
+        @Override
+        protected QualityMeasureRowOriented getDefault() {
+            return new QualityMeasureRowOriented();
+        }
+    }
+
+    /** Interval in which progress is updated, in milliseconds */
+    private static final long                  PROGRESS_INTERVAL = 100;
+
     /** Column-oriented model */
     private QualityMeasureColumnOriented       loss;
     /** Column-oriented model */
@@ -89,30 +211,32 @@ public class StatisticsQuality {
 
     /**
      * Creates a new instance
-     * @param input
-     * @param output
+     * @param inputHandle
+     * @param outputHandle
      * @param config
      * @param stop
      * @param progress
      * @param qis
      */
-    StatisticsQuality(DataHandle input,
-                      DataHandle output,
+    StatisticsQuality(final DataHandleInternal inputHandle,
+                      final DataHandleInternal outputHandle,
                       ARXConfiguration config,
-                      WrappedBoolean stop,
+                      final WrappedBoolean stop,
                       WrappedInteger progress,
                       Set<String> qis) {
      
         // State
         this.stop = stop;
         this.progress = progress;
+        final DataHandle input = inputHandle.getHandle();
+        final DataHandle output = outputHandle.getHandle();
         
         // Build config
-        QualityConfiguration configuration = new QualityConfiguration();
+        final QualityConfiguration configuration = new QualityConfiguration();
         // TODO: Do something with ARXConfiguration here.
         
         // Extract quasi-identifiers
-        int[] indices = getIndicesOfQuasiIdentifiers(qis, input);
+        final int[] indices = getIndicesOfQuasiIdentifiers(qis, input);
         
         // Basic measures
         this.attributes = getAttributes(output, indices);
@@ -142,204 +266,212 @@ public class StatisticsQuality {
             return;
         }
         
-        // Pre-computed frequently needed data
-        Groupify<TupleWrapper> groupedInput = this.getGroupify(input, indices);
-        this.progress.value = 6;
-        Groupify<TupleWrapper> groupedOutput = this.getGroupify(output, indices);
-        this.progress.value = 8;
-        String[][][] hierarchies = getHierarchies(input, indices, configuration);
-        QualityDomainShare[] shares = getDomainShares(input, indices, hierarchies, configuration);
-
-        this.progress.value = 10;
+        // Prepare
+        int numThreads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 9));
+        ExecutorService executor = ThreadUtil.createThreadPool(numThreads, "ARX quality evaluation");
         
-        // Build
-        int workload = 10;
         try {
             
-            this.loss = new QualityModelColumnOrientedLoss(stop,
-                                                           progress,
-                                                           workload,
-                                                           input,
-                                                           output,
-                                                           groupedInput,
-                                                           groupedOutput,
-                                                           hierarchies,
-                                                           shares,
-                                                           indices,
-                                                           configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.loss = new QualityMeasureColumnOriented();
-            this.progress.value += workload;
-        }
-        
-        // Build
-        workload = 15;
-        try {
-            this.entropy = new QualityModelColumnOrientedNonUniformEntropy(stop,
+            // Pre-computed frequently needed data, input and output are grouped concurrently
+            Future<Groupify<TupleWrapper>> futureInput = executor.submit(new Callable<Groupify<TupleWrapper>>() {
+                @Override
+                public Groupify<TupleWrapper> call() throws Exception {
+                    return getGroupify(inputHandle, indices);
+                }
+            });
+            Future<Groupify<TupleWrapper>> futureOutput = executor.submit(new Callable<Groupify<TupleWrapper>>() {
+                @Override
+                public Groupify<TupleWrapper> call() throws Exception {
+                    return getGroupify(outputHandle, indices);
+                }
+            });
+            final String[][][] hierarchies = getHierarchies(input, indices, configuration);
+            final QualityDomainShare[] shares = getDomainShares(input, indices, hierarchies, configuration);
+            final Groupify<TupleWrapper> groupedInput = ThreadUtil.get(futureInput, "Interrupted while evaluating quality");
+            this.progress.value = 6;
+            final Groupify<TupleWrapper> groupedOutput = ThreadUtil.get(futureOutput, "Interrupted while evaluating quality");
+            this.progress.value = 10;
+            
+            // Models are independent of each other and evaluated concurrently
+            Evaluation<QualityMeasureColumnOriented> loss = new EvaluationColumnOriented(10) {
+                @Override
+                protected QualityMeasureColumnOriented evaluate(WrappedInteger progress, int workload) {
+                    return new QualityModelColumnOrientedLoss(stop,
+                                                              progress,
+                                                              workload,
+                                                              inputHandle,
+                                                              outputHandle,
+                                                              groupedInput,
+                                                              groupedOutput,
+                                                              hierarchies,
+                                                              shares,
+                                                              indices,
+                                                              configuration).evaluate();
+                }
+            };
+            Evaluation<QualityMeasureColumnOriented> entropy = new EvaluationColumnOriented(15) {
+                @Override
+                protected QualityMeasureColumnOriented evaluate(WrappedInteger progress, int workload) {
+                    return new QualityModelColumnOrientedNonUniformEntropy(stop,
                                                                            progress,
                                                                            workload,
-                                                                           input,
-                                                                           output,
+                                                                           inputHandle,
+                                                                           outputHandle,
                                                                            groupedInput,
                                                                            groupedOutput,
                                                                            hierarchies,
                                                                            shares,
                                                                            indices,
                                                                            configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.entropy = new QualityMeasureColumnOriented();
-            this.progress.value += workload;
-        }
-
-        // Build
-        workload = 10;
-        try {
-            this.precision = new QualityModelColumnOrientedPrecision(stop,
+                }
+            };
+            Evaluation<QualityMeasureColumnOriented> precision = new EvaluationColumnOriented(10) {
+                @Override
+                protected QualityMeasureColumnOriented evaluate(WrappedInteger progress, int workload) {
+                    return new QualityModelColumnOrientedPrecision(stop,
+                                                                   progress,
+                                                                   workload,
+                                                                   inputHandle,
+                                                                   outputHandle,
+                                                                   groupedInput,
+                                                                   groupedOutput,
+                                                                   hierarchies,
+                                                                   shares,
+                                                                   indices,
+                                                                   configuration).evaluate();
+                }
+            };
+            Evaluation<QualityMeasureColumnOriented> mse = new EvaluationColumnOriented(10) {
+                @Override
+                protected QualityMeasureColumnOriented evaluate(WrappedInteger progress, int workload) {
+                    return new QualityModelColumnOrientedSquaredError(stop,
+                                                                      progress,
+                                                                      workload,
+                                                                      inputHandle,
+                                                                      outputHandle,
+                                                                      groupedInput,
+                                                                      groupedOutput,
+                                                                      hierarchies,
+                                                                      shares,
+                                                                      indices,
+                                                                      configuration).evaluate();
+                }
+            };
+            Evaluation<QualityMeasureRowOriented> aecs = new EvaluationRowOriented(5) {
+                @Override
+                protected QualityMeasureRowOriented evaluate(WrappedInteger progress, int workload) {
+                    return new QualityModelRowOrientedAECS(stop,
+                                                           progress,
+                                                           workload,
+                                                           inputHandle,
+                                                           outputHandle,
+                                                           groupedInput,
+                                                           groupedOutput,
+                                                           hierarchies,
+                                                           shares,
+                                                           indices,
+                                                           configuration).evaluate();
+                }
+            };
+            Evaluation<QualityMeasureRowOriented> ambiguity = new EvaluationRowOriented(10) {
+                @Override
+                protected QualityMeasureRowOriented evaluate(WrappedInteger progress, int workload) {
+                    return new QualityModelRowOrientedAmbiguity(stop,
+                                                                progress,
+                                                                workload,
+                                                                inputHandle,
+                                                                outputHandle,
+                                                                groupedInput,
+                                                                groupedOutput,
+                                                                hierarchies,
+                                                                shares,
+                                                                indices,
+                                                                configuration).evaluate();
+                }
+            };
+            Evaluation<QualityMeasureRowOriented> discernibility = new EvaluationRowOriented(5) {
+                @Override
+                protected QualityMeasureRowOriented evaluate(WrappedInteger progress, int workload) {
+                    return new QualityModelRowOrientedDiscernibility(stop,
                                                                      progress,
                                                                      workload,
-                                                                     input,
-                                                                     output,
+                                                                     inputHandle,
+                                                                     outputHandle,
                                                                      groupedInput,
                                                                      groupedOutput,
                                                                      hierarchies,
                                                                      shares,
                                                                      indices,
                                                                      configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.precision = new QualityMeasureColumnOriented();
-            this.progress.value += workload;
-        }
-
-        // Build
-        workload = 10;
-        try {
-            this.mse = new QualityModelColumnOrientedSquaredError(stop,
-                                                         progress,
-                                                         workload,
-                                                         input,
-                                                         output,
-                                                         groupedInput,
-                                                         groupedOutput,
-                                                         hierarchies,
-                                                         shares,
-                                                         indices,
-                                                         configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.mse = new QualityMeasureColumnOriented();
-            this.progress.value += workload;
-        }
-
-        // Build
-        workload = 5;
-        try {
-            this.aecs = new QualityModelRowOrientedAECS(stop,
-                                                        progress,
-                                                        workload,
-                                                        input,
-                                                        output,
-                                                        groupedInput,
-                                                        groupedOutput,
-                                                        hierarchies,
-                                                        shares,
-                                                        indices,
-                                                        configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.aecs = new QualityMeasureRowOriented();
-            this.progress.value += workload;
-        }
-
-        // Build
-        workload = 10;
-        try {
-            this.ambiguity = new QualityModelRowOrientedAmbiguity(stop,
-                                                                  progress,
-                                                                  workload,
-                                                                  input,
-                                                                  output,
-                                                                  groupedInput,
-                                                                  groupedOutput,
-                                                                  hierarchies,
-                                                                  shares,
-                                                                  indices,
-                                                                  configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.ambiguity = new QualityMeasureRowOriented();
-            this.progress.value += workload;
-        }
-        
-        // Build
-        workload = 5;
-        try {
-            this.discernibility = new QualityModelRowOrientedDiscernibility(stop,
-                                                                            progress,
-                                                                            workload,
-                                                                            input,
-                                                                            output,
-                                                                            groupedInput,
-                                                                            groupedOutput,
-                                                                            hierarchies,
-                                                                            shares,
-                                                                            indices,
-                                                                            configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.discernibility = new QualityMeasureRowOriented();
-            this.progress.value += workload;
-        }
-
-        // Build
-        workload = 10;
-        try {
-            this.ssesst = new QualityModelRowOrientedSSESST(stop,
-                                                            progress,
-                                                            workload,
-                                                            input,
-                                                            output,
-                                                            groupedInput,
-                                                            groupedOutput,
-                                                            hierarchies,
-                                                            shares,
-                                                            indices,
-                                                            configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.ssesst = new QualityMeasureRowOriented();
-            this.progress.value += workload;
-        }
-        
-        // Build
-        workload = 15;
-        try {
-            this.sse = new QualityModelRowOrientedSquaredError(stop,
-                                                      progress,
-                                                      workload,
-                                                      input,
-                                                      output,
-                                                      groupedInput,
-                                                      groupedOutput,
-                                                      hierarchies,
-                                                      shares,
-                                                      indices,
-                                                      configuration).evaluate();
-            this.checkInterrupt();
-        } catch (Exception e) {
-            // Fail silently
-            this.sse = new QualityMeasureRowOriented();
-            this.progress.value += workload;
+                }
+            };
+            Evaluation<QualityMeasureRowOriented> ssesst = new EvaluationRowOriented(10) {
+                @Override
+                protected QualityMeasureRowOriented evaluate(WrappedInteger progress, int workload) {
+                    return new QualityModelRowOrientedSSESST(stop,
+                                                             progress,
+                                                             workload,
+                                                             inputHandle,
+                                                             outputHandle,
+                                                             groupedInput,
+                                                             groupedOutput,
+                                                             hierarchies,
+                                                             shares,
+                                                             indices,
+                                                             configuration).evaluate();
+                }
+            };
+            Evaluation<QualityMeasureRowOriented> sse = new EvaluationRowOriented(15) {
+                @Override
+                protected QualityMeasureRowOriented evaluate(WrappedInteger progress, int workload) {
+                    return new QualityModelRowOrientedSquaredError(stop,
+                                                                   progress,
+                                                                   workload,
+                                                                   inputHandle,
+                                                                   outputHandle,
+                                                                   groupedInput,
+                                                                   groupedOutput,
+                                                                   hierarchies,
+                                                                   shares,
+                                                                   indices,
+                                                                   configuration).evaluate();
+                }
+            };
+            
+            // Execute, largest workloads first
+            List<Evaluation<?>> evaluations = Arrays.<Evaluation<?>>asList(entropy, sse, loss, precision, mse, 
+                                                                           ambiguity, ssesst, aecs, discernibility);
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (Evaluation<?> evaluation : evaluations) {
+                futures.add(executor.submit(evaluation));
+            }
+            
+            // Wait and track progress
+            for (Future<?> future : futures) {
+                while (true) {
+                    try {
+                        ThreadUtil.get(future, PROGRESS_INTERVAL, "Interrupted while evaluating quality");
+                        break;
+                    } catch (TimeoutException e) {
+                        setProgress(evaluations);
+                    }
+                }
+            }
+            setProgress(evaluations);
+            
+            // Store
+            this.loss = loss.getResult();
+            this.entropy = entropy.getResult();
+            this.precision = precision.getResult();
+            this.mse = mse.getResult();
+            this.aecs = aecs.getResult();
+            this.ambiguity = ambiguity.getResult();
+            this.discernibility = discernibility.getResult();
+            this.ssesst = ssesst.getResult();
+            this.sse = sse.getResult();
+            
+        } finally {
+            executor.shutdownNow();
         }
     }
 
@@ -485,6 +617,18 @@ public class StatisticsQuality {
         }
     }
 
+    /**
+     * Updates the overall progress from the progress of the individual evaluations
+     * @param evaluations
+     */
+    private void setProgress(List<Evaluation<?>> evaluations) {
+        int value = 10;
+        for (Evaluation<?> evaluation : evaluations) {
+            value += evaluation.getProgress();
+        }
+        this.progress.value = value;
+    }
+
     /**
      * Returns a list of the attributes covered
      * @param output
@@ -561,25 +705,33 @@ public class StatisticsQuality {
     }
 
     /**
-     * Returns a groupified version of the dataset
+     * Returns a groupified version of the dataset. Rows are grouped based on their
+     * encoded values and tuples are only materialized once per group.
      * 
      * @param handle
      * @param indices
      * @return
      */
-    private Groupify<TupleWrapper> getGroupify(DataHandle handle, int[] indices) {
+    private Groupify<TupleWrapper> getGroupify(DataHandleInternal handle, int[] indices) {
         
         // Prepare
         int capacity = handle.getNumRows() / 10;
         capacity = capacity > 10 ? capacity : 10;
-        Groupify<TupleWrapper> groupify = new Groupify<TupleWrapper>(capacity);
+        GroupifyEncoded encoded = new GroupifyEncoded(new TupleEncoder(handle, indices, false), capacity);
         int numRows = handle.getNumRows();
         for (int row = 0; row < numRows; row++) {
-            TupleWrapper tuple = new TupleWrapper(handle, indices, row);
-            groupify.add(tuple);
+            encoded.add(row);
             checkInterrupt();
         }
         
+        // Materialize, in the order of first occurrence
+        Groupify<TupleWrapper> groupify = new Groupify<TupleWrapper>(encoded.size());
+        for (int group = 0; group < encoded.size(); group++) {
+            TupleWrapper tuple = new TupleWrapper(handle, indices, encoded.getRow(group), false);
+            groupify.add(tuple);
+            groupify.get(tuple).incCount(encoded.getCount(group) - 1);
+        }
+        
         return groupify;
     }
 
@@ -730,4 +882,4 @@ public class StatisticsQuality {
         // Return
         return new QualityMeasureColumnOriented(output, indices, minimum, result, maximum);
     }
-}
+}
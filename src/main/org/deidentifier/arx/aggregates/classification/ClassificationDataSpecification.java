@@ -30,6 +30,8 @@ import org.deidentifier.arx.DataType;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
 
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+
 /**
  * A complete specification of all input and output data
  * 
@@ -46,6 +48,12 @@ public class ClassificationDataSpecification {
     public final ClassificationFeatureMetadata[] featureMetadata;
     /** Interrupt */
     private final WrappedBoolean                 interrupt;
+    /** Encoded features of the input handle */
+    private final ClassificationFeatureMatrix    inputFeatures;
+    /** Encoded features of the output handle */
+    private final ClassificationFeatureMatrix    outputFeatures;
+    /** Distinct non-numeric values of each feature, indexed by code */
+    private final String[][]                     featureValues;
 
     /**
      * Creates a new instance
@@ -55,6 +63,7 @@ public class ClassificationDataSpecification {
      * @param classHandle
      * @param features
      * @param clazz
+     * @param rows
      * @param interrupt
      */
     public ClassificationDataSpecification(DataHandleInternal inputFeatureHandle, 
@@ -62,6 +71,7 @@ public class ClassificationDataSpecification {
                                            ARXFeatureScaling scaling,
                                            String[] features,
                                            String clazz,
+                                           int[] rows,
                                            WrappedBoolean interrupt) {
         
         if (clazz == null) {
@@ -90,6 +100,58 @@ public class ClassificationDataSpecification {
         if (classMap.size() == 0) {
             throw new IllegalArgumentException("No classes defined");
         }
+        
+        // Encode features of all rows once, codes of values are shared by both handles
+        List<ObjectIntOpenHashMap<String>> dictionary = new ArrayList<>();
+        List<List<String>> values = new ArrayList<>();
+        for (int i = 0; i < featureIndices.length; i++) {
+            dictionary.add(new ObjectIntOpenHashMap<String>());
+            values.add(new ArrayList<String>());
+        }
+        this.inputFeatures = new ClassificationFeatureMatrix(inputFeatureHandle, this, rows, dictionary, values, interrupt);
+        if (inputFeatureHandle != outputFeatureHandle) {
+            this.outputFeatures = new ClassificationFeatureMatrix(outputFeatureHandle, this, rows, dictionary, values, interrupt);
+        } else {
+            this.outputFeatures = this.inputFeatures;
+        }
+        this.featureValues = new String[featureIndices.length][];
+        for (int i = 0; i < featureIndices.length; i++) {
+            this.featureValues[i] = values.get(i).toArray(new String[values.get(i).size()]);
+        }
+    }
+
+    /**
+     * Returns the encoded features of the given handle
+     * @param handle
+     * @return
+     */
+    public ClassificationFeatureMatrix getFeatures(DataHandleInternal handle) {
+        if (handle == inputFeatures.getHandle()) {
+            return inputFeatures;
+        } else if (handle == outputFeatures.getHandle()) {
+            return outputFeatures;
+        } else {
+            throw new IllegalArgumentException("Unknown handle");
+        }
+    }
+    
+    /**
+     * Returns the non-numeric value of the given feature with the given code
+     * @param feature
+     * @param code
+     * @return
+     */
+    public String getFeatureValue(int feature, int code) {
+        return featureValues[feature][code];
+    }
+    
+    /**
+     * Returns the number of distinct non-numeric values of the given feature
+     * @param feature
+     * @return
+     */
+    public int getNumFeatureValues(int feature) {
+        return featureValues[feature].length;
     }
 
     /**
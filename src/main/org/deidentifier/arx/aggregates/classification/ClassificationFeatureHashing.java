@@ -0,0 +1,219 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.aggregates.classification;
+
+import org.apache.mahout.vectorizer.encoders.ConstantValueEncoder;
+import org.apache.mahout.vectorizer.encoders.StaticWordValueEncoder;
+
+/**
+ * Encodes rows of a feature matrix into vectors of a fixed length with feature hashing.
+ * Produces the same vectors as Mahout's encoders, but hashes each distinct value only once.
+ * Instances must not be accessed concurrently.
+ *
+ * @author Fabian Prasser
+ */
+class ClassificationFeatureHashing {
+
+    /**
+     * Hashed representation of a value
+     *
+     * @author Fabian Prasser
+     */
+    private static class Hash {
+
+        /** Indices */
+        private final int[]  indices;
+        /** Weight */
+        private final double weight;
+
+        /**
+         * Creates a new instance
+         * @param indices
+         * @param weight
+         */
+        private Hash(int[] indices, double weight) {
+            this.indices = indices;
+            this.weight = weight;
+        }
+
+        /**
+         * Adds the value with the given weight to the vector
+         * @param vector
+         * @param weight
+         */
+        private void addToVector(double[] vector, double weight) {
+            for (int index : indices) {
+                vector[index] = vector[index] + weight * this.weight;
+            }
+        }
+    }
+
+    /**
+     * Exposes hashes of constant values
+     *
+     * @author Fabian Prasser
+     */
+    private static class InterceptEncoder extends ConstantValueEncoder {
+
+        /**
+         * Creates a new instance
+         * @param name
+         */
+        private InterceptEncoder(String name) {
+            super(name);
+        }
+
+        /**
+         * Returns the hash of the given value
+         * @param value
+         * @param length
+         * @return
+         */
+        private Hash getHash(String value, int length) {
+            byte[] bytes = bytesForString(value);
+            int[] indices = new int[getProbes()];
+            for (int probe = 0; probe < indices.length; probe++) {
+                indices[probe] = hashForProbe(bytes, length, getName(), probe);
+            }
+            return new Hash(indices, getWeight(bytes, 1d));
+        }
+    }
+
+    /**
+     * Exposes hashes of words
+     *
+     * @author Fabian Prasser
+     */
+    private static class WordEncoder extends StaticWordValueEncoder {
+
+        /**
+         * Creates a new instance
+         * @param name
+         */
+        private WordEncoder(String name) {
+            super(name);
+        }
+
+        /**
+         * Returns the hash of the given value
+         * @param value
+         * @param length
+         * @return
+         */
+        private Hash getHash(String value, int length) {
+            byte[] bytes = bytesForString(value);
+            int[] indices = new int[getProbes()];
+            for (int probe = 0; probe < indices.length; probe++) {
+                indices[probe] = hashForProbe(bytes, length, getName(), probe);
+            }
+            return new Hash(indices, weight(bytes));
+        }
+    }
+
+    /** Length of vectors */
+    private final int                             length;
+    /** Specification */
+    private final ClassificationDataSpecification specification;
+    /** Encoder */
+    private final WordEncoder                     wordEncoder;
+    /** Hash of the intercept */
+    private final Hash                            intercept;
+    /** Hash used if there are no features */
+    private final Hash                            empty;
+    /** Hashes of numeric features */
+    private final Hash[]                          numeric;
+    /** Hashes of non-numeric values, indexed by feature and code, created on demand */
+    private final Hash[][]                        values;
+
+    /**
+     * Creates a new instance
+     * @param specification
+     * @param length
+     */
+    ClassificationFeatureHashing(ClassificationDataSpecification specification, int length) {
+
+        // Store
+        this.length = length;
+        this.specification = specification;
+        this.wordEncoder = new WordEncoder("feature");
+        this.intercept = new InterceptEncoder("intercept").getHash("1", length);
+        this.empty = wordEncoder.getHash("Feature:1", length);
+
+        // Prepare
+        int numFeatures = specification.featureIndices.length;
+        this.numeric = new Hash[numFeatures];
+        this.values = new Hash[numFeatures][];
+        for (int feature = 0; feature < numFeatures; feature++) {
+            this.numeric[feature] = wordEncoder.getHash("Attribute-" + specification.featureIndices[feature], length);
+            this.values[feature] = new Hash[specification.getNumFeatureValues(feature)];
+        }
+    }
+
+    /**
+     * Encodes the given row
+     * @param features Features
+     * @param input Features of the input dataset
+     * @param row
+     * @param classify Whether the row is encoded for classification
+     * @return
+     */
+    double[] encode(ClassificationFeatureMatrix features, ClassificationFeatureMatrix input, int row, boolean classify) {
+
+        // Prepare
+        double[] vector = new double[length];
+        intercept.addToVector(vector, 1d);
+
+        // Special case where there are no features
+        if (specification.featureIndices.length == 0) {
+            empty.addToVector(vector, 1d);
+            return vector;
+        }
+
+        // For each attribute
+        for (int feature = 0; feature < specification.featureIndices.length; feature++) {
+
+            // Obtain data
+            ClassificationFeatureMetadata metadata = specification.featureMetadata[feature];
+            ClassificationFeatureMatrix source = classify && metadata.isNumericMicroaggregation() ? input : features;
+            double value = source.getNumericValue(row, feature);
+            if (Double.isNaN(value)) {
+                getHash(feature, source.getCode(row, feature)).addToVector(vector, 1d);
+            } else {
+                numeric[feature].addToVector(vector, value);
+            }
+        }
+
+        // Return
+        return vector;
+    }
+
+    /**
+     * Returns the hash of the non-numeric value with the given code
+     * @param feature
+     * @param code
+     * @return
+     */
+    private Hash getHash(int feature, int code) {
+        Hash hash = values[feature][code];
+        if (hash == null) {
+            String value = specification.getFeatureValue(feature, code);
+            hash = wordEncoder.getHash("Attribute-" + specification.featureIndices[feature] + ":" + value, length);
+            values[feature][code] = hash;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.aggregates.classification;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.common.WrappedBoolean;
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
+
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+
+/**
+ * Dense representation of the features and classes of a set of rows of a data handle.
+ * Each feature is either represented by its scaled numeric value or by a code of
+ * its string value. Codes are shared by all matrices of a specification. Instances are
+ * created once per specification and can be accessed concurrently.
+ *
+ * @author Fabian Prasser
+ */
+public class ClassificationFeatureMatrix {
+
+    /** Handle */
+    private final DataHandleInternal              handle;
+    /** Specification */
+    private final ClassificationDataSpecification specification;
+    /** Number of features */
+    private final int                             numFeatures;
+    /** Position of each row in the matrix, -1 for rows which have not been encoded */
+    private final int[]                           positions;
+    /** Scaled numeric values, NaN for values which are not numeric */
+    private final double[]                        numbers;
+    /** Codes of non-numeric values, -1 for numeric values */
+    private final int[]                           codes;
+    /** Codes of classes, -1 for unknown classes */
+    private final int[]                           classes;
+    /** Identifiers of values in the handle, indexed by feature and code */
+    private volatile int[][]                      identifiers;
+
+    /**
+     * Creates a new instance
+     * @param handle
+     * @param specification
+     * @param rows
+     * @param dictionary
+     * @param values
+     * @param interrupt
+     */
+    ClassificationFeatureMatrix(DataHandleInternal handle,
+                                ClassificationDataSpecification specification,
+                                int[] rows,
+                                List<ObjectIntOpenHashMap<String>> dictionary,
+                                List<List<String>> values,
+                                WrappedBoolean interrupt) {
+
+        // Store
+        this.handle = handle;
+        this.specification = specification;
+        this.numFeatures = specification.featureIndices.length;
+        this.positions = new int[handle.getNumRows()];
+        this.numbers = new double[rows.length * numFeatures];
+        this.codes = new int[rows.length * numFeatures];
+        this.classes = new int[rows.length];
+        Arrays.fill(this.positions, -1);
+
+        // Encode
+        int offset = 0;
+        for (int position = 0; position < rows.length; position++) {
+
+            // Check
+            if (interrupt.value) {
+                throw new ComputationInterruptedException("Interrupted");
+            }
+
+            // Features
+            int row = rows[position];
+            positions[row] = position;
+            for (int feature = 0; feature < numFeatures; feature++) {
+                int column = specification.featureIndices[feature];
+                double numeric = specification.featureMetadata[feature].getNumericValue(handle, row, column);
+                numbers[offset] = numeric;
+                codes[offset] = -1;
+                if (Double.isNaN(numeric)) {
+                    String value = handle.getValue(row, column, true);
+                    ObjectIntOpenHashMap<String> map = dictionary.get(feature);
+                    if (map.containsKey(value)) {
+                        codes[offset] = map.lget();
+                    } else {
+                        codes[offset] = values.get(feature).size();
+                        map.put(value, codes[offset]);
+                        values.get(feature).add(value);
+                    }
+                }
+                offset++;
+            }
+
+            // Class
+            Integer clazz = specification.classMap.get(handle.getValue(row, specification.classIndex, true));
+            classes[position] = clazz != null ? clazz : -1;
+        }
+    }
+
+    /**
+     * Returns the code of the class of the given row
+     * @param row
+     * @return
+     */
+    public int getClassValue(int row) {
+        return classes[getPosition(row)];
+    }
+
+    /**
+     * Returns the code of the value of the given feature in the given row, -1 if the value is numeric
+     * @param row
+     * @param feature
+     * @return
+     */
+    public int getCode(int row, int feature) {
+        return codes[getPosition(row) * numFeatures + feature];
+    }
+
+    /**
+     * Returns the handle
+     * @return
+     */
+    public DataHandleInternal getHandle() {
+        return handle;
+    }
+
+    /**
+     * Returns the scaled numeric value of the given feature in the given row, NaN if the value is not numeric
+     * @param row
+     * @param feature
+     * @return
+     */
+    public double getNumericValue(int row, int feature) {
+        return numbers[getPosition(row) * numFeatures + feature];
+    }
+
+    /**
+     * Returns the identifier of the value with the given code in the dictionary of this handle
+     * @param feature
+     * @param code
+     * @return
+     */
+    public int getValueIdentifier(int feature, int code) {
+        int[][] identifiers = this.identifiers;
+        if (identifiers == null) {
+            identifiers = getValueIdentifiers();
+        }
+        return identifiers[feature][code];
+    }
+
+    /**
+     * Returns the position of the given row
+     * @param row
+     * @return
+     */
+    private int getPosition(int row) {
+        int position = positions[row];
+        if (position == -1) {
+            throw new IllegalArgumentException("Row " + row + " has not been encoded");
+        }
+        return position;
+    }
+
+    /**
+     * Looks up the identifiers of all values in the dictionary of this handle
+     * @return
+     */
+    private synchronized int[][] getValueIdentifiers() {
+        if (this.identifiers == null) {
+            int[][] identifiers = new int[numFeatures][];
+            for (int feature = 0; feature < numFeatures; feature++) {
+                int column = specification.featureIndices[feature];
+                identifiers[feature] = new int[specification.getNumFeatureValues(feature)];
+                for (int code = 0; code < identifiers[feature].length; code++) {
+                    identifiers[feature][code] = handle.getValueIdentifier(column, specification.getFeatureValue(feature, code));
+                }
+            }
+            this.identifiers = identifiers;
+        }
+        return this.identifiers;
+    }
+}
@@ -19,6 +19,8 @@ package org.deidentifier.arx.aggregates.classification;
 import net.objecthunter.exp4j.Expression;
 
 import org.deidentifier.arx.ARXFeatureScaling;
+import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.DataHandleNumericColumn;
 import org.deidentifier.arx.DataType;
 import org.deidentifier.arx.DataType.ARXDate;
 import org.deidentifier.arx.DataType.ARXDecimal;
@@ -33,15 +35,19 @@ import org.deidentifier.arx.DataType.DataTypeWithRatioScale;
 public class ClassificationFeatureMetadata {
 
     /** Attribute */
-    private final String      attribute;
+    private final String                   attribute;
     /** Data type */
-    private final DataType<?> type;
+    private final DataType<?>              type;
+    /** Copies of the data type for each thread, as parsing is not thread-safe */
+    private final ThreadLocal<DataType<?>> types;
     /** Expression */
-    private final Expression  expression;
+    private final Expression               expression;
+    /** Copies of the expression for each thread, as expressions are stateful */
+    private final ThreadLocal<Expression>  expressions;
     /** Is this a numeric attribute */
-    private final boolean     numeric;
+    private final boolean                  numeric;
     /** Is this attribute microaggregated in a type preserving manner */
-    private final boolean     isTypePreservingMicroaggregation;
+    private final boolean                  isTypePreservingMicroaggregation;
 
     /**
      * Creates a new instance
@@ -51,7 +57,7 @@ public class ClassificationFeatureMetadata {
      * @param isTypePreservingMicroaggregation
      */
     public ClassificationFeatureMetadata(String attribute, 
-                                         DataType<?> type,
+                                         final DataType<?> type,
                                          ARXFeatureScaling scaling,
                                          boolean isTypePreservingMicroaggregation) {
         this.attribute = attribute;
@@ -64,6 +70,18 @@ public class ClassificationFeatureMetadata {
         } else {
             this.expression = null;
         }
+        this.types = new ThreadLocal<DataType<?>>() {
+            @Override
+            protected DataType<?> initialValue() {
+                return type.clone();
+            }
+        };
+        this.expressions = new ThreadLocal<Expression>() {
+            @Override
+            protected Expression initialValue() {
+                return expression != null ? new Expression(expression) : null;
+            }
+        };
     }
 
     /**
@@ -102,9 +120,39 @@ public class ClassificationFeatureMetadata {
         }
         
         try {
+            DataType<?> type = this.types.get();
             @SuppressWarnings({ "unchecked", "rawtypes" })
             double numeric = ((DataTypeWithRatioScale)type).toDouble(type.parse(value));
-            return this.expression != null ? this.expression.setVariable("x", numeric).evaluate() : Double.NaN;
+            return this.expression != null ? this.expressions.get().setVariable("x", numeric).evaluate() : Double.NaN;
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Returns a scaled double representation of the given cell, NaN if the value cannot be parsed or scaled.
+     * Suppression is ignored. Parsed values are cached by the handle, so that each distinct value is only
+     * parsed once.
+     * 
+     * @param handle
+     * @param row
+     * @param column
+     */
+    public double getNumericValue(DataHandleInternal handle, int row, int column) {
+        
+        if (!isNumeric()) {
+            return Double.NaN;
+        }
+        
+        // Fall back to parsing, if the handle doesn't provide numbers of the same type
+        DataHandleNumericColumn numbers = handle.getNumericColumn(column, true);
+        if (numbers == null || !type.equals(numbers.getDataType())) {
+            return getNumericValue(handle.getValue(row, column, true));
+        }
+        
+        try {
+            double numeric = numbers.getDouble(row);
+            return Double.isNaN(numeric) ? Double.NaN : this.expressions.get().setVariable("x", numeric).evaluate();
         } catch (Exception e) {
             return Double.NaN;
         }
@@ -24,8 +24,6 @@ import org.apache.mahout.classifier.sgd.PriorFunction;
 import org.apache.mahout.classifier.sgd.UniformPrior;
 import org.apache.mahout.math.DenseVector;
 import org.apache.mahout.math.Vector;
-import org.apache.mahout.vectorizer.encoders.ConstantValueEncoder;
-import org.apache.mahout.vectorizer.encoders.StaticWordValueEncoder;
 import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.aggregates.ClassificationConfigurationLogisticRegression;
 import org.deidentifier.arx.common.WrappedBoolean;
@@ -36,18 +34,14 @@ import org.deidentifier.arx.common.WrappedBoolean;
  */
 public class MultiClassLogisticRegression extends ClassificationMethod {
 
-    /** Config */
-    private final ClassificationConfigurationLogisticRegression config;
     /** Encoder */
-    private final ConstantValueEncoder                          interceptEncoder;
+    private final ClassificationFeatureHashing    hashing;
     /** Instance */
-    private final OnlineLogisticRegression                      lr;
+    private final OnlineLogisticRegression        lr;
     /** Specification */
-    private final ClassificationDataSpecification               specification;
-    /** Encoder */
-    private final StaticWordValueEncoder                        wordEncoder;
-    /** Input handle */
-    private final DataHandleInternal                            inputHandle;
+    private final ClassificationDataSpecification specification;
+    /** Features of the input handle */
+    private final ClassificationFeatureMatrix     inputFeatures;
 
     /**
      * Creates a new instance
@@ -64,9 +58,8 @@ public class MultiClassLogisticRegression extends ClassificationMethod {
         super(interrupt);
         
         // Store
-        this.config = config;
         this.specification = specification;
-        this.inputHandle = inputHandle;
+        this.inputFeatures = specification.getFeatures(inputHandle);
         
         // Prepare classifier
         PriorFunction prior = null;
@@ -95,9 +88,8 @@ public class MultiClassLogisticRegression extends ClassificationMethod {
         this.lr.stepOffset(config.getStepOffset());
         this.lr.decayExponent(config.getDecayExponent());    
         
-        // Prepare encoders
-        this.interceptEncoder = new ConstantValueEncoder("intercept");
-        this.wordEncoder = new StaticWordValueEncoder("feature");
+        // Prepare encoder
+        this.hashing = new ClassificationFeatureHashing(specification, config.getVectorLength());
     }
 
     @Override
@@ -112,17 +104,7 @@ public class MultiClassLogisticRegression extends ClassificationMethod {
 
     @Override
     public void train(DataHandleInternal features, DataHandleInternal clazz, int row) {
-        lr.train(encodeClass(clazz, row), encodeFeatures(features, row, false));
-    }
-
-    /**
-     * Encodes a class
-     * @param handle
-     * @param row
-     * @return
-     */
-    private int encodeClass(DataHandleInternal handle, int row) {
-        return specification.classMap.get(handle.getValue(row, specification.classIndex, true));
+        lr.train(specification.getFeatures(clazz).getClassValue(row), encodeFeatures(features, row, false));
     }
 
     /**
@@ -133,39 +115,6 @@ public class MultiClassLogisticRegression extends ClassificationMethod {
      * @return
      */
     private Vector encodeFeatures(DataHandleInternal handle, int row, boolean classify) {
-
-        // Prepare
-        DenseVector vector = new DenseVector(config.getVectorLength());
-        interceptEncoder.addToVector("1", vector);
-        
-        // Special case where there are no features
-        if (specification.featureIndices.length == 0) {
-            wordEncoder.addToVector("Feature:1", 1, vector);
-            return vector;
-        }
-        
-        // For each attribute
-        int count = 0;
-        for (int index : specification.featureIndices) {
-            
-            // Obtain data
-            ClassificationFeatureMetadata metadata = specification.featureMetadata[count];
-            String value = null;
-            if (classify && metadata.isNumericMicroaggregation()) {
-                value = inputHandle.getValue(row, index, true);
-            } else {
-                value = handle.getValue(row, index, true);
-            }
-            Double numeric = metadata.getNumericValue(value);
-            if (Double.isNaN(numeric)) {    
-                wordEncoder.addToVector("Attribute-" + index + ":" + value, 1, vector);
-            } else {
-                wordEncoder.addToVector("Attribute-" + index, numeric, vector);
-            }
-            count++;
-        }
-        
-        // Return
-        return vector;
+        return new DenseVector(hashing.encode(specification.getFeatures(handle), inputFeatures, row, classify), true);
     }
 }
@@ -16,9 +16,6 @@
  */
 package org.deidentifier.arx.aggregates.classification;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.aggregates.ClassificationConfigurationRandomForest;
 import org.deidentifier.arx.common.WrappedBoolean;
@@ -44,16 +41,20 @@ public class MultiClassRandomForest extends ClassificationMethod {
     private RandomForest                                  rm;
     /** Specification */
     private final ClassificationDataSpecification         specification;
-    /** Data */
-    private List<double[]>                                features        = new ArrayList<double[]>();
-    /** Data */
+    /** Features of the training data */
+    private ClassificationFeatureMatrix                   features;
+    /** Rows of the training data */
+    private IntArrayList                                  rows            = new IntArrayList();
+    /** Classes of the training data */
     private IntArrayList                                  classes         = new IntArrayList();
     /** Config */
     private final int                                     numberOfVariablesToSplit;
-    /** Input handle */
-    private final DataHandleInternal                      inputHandle;
+    /** Features of the input handle */
+    private final ClassificationFeatureMatrix             inputFeatures;
     /** Because SMILE sucks */
     private IntIntOpenHashMap                             mapping;
+    /** Seed for SMILE's random number generator */
+    private final long                                    seed;
 
     /**
      * Creates a new instance
@@ -61,18 +62,21 @@ public class MultiClassRandomForest extends ClassificationMethod {
      * @param specification
      * @param config
      * @param inputHandle
+     * @param seed
      */
     public MultiClassRandomForest(WrappedBoolean interrupt,
                                   ClassificationDataSpecification specification,
                                   ClassificationConfigurationRandomForest config,
-                                  DataHandleInternal inputHandle) {
+                                  DataHandleInternal inputHandle,
+                                  long seed) {
 
         super(interrupt);
 
         // Store
         this.config = config;
         this.specification = specification;
-        this.inputHandle = inputHandle;
+        this.inputFeatures = specification.getFeatures(inputHandle);
+        this.seed = seed;
         
         // Set number of variables to split as floor(sqrt(number of features)) if default value was chosen
         if (config.getNumberOfVariablesToSplit() == ClassificationConfigurationRandomForest.DEFAULT_NUMBER_OF_VARIABLES_TO_SPLIT) {
@@ -87,7 +91,7 @@ public class MultiClassRandomForest extends ClassificationMethod {
 
         // Call SMILE
         double[] _probabilities = new double[mapping.size()];
-        int _result = rm.predict(encodeFeatures(features, row, true), _probabilities);
+        int _result = rm.predict(encodeFeatures(specification.getFeatures(features), row, true), _probabilities);
         
         // Mapping
         int result = mapping.get(_result);
@@ -120,11 +124,17 @@ public class MultiClassRandomForest extends ClassificationMethod {
         
         }
         
+        // Encode features
+        double[][] encodedFeatures = new double[rows.size()][];
+        for (int i = 0; i < rows.size(); i++) {
+            encodedFeatures[i] = encodeFeatures(features, rows.get(i), false);
+        }
+        
         // Encode classes because SMILE sucks!
         this.mapping = new IntIntOpenHashMap();
         IntIntOpenHashMap classMap = new IntIntOpenHashMap();
-        int[] encodedClasses = new int[classes.size()];
-        for (int i = 0; i < classes.size(); i++) {
+        int[] encodedClasses = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
             int value = classes.get(i);
             int encoded = classMap.size();
             if (classMap.containsKey(value)) {
@@ -136,8 +146,10 @@ public class MultiClassRandomForest extends ClassificationMethod {
             encodedClasses[i] = encoded;
         }
         
-        // Learn now
-        rm = new RandomForest((Attribute[])null, features.toArray(new double[features.size()][]), encodedClasses, 
+        // Learn now. SMILE uses a random number generator per thread, which is seeded
+        // to make results independent of the thread that performs training
+        smile.math.Math.setSeed(seed);
+        rm = new RandomForest((Attribute[])null, encodedFeatures, encodedClasses, 
                               config.getNumberOfTrees(), config.getMaximumNumberOfLeafNodes(), config.getMinimumSizeOfLeafNodes(),
                               this.numberOfVariablesToSplit, config.getSubsample(), rule, new TrainingInterrupt() {
                                 @Override
@@ -147,65 +159,43 @@ public class MultiClassRandomForest extends ClassificationMethod {
         });
         
         // Clear
-        features.clear();
-        classes.clear();
-        features = new ArrayList<double[]>();
+        features = null;
+        rows = new IntArrayList();
         classes = new IntArrayList();
     }
 
     @Override
     public void train(DataHandleInternal features, DataHandleInternal clazz, int row) {
-        // The Random Forest does not support online learning, so we have to cache data
-        this.features.add(encodeFeatures(features, row, false));
-        this.classes.add(encodeClass(clazz, row));
-    }
-
-    /**
-     * Encodes a class
-     * @param handle
-     * @param row
-     * @return
-     */
-    private int encodeClass(DataHandleInternal handle, int row) {
-        return specification.classMap.get(handle.getValue(row, specification.classIndex, true));
+        // The Random Forest does not support online learning, so we have to remember the rows
+        this.features = specification.getFeatures(features);
+        this.rows.add(row);
+        this.classes.add(specification.getFeatures(clazz).getClassValue(row));
     }
 
     /**
      * Encodes a feature
-     * @param handle
+     * @param features
      * @param row
      * @param classify
      * @return
      */
-    private double[] encodeFeatures(DataHandleInternal handle, int row, boolean classify) {
+    private double[] encodeFeatures(ClassificationFeatureMatrix features, int row, boolean classify) {
 
         // Prepare
         double[] vector = new double[specification.featureIndices.length];
         
-        // Special case where there are no features
-        if (specification.featureIndices.length == 0) {
-            return vector;
-        }
-        
         // For each attribute
-        int count = 0;
-        for (int index : specification.featureIndices) {
+        for (int feature = 0; feature < vector.length; feature++) {
             
             // Obtain data
-            ClassificationFeatureMetadata metadata = specification.featureMetadata[count];
-            String value = null;
-            if (classify && metadata.isNumericMicroaggregation()) {
-                value = inputHandle.getValue(row, index, true);
-            } else {
-                value = handle.getValue(row, index, true);
-            }
-            Double numeric = metadata.getNumericValue(value);
-            if (Double.isNaN(numeric)) {    
-                vector[count] = handle.getValueIdentifier(index, value);
+            ClassificationFeatureMetadata metadata = specification.featureMetadata[feature];
+            ClassificationFeatureMatrix source = classify && metadata.isNumericMicroaggregation() ? inputFeatures : features;
+            double numeric = source.getNumericValue(row, feature);
+            if (Double.isNaN(numeric)) {
+                vector[feature] = features.getValueIdentifier(feature, source.getCode(row, feature));
             } else {
-                vector[count] = numeric;
+                vector[feature] = numeric;
             }
-            count++;
         }
         
         // Return
@@ -27,12 +27,6 @@ import java.util.Map.Entry;
  * @author Fabian Prasser
  */
 public abstract class QualityConfigurationRangeParser {
-    
-    /** Result buffer*/
-    private final double[] doubleResult = new double[2];
-    
-    /** Result buffer*/
-    private final String[] stringResult = new String[2];
 
     /**
      * List of all available parsers
@@ -149,15 +143,13 @@ public abstract class QualityConfigurationRangeParser {
     protected abstract String[] getRange(String value);
 
     /**
-     * Pack function
+     * Pack function. Returns a new array, as parsers are shared and results may be retained.
      * @param min
      * @param max
      * @return
      */
     protected final double[] pack(double min, double max) {
-        doubleResult[0] = min;
-        doubleResult[1] = max;
-        return doubleResult;
+        return new double[] { min, max };
     }
 
     /**
@@ -167,9 +159,7 @@ public abstract class QualityConfigurationRangeParser {
      * @return
      */
     protected final String[] pack(String min, String max) {
-        stringResult[0] = min;
-        stringResult[1] = max;
-        return stringResult;
+        return new String[] { min, max };
     }
 
     /**
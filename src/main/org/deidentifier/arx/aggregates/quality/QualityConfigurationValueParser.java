@@ -37,12 +37,13 @@ class QualityConfigurationValueParser<T> {
      * @return
      */
     static QualityConfigurationValueParser<?> create(DataType<?> datatype) {
+        // Data types are cloned, as parsers may be used concurrently
         if (datatype instanceof ARXDecimal) {
-            return new QualityConfigurationValueParser<Double>((ARXDecimal)datatype);
+            return new QualityConfigurationValueParser<Double>((ARXDecimal)datatype.clone());
         } else if (datatype instanceof ARXInteger) {
-            return new QualityConfigurationValueParser<Long>((ARXInteger)datatype);
+            return new QualityConfigurationValueParser<Long>((ARXInteger)datatype.clone());
         } else if (datatype instanceof ARXDate) {
-            return new QualityConfigurationValueParser<Date>((ARXDate)datatype); 
+            return new QualityConfigurationValueParser<Date>((ARXDate)datatype.clone()); 
         }
         throw new IllegalArgumentException("Unknown data type");
     }
@@ -24,8 +24,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.deidentifier.arx.DataHandle;
-import org.deidentifier.arx.DataType.DataTypeWithRatioScale;
+import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.DataHandleNumericColumn;
 import org.deidentifier.arx.common.Groupify;
 import org.deidentifier.arx.common.Groupify.Group;
 import org.deidentifier.arx.common.TupleWrapper;
@@ -33,6 +33,8 @@ import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
 
+import com.carrotsearch.hppc.IntObjectOpenHashMap;
+
 /**
  * Base class for quality models
  * 
@@ -46,10 +48,10 @@ abstract class QualityModel<T> {
     private static final double          LOG2         = Math.log(2);
 
     /** Input */
-    private final DataHandle             input;
+    private final DataHandleInternal     input;
 
     /** Output */
-    private final DataHandle             output;
+    private final DataHandleInternal     output;
 
     /** Grouped */
     private final Groupify<TupleWrapper> groupedInput;
@@ -108,8 +110,8 @@ abstract class QualityModel<T> {
     QualityModel(WrappedBoolean interrupt,
                  WrappedInteger progress,
                  int totalWorkload,
-                 DataHandle input,
-                 DataHandle output,
+                 DataHandleInternal input,
+                 DataHandleInternal output,
                  Groupify<TupleWrapper> groupedInput,
                  Groupify<TupleWrapper> groupedOutput,
                  String[][][] hierarchies,
@@ -206,7 +208,7 @@ abstract class QualityModel<T> {
      * 
      * @return
      */
-    protected DataHandle getInput() {
+    protected DataHandleInternal getInput() {
         return this.input;
     }
 
@@ -215,7 +217,7 @@ abstract class QualityModel<T> {
      * 
      * @return
      */
-    protected DataHandle getOutput() {
+    protected DataHandleInternal getOutput() {
         return this.output;
     }
 
@@ -235,7 +237,7 @@ abstract class QualityModel<T> {
      * @param column
      * @return
      */
-    protected boolean isSuppressed(DataHandle handle, int row, int column) {
+    protected boolean isSuppressed(DataHandleInternal handle, int row, int column) {
 
         // Check flag
         if (handle.isOutlier(row)) {
@@ -251,7 +253,7 @@ abstract class QualityModel<T> {
      * @param entry
      * @return
      */
-    protected boolean isSuppressed(DataHandle handle, int[] indices, int row) {
+    protected boolean isSuppressed(DataHandleInternal handle, int[] indices, int row) {
 
         // Check flag
         if (handle.isOutlier(row)) { return true; }
@@ -335,8 +337,8 @@ abstract class QualityModel<T> {
      * @param column
      * @return
      */
-    protected double[][] getColumnsAsNumbers(DataHandle input,
-                                           DataHandle output,
+    protected double[][] getColumnsAsNumbers(DataHandleInternal input,
+                                           DataHandleInternal output,
                                            String[][] hierarchy,
                                            int column) {
         
@@ -383,6 +385,17 @@ abstract class QualityModel<T> {
         return new double[][]{inputAsNumbers, outputAsNumbers};
     }
 
+    /**
+     * Returns the number in the given row, silently falling back to 0 for NULL values
+     * @param numbers
+     * @param row
+     * @return
+     */
+    protected double getNumber(DataHandleNumericColumn numbers, int row) {
+        double number = numbers.getDouble(row);
+        return Double.isNaN(number) ? 0d : number;
+    }
+
     /**
      * Returns a numeric representation, relying on the hierarchy
      * @param handle
@@ -390,7 +403,7 @@ abstract class QualityModel<T> {
      * @param hierarchy
      * @return
      */
-    protected double[] getNumbersFromHierarchy(DataHandle handle,
+    protected double[] getNumbersFromHierarchy(DataHandleInternal handle,
                                              int column,
                                              String[][] hierarchy) {
 
@@ -459,20 +472,19 @@ abstract class QualityModel<T> {
      * @param column
      * @return
      */
-    protected double[] getNumbersFromNumericColumn(DataHandle input, int column) {
+    protected double[] getNumbersFromNumericColumn(DataHandleInternal input, int column) {
         
         try {
             
             // Prepare
-            String attribute = input.getAttributeName(column);
             double[] result = new double[input.getNumRows() * 2];
             
-            // Parse numbers
-            if (input.getDataType(attribute) instanceof DataTypeWithRatioScale) {
+            // Parse numbers, each distinct value is only parsed once
+            DataHandleNumericColumn numbers = input.getNumericColumn(column, false);
+            if (numbers != null && numbers.isValid()) {
 
-                QualityConfigurationValueParser<?> parser = QualityConfigurationValueParser.create(input.getDataType(attribute));
                 for (int row = 0; row < input.getNumRows(); row++) {
-                    double number = parser.getDouble(input.getValue(row, column));
+                    double number = getNumber(numbers, row);
                     result[row * 2] = number;
                     result[row * 2 + 1] = number;
                     
@@ -501,28 +513,27 @@ abstract class QualityModel<T> {
      * @param column
      * @return
      */
-    protected double[] getNumbersFromNumericColumn(double[] inputAsNumbers, DataHandle output, int column) {
+    protected double[] getNumbersFromNumericColumn(double[] inputAsNumbers, DataHandleInternal output, int column) {
         
         try {
 
             // Prepare
-            String attribute = output.getAttributeName(column);
             double[] result = new double[output.getNumRows() * 2];
             double[] minmax = getMinMax(inputAsNumbers);
             double minimum = minmax[0];
             double maximum = minmax[1];
             
-            // Parse numbers
-            if (output.getDataType(attribute) instanceof DataTypeWithRatioScale) {
+            // Parse numbers, each distinct value is only parsed once
+            DataHandleNumericColumn numbers = output.getNumericColumn(column, false);
+            if (numbers != null && numbers.isValid()) {
 
-                QualityConfigurationValueParser<?> parser = QualityConfigurationValueParser.create(output.getDataType(attribute));
                 for (int row = 0; row < output.getNumRows(); row++) {
                     
                     if (output.isOutlier(row)) {
                         result[row * 2] = minimum;
                         result[row * 2 + 1] = maximum;    
                     } else {   
-                        double number = parser.getDouble(output.getValue(row, column));
+                        double number = getNumber(numbers, row);
                         result[row * 2] = number;
                         result[row * 2 + 1] = number;
                     }
@@ -554,9 +565,9 @@ abstract class QualityModel<T> {
      * @param hierarchy
      * @return
      */
-    protected double[] getNumbersFromNumericColumnAndHierarchy(DataHandle input,
+    protected double[] getNumbersFromNumericColumnAndHierarchy(DataHandleInternal input,
                                                              double[] inputAsNumbers,
-                                                             DataHandle output,
+                                                             DataHandleInternal output,
                                                              int column,
                                                              String[][] hierarchy) {
 
@@ -639,7 +650,7 @@ abstract class QualityModel<T> {
      * @return
      */
     protected double[] getRangeFromNumericColumn(double[] inputNumbers,
-                                               DataHandle output,
+                                               DataHandleInternal output,
                                                int column) {
         
         try {
@@ -663,7 +674,8 @@ abstract class QualityModel<T> {
             QualityConfigurationValueParser<?> valueParser = QualityConfigurationValueParser.create(output.getDataType(attribute));
             QualityConfigurationRangeParser rangeParser = QualityConfigurationRangeParser.getParser(valueParser, sample);
             
-            // Parse
+            // Parse, each distinct value is only parsed once
+            IntObjectOpenHashMap<double[]> ranges = new IntObjectOpenHashMap<double[]>();
             for (int row = 0; row < output.getNumRows(); row++) {
                 
                 // Parse
@@ -671,11 +683,17 @@ abstract class QualityModel<T> {
                 if (output.isOutlier(row)) {
                     range = new double[]{minimum, maximum};
                 } else {
-                    String value = output.getValue(row, column);
-                    if (isSuppressed(column, value)) {
-                        range = new double[]{minimum, maximum};    
+                    int code = output.getEncodedValue(row, column, false);
+                    if (ranges.containsKey(code)) {
+                        range = ranges.lget();
                     } else {
-                        range = rangeParser.getRange(valueParser, value, minimum, maximum);
+                        String value = output.getValue(row, column);
+                        if (isSuppressed(column, value)) {
+                            range = new double[]{minimum, maximum};    
+                        } else {
+                            range = rangeParser.getRange(valueParser, value, minimum, maximum);
+                        }
+                        ranges.put(code, range);
                     }
                 }
                 
@@ -17,7 +17,7 @@
 
 package org.deidentifier.arx.aggregates.quality;
 
-import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.common.Groupify;
 import org.deidentifier.arx.common.TupleWrapper;
 import org.deidentifier.arx.common.WrappedBoolean;
@@ -51,8 +51,8 @@ public class QualityModelColumnOrientedLoss extends QualityModel<QualityMeasureC
     public QualityModelColumnOrientedLoss(WrappedBoolean interrupt,
                                           WrappedInteger progress,
                                           int totalWorkload,
-                                          DataHandle input,
-                                          DataHandle output,
+                                          DataHandleInternal input,
+                                          DataHandleInternal output,
                                           Groupify<TupleWrapper> groupedInput,
                                           Groupify<TupleWrapper> groupedOutput,
                                           String[][][] hierarchies,
@@ -77,7 +77,7 @@ public class QualityModelColumnOrientedLoss extends QualityModel<QualityMeasureC
         
         // Prepare
         int[] indices = getIndices();
-        DataHandle output = getOutput();
+        DataHandleInternal output = getOutput();
         QualityDomainShare[] shares = getDomainShares();
         double[] result = new double[indices.length];
         double[] min = new double[indices.length];
@@ -125,6 +125,6 @@ public class QualityModelColumnOrientedLoss extends QualityModel<QualityMeasureC
         setStepsDone();
 
         // Return
-        return new QualityMeasureColumnOriented(output, indices, min, result, max);
+        return new QualityMeasureColumnOriented(output.getHandle(), indices, min, result, max);
     }
 }
@@ -25,7 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.common.Groupify;
 import org.deidentifier.arx.common.TupleWrapper;
 import org.deidentifier.arx.common.WrappedBoolean;
@@ -65,8 +65,8 @@ public class QualityModelColumnOrientedNonUniformEntropy extends QualityModel<Qu
     public QualityModelColumnOrientedNonUniformEntropy(WrappedBoolean interrupt,
                                                        WrappedInteger progress,
                                                        int totalWorkload,
-                                                       DataHandle input,
-                                                       DataHandle output,
+                                                       DataHandleInternal input,
+                                                       DataHandleInternal output,
                                                        Groupify<TupleWrapper> groupedInput,
                                                        Groupify<TupleWrapper> groupedOutput,
                                                        String[][][] hierarchies,
@@ -91,7 +91,7 @@ public class QualityModelColumnOrientedNonUniformEntropy extends QualityModel<Qu
         
         // Prepare
         int[] indices = getIndices();
-        DataHandle output = getOutput();
+        DataHandleInternal output = getOutput();
         String[][][] hierarchies = getHierarchies();
         double[] result = new double[indices.length];
         double[] min = new double[indices.length];
@@ -145,7 +145,7 @@ public class QualityModelColumnOrientedNonUniformEntropy extends QualityModel<Qu
                     Map<String, Double> outputFrequencies = getOutputFrequencies(transformations, generalizationFunctions, column, currentLevel, currentLevel);
                     
                     // Sum up loss of values transformation level >= level
-                    DataHandle input = getInput();
+                    DataHandleInternal input = getInput();
                     for (int row = 0; row < input.getNumRows(); row++) {
 
                         // Input and output value for this cell
@@ -167,7 +167,7 @@ public class QualityModelColumnOrientedNonUniformEntropy extends QualityModel<Qu
                 setStepPerformed();
 
                 // Calculate maximum
-                DataHandle input = getInput();
+                DataHandleInternal input = getInput();
                 Map<String, Double> inputFrequencies = getInputFrequencies(transformations, column, 0);
                 for (int row = 0; row < input.getNumRows(); row++) {
                     max[i] += log2(inputFrequencies.get(input.getValue(row, column)) / (double)input.getNumRows());
@@ -201,7 +201,7 @@ public class QualityModelColumnOrientedNonUniformEntropy extends QualityModel<Qu
         setStepsDone();
         
         // Return
-        return new QualityMeasureColumnOriented(output, indices, min, result, max);
+        return new QualityMeasureColumnOriented(output.getHandle(), indices, min, result, max);
     }
 
     /**
@@ -238,7 +238,7 @@ public class QualityModelColumnOrientedNonUniformEntropy extends QualityModel<Qu
      * @return
      */
     private Map<String, Double> getInputFrequencies( int[] transformations, int column, int level) {
-        DataHandle input = getInput();
+        DataHandleInternal input = getInput();
         Map<String, Double> result = new HashMap<String, Double>();
         for (int row = 0; row < input.getNumRows(); row++) {
             if (transformations[row] >= level) {
@@ -301,7 +301,7 @@ public class QualityModelColumnOrientedNonUniformEntropy extends QualityModel<Qu
                                                      int level, 
                                                      int target) {
         Map<String, Double> result = new HashMap<String, Double>();
-        DataHandle input = getInput();
+        DataHandleInternal input = getInput();
         for (int row = 0; row < input.getNumRows(); row++) {
             if (transformations[row] >= level) {
                 String value = generalizationFunctions[target].get(input.getValue(row, column));
@@ -20,7 +20,7 @@ package org.deidentifier.arx.aggregates.quality;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.common.Groupify;
 import org.deidentifier.arx.common.TupleWrapper;
 import org.deidentifier.arx.common.WrappedBoolean;
@@ -54,8 +54,8 @@ public class QualityModelColumnOrientedPrecision extends QualityModel<QualityMea
     public QualityModelColumnOrientedPrecision(WrappedBoolean interrupt,
                                                WrappedInteger progress,
                                                int totalWorkload,
-                                               DataHandle input,
-                                               DataHandle output,
+                                               DataHandleInternal input,
+                                               DataHandleInternal output,
                                                Groupify<TupleWrapper> groupedInput,
                                                Groupify<TupleWrapper> groupedOutput,
                                                String[][][] hierarchies,
@@ -80,7 +80,7 @@ public class QualityModelColumnOrientedPrecision extends QualityModel<QualityMea
         
         // Prepare
         int[] indices = getIndices();
-        DataHandle output = getOutput();
+        DataHandleInternal output = getOutput();
         String[][][] hierarchies = getHierarchies();
         Map<String, Double>[] precisions = getPrecisions(hierarchies);
         double[] result = new double[indices.length];
@@ -130,7 +130,7 @@ public class QualityModelColumnOrientedPrecision extends QualityModel<QualityMea
         setStepsDone();
         
         // Return
-        return new QualityMeasureColumnOriented(output, indices, min, result, max);
+        return new QualityMeasureColumnOriented(output.getHandle(), indices, min, result, max);
     }
 
     /**
@@ -17,7 +17,7 @@
 
 package org.deidentifier.arx.aggregates.quality;
 
-import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.common.Groupify;
 import org.deidentifier.arx.common.TupleWrapper;
 import org.deidentifier.arx.common.WrappedBoolean;
@@ -49,8 +49,8 @@ public class QualityModelColumnOrientedSquaredError extends QualityModel<Quality
     public QualityModelColumnOrientedSquaredError(WrappedBoolean interrupt,
                                          WrappedInteger progress,
                                          int totalWorkload,
-                                         DataHandle input,
-                                         DataHandle output,
+                                         DataHandleInternal input,
+                                         DataHandleInternal output,
                                          Groupify<TupleWrapper> groupedInput,
                                          Groupify<TupleWrapper> groupedOutput,
                                          String[][][] hierarchies,
@@ -171,6 +171,6 @@ public class QualityModelColumnOrientedSquaredError extends QualityModel<Quality
         setStepsDone();
         
         // Return
-        return new QualityMeasureColumnOriented(getOutput(), indices, min, result, max);
+        return new QualityMeasureColumnOriented(getOutput().getHandle(), indices, min, result, max);
     }
 }
@@ -17,7 +17,7 @@
 
 package org.deidentifier.arx.aggregates.quality;
 
-import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.common.Groupify;
 import org.deidentifier.arx.common.TupleWrapper;
 import org.deidentifier.arx.common.WrappedBoolean;
@@ -51,8 +51,8 @@ public class QualityModelRowOrientedAmbiguity extends QualityModel<QualityMeasur
     public QualityModelRowOrientedAmbiguity(WrappedBoolean interrupt,
                                             WrappedInteger progress,
                                             int totalWorkload,
-                                            DataHandle input,
-                                            DataHandle output,
+                                            DataHandleInternal input,
+                                            DataHandleInternal output,
                                             Groupify<TupleWrapper> groupedInput,
                                             Groupify<TupleWrapper> groupedOutput,
                                             String[][][] hierarchies,
@@ -77,7 +77,7 @@ public class QualityModelRowOrientedAmbiguity extends QualityModel<QualityMeasur
         
         // Prepare
         int[] indices = getIndices();
-        DataHandle output = getOutput();
+        DataHandleInternal output = getOutput();
         QualityDomainShare[] shares = getDomainShares();
         double min = 0d;
         double result = 0d;
@@ -17,7 +17,7 @@
 
 package org.deidentifier.arx.aggregates.quality;
 
-import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.common.Groupify;
 import org.deidentifier.arx.common.Groupify.Group;
 import org.deidentifier.arx.common.TupleWrapper;
@@ -53,8 +53,8 @@ public class QualityModelRowOrientedDiscernibility extends QualityModel<QualityM
     public QualityModelRowOrientedDiscernibility(WrappedBoolean interrupt,
                                                  WrappedInteger progress,
                                                  int totalWorkload,
-                                                 DataHandle input,
-                                                 DataHandle output,
+                                                 DataHandleInternal input,
+                                                 DataHandleInternal output,
                                                  Groupify<TupleWrapper> groupedInput,
                                                  Groupify<TupleWrapper> groupedOutput,
                                                  String[][][] hierarchies,
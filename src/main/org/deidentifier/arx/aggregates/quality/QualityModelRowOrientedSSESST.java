@@ -20,7 +20,7 @@ package org.deidentifier.arx.aggregates.quality;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataHandleInternal;
 import org.deidentifier.arx.common.Groupify;
 import org.deidentifier.arx.common.TupleWrapper;
 import org.deidentifier.arx.common.WrappedBoolean;
@@ -53,8 +53,8 @@ public class QualityModelRowOrientedSSESST extends QualityModel<QualityMeasureRo
     public QualityModelRowOrientedSSESST(WrappedBoolean interrupt,
                                       WrappedInteger progress,
                                       int totalWorkload,
-                                      DataHandle input,
-                                      DataHandle output,
+                                      DataHandleInternal input,
+                                      DataHandleInternal output,
                                       Groupify<TupleWrapper> groupedInput,
                                       Groupify<TupleWrapper> groupedOutput,
                                       String[][][] hierarchies,
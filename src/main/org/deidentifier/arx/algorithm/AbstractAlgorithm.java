@@ -17,6 +17,7 @@
 
 package org.deidentifier.arx.algorithm;
 
+import org.deidentifier.arx.ARXImprovementListener;
 import org.deidentifier.arx.ARXListener;
 import org.deidentifier.arx.ARXConfiguration.Monotonicity;
 import org.deidentifier.arx.framework.check.TransformationChecker;
@@ -44,6 +45,9 @@ public abstract class AbstractAlgorithm {
     /** The listener */
     private ARXListener             listener               = null;
 
+    /** Has the search been terminated by the listener? */
+    private boolean                 terminated             = false;
+
     /** A node checker. */
     protected TransformationChecker checker                = null;
 
@@ -107,6 +111,16 @@ public abstract class AbstractAlgorithm {
         }
     }
 
+    /**
+     * Returns whether the search has been terminated early by the listener. Algorithms
+     * must stop traversing the solution space as soon as possible, if this is the case.
+     *
+     * @return
+     */
+    protected boolean isTerminated() {
+        return terminated;
+    }
+
     /**
      * Propagate progress to listeners
      * @param progress
@@ -129,6 +143,12 @@ public abstract class AbstractAlgorithm {
             ((transformation.getInformationLoss().compareTo(optimalInformationLoss) == 0) && (transformation.getLevel() < globalOptimum.getLevel())))) {
             globalOptimum = transformation;
             optimalInformationLoss = transformation.getInformationLoss();
+            
+            // Propagate improvement to listeners
+            if (this.listener instanceof ARXImprovementListener &&
+                !((ARXImprovementListener) this.listener).improvement(transformation.getGeneralization().clone(), optimalInformationLoss)) {
+                terminated = true;
+            }
         }
     }
 
@@ -120,6 +120,7 @@ public class DataDependentEDDPAlgorithm extends AbstractAlgorithm {
         // Initialize variables tracking the best of all pivot elements
         Transformation bestTransformation = pivot;
         ILScore bestScore = score;
+        trackOptimum(bestTransformation);
         
         progress(0d);
 
@@ -128,7 +129,7 @@ public class DataDependentEDDPAlgorithm extends AbstractAlgorithm {
         transformationIDToScore.put(pivot.getIdentifier(), score);
         
         // For each step
-        for (int step = 1; step <= expansionLimit; ++step) {
+        for (int step = 1; step <= expansionLimit && !isTerminated(); ++step) {
             
             // Add predecessors of the current pivot element to the set of candidates
             LongArrayList list = pivot.getPredecessors();
@@ -152,6 +153,7 @@ public class DataDependentEDDPAlgorithm extends AbstractAlgorithm {
             if (score.compareTo(bestScore) < 0) {
                 bestTransformation = pivot;
                 bestScore = score;
+                trackOptimum(bestTransformation);
             }
             
             progress((double)step / (double)expansionLimit);
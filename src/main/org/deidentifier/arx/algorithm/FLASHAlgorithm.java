@@ -36,6 +36,9 @@ import org.deidentifier.arx.framework.lattice.Transformation;
  */
 public class FLASHAlgorithm {
 
+    /** Maximal number of transformations on a level, as each level is materialized and sorted */
+    private static final long MAX_LEVEL_SIZE = Integer.MAX_VALUE - 8;
+
     /**
      * Creates a new instance of the FLASH algorithm.
      *
@@ -98,6 +101,18 @@ public class FLASHAlgorithm {
         throw new IllegalStateException("Oops");
     }
 
+    /**
+     * Returns whether the given solution space can be searched with the FLASH algorithm.
+     * Levels are not iterated lazily: the transformations on each level are materialized
+     * and sorted, which is why the largest level must fit into an array.
+     *
+     * @param solutionSpace
+     * @return
+     */
+    public static boolean isSupported(final SolutionSpace solutionSpace) {
+        return solutionSpace.getMaxLevelSize() <= MAX_LEVEL_SIZE;
+    }
+
     /**
      * Semantics of method name: monotonicity of privacy + monotonicity of utility.
      *
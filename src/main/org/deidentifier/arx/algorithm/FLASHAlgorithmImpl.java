@@ -18,14 +18,13 @@
 package org.deidentifier.arx.algorithm;
 
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.PriorityQueue;
 
 import org.deidentifier.arx.algorithm.FLASHPhaseConfiguration.PhaseAnonymityProperty;
 import org.deidentifier.arx.framework.check.TransformationResult;
 import org.deidentifier.arx.framework.check.TransformationChecker;
+import org.deidentifier.arx.framework.check.TransformationCheckerPool;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
 import org.deidentifier.arx.framework.lattice.DependentAction;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
@@ -38,7 +37,7 @@ import cern.colt.Swapper;
 import cern.colt.function.IntComparator;
 import cern.colt.list.LongArrayList;
 
-import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
 
 import de.linearbits.jhpl.JHPLIterator.LongIterator;
 import de.linearbits.jhpl.PredictiveProperty;
@@ -51,20 +50,107 @@ import de.linearbits.jhpl.PredictiveProperty;
  */
 public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
+    /**
+     * A priority queue of transformation identifiers, which are ordered according to the strategy.
+     * Mirrors the binary heap implemented by java.util.PriorityQueue, without boxing identifiers.
+     *
+     * @author Fabian Prasser
+     */
+    static class LongPriorityQueue {
+
+        /** Heap */
+        private long[]              heap = new long[16];
+
+        /** Size */
+        private int                 size = 0;
+
+        /** The strategy */
+        private final FLASHStrategy strategy;
+
+        /**
+         * Creates a new instance
+         * @param strategy
+         */
+        LongPriorityQueue(FLASHStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        /**
+         * Adds an identifier
+         * @param id
+         */
+        void add(long id) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, heap.length * 2);
+            }
+            int k = size++;
+            while (k > 0) {
+                int parent = (k - 1) >>> 1;
+                long element = heap[parent];
+                if (strategy.compare(id, element) >= 0) {
+                    break;
+                }
+                heap[k] = element;
+                k = parent;
+            }
+            heap[k] = id;
+        }
+
+        /**
+         * Returns whether the queue is empty
+         * @return
+         */
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Removes and returns the head of the queue
+         * @return
+         */
+        long poll() {
+            long result = heap[0];
+            long id = heap[--size];
+            int k = 0;
+            int half = size >>> 1;
+            while (k < half) {
+                int child = (k << 1) + 1;
+                long element = heap[child];
+                int right = child + 1;
+                if (right < size && strategy.compare(element, heap[right]) > 0) {
+                    element = heap[child = right];
+                }
+                if (strategy.compare(id, element) <= 0) {
+                    break;
+                }
+                heap[k] = element;
+                k = child;
+            }
+            heap[k] = id;
+            return result;
+        }
+    }
+
     /** Configuration for the algorithm's phases. */
-    protected final FLASHConfiguration config;
+    protected final FLASHConfiguration          config;
+
+    /** Are the pointers for a node with id 'index' already sorted?, for small solution spaces. */
+    private final long[][]                      sortedSuccessors;
 
-    /** Are the pointers for a node with id 'index' already sorted?. */
-    private final int[][]              sortedSuccessors;
+    /** Are the pointers for a node with id 'index' already sorted?, for large solution spaces. */
+    private final LongObjectOpenHashMap<long[]> sparseSortedSuccessors;
 
     /** The strategy. */
-    private final FLASHStrategy        strategy;
+    private final FLASHStrategy                 strategy;
 
     /** List of nodes that may be used for pruning transformations with insufficient utility. */
-    private final List<Integer>        potentiallyInsufficientUtility;
+    private final LongArrayList                 potentiallyInsufficientUtility;
 
     /** The number of checked transformations */
-    private int                        checked = 0;
+    private int                                 checked = 0;
+
+    /** Pool for checking transformations in parallel, if any */
+    private TransformationCheckerPool           pool    = null;
 
     /**
      * Creates a new instance.
@@ -80,16 +166,19 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                               FLASHConfiguration config) {
 
         super(solutionSpace, checker);
-        if (solutionSpace.getSize() > Integer.MAX_VALUE) {
-            throw new IllegalArgumentException();
-        }
         this.checked = 0;
         this.solutionSpace.setAnonymityPropertyPredictable(config.isAnonymityPropertyPredicable());
         this.strategy = strategy;
-        this.sortedSuccessors = new int[(int)solutionSpace.getSize()][];
+        if (solutionSpace.getSize() <= FLASHStrategy.getMaxDenseSize()) {
+            this.sortedSuccessors = new long[(int)solutionSpace.getSize()][];
+            this.sparseSortedSuccessors = null;
+        } else {
+            this.sortedSuccessors = null;
+            this.sparseSortedSuccessors = new LongObjectOpenHashMap<long[]>();
+        }
         this.config = config;
         this.potentiallyInsufficientUtility = this.config.isPruneInsufficientUtility() ? 
-                                              new LinkedList<Integer>() : null;
+                                              new LongArrayList() : null;
     }
 
     @Override
@@ -106,8 +195,12 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         // Set some triggers
         checker.getHistory().setStorageStrategy(config.getSnapshotStorageStrategy());
 
+        // Prepare parallel checks
+        int numThreads = checker.getConfiguration().getNumThreads();
+        this.pool = numThreads > 1 ? new TransformationCheckerPool(checker, numThreads) : null;
+
         // Initialize
-        PriorityQueue<Integer> queue = new PriorityQueue<Integer>(solutionSpace.getTop().getLevel() + 1, strategy);
+        LongPriorityQueue queue = new LongPriorityQueue(strategy);
         Transformation bottom = solutionSpace.getBottom();
         Transformation top = solutionSpace.getTop();
 
@@ -117,17 +210,32 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         bottom.setData(result);
 
         // For each node in the lattice
-        for (int level = bottom.getLevel(); level <= top.getLevel(); level++) {
-            for (int id : getSortedUnprocessedNodes(level, outerLoopConfiguration.getTriggerSkip())) {
-
-                // Run the correct phase
-                Transformation transformation = solutionSpace.getTransformation(id);
-                if (config.isBinaryPhaseRequired()) {
-                    binarySearch(transformation, queue);
-                } else {
-                    linearSearch(transformation);
+        try {
+            for (int level = bottom.getLevel(); level <= top.getLevel() && !isTerminated(); level++) {
+                long[] ids = getSortedUnprocessedNodes(level, outerLoopConfiguration.getTriggerSkip());
+                for (int i = 0; i < ids.length && !isTerminated(); i++) {
+                    
+                    // Speculatively check upcoming transformations
+                    if (pool != null && !config.isBinaryPhaseRequired()) {
+                        for (int j = i; j < ids.length && !isSaturated(outerLoopConfiguration); j++) {
+                            prefetch(solutionSpace.getTransformation(ids[j]), outerLoopConfiguration);
+                        }
+                    }
+    
+                    // Run the correct phase
+                    Transformation transformation = solutionSpace.getTransformation(ids[i]);
+                    if (config.isBinaryPhaseRequired()) {
+                        binarySearch(transformation, queue);
+                    } else {
+                        linearSearch(transformation);
+                    }
                 }
             }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
         }
 
         // Potentially allows to better estimate utility in the lattice
@@ -143,7 +251,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         }
         
         // Return whether the optimum has been found
-        return this.getGlobalOptimum() != null;
+        return !this.isTerminated() && this.getGlobalOptimum() != null;
     }
 
     /**
@@ -152,16 +260,16 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      * @param transformation
      * @param queue
      */
-    private void binarySearch(Transformation transformation, PriorityQueue<Integer> queue) {
+    private void binarySearch(Transformation transformation, LongPriorityQueue queue) {
 
         // Obtain node action
         DependentAction triggerSkip = config.getBinaryPhaseConfiguration().getTriggerSkip();
 
         // Add to queue
-        queue.add((int)transformation.getIdentifier());
+        queue.add(transformation.getIdentifier());
 
         // While queue is not empty
-        while (!queue.isEmpty()) {
+        while (!queue.isEmpty() && !isTerminated()) {
 
             // Remove head and process
             transformation = solutionSpace.getTransformation(queue.poll());
@@ -198,7 +306,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 transformation.setLowerBound(checker.getMetric().getLowerBound(transformation));
             }
         } else if (configuration.getTriggerCheck().appliesTo(transformation)) {
-            transformation.setChecked(checker.check(transformation));
+            transformation.setChecked(pool != null ? pool.check(transformation) : checker.check(transformation));
             progress((double)++checked / (double)solutionSpace.getSize());
         }
 
@@ -212,6 +320,17 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         prune(transformation);
     }
 
+    /**
+     * Cancels a speculative check of the given transformation, which will not be checked anymore
+     *
+     * @param transformation
+     */
+    private void cancel(Transformation transformation) {
+        if (pool != null) {
+            pool.cancel(transformation);
+        }
+    }
+
     /**
      * Checks a path binary.
      *
@@ -220,7 +339,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      * @param queue
      * @return
      */
-    private Transformation checkPath(List<Transformation> path, DependentAction triggerSkip, PriorityQueue<Integer> queue) {
+    private Transformation checkPath(List<Transformation> path, DependentAction triggerSkip, LongPriorityQueue queue) {
 
         // Obtain anonymity property
         PredictiveProperty anonymityProperty = config.getBinaryPhaseConfiguration().getAnonymityProperty() == PhaseAnonymityProperty.ANONYMITY ?
@@ -232,7 +351,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         Transformation lastAnonymousTransformation = null;
 
         // While not done
-        while (low <= high) {
+        while (low <= high && !isTerminated()) {
 
             // Init
             final int mid = (low + high) / 2;
@@ -241,12 +360,23 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Skip
             if (!skip(triggerSkip, transformation)) {
 
+                // Speculatively check both potential next steps of the binary search
+                if (pool != null) {
+                    prefetch(transformation, config.getBinaryPhaseConfiguration());
+                    if (low <= mid - 1) {
+                        prefetch(path.get((low + mid - 1) / 2), config.getBinaryPhaseConfiguration());
+                    }
+                    if (mid + 1 <= high) {
+                        prefetch(path.get((mid + 1 + high) / 2), config.getBinaryPhaseConfiguration());
+                    }
+                }
+
                 // Check and tag
                 checkAndTag(transformation, config.getBinaryPhaseConfiguration());
 
                 // Add nodes to queue
                 if (!transformation.hasProperty(anonymityProperty)) {
-                    for (final int up : getSortedSuccessors(transformation)) {
+                    for (final long up : getSortedSuccessors(transformation)) {
                         if (!skip(triggerSkip, solutionSpace.getTransformation(up))) {
                             queue.add(up);
                         }
@@ -281,7 +411,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         boolean found = true;
         while (found) {
             found = false;
-            for (final int id : getSortedSuccessors(current)) {
+            for (final long id : getSortedSuccessors(current)) {
                 Transformation next = solutionSpace.getTransformation(id);
                 if (!skip(triggerSkip, next)) {
                     current = next;
@@ -299,47 +429,91 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      *
      * @param transformation
      */
-    private int[] getSortedSuccessors(final Transformation transformation) {
+    private long[] getSortedSuccessors(final Transformation transformation) {
         
-        int identifier = (int)transformation.getIdentifier();
-        if (sortedSuccessors[identifier] == null) {
-            LongArrayList list = transformation.getSuccessors();
-            int[] result = new int[list.size()];
-            for (int i=0; i<list.size(); i++) {
-                result[i] = (int)list.getQuick(i);
-            }
-            sort(result);
-            sortedSuccessors[identifier] = result;
+        long identifier = transformation.getIdentifier();
+        if (sortedSuccessors != null && sortedSuccessors[(int)identifier] != null) {
+            return sortedSuccessors[(int)identifier];
+        } else if (sparseSortedSuccessors != null && sparseSortedSuccessors.containsKey(identifier)) {
+            return sparseSortedSuccessors.lget();
+        }
+        
+        LongArrayList list = transformation.getSuccessors();
+        long[] result = new long[list.size()];
+        for (int i=0; i<list.size(); i++) {
+            result[i] = list.getQuick(i);
+        }
+        sort(result);
+        if (sortedSuccessors != null) {
+            sortedSuccessors[(int)identifier] = result;
+        } else {
+            sparseSortedSuccessors.put(identifier, result);
         }
-        return sortedSuccessors[identifier];
+        return result;
     }
 
     /**
      * Returns all transformations that do not have the given property and sorts the resulting array
-     * according to the strategy.
+     * according to the strategy. Each transformation on the level is visited to determine whether it has
+     * been pruned, only the identifiers of transformations which have not been pruned are stored.
      *
      * @param level The level which is to be sorted
      * @param triggerSkip The trigger to be used for limiting the number of nodes to be sorted
      * @return A sorted array of nodes remaining on this level
      */
-    private int[] getSortedUnprocessedNodes(int level, DependentAction triggerSkip) {
+    private long[] getSortedUnprocessedNodes(int level, DependentAction triggerSkip) {
 
         // Create
-        IntArrayList list = new IntArrayList();
+        LongArrayList list = new LongArrayList();
         for (LongIterator iter = solutionSpace.unsafeGetLevel(level); iter.hasNext();) {
             long id = iter.next();
             if (!skip(triggerSkip, solutionSpace.getTransformation(id))) {
-                list.add((int)id);
+                list.add(id);
             }            
         }
 
         // Copy & sort
-        int[] array = new int[list.size()];
-        System.arraycopy(list.buffer, 0, array, 0, list.elementsCount);
+        list.trimToSize();
+        long[] array = list.elements();
         sort(array);
         return array;
     }
 
+    /**
+     * Returns whether the given transformation would currently be checked in the given phase
+     *
+     * @param transformation
+     * @param configuration
+     * @return
+     */
+    private boolean isCheckRequired(Transformation transformation, FLASHPhaseConfiguration configuration) {
+        return !configuration.getTriggerSkip().appliesTo(transformation) &&
+               !configuration.getTriggerEvaluate().appliesTo(transformation) &&
+               configuration.getTriggerCheck().appliesTo(transformation) &&
+               !transformation.hasProperty(solutionSpace.getPropertyInsufficientUtility()) &&
+               !(transformation.getData() instanceof TransformationResult);
+    }
+
+    /**
+     * Returns whether the pool is saturated. If so, speculative checks of transformations which
+     * have been tagged or pruned in the meantime are cancelled first, as their results will never
+     * be obtained.
+     *
+     * @param configuration
+     * @return
+     */
+    private boolean isSaturated(FLASHPhaseConfiguration configuration) {
+        if (pool.isSaturated()) {
+            for (long identifier : pool.getPendingTransformations()) {
+                Transformation transformation = solutionSpace.getTransformation(identifier);
+                if (!isCheckRequired(transformation, configuration)) {
+                    pool.cancel(transformation);
+                }
+            }
+        }
+        return pool.isSaturated();
+    }
+
     /**
      * Implements a depth-first search with predictive tagging.
      *
@@ -347,6 +521,11 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      */
     private void linearSearch(Transformation transformation) {
 
+        // Stop, if the search has been terminated
+        if (isTerminated()) {
+            return;
+        }
+
         // Obtain node action
         DependentAction triggerSkip = config.getLinearPhaseConfiguration().getTriggerSkip();
 
@@ -356,8 +535,18 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Check and tag
             checkAndTag(transformation, config.getLinearPhaseConfiguration());
 
+            // Speculatively check successors
+            if (pool != null) {
+                for (final long child : getSortedSuccessors(transformation)) {
+                    if (isSaturated(config.getLinearPhaseConfiguration())) {
+                        break;
+                    }
+                    prefetch(solutionSpace.getTransformation(child), config.getLinearPhaseConfiguration());
+                }
+            }
+
             // DFS
-            for (final int child : getSortedSuccessors(transformation)) {
+            for (final long child : getSortedSuccessors(transformation)) {
                 Transformation childTransformation = solutionSpace.getTransformation(child);
                 if (!skip(triggerSkip, childTransformation)) {
                     linearSearch(childTransformation);
@@ -365,8 +554,24 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             }
         }
 
-        // Mark as successors pruned
-        transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+        // Mark as successors pruned, unless the search has been terminated before processing them
+        if (!isTerminated()) {
+            transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+        }
+    }
+
+    /**
+     * Submits the given transformation for being checked in the background, if
+     * it would currently be checked in the given phase. Does not modify any
+     * properties of the transformation.
+     *
+     * @param transformation
+     * @param configuration
+     */
+    private void prefetch(Transformation transformation, FLASHPhaseConfiguration configuration) {
+        if (isCheckRequired(transformation, configuration) && !isSaturated(configuration)) {
+            pool.submit(transformation);
+        }
     }
 
     /**
@@ -397,7 +602,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // If we haven't yet found an optimum, we simply add the node to the list of pruning candidates
         if (optimalTransformation == null) {
-            potentiallyInsufficientUtility.add((int)node.getIdentifier());
+            potentiallyInsufficientUtility.add(node.getIdentifier());
             return;
         }
 
@@ -413,33 +618,39 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 node.setProperty(solutionSpace.getPropertySuccessorsPruned());
                 // Else, we store it as a future pruning candidate
             } else {
-                potentiallyInsufficientUtility.add((int)node.getIdentifier());
+                potentiallyInsufficientUtility.add(node.getIdentifier());
             }
 
             // If the current node is our new optimum, we check all candidates
         } else {
 
-            // For each candidate
-            Iterator<Integer> iterator = potentiallyInsufficientUtility.iterator();
-            while (iterator.hasNext()) {
-                Integer current = iterator.next();
+            // For each candidate, retained candidates are compacted in place
+            int retained = 0;
+            for (int i = 0; i < potentiallyInsufficientUtility.size(); i++) {
+                long current = potentiallyInsufficientUtility.getQuick(i);
 
                 // Remove the candidate, if it was already pruned in the meantime
                 Transformation currentTransformation = solutionSpace.getTransformation(current);
                 if (currentTransformation.hasProperty(solutionSpace.getPropertySuccessorsPruned())) {
-                    iterator.remove();
+                    continue;
+                }
 
-                    // Else, check if we can prune it
-                } else if (optimalInfoLoss.compareTo(currentTransformation.getLowerBound()) <= 0) {
+                // Else, check if we can prune it
+                if (optimalInfoLoss.compareTo(currentTransformation.getLowerBound()) <= 0) {
                     currentTransformation.setProperty(solutionSpace.getPropertyInsufficientUtility());
                     currentTransformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
-                    iterator.remove();
+                    cancel(currentTransformation);
+                    continue;
                 }
+
+                // Else, keep it
+                potentiallyInsufficientUtility.setQuick(retained++, current);
             }
+            potentiallyInsufficientUtility.setSize(retained);
 
             // The current optimum is a future pruning candidate
             if (!node.hasProperty(solutionSpace.getPropertySuccessorsPruned())) {
-                potentiallyInsufficientUtility.add((int)node.getIdentifier());
+                potentiallyInsufficientUtility.add(node.getIdentifier());
             }
         }
     }
@@ -455,6 +666,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // If the trigger applies, skip
         if (trigger.appliesTo(transformation)) {
+            cancel(transformation);
             return true;
         }
 
@@ -468,6 +680,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
             // We skip, if we already know that this node has insufficient utility
             if (transformation.hasProperty(solutionSpace.getPropertyInsufficientUtility())) {
+                cancel(transformation);
                 return true;
             }
 
@@ -485,6 +698,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 if (getGlobalOptimum().getInformationLoss().compareTo(lowerBound) <= 0) {
                     transformation.setProperty(solutionSpace.getPropertyInsufficientUtility());
                     transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+                    cancel(transformation);
                     return true;
                 }
             }
@@ -499,7 +713,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      * 
      * @param array
      */
-    private void sort(final int[] array) {
+    private void sort(final long[] array) {
         GenericSorting.mergeSort(0, array.length, new IntComparator(){
             @Override
             public int compare(int arg0, int arg1) {
@@ -508,7 +722,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         }, new Swapper(){
             @Override
             public void swap(int arg0, int arg1) {
-                int temp = array[arg0];
+                long temp = array[arg0];
                 array[arg0] = array[arg1];
                 array[arg1] = temp;
             }
@@ -23,6 +23,8 @@ import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
+
 /**
  * This class implements a total order on all transformations in the search space. It is
  * used by the Flash algorithm to achieve stable execution times.
@@ -30,22 +32,28 @@ import org.deidentifier.arx.framework.lattice.Transformation;
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
-public class FLASHStrategy implements Comparator<Integer> {
+public class FLASHStrategy implements Comparator<Long> {
+
+    /** Solution spaces up to this size are backed by arrays, larger spaces by hash maps. */
+    private static int                            maxDenseSize = 1 << 24;
 
     /** The distinct values. */
-    private final int[][]       distinct;
+    private final int[][]                         distinct;
 
     /** The maximal level in the lattice. */
-    private final int           maxlevel;
+    private final int                             maxlevel;
 
     /** The maximal level for each quasi-identifier. */
-    private final int[]         maxLevels;
+    private final int[]                           maxLevels;
+
+    /** The cached values for a node with id 'index', for small solution spaces. */
+    private final double[][]                      cache;
 
-    /** The cached values for a node with id 'index'. */
-    private final double[][]    cache;
+    /** The cached values for a node with id 'index', for large solution spaces. */
+    private final LongObjectOpenHashMap<double[]> sparseCache;
 
     /** The solution space */
-    private final SolutionSpace solutionSpace;
+    private final SolutionSpace                   solutionSpace;
 
     /**
      * Creates a new instance.
@@ -56,11 +64,6 @@ public class FLASHStrategy implements Comparator<Integer> {
     public FLASHStrategy(final SolutionSpace solutionSpace,
                          final GeneralizationHierarchy[] hierarchies) {
 
-        // Check
-        if (solutionSpace.getSize() > Integer.MAX_VALUE) {
-            throw new IllegalArgumentException("Solution space is too large for executing the FLASH algorithm");
-        }
-        
         // Store
         this.solutionSpace = solutionSpace;
         
@@ -80,7 +83,32 @@ public class FLASHStrategy implements Comparator<Integer> {
         }
         
         // Prepare cache
-        this.cache = new double[(int)solutionSpace.getSize()][];
+        if (solutionSpace.getSize() <= maxDenseSize) {
+            this.cache = new double[(int)solutionSpace.getSize()][];
+            this.sparseCache = null;
+        } else {
+            this.cache = null;
+            this.sparseCache = new LongObjectOpenHashMap<double[]>();
+        }
+    }
+
+    /**
+     * Returns the maximal size of solution spaces that are backed by arrays.
+     * 
+     * @return
+     */
+    static int getMaxDenseSize() {
+        return maxDenseSize;
+    }
+
+    /**
+     * Sets the maximal size of solution spaces that are backed by arrays. Larger
+     * solution spaces are backed by hash maps. Used for testing.
+     * 
+     * @param size
+     */
+    static void setMaxDenseSize(int size) {
+        maxDenseSize = size;
     }
 
     /**
@@ -93,17 +121,24 @@ public class FLASHStrategy implements Comparator<Integer> {
      * @return the int
      */
     @Override
-    public int compare(final Integer n1, final Integer n2) {
+    public int compare(final Long n1, final Long n2) {
+        return compare(n1.longValue(), n2.longValue());
+    }
+
+    /**
+     * Compares transformations.
+     * 
+     * @param n1
+     *            the n1
+     * @param n2
+     *            the n2
+     * @return the int
+     */
+    public int compare(final long n1, final long n2) {
 
         // Obtain vals
-        if (cache[n1] == null) {
-            cache[n1] = getCriteria(n1);
-        }
-        if (cache[n2] == null) {
-            cache[n2] = getCriteria(n2);
-        }
-        final double[] m1 = cache[n1];
-        final double[] m2 = cache[n2];
+        final double[] m1 = getCachedCriteria(n1);
+        final double[] m2 = getCachedCriteria(n2);
 
         // Compare vals
         if (m1[0] < m2[0]) {
@@ -123,13 +158,35 @@ public class FLASHStrategy implements Comparator<Integer> {
         }
     }
 
+    /**
+     * Returns the criteria that determines a transformations's position from the cache.
+     * 
+     * @param id the id
+     * @return the value
+     */
+    private final double[] getCachedCriteria(final long id) {
+        if (cache != null) {
+            if (cache[(int)id] == null) {
+                cache[(int)id] = getCriteria(id);
+            }
+            return cache[(int)id];
+        } else {
+            if (sparseCache.containsKey(id)) {
+                return sparseCache.lget();
+            }
+            double[] result = getCriteria(id);
+            sparseCache.put(id, result);
+            return result;
+        }
+    }
+
     /**
      * Returns the criteria that determines a transformations's position.
      * 
      * @param id the id
      * @return the value
      */
-    private final double[] getCriteria(final int id) {
+    private final double[] getCriteria(final long id) {
         
         // Prepare
         double level = 0;
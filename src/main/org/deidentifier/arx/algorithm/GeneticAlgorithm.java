@@ -0,0 +1,424 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.deidentifier.arx.framework.check.TransformationChecker;
+import org.deidentifier.arx.framework.check.TransformationChecker.ScoreType;
+import org.deidentifier.arx.framework.check.TransformationCheckerPool;
+import org.deidentifier.arx.framework.check.TransformationResult;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLoss;
+
+import com.carrotsearch.hppc.LongOpenHashSet;
+
+import de.linearbits.jhpl.PredictiveProperty;
+
+/**
+ * This class implements a genetic algorithm for searching large solution spaces. Each generation
+ * consists of a population of transformations, which are checked in parallel if multiple threads
+ * have been configured. The next generation consists of the fittest transformations and of
+ * transformations derived from them via crossover and mutation. The search terminates when the
+ * time limit or the step limit has been reached or when the optimum has not improved for a
+ * number of generations.
+ *
+ * @author Fabian Prasser
+ */
+public class GeneticAlgorithm extends AbstractAlgorithm {
+
+    /**
+     * Creates a new instance
+     * @param solutionSpace
+     * @param checker
+     * @param timeLimit
+     * @param checkLimit
+     * @return
+     */
+    public static AbstractAlgorithm create(SolutionSpace solutionSpace, TransformationChecker checker, int timeLimit, int checkLimit) {
+        return new GeneticAlgorithm(solutionSpace, checker, timeLimit, checkLimit);
+    }
+
+    /** Fraction of the population which is carried over into the next generation */
+    private static final double       ELITE_FRACTION      = 0.2d;
+    /** Number of attempts for breeding a transformation that has not been checked before */
+    private static final int          MAX_ATTEMPTS        = 10;
+    /** Minimal size of the population */
+    private static final int          MIN_POPULATION_SIZE = 20;
+    /** Seed of the random generator, for reproducible results */
+    private static final long         SEED                = 0xDECAFBADL;
+    /** Number of generations without improvement after which the search terminates */
+    private static final int          STAGNATION_LIMIT    = 25;
+    /** Number of transformations competing in each tournament selection */
+    private static final int          TOURNAMENT_SIZE     = 3;
+
+    /** Property */
+    private final PredictiveProperty  propertyAnonymous;
+    /** Property */
+    private final PredictiveProperty  propertyChecked;
+    /** Property */
+    private final PredictiveProperty  propertyInsufficientUtility;
+
+    /** Minimal generalization levels */
+    private final int[]               minLevels;
+    /** Maximal generalization levels */
+    private final int[]               maxLevels;
+    /** Probability of mutating a generalization level */
+    private final double              mutationProbability;
+    /** Size of the population */
+    private final int                 populationSize;
+    /** Time limit */
+    private final int                 timeLimit;
+    /** The start time */
+    private long                      timeStart;
+    /** The number of checks */
+    private int                       checkCount;
+    /** The maximal number of checks */
+    private final int                 checkLimit;
+    /** Pool for checking transformations in parallel, if any */
+    private TransformationCheckerPool pool;
+
+    /**
+     * Constructor
+     * @param space
+     * @param checker
+     * @param timeLimit
+     * @param checkLimit
+     */
+    private GeneticAlgorithm(SolutionSpace space, TransformationChecker checker, int timeLimit, int checkLimit) {
+        super(space, checker);
+        this.checker.getHistory().setStorageStrategy(StorageStrategy.ALL);
+        this.solutionSpace.setAnonymityPropertyPredictable(false);
+        this.propertyAnonymous = space.getPropertyAnonymous();
+        this.propertyChecked = space.getPropertyChecked();
+        this.propertyInsufficientUtility = space.getPropertyInsufficientUtility();
+        this.minLevels = space.getBottom().getGeneralization().clone();
+        this.maxLevels = space.getTop().getGeneralization().clone();
+        this.mutationProbability = 1d / (double) Math.max(1, minLevels.length);
+        this.populationSize = Math.max(MIN_POPULATION_SIZE, 2 * minLevels.length);
+        this.timeLimit = timeLimit;
+        this.checkLimit = checkLimit;
+        if (timeLimit <= 0) {
+            throw new IllegalArgumentException("Invalid time limit. Must be greater than zero.");
+        }
+        if (checkLimit <= 0) {
+            throw new IllegalArgumentException("Invalid step limit. Must be greater than zero.");
+        }
+    }
+
+    @Override
+    public boolean traverse() {
+
+        // Prepare
+        timeStart = System.currentTimeMillis();
+        checkCount = 0;
+        Random random = new Random(SEED);
+        int numThreads = checker.getConfiguration().getNumThreads();
+        this.pool = numThreads > 1 ? new TransformationCheckerPool(checker, numThreads) : null;
+
+        try {
+
+            // Initial population: bottom, top and random transformations
+            List<int[]> population = new ArrayList<int[]>();
+            population.add(minLevels.clone());
+            population.add(maxLevels.clone());
+            while (population.size() < populationSize) {
+                int[] individual = new int[minLevels.length];
+                for (int i = 0; i < individual.length; i++) {
+                    individual[i] = getRandomLevel(random, i);
+                }
+                population.add(individual);
+            }
+
+            // Evolve
+            int stagnation = 0;
+            while (true) {
+
+                // Evaluate
+                Transformation optimum = getGlobalOptimum();
+                List<Transformation> evaluated = evaluate(population);
+                if (mustStop()) {
+                    break;
+                }
+
+                // Check for convergence
+                stagnation = getGlobalOptimum() == optimum ? stagnation + 1 : 0;
+                if (stagnation >= STAGNATION_LIMIT || checkCount >= solutionSpace.getSize()) {
+                    break;
+                }
+
+                // Next generation
+                population = breed(evaluated, random);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+        }
+
+        // The result is only known to be optimal if all transformations have been checked
+        return !isTerminated() && checkCount >= solutionSpace.getSize() && getGlobalOptimum() != null;
+    }
+
+    /**
+     * Makes sure that the given transformation has been checked, unless it can be pruned
+     * @param transformation
+     */
+    private void assureChecked(Transformation transformation) {
+        if (transformation.hasProperty(propertyChecked)) {
+            return;
+        }
+        if (prune(transformation)) {
+            if (pool != null) {
+                pool.cancel(transformation);
+            }
+        } else {
+            TransformationResult result = pool != null ? pool.check(transformation, true, ScoreType.INFORMATION_LOSS) :
+                                                         checker.check(transformation, true, ScoreType.INFORMATION_LOSS);
+            transformation.setChecked(result);
+            trackOptimum(transformation);
+            checkCount++;
+            double progressSteps = (double)checkCount / (double)checkLimit;
+            double progressTime = (double)(System.currentTimeMillis() - timeStart) / (double)timeLimit;
+            progress(Math.max(progressSteps, progressTime));
+        }
+    }
+
+    /**
+     * Creates the next generation from the given evaluated population
+     * @param evaluated
+     * @param random
+     * @return
+     */
+    private List<int[]> breed(List<Transformation> evaluated, Random random) {
+
+        // Rank
+        Collections.sort(evaluated, new Comparator<Transformation>() {
+            @Override
+            public int compare(Transformation t1, Transformation t2) {
+                return compareFitness(t1, t2);
+            }
+        });
+
+        // Carry over the fittest transformations
+        List<int[]> result = new ArrayList<int[]>();
+        int elites = Math.min(evaluated.size(), Math.max(1, (int) (populationSize * ELITE_FRACTION)));
+        for (int i = 0; i < elites; i++) {
+            result.add(evaluated.get(i).getGeneralization().clone());
+        }
+
+        // Breed the remaining transformations
+        while (result.size() < populationSize) {
+            int[] child = null;
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                int[] parent1 = select(evaluated, random);
+                int[] parent2 = select(evaluated, random);
+                child = new int[parent1.length];
+                for (int i = 0; i < child.length; i++) {
+                    child[i] = random.nextBoolean() ? parent1[i] : parent2[i];
+                    if (random.nextDouble() < mutationProbability) {
+                        child[i] = mutate(random, i, child[i]);
+                    }
+                }
+                if (!solutionSpace.getTransformation(child).hasProperty(propertyChecked)) {
+                    break;
+                }
+            }
+            result.add(child);
+        }
+
+        // Return
+        return result;
+    }
+
+    /**
+     * Compares the fitness of two transformations. Anonymous transformations are fitter than
+     * transformations which are not anonymous, which are in turn fitter than transformations
+     * which have not been checked. Within these groups, lower information loss is fitter.
+     * @param t1
+     * @param t2
+     * @return
+     */
+    private int compareFitness(Transformation t1, Transformation t2) {
+
+        // Compare categories
+        int category1 = getCategory(t1);
+        int category2 = getCategory(t2);
+        if (category1 != category2) {
+            return category1 < category2 ? -1 : +1;
+        }
+
+        // Compare information loss
+        InformationLoss<?> loss1 = t1.getInformationLoss();
+        InformationLoss<?> loss2 = t2.getInformationLoss();
+        if (loss1 != null && loss2 != null) {
+            int cmp = loss1.compareTo(loss2);
+            if (cmp != 0) {
+                return cmp;
+            }
+        } else if (loss1 != null || loss2 != null) {
+            return loss1 != null ? -1 : +1;
+        }
+
+        // Prefer lower levels
+        return t1.getLevel() < t2.getLevel() ? -1 : (t1.getLevel() > t2.getLevel() ? +1 : 0);
+    }
+
+    /**
+     * Checks all distinct transformations in the given population, in parallel if possible
+     * @param population
+     * @return
+     */
+    private List<Transformation> evaluate(List<int[]> population) {
+
+        // Collect distinct transformations
+        List<Transformation> result = new ArrayList<Transformation>();
+        LongOpenHashSet identifiers = new LongOpenHashSet();
+        for (int[] individual : population) {
+            Transformation transformation = solutionSpace.getTransformation(individual);
+            if (identifiers.add(transformation.getIdentifier())) {
+                result.add(transformation);
+            }
+        }
+
+        // Check
+        for (int i = 0; i < result.size() && !mustStop(); i++) {
+
+            // Speculatively check upcoming transformations
+            if (pool != null) {
+                for (int j = i; j < result.size() && !pool.isSaturated(); j++) {
+                    Transformation transformation = result.get(j);
+                    if (!transformation.hasProperty(propertyChecked) && !prune(transformation)) {
+                        pool.submit(transformation, true, ScoreType.INFORMATION_LOSS);
+                    }
+                }
+            }
+
+            // Check
+            assureChecked(result.get(i));
+        }
+
+        // Return
+        return result;
+    }
+
+    /**
+     * Returns the category of the given transformation used for comparing fitness
+     * @param transformation
+     * @return
+     */
+    private int getCategory(Transformation transformation) {
+        if (!transformation.hasProperty(propertyChecked)) {
+            return 2;
+        } else if (!transformation.hasProperty(propertyAnonymous)) {
+            return 1;
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns a random generalization level for the given quasi-identifier
+     * @param random
+     * @param dimension
+     * @return
+     */
+    private int getRandomLevel(Random random, int dimension) {
+        return minLevels[dimension] + random.nextInt(maxLevels[dimension] - minLevels[dimension] + 1);
+    }
+
+    /**
+     * Returns whether we have exceeded the allowed number of steps or time.
+     * @return
+     */
+    private boolean mustStop() {
+        return ((int)(System.currentTimeMillis() - timeStart) > timeLimit) ||
+               (checkCount >= checkLimit) || isTerminated();
+    }
+
+    /**
+     * Mutates the given generalization level. Either moves to a neighboring level
+     * or to a random level with equal probability.
+     * @param random
+     * @param dimension
+     * @param level
+     * @return
+     */
+    private int mutate(Random random, int dimension, int level) {
+        if (random.nextBoolean()) {
+            return getRandomLevel(random, dimension);
+        }
+        level += random.nextBoolean() ? 1 : -1;
+        return Math.max(minLevels[dimension], Math.min(maxLevels[dimension], level));
+    }
+
+    /**
+     * Returns whether we can prune this transformation
+     * @param transformation
+     * @return
+     */
+    private boolean prune(Transformation transformation) {
+
+        // Already pruned
+        if (transformation.hasProperty(propertyInsufficientUtility)) {
+            return true;
+        }
+
+        // If a current optimum has been discovered
+        Transformation optimum = getGlobalOptimum();
+        if (optimum != null) {
+
+            // We can compare lower bounds on quality
+            InformationLoss<?> bound = transformation.getLowerBound();
+            if (bound == null) {
+                bound = checker.getMetric().getLowerBound(transformation);
+                if (bound != null) {
+                    transformation.setLowerBound(bound);
+                }
+            }
+            if (bound != null && bound.compareTo(optimum.getInformationLoss()) >= 0) {
+                transformation.setProperty(propertyInsufficientUtility);
+                return true;
+            }
+        }
+
+        // We have to process this transformation
+        return false;
+    }
+
+    /**
+     * Selects a transformation from the ranked population via tournament selection
+     * @param ranked
+     * @param random
+     * @return
+     */
+    private int[] select(List<Transformation> ranked, Random random) {
+        int index = ranked.size();
+        for (int i = 0; i < TOURNAMENT_SIZE; i++) {
+            index = Math.min(index, random.nextInt(ranked.size()));
+        }
+        return ranked.get(index).getGeneralization();
+    }
+}
@@ -196,7 +196,7 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
      */
     private boolean mustStop() {
         return ((int)(System.currentTimeMillis() - timeStart) > timeLimit) ||
-               (checkCount >= checkLimit);
+               (checkCount >= checkLimit) || isTerminated();
     }
 
     /**
@@ -0,0 +1,313 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.common;
+
+import java.util.Arrays;
+
+/**
+ * A hash groupify operator for records encoded with a <code>TupleEncoder</code>.
+ * It implements a hash table with open addressing and linear probing over
+ * primitive arrays, so that no objects are allocated per record or group.
+ * Groups are identified by consecutive indices in the order in which they
+ * have been created. Instances are not thread-safe.
+ *
+ * @author Fabian Prasser
+ */
+public class GroupifyEncoded {
+
+    /** Load factor. */
+    private static final float loadFactor = 0.75f;
+
+    /** The encoder */
+    private final TupleEncoder encoder;
+
+    /** Number of columns */
+    private final int          width;
+
+    /** Buffer */
+    private final int[]        tuple;
+
+    /** Keys of all groups, consecutively */
+    private int[]              keys;
+
+    /** Hash codes of all groups */
+    private int[]              hashcodes;
+
+    /** Sizes of all groups */
+    private int[]              counts;
+
+    /** First row of all groups */
+    private int[]              rows;
+
+    /** Slots pointing to groups, offset by one */
+    private int[]              slots;
+
+    /** Current number of groups. */
+    private int                size;
+
+    /**
+     * Maximum number of groups that can be put in this table before having to
+     * rehash.
+     */
+    private int                threshold;
+
+    /**
+     * Constructs a new hash groupify operator.
+     *
+     * @param encoder The encoder
+     * @param capacity The capacity
+     */
+    public GroupifyEncoded(TupleEncoder encoder, int capacity) {
+        this.encoder = encoder;
+        this.width = encoder.getNumColumns();
+        this.tuple = new int[width];
+        capacity = calculateCapacity(capacity);
+        this.slots = new int[capacity];
+        this.threshold = (int) (capacity * loadFactor);
+        this.keys = new int[threshold * width];
+        this.hashcodes = new int[threshold];
+        this.counts = new int[threshold];
+        this.rows = new int[threshold];
+    }
+
+    /**
+     * Adds the given row and returns the index of its group
+     *
+     * @param row
+     * @return
+     */
+    public int add(int row) {
+
+        // Encode
+        int hash = 1;
+        for (int column = 0; column < width; column++) {
+            int identifier = encoder.encode(row, column);
+            tuple[column] = identifier;
+            hash = 31 * hash + identifier;
+        }
+
+        // Find or create group
+        int group = findGroup(tuple, 0, hash);
+        if (group == -1) {
+            if (size == threshold) {
+                rehash();
+            }
+            group = createGroup(tuple, hash, row);
+        }
+
+        // Track size
+        counts[group]++;
+        return group;
+    }
+
+    /**
+     * Returns the index of the group in this table which equals the given group
+     * of the given table, -1 if there is none. Both tables must use encoders that
+     * share identifiers.
+     *
+     * @param other
+     * @param group
+     * @return
+     */
+    public int get(GroupifyEncoded other, int group) {
+        return findGroup(other.keys, group * width, other.hashcodes[group]);
+    }
+
+    /**
+     * Returns the size of the given group
+     * @param group
+     * @return
+     */
+    public int getCount(int group) {
+        return counts[group];
+    }
+
+    /**
+     * Returns the encoder
+     * @return
+     */
+    public TupleEncoder getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * Returns the first row that has been added to the given group
+     * @param group
+     * @return
+     */
+    public int getRow(int group) {
+        return rows[group];
+    }
+
+    /**
+     * Returns the identifier of the value of the given group in the given column
+     * @param group
+     * @param column
+     * @return
+     */
+    public int getValue(int group, int column) {
+        return keys[group * width + column];
+    }
+
+    /**
+     * Increments the size of the given group
+     * @param group
+     * @param count
+     */
+    public void incCount(int group, int count) {
+        counts[group] += count;
+    }
+
+    /**
+     * Returns whether all values of the given group equal the given value. If a
+     * value has never been encountered in a column, false is returned.
+     * @param group
+     * @param value
+     * @return
+     */
+    public boolean isEqualTo(int group, String value) {
+        for (int column = 0; column < width; column++) {
+            if (keys[group * width + column] != encoder.getIdentifier(column, value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the current number of groups
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calculates a new capacity.
+     *
+     * @param x
+     *            the parameter
+     * @return the capacity
+     */
+    private int calculateCapacity(int x) {
+        if (x >= (1 << 30)) { return 1 << 30; }
+        if (x < 16) { return 16; }
+        x = x - 1;
+        x |= x >> 1;
+        x |= x >> 2;
+        x |= x >> 4;
+        x |= x >> 8;
+        x |= x >> 16;
+        return x + 1;
+    }
+
+    /**
+     * Creates a new group
+     *
+     * @param tuple
+     * @param hashcode
+     * @param row
+     * @return
+     */
+    private int createGroup(int[] tuple, int hashcode, int row) {
+        int group = size++;
+        System.arraycopy(tuple, 0, keys, group * width, width);
+        hashcodes[group] = hashcode;
+        rows[group] = row;
+        slots[findSlot(hashcode)] = group + 1;
+        return group;
+    }
+
+    /**
+     * Returns the index of the group with the given key, -1 if there is none
+     *
+     * @param key
+     * @param offset
+     * @param hashcode
+     * @return
+     */
+    private int findGroup(int[] key, int offset, int hashcode) {
+        int mask = slots.length - 1;
+        int slot = hash(hashcode) & mask;
+        while (slots[slot] != 0) {
+            int group = slots[slot] - 1;
+            if (hashcodes[group] == hashcode && equals(group, key, offset)) {
+                return group;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the first free slot for the given hash code
+     * @param hashcode
+     * @return
+     */
+    private int findSlot(int hashcode) {
+        int mask = slots.length - 1;
+        int slot = hash(hashcode) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Compares the key of the given group with the given key
+     * @param group
+     * @param key
+     * @param offset
+     * @return
+     */
+    private boolean equals(int group, int[] key, int offset) {
+        int base = group * width;
+        for (int column = 0; column < width; column++) {
+            if (keys[base + column] != key[offset + column]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Spreads the bits of the given hash code
+     * @param hashcode
+     * @return
+     */
+    private int hash(int hashcode) {
+        hashcode *= 0x9E3779B9;
+        return hashcode ^ (hashcode >>> 16);
+    }
+
+    /**
+     * Rehashes this operator.
+     */
+    private void rehash() {
+        int capacity = calculateCapacity(slots.length << 1);
+        this.slots = new int[capacity];
+        this.threshold = (int) (capacity * loadFactor);
+        this.keys = Arrays.copyOf(keys, threshold * width);
+        this.hashcodes = Arrays.copyOf(hashcodes, threshold);
+        this.counts = Arrays.copyOf(counts, threshold);
+        this.rows = Arrays.copyOf(rows, threshold);
+        for (int group = 0; group < size; group++) {
+            slots[findSlot(hashcodes[group])] = group + 1;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.common;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.deidentifier.arx.exceptions.ComputationInterruptedException;
+
+/**
+ * Utility for executing tasks in parallel
+ *
+ * @author Fabian Prasser
+ */
+public class ThreadUtil {
+
+    /**
+     * Creates a thread pool with the given number of daemon threads, which carry the given name
+     * @param numThreads
+     * @param name
+     * @return
+     */
+    public static ExecutorService createThreadPool(int numThreads, String name) {
+        return Executors.newFixedThreadPool(numThreads, createThreadFactory(name));
+    }
+
+    /**
+     * Creates a factory for daemon threads, which carry the given name
+     * @param name
+     * @return
+     */
+    public static ThreadFactory createThreadFactory(final String name) {
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Waits for the given future and returns its result. Unchecked exceptions thrown by the task
+     * are rethrown, checked exceptions are wrapped. If the calling thread is interrupted,
+     * a {@link ComputationInterruptedException} with the given message is thrown.
+     *
+     * @param future
+     * @param message
+     * @return
+     */
+    public static <T> T get(Future<T> future, String message) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ComputationInterruptedException(message, e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Waits for the given future and returns its result. Exceptions of the given type thrown by
+     * the task are rethrown as well.
+     *
+     * @param future
+     * @param type
+     * @param message
+     * @return
+     * @throws E
+     */
+    public static <T, E extends Exception> T get(Future<T> future, Class<E> type, String message) throws E {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ComputationInterruptedException(message, e);
+        } catch (ExecutionException e) {
+            if (type.isInstance(e.getCause())) {
+                throw type.cast(e.getCause());
+            }
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Waits for the given future for at most the given number of milliseconds and returns its result
+     *
+     * @param future
+     * @param timeout
+     * @param message
+     * @return
+     * @throws TimeoutException
+     */
+    public static <T> T get(Future<T> future, long timeout, String message) throws TimeoutException {
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ComputationInterruptedException(message, e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Rethrows errors and returns the unchecked exception to throw for the given exception
+     * @param e
+     * @return
+     */
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        } else if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+        }
+        return new RuntimeException(e.getCause());
+    }
+}
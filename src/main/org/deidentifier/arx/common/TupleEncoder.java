@@ -0,0 +1,143 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.common;
+
+import org.deidentifier.arx.DataHandleInternal;
+
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+
+/**
+ * Encodes the values of some columns of a data handle as integer identifiers.
+ * Identifiers are derived from the internal representation of the data and
+ * strings are only materialized once per distinct code. Identifiers are unique
+ * per distinct value, so that comparing them is equivalent to comparing the
+ * values represented. Instances are not thread-safe.
+ *
+ * @author Fabian Prasser
+ */
+public class TupleEncoder {
+
+    /** The handle */
+    private final DataHandleInternal              handle;
+
+    /** The indices of the columns */
+    private final int[]                           indices;
+
+    /** Whether to ignore suppression */
+    private final boolean                         ignoreSuppression;
+
+    /** Maps codes to identifiers, per column */
+    private final IntIntOpenHashMap[]             codes;
+
+    /** Maps values to identifiers, per column. May be shared between encoders */
+    private final ObjectIntOpenHashMap<String>[]  values;
+
+    /**
+     * Creates a new instance
+     * @param handle
+     * @param indices
+     * @param ignoreSuppression
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public TupleEncoder(DataHandleInternal handle, int[] indices, boolean ignoreSuppression) {
+        this.handle = handle;
+        this.indices = indices;
+        this.ignoreSuppression = ignoreSuppression;
+        this.codes = new IntIntOpenHashMap[indices.length];
+        this.values = new ObjectIntOpenHashMap[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            this.codes[i] = new IntIntOpenHashMap();
+            this.values[i] = new ObjectIntOpenHashMap<String>();
+        }
+    }
+
+    /**
+     * Creates a new instance which shares identifiers with the given encoder. This can
+     * be used to compare tuples from different handles, e.g. a subset and its superset.
+     * @param handle
+     * @param ignoreSuppression
+     * @param other
+     */
+    public TupleEncoder(DataHandleInternal handle, boolean ignoreSuppression, TupleEncoder other) {
+        this.handle = handle;
+        this.indices = other.indices;
+        this.ignoreSuppression = ignoreSuppression;
+        this.codes = new IntIntOpenHashMap[indices.length];
+        this.values = other.values;
+        for (int i = 0; i < indices.length; i++) {
+            this.codes[i] = new IntIntOpenHashMap();
+        }
+    }
+
+    /**
+     * Returns the identifier of the value in the given row and column
+     * @param row
+     * @param column Index into the array of columns encoded
+     * @return
+     */
+    public int encode(int row, int column) {
+
+        // Known code
+        int index = indices[column];
+        int code = handle.getEncodedValue(row, index, ignoreSuppression);
+        IntIntOpenHashMap map = codes[column];
+        if (map.containsKey(code)) {
+            return map.lget();
+        }
+
+        // Unknown code
+        String value = handle.getValue(row, index, ignoreSuppression);
+        ObjectIntOpenHashMap<String> identifiers = values[column];
+        int identifier;
+        if (identifiers.containsKey(value)) {
+            identifier = identifiers.lget();
+        } else {
+            identifier = identifiers.size();
+            identifiers.put(value, identifier);
+        }
+        map.put(code, identifier);
+        return identifier;
+    }
+
+    /**
+     * Returns the identifier of the given value in the given column, -1 if it has not been encountered
+     * @param column Index into the array of columns encoded
+     * @param value
+     * @return
+     */
+    public int getIdentifier(int column, String value) {
+        ObjectIntOpenHashMap<String> identifiers = values[column];
+        return identifiers.containsKey(value) ? identifiers.lget() : -1;
+    }
+
+    /**
+     * Returns the handle
+     * @return
+     */
+    public DataHandleInternal getHandle() {
+        return handle;
+    }
+
+    /**
+     * Returns the number of columns encoded
+     * @return
+     */
+    public int getNumColumns() {
+        return indices.length;
+    }
+}
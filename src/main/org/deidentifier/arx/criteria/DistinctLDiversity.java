@@ -60,6 +60,11 @@ public class DistinctLDiversity extends LDiversity{
         return true;
     }
 
+    @Override
+    public boolean isLocalRecodingPartitioningSupported() {
+        return true;
+    }
+
     @Override
     public ElementData render() {
         ElementData result = new ElementData("Distinct l-diversity");
@@ -279,6 +279,12 @@ public class EntropyLDiversity extends LDiversity {
     public boolean isLocalRecodingSupported() {
         return true;
     }
+
+    @Override
+    public boolean isLocalRecodingPartitioningSupported() {
+        // Shannon entropy is concave, so the entropy of merged classes is not lower
+        return estimator == EntropyEstimator.SHANNON;
+    }
     
     @Override
     public ElementData render() {
@@ -110,6 +110,11 @@ public class KAnonymity extends ImplicitPrivacyCriterion {
         return true;
     }
 
+    @Override
+    public boolean isLocalRecodingPartitioningSupported() {
+        return true;
+    }
+
     @Override
     public boolean isMinimalClassSizeAvailable() {
         return true;
@@ -23,8 +23,10 @@ import org.deidentifier.arx.ARXSolverConfiguration;
 import org.deidentifier.arx.certificate.elements.ElementData;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyDistribution;
 import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.risk.RiskModelHistogram;
 import org.deidentifier.arx.risk.RiskModelPopulationUniqueness;
 import org.deidentifier.arx.risk.RiskModelPopulationUniqueness.PopulationUniquenessModel;
+import org.deidentifier.arx.risk.RiskModelPopulationUniquenessCache;
 
 /**
  * This criterion ensures that the population uniqueness falls below a given threshold.
@@ -45,6 +47,9 @@ public class PopulationUniqueness extends RiskBasedCriterion { // NO_UCD
     /** The solver config */
     private ARXSolverConfiguration    solverConfig;
 
+    /** Cache for estimates, shared by all checks of an anonymization process */
+    private transient RiskModelPopulationUniquenessCache cache;
+
     /**
      * Creates a new instance of this criterion. Uses Dankar's method for estimating population uniqueness.
      * This constructor will clone the population model, making further changes to it will not influence
@@ -144,6 +149,9 @@ public class PopulationUniqueness extends RiskBasedCriterion { // NO_UCD
         if (this.populationModel != null) {
             this.populationModel.makeBackwardsCompatible(manager.getDataGeneralized().getDataLength());
         }
+        
+        // Prepare cache
+        this.cache = new RiskModelPopulationUniquenessCache();
     }
 
     @Override
@@ -175,16 +183,32 @@ public class PopulationUniqueness extends RiskBasedCriterion { // NO_UCD
      */
     protected boolean isFulfilled(HashGroupifyDistribution distribution) {
 
-        RiskModelPopulationUniqueness riskModel = new RiskModelPopulationUniqueness(this.populationModel,
-                                                                                    distribution.getHistogram(),
-                                                                                    solverConfig);
+        // Prepare
+        RiskModelPopulationUniquenessCache cache = this.cache;
+        if (cache == null) {
+            cache = new RiskModelPopulationUniquenessCache();
+            this.cache = cache;
+        }
         
+        // Estimate or obtain from cache
+        RiskModelHistogram histogram = distribution.getHistogram();
+        Double estimate = cache.getEstimate(histogram);
         double populationUniques = 0d;
-        if (this.statisticalModel == PopulationUniquenessModel.DANKAR) {
-            populationUniques = riskModel.getFractionOfUniqueTuplesDankar(false);
+        if (estimate != null) {
+            populationUniques = estimate;
         } else {
-            populationUniques = riskModel.getFractionOfUniqueTuples(this.statisticalModel);
+            RiskModelPopulationUniqueness riskModel = new RiskModelPopulationUniqueness(this.populationModel,
+                                                                                        histogram,
+                                                                                        solverConfig,
+                                                                                        cache);
+            if (this.statisticalModel == PopulationUniquenessModel.DANKAR) {
+                populationUniques = riskModel.getFractionOfUniqueTuplesDankar(false);
+            } else {
+                populationUniques = riskModel.getFractionOfUniqueTuples(this.statisticalModel);
+            }
+            cache.putEstimate(histogram, populationUniques);
         }
+        
         if (populationUniques > 0d && populationUniques <= getRiskThreshold()) {
             return true;
         } else if (populationUniques == 0d && distribution.getFractionOfRecordsInClassesOfSize(1) == 0d) {
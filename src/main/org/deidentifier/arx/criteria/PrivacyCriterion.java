@@ -186,6 +186,16 @@ public abstract class PrivacyCriterion implements Serializable{
      */
     public abstract boolean isLocalRecodingSupported();
 
+    /**
+     * Returns whether local recoding may be performed independently on disjoint partitions
+     * of the records. This requires that the guarantees provided by the model are preserved
+     * when equivalence classes from different partitions are merged.
+     * @return
+     */
+    public boolean isLocalRecodingPartitioningSupported() {
+        return false;
+    }
+
     /**
      * If a privacy model provides a prosecutor risk threshold, it should override this method to enable optimizations
      * @return
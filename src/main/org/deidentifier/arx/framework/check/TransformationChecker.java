@@ -17,6 +17,9 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.TransformationCheckerStateMachine.Transition;
@@ -87,6 +90,24 @@ public class TransformationChecker {
     /** Is a minimal class size required */
     private final boolean                           minimalClassSizeRequired;
 
+    /** The history max size */
+    private final int                               historyMaxSize;
+
+    /** A history threshold */
+    private final double                            snapshotSizeDataset;
+
+    /** A history threshold */
+    private final double                            snapshotSizeSnapshot;
+
+    /** The memory budget of the history */
+    private final long                              historyMemoryLimit;
+
+    /** Performance statistics, shared with all workers */
+    private final TransformationCheckerStatistics   statistics;
+
+    /** Configurations with own instances of the privacy models and the quality model, one per worker */
+    private final List<ARXConfigurationInternal>    workerConfigs;
+
     /**
      * Creates a new transformation checker.
      * 
@@ -96,6 +117,7 @@ public class TransformationChecker {
      * @param historyMaxSize The history max size
      * @param snapshotSizeDataset A history threshold
      * @param snapshotSizeSnapshot A history threshold
+     * @param historyMemoryLimit The memory budget of the history in bytes
      * @param solutionSpace
      */
     public TransformationChecker(final DataManager manager,
@@ -104,7 +126,89 @@ public class TransformationChecker {
                                  final int historyMaxSize,
                                  final double snapshotSizeDataset,
                                  final double snapshotSizeSnapshot,
+                                 final long historyMemoryLimit,
                                  final SolutionSpace solutionSpace) {
+        this(manager,
+             metric,
+             config,
+             historyMaxSize,
+             snapshotSizeDataset,
+             snapshotSizeSnapshot,
+             historyMemoryLimit,
+             solutionSpace,
+             new ArrayList<ARXConfigurationInternal>());
+    }
+
+    /**
+     * Creates a new transformation checker, which can create workers for checking
+     * transformations concurrently. Privacy models and quality models are not thread-safe.
+     * Each worker therefore uses one of the given configurations, which must contain
+     * initialized copies of the privacy models and the quality model.
+     * 
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset A history threshold
+     * @param snapshotSizeSnapshot A history threshold
+     * @param historyMemoryLimit The memory budget of the history in bytes
+     * @param solutionSpace
+     * @param workerConfigs The configurations used by workers
+     */
+    public TransformationChecker(final DataManager manager,
+                                 final Metric<?> metric,
+                                 final ARXConfigurationInternal config,
+                                 final int historyMaxSize,
+                                 final double snapshotSizeDataset,
+                                 final double snapshotSizeSnapshot,
+                                 final long historyMemoryLimit,
+                                 final SolutionSpace solutionSpace,
+                                 final List<ARXConfigurationInternal> workerConfigs) {
+        this(manager,
+             metric,
+             config,
+             historyMaxSize,
+             snapshotSizeDataset,
+             snapshotSizeSnapshot,
+             historyMemoryLimit,
+             solutionSpace,
+             manager.getDataGeneralized().getArray(),
+             manager.getDataAnalyzed().getArray(),
+             config.getNumThreads(),
+             new TransformationCheckerStatistics(),
+             workerConfigs);
+    }
+
+    /**
+     * Creates a new transformation checker operating on the given input matrices.
+     * 
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset A history threshold
+     * @param snapshotSizeSnapshot A history threshold
+     * @param historyMemoryLimit The memory budget of the history in bytes
+     * @param solutionSpace
+     * @param inputGeneralized The generalized input data
+     * @param inputAnalyzed The analyzed input data
+     * @param numThreads The number of threads used for transforming data
+     * @param statistics Performance statistics
+     * @param workerConfigs The configurations used by workers
+     */
+    private TransformationChecker(final DataManager manager,
+                                  final Metric<?> metric,
+                                  final ARXConfigurationInternal config,
+                                  final int historyMaxSize,
+                                  final double snapshotSizeDataset,
+                                  final double snapshotSizeSnapshot,
+                                  final long historyMemoryLimit,
+                                  final SolutionSpace solutionSpace,
+                                  final DataMatrix inputGeneralized,
+                                  final DataMatrix inputAnalyzed,
+                                  final int numThreads,
+                                  final TransformationCheckerStatistics statistics,
+                                  final List<ARXConfigurationInternal> workerConfigs) {
         
         // Store data
         this.metric = metric;
@@ -113,6 +217,12 @@ public class TransformationChecker {
         this.dataGeneralized = manager.getDataGeneralized();
         this.solutionSpace = solutionSpace;
         this.minimalClassSizeRequired = config.getMinimalGroupSize() != Integer.MAX_VALUE;
+        this.historyMaxSize = historyMaxSize;
+        this.snapshotSizeDataset = snapshotSizeDataset;
+        this.snapshotSizeSnapshot = snapshotSizeSnapshot;
+        this.historyMemoryLimit = historyMemoryLimit;
+        this.statistics = statistics;
+        this.workerConfigs = workerConfigs;
         
         // Initialize all operators
         int initialSize = (int) (manager.getDataGeneralized().getDataLength() * 0.01d);
@@ -131,29 +241,32 @@ public class TransformationChecker {
                                    historyMaxSize,
                                    snapshotSizeDataset,
                                    snapshotSizeSnapshot,
+                                   historyMemoryLimit,
                                    config,
                                    dictionarySensValue,
                                    dictionarySensFreq,
-                                   solutionSpace);
+                                   solutionSpace,
+                                   statistics);
         
         this.stateMachine = new TransformationCheckerStateMachine(history);
-        this.transformer = new Transformer(manager.getDataGeneralized().getArray(),
-                                           manager.getDataAnalyzed().getArray(),
+        this.transformer = new Transformer(inputGeneralized,
+                                           inputAnalyzed,
                                            manager.getAggregationInformation().getHotThreshold(),
                                            manager.getHierarchies(),
                                            config,
                                            dictionarySensValue,
-                                           dictionarySensFreq);
+                                           dictionarySensFreq,
+                                           numThreads);
         
         this.currentGroupify = new HashGroupify(initialSize, config, manager.getAggregationInformation().getHotThreshold(),
-                                                manager.getDataGeneralized().getArray(),
+                                                inputGeneralized,
                                                 transformer.getBuffer(),
-                                                manager.getDataAnalyzed().getArray());
+                                                inputAnalyzed);
         
         this.lastGroupify = new HashGroupify(initialSize, config, manager.getAggregationInformation().getHotThreshold(),
-                                             manager.getDataGeneralized().getArray(),
+                                             inputGeneralized,
                                              transformer.getBuffer(),
-                                             manager.getDataAnalyzed().getArray());
+                                             inputAnalyzed);
     }
 
     /**
@@ -193,6 +306,7 @@ public class TransformationChecker {
         currentGroupify = temp;
         
         // Apply transition
+        long time = System.nanoTime();
         switch (transition.type) {
         case UNOPTIMIZED:
             currentGroupify = transformer.apply(transition.projection, node.getGeneralization(), currentGroupify);
@@ -204,16 +318,22 @@ public class TransformationChecker {
             currentGroupify = transformer.applySnapshot(transition.projection, node.getGeneralization(), currentGroupify, transition.snapshot);
             break;
         }
+        long timeTransition = System.nanoTime() - time;
+        long timePrivacyModel;
+        long timeQualityModel;
+        
+        // Compute information loss and lower bound
+        InformationLoss<?> loss = null;
+        InformationLoss<?> bound = null;
         
         // We are done with transforming and adding
+        time = System.nanoTime();
         currentGroupify.stateAnalyze(node, forceMeasureInfoLoss);
         if (forceMeasureInfoLoss && !currentGroupify.isPrivacyModelFulfilled() && !config.isSuppressionAlwaysEnabled()) {
             currentGroupify.stateResetSuppression();
         }
-        
-        // Compute information loss and lower bound
-        InformationLoss<?> loss = null;
-        InformationLoss<?> bound = null;
+        timePrivacyModel = System.nanoTime() - time;
+        time = System.nanoTime();
         
         switch (scoreType) {
         case DP_SCORE:
@@ -230,6 +350,14 @@ public class TransformationChecker {
         default:
             throw new RuntimeException("The score type " + scoreType + " is not supported");
         }
+        timeQualityModel = System.nanoTime() - time;
+        
+        // Record
+        statistics.addCheck(transition.type,
+                            timeTransition,
+                            currentGroupify.getNumberOfEquivalenceClasses(),
+                            timePrivacyModel,
+                            timeQualityModel);
         
         // Return result;
         return new TransformationResult(currentGroupify.isPrivacyModelFulfilled(),
@@ -238,6 +366,38 @@ public class TransformationChecker {
                                       bound);
     }
     
+    /**
+     * Creates a new checker that shares the input data as well as performance statistics
+     * with this checker, but maintains its own history and buffers. It uses the privacy
+     * models and the quality model of the worker configuration with the given index.
+     * It can thus be used to check transformations concurrently to this checker and to
+     * all other workers. Workers transform data in a single thread.
+     * @param index
+     * @return
+     */
+    public TransformationChecker createWorker(int index) {
+        if (index >= workerConfigs.size()) {
+            throw new IllegalStateException("No configuration available for worker " + index);
+        }
+        ARXConfigurationInternal config = workerConfigs.get(index);
+        DataMatrix inputAnalyzed = manager.getDataAnalyzed().getArray();
+        TransformationChecker worker = new TransformationChecker(manager,
+                                                                 config.getQualityModel(),
+                                                                 config,
+                                                                 historyMaxSize,
+                                                                 snapshotSizeDataset,
+                                                                 snapshotSizeSnapshot,
+                                                                 historyMemoryLimit,
+                                                                 solutionSpace,
+                                                                 manager.getDataGeneralized().getArray().createView(),
+                                                                 inputAnalyzed == null ? null : inputAnalyzed.createView(),
+                                                                 1,
+                                                                 statistics,
+                                                                 new ArrayList<ARXConfigurationInternal>());
+        worker.history.setStorageStrategy(history.getStorageStrategy());
+        return worker;
+    }
+
     /**
      * Returns an associated transformation applicator
      * @return
@@ -262,6 +422,22 @@ public class TransformationChecker {
         return dataGeneralized.getHeader();
     }
     
+    /**
+     * Returns the performance statistics of this checker and its workers
+     * @return
+     */
+    public TransformationCheckerStatistics getStatistics() {
+        return statistics;
+    }
+    
+    /**
+     * Returns the solution space
+     * @return
+     */
+    public SolutionSpace getSolutionSpace() {
+        return solutionSpace;
+    }
+
     /**
      * Returns the checkers history, if any.
      *
@@ -304,5 +480,6 @@ public class TransformationChecker {
         history.setSize(0);
         currentGroupify.stateClear();
         lastGroupify.stateClear();
+        transformer.shutdown();
     }
 }
\ No newline at end of file
@@ -0,0 +1,216 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.common.ThreadUtil;
+import org.deidentifier.arx.framework.check.TransformationChecker.ScoreType;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+
+/**
+ * A pool of transformation checkers which allows to check transformations
+ * speculatively in the background. Transformations are submitted by a single
+ * coordinating thread, which later obtains the results in the order defined by
+ * the search algorithm. As results are only ever applied by the coordinating thread,
+ * the outcome of the search is identical to the outcome of a sequential execution.
+ * Each worker uses its own instances of the privacy models and the quality model,
+ * which is why checks are performed concurrently without any synchronization.
+ *
+ * @author Fabian Prasser
+ */
+public class TransformationCheckerPool {
+
+    /** The checker used by the coordinating thread */
+    private final TransformationChecker                     checker;
+
+    /** Idle checkers */
+    private final BlockingQueue<TransformationChecker>      workers;
+
+    /** The executor */
+    private final ExecutorService                           executor;
+
+    /** Results of pending checks, accessed by the coordinating thread only */
+    private final Map<Long, Future<TransformationResult>>   pending;
+
+    /** The solution space */
+    private final SolutionSpace                             solutionSpace;
+
+    /** Maximal number of pending checks */
+    private final int                                       maxPending;
+
+    /**
+     * Creates a new pool. The checker must provide configurations for the given number of workers.
+     * @param checker
+     * @param numThreads
+     */
+    public TransformationCheckerPool(TransformationChecker checker, int numThreads) {
+        if (numThreads <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.checker = checker;
+        this.solutionSpace = checker.getSolutionSpace();
+        this.pending = new HashMap<Long, Future<TransformationResult>>();
+        this.maxPending = numThreads * 2;
+        this.workers = new LinkedBlockingQueue<TransformationChecker>();
+        for (int i = 0; i < numThreads; i++) {
+            this.workers.add(checker.createWorker(i));
+        }
+        this.executor = ThreadUtil.createThreadPool(numThreads, "ARX TransformationChecker");
+    }
+
+    /**
+     * Cancels the check of the given transformation, if it has been submitted before
+     *
+     * @param transformation
+     */
+    public void cancel(Transformation transformation) {
+        Future<TransformationResult> future = pending.remove(transformation.getIdentifier());
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Returns the result of checking the given transformation. If the transformation
+     * has been submitted before, this method waits for the according result.
+     * Otherwise, the transformation will be checked by the calling thread.
+     *
+     * @param transformation
+     * @return
+     */
+    public TransformationResult check(Transformation transformation) {
+        return check(transformation, false, ScoreType.INFORMATION_LOSS);
+    }
+
+    /**
+     * Returns the result of checking the given transformation. If the transformation
+     * has been submitted before, this method waits for the according result.
+     * Otherwise, the transformation will be checked by the calling thread. The
+     * parameters must match the parameters used when submitting the transformation.
+     *
+     * @param transformation
+     * @param forceMeasureInfoLoss
+     * @param scoreType
+     * @return
+     */
+    public TransformationResult check(Transformation transformation, boolean forceMeasureInfoLoss, ScoreType scoreType) {
+        Future<TransformationResult> future = pending.remove(transformation.getIdentifier());
+        if (future == null) {
+            return checker.check(transformation, forceMeasureInfoLoss, scoreType);
+        }
+        return ThreadUtil.get(future, "Interrupted while checking transformations");
+    }
+
+    /**
+     * Returns the identifiers of all transformations which have been submitted
+     * and whose results have not yet been obtained
+     * @return
+     */
+    public long[] getPendingTransformations() {
+        long[] result = new long[pending.size()];
+        int index = 0;
+        for (long identifier : pending.keySet()) {
+            result[index++] = identifier;
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether further transformations may be submitted
+     * @return
+     */
+    public boolean isSaturated() {
+        return pending.size() >= maxPending;
+    }
+
+    /**
+     * Stops all threads
+     */
+    public void shutdown() {
+        for (Future<TransformationResult> future : pending.values()) {
+            future.cancel(false);
+        }
+        pending.clear();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (TransformationChecker worker : workers) {
+            worker.reset();
+        }
+    }
+
+    /**
+     * Submits the given transformation for being checked in the background. Returns
+     * false if the pool is saturated.
+     *
+     * @param transformation
+     * @return
+     */
+    public boolean submit(Transformation transformation) {
+        return submit(transformation, false, ScoreType.INFORMATION_LOSS);
+    }
+
+    /**
+     * Submits the given transformation for being checked in the background with the
+     * given parameters. Returns false if the pool is saturated.
+     *
+     * @param transformation
+     * @param forceMeasureInfoLoss
+     * @param scoreType
+     * @return
+     */
+    public boolean submit(Transformation transformation, final boolean forceMeasureInfoLoss, final ScoreType scoreType) {
+
+        // Check
+        final long identifier = transformation.getIdentifier();
+        if (pending.containsKey(identifier)) {
+            return true;
+        } else if (isSaturated()) {
+            return false;
+        }
+
+        // Prepare a private instance
+        final Transformation instance = solutionSpace.getTransformation(identifier);
+        instance.getGeneralization();
+        instance.getLevel();
+
+        // Submit
+        pending.put(identifier, executor.submit(new Callable<TransformationResult>() {
+            @Override
+            public TransformationResult call() throws Exception {
+                TransformationChecker worker = workers.take();
+                try {
+                    return worker.check(instance, forceMeasureInfoLoss, scoreType);
+                } finally {
+                    workers.add(worker);
+                }
+            }
+        }));
+        return true;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import org.deidentifier.arx.framework.check.TransformationCheckerStateMachine.TransitionType;
+
+/**
+ * Records performance data about checking transformations. Instances are shared
+ * between a checker, its workers and their histories and are thus thread-safe.
+ * All times are measured in nanoseconds.
+ *
+ * @author Fabian Prasser
+ */
+public class TransformationCheckerStatistics {
+
+    /** Number of transitions per type */
+    private final long[] transitions     = new long[TransitionType.values().length];
+
+    /** Time spent transforming data per type of transition */
+    private final long[] transitionTimes = new long[TransitionType.values().length];
+
+    /** Number of transformations checked */
+    private long         checks;
+
+    /** Total number of equivalence classes */
+    private long         classes;
+
+    /** Maximal number of equivalence classes */
+    private long         classesMax;
+
+    /** Time spent evaluating privacy models */
+    private long         privacyModelTime;
+
+    /** Time spent evaluating quality models */
+    private long         qualityModelTime;
+
+    /** Snapshots found in the history */
+    private long         historyHits;
+
+    /** Snapshots not found in the history */
+    private long         historyMisses;
+
+    /** Snapshots stored in the history */
+    private long         historyStores;
+
+    /** Snapshots evicted from the history */
+    private long         historyEvictions;
+
+    /**
+     * Records a check
+     * @param type The type of transition
+     * @param transitionTime Time spent transforming data
+     * @param classes The number of equivalence classes
+     * @param privacyModelTime Time spent evaluating privacy models
+     * @param qualityModelTime Time spent evaluating the quality model
+     */
+    public synchronized void addCheck(TransitionType type,
+                                      long transitionTime,
+                                      int classes,
+                                      long privacyModelTime,
+                                      long qualityModelTime) {
+        this.transitions[type.ordinal()]++;
+        this.transitionTimes[type.ordinal()] += transitionTime;
+        this.checks++;
+        this.classes += classes;
+        this.classesMax = Math.max(this.classesMax, classes);
+        this.privacyModelTime += privacyModelTime;
+        this.qualityModelTime += qualityModelTime;
+    }
+
+    /**
+     * Records an eviction from the history
+     */
+    public synchronized void addHistoryEviction() {
+        this.historyEvictions++;
+    }
+
+    /**
+     * Records a lookup in the history
+     * @param hit Whether a snapshot has been found
+     */
+    public synchronized void addHistoryLookup(boolean hit) {
+        if (hit) {
+            this.historyHits++;
+        } else {
+            this.historyMisses++;
+        }
+    }
+
+    /**
+     * Records that a snapshot has been stored in the history
+     */
+    public synchronized void addHistoryStore() {
+        this.historyStores++;
+    }
+
+    /**
+     * Returns the number of transformations checked
+     * @return
+     */
+    public synchronized long getChecks() {
+        return checks;
+    }
+
+    /**
+     * Returns the total number of equivalence classes
+     * @return
+     */
+    public synchronized long getClasses() {
+        return classes;
+    }
+
+    /**
+     * Returns the maximal number of equivalence classes
+     * @return
+     */
+    public synchronized long getClassesMax() {
+        return classesMax;
+    }
+
+    /**
+     * Returns the number of snapshots evicted from the history
+     * @return
+     */
+    public synchronized long getHistoryEvictions() {
+        return historyEvictions;
+    }
+
+    /**
+     * Returns the number of snapshots found in the history
+     * @return
+     */
+    public synchronized long getHistoryHits() {
+        return historyHits;
+    }
+
+    /**
+     * Returns the number of snapshots not found in the history
+     * @return
+     */
+    public synchronized long getHistoryMisses() {
+        return historyMisses;
+    }
+
+    /**
+     * Returns the number of snapshots stored in the history
+     * @return
+     */
+    public synchronized long getHistoryStores() {
+        return historyStores;
+    }
+
+    /**
+     * Returns the time spent evaluating privacy models
+     * @return
+     */
+    public synchronized long getPrivacyModelTime() {
+        return privacyModelTime;
+    }
+
+    /**
+     * Returns the time spent evaluating the quality model
+     * @return
+     */
+    public synchronized long getQualityModelTime() {
+        return qualityModelTime;
+    }
+
+    /**
+     * Returns the number of transitions of the given type
+     * @param type
+     * @return
+     */
+    public synchronized long getTransitions(TransitionType type) {
+        return transitions[type.ordinal()];
+    }
+
+    /**
+     * Returns the time spent transforming data with transitions of the given type
+     * @param type
+     * @return
+     */
+    public synchronized long getTransitionTime(TransitionType type) {
+        return transitionTimes[type.ordinal()];
+    }
+}
@@ -17,7 +17,13 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.common.ThreadUtil;
 import org.deidentifier.arx.framework.check.TransformationCheckerStateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
@@ -50,6 +56,9 @@ import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
  */
 public class Transformer {
 
+    /** Minimal number of rows or snapshot entries to be processed by a single thread */
+    private static final int                  MIN_PARTITION_SIZE = 10000;
+
     /** The config. */
     protected final ARXConfigurationInternal  config;
 
@@ -80,6 +89,18 @@ public class Transformer {
     /** Number of columns to analyze */
     protected final int                       dataAnalyzedNumberOfColumns;
 
+    /** The instances for each partition, if any. */
+    protected final AbstractTransformer[][]   partitionInstances;
+
+    /** The groupify operators for each partition, if any. */
+    protected final HashGroupify[]            partitionGroupifies;
+
+    /** The buffers for each partition, if any. */
+    protected final DataMatrix[]              partitionBuffers;
+
+    /** The executor for processing partitions, if any. */
+    private ExecutorService                   executor;
+
     /**
      * Instantiates a new transformer.
      *
@@ -90,6 +111,7 @@ public class Transformer {
      * @param config
      * @param dictionarySensValue
      * @param dictionarySensFreq
+     * @param numThreads Number of threads used for processing partitions of the data
      */
     public Transformer(final DataMatrix inputGeneralized,
                        final DataMatrix inputAnalyzed,
@@ -97,22 +119,43 @@ public class Transformer {
                        final GeneralizationHierarchy[] hierarchies,
                        final ARXConfigurationInternal config,
                        final IntArrayDictionary dictionarySensValue,
-                       final IntArrayDictionary dictionarySensFreq) {
+                       final IntArrayDictionary dictionarySensFreq,
+                       final int numThreads) {
 
         this.config = config;
         this.inputGeneralized = inputGeneralized;
         this.dataAnalyzedNumberOfColumns = dataAnalyzedNumberOfColumns;
         this.hierarchies = hierarchies;
         this.instances = new AbstractTransformer[16];
-        this.outputGeneralized = new DataMatrix(inputGeneralized.getNumRows(), 
-                                                inputGeneralized.getNumColumns());
+        this.outputGeneralized = inputGeneralized.createEmpty(inputGeneralized.getNumRows());
 
         this.dimensions = inputGeneralized.getNumColumns();
         this.dictionarySensValue = dictionarySensValue;
         this.dictionarySensFreq = dictionarySensFreq;
         this.inputAnalyzed = inputAnalyzed;
 
-        buildTransformers();
+        buildTransformers(instances, inputGeneralized, inputAnalyzed);
+
+        // Prepare partitions, each operating on views of the data
+        int partitions = Math.min(numThreads, inputGeneralized.getNumRows() / MIN_PARTITION_SIZE);
+        if (partitions > 1) {
+            int initialSize = (int) (inputGeneralized.getNumRows() * 0.01d / partitions);
+            this.partitionInstances = new AbstractTransformer[partitions][instances.length];
+            this.partitionGroupifies = new HashGroupify[partitions];
+            this.partitionBuffers = new DataMatrix[partitions];
+            for (int i = 0; i < partitions; i++) {
+                DataMatrix generalized = inputGeneralized.createView();
+                DataMatrix analyzed = inputAnalyzed == null ? null : inputAnalyzed.createView();
+                this.partitionBuffers[i] = outputGeneralized.createView();
+                this.partitionGroupifies[i] = new HashGroupify(initialSize, config, dataAnalyzedNumberOfColumns,
+                                                               generalized, partitionBuffers[i], analyzed);
+                buildTransformers(partitionInstances[i], generalized, analyzed);
+            }
+        } else {
+            this.partitionInstances = null;
+            this.partitionGroupifies = null;
+            this.partitionBuffers = null;
+        }
     }
 
     /**
@@ -145,6 +188,9 @@ public class Transformer {
         this.dimensions = inputGeneralized.getNumColumns();
         this.dictionarySensValue = null;
         this.dictionarySensFreq = null;
+        this.partitionInstances = null;
+        this.partitionGroupifies = null;
+        this.partitionBuffers = null;
 
         // Build just one applicator
         this.instances = new AbstractTransformer[1];
@@ -221,6 +267,16 @@ public class Transformer {
                              TransitionType.SNAPSHOT);
     }
 
+    /**
+     * Stops all threads, if any
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
     /**
      * Gets the buffer.
      * 
@@ -232,120 +288,126 @@ public class Transformer {
 
     /**
      * Builds the applicators.
+     * 
+     * @param target
+     * @param generalized
+     * @param analyzed
      */
-    private void buildTransformers() {
-        instances[15] = new Transformer15(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
-        instances[14] = new Transformer14(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
-        instances[13] = new Transformer13(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
-        instances[12] = new Transformer12(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
-        instances[11] = new Transformer11(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
-        instances[10] = new Transformer10(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
-        instances[9] = new Transformer09(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[8] = new Transformer08(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[7] = new Transformer07(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[6] = new Transformer06(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[5] = new Transformer05(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[4] = new Transformer04(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[3] = new Transformer03(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[2] = new Transformer02(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[1] = new Transformer01(inputGeneralized,
-                                         hierarchies,
-                                         inputAnalyzed,
-                                         dataAnalyzedNumberOfColumns,
-                                         dictionarySensValue,
-                                         dictionarySensFreq,
-                                         config);
-        instances[0] = new TransformerAll(inputGeneralized,
-                                          hierarchies,
-                                          inputAnalyzed,
-                                          dataAnalyzedNumberOfColumns,
-                                          dictionarySensValue,
-                                          dictionarySensFreq,
-                                          config);
+    private void buildTransformers(final AbstractTransformer[] target,
+                                   final DataMatrix generalized,
+                                   final DataMatrix analyzed) {
+        target[15] = new Transformer15(generalized,
+                                       hierarchies,
+                                       analyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
+        target[14] = new Transformer14(generalized,
+                                       hierarchies,
+                                       analyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
+        target[13] = new Transformer13(generalized,
+                                       hierarchies,
+                                       analyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
+        target[12] = new Transformer12(generalized,
+                                       hierarchies,
+                                       analyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
+        target[11] = new Transformer11(generalized,
+                                       hierarchies,
+                                       analyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
+        target[10] = new Transformer10(generalized,
+                                       hierarchies,
+                                       analyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
+        target[9] = new Transformer09(generalized,
+                                      hierarchies,
+                                      analyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        target[8] = new Transformer08(generalized,
+                                      hierarchies,
+                                      analyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        target[7] = new Transformer07(generalized,
+                                      hierarchies,
+                                      analyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        target[6] = new Transformer06(generalized,
+                                      hierarchies,
+                                      analyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        target[5] = new Transformer05(generalized,
+                                      hierarchies,
+                                      analyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        target[4] = new Transformer04(generalized,
+                                      hierarchies,
+                                      analyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        target[3] = new Transformer03(generalized,
+                                      hierarchies,
+                                      analyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        target[2] = new Transformer02(generalized,
+                                      hierarchies,
+                                      analyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        target[1] = new Transformer01(generalized,
+                                      hierarchies,
+                                      analyzed,
+                                      dataAnalyzedNumberOfColumns,
+                                      dictionarySensValue,
+                                      dictionarySensFreq,
+                                      config);
+        target[0] = new TransformerAll(generalized,
+                                       hierarchies,
+                                       analyzed,
+                                       dataAnalyzedNumberOfColumns,
+                                       dictionarySensValue,
+                                       dictionarySensFreq,
+                                       config);
     }
 
     /**
@@ -387,6 +449,11 @@ public class Transformer {
             break;
         }
 
+        // Process partitions in parallel
+        if (partitionInstances != null && transition != TransitionType.ROLLUP && stopIndex >= 2 * MIN_PARTITION_SIZE) {
+            return applyPartitioned(projection, state, target, snapshot, transition, stopIndex);
+        }
+
         AbstractTransformer transformer = null;
 
         transformer = getTransformer(projection);
@@ -405,6 +472,63 @@ public class Transformer {
         return transformer.call();
     }
 
+    /**
+     * Applies the transformation to consecutive ranges of rows or snapshot entries in parallel.
+     * Each range is processed into a private groupify operator. The resulting
+     * operators are merged in the order of the ranges, which results in exactly the
+     * same equivalence classes, representatives and order as sequential processing.
+     * 
+     * @param projection the projection
+     * @param state the state
+     * @param target the target
+     * @param snapshot the snapshot
+     * @param transition the transition
+     * @param size the number of rows or snapshot entries
+     * @return the hash groupify
+     */
+    protected HashGroupify applyPartitioned(final long projection,
+                                            final int[] state,
+                                            final HashGroupify target,
+                                            final int[] snapshot,
+                                            final TransitionType transition,
+                                            final int size) {
+
+        // Prepare
+        int partitions = Math.min(partitionInstances.length, size / MIN_PARTITION_SIZE);
+        if (executor == null) {
+            executor = ThreadUtil.createThreadPool(partitionInstances.length, "ARX Transformer");
+        }
+
+        // Submit
+        List<Future<HashGroupify>> futures = new ArrayList<Future<HashGroupify>>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            AbstractTransformer transformer = getTransformer(projection, partitionInstances[i]);
+            transformer.init(projection,
+                             state,
+                             partitionGroupifies[i],
+                             null,
+                             snapshot,
+                             transition,
+                             (int) ((long) size * i / partitions),
+                             (int) ((long) size * (i + 1) / partitions),
+                             null,
+                             partitionBuffers[i]);
+            futures.add(executor.submit(transformer));
+        }
+
+        // Merge
+        target.stateClear();
+        for (int i = 0; i < partitions; i++) {
+            HashGroupify partition = ThreadUtil.get(futures.get(i), "Interrupted while transforming data");
+            HashGroupifyEntry entry = partition.getFirstEquivalenceClass();
+            while (entry != null) {
+                target.addFromGroupify(entry.row, entry.distributions, entry.representative, entry.count, entry.pcount);
+                entry = entry.nextOrdered;
+            }
+        }
+        return target;
+    }
+
     /**
      * Gets the applicator.
      * 
@@ -412,6 +536,17 @@ public class Transformer {
      * @return the applicator
      */
     protected AbstractTransformer getTransformer(final long projection) {
+        return getTransformer(projection, instances);
+    }
+
+    /**
+     * Gets the applicator from the given set of instances.
+     * 
+     * @param projection the projection
+     * @param instances the instances
+     * @return the applicator
+     */
+    private AbstractTransformer getTransformer(final long projection, final AbstractTransformer[] instances) {
         final int index = dimensions - Long.bitCount(projection);
         if (index > (instances.length - 1)) {
             return instances[0];
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.framework.check.groupify;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.criteria.DPresence;
@@ -35,8 +37,10 @@ import org.deidentifier.arx.metric.Metric;
 import com.carrotsearch.hppc.ObjectIntOpenHashMap;
 
 /**
- * A hash groupify operator. It implements a hash table with chaining and keeps
- * track of additional properties per equivalence class
+ * A hash groupify operator. It implements a hash table with open addressing and keeps
+ * track of additional properties per equivalence class. Slots of the table are stored
+ * in primitive arrays and entries are reused when the operator is cleared, which
+ * avoids creating garbage for each transformation checked.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -49,8 +53,14 @@ public class HashGroupify {
     /** The current number of outliers. */
     private int                          currentNumOutliers;
 
-    /** The entry array. */
-    private HashGroupifyEntry[]          hashTableBuckets;
+    /** The slots of the table, storing the index of an entry plus one, or zero if empty. */
+    private int[]                        hashTableSlots;
+
+    /** The hashcodes of the entries stored in the slots. */
+    private int[]                        hashTableHashes;
+
+    /** The entries in original order. Entries are reused after the table has been cleared. */
+    private HashGroupifyEntry[]          hashTableEntries;
 
     /** Current number of elements. */
     private int                          hashTableElementCount;
@@ -132,8 +142,10 @@ public class HashGroupify {
         // Set capacity
         capacity = HashTableUtil.calculateCapacity(capacity);
         this.hashTableElementCount = 0;
-        this.hashTableBuckets = new HashGroupifyEntry[capacity];
-        this.hashTableThreshold = HashTableUtil.calculateThreshold(hashTableBuckets.length, hashTableLoadFactor);
+        this.hashTableSlots = new int[capacity];
+        this.hashTableHashes = new int[capacity];
+        this.hashTableEntries = new HashGroupifyEntry[capacity];
+        this.hashTableThreshold = HashTableUtil.calculateThreshold(hashTableSlots.length, hashTableLoadFactor);
         
         // Set params
         this.currentNumOutliers = 0;
@@ -272,12 +284,16 @@ public class HashGroupify {
      */
     public HashGroupifyEntry getEntry(int[] tuple) {
         final int hash = dataOutput.hashCode(tuple);
-        int index = hash & (hashTableBuckets.length - 1);
-        HashGroupifyEntry m = hashTableBuckets[index];
-        while ((m != null) && ((m.hashcode != hash) || !dataOutput.equals(m.row, tuple))) {
-            m = m.next;
+        final int mask = hashTableSlots.length - 1;
+        int index = getIndex(hash, mask);
+        while (hashTableSlots[index] != 0) {
+            HashGroupifyEntry m = hashTableEntries[hashTableSlots[index] - 1];
+            if (hashTableHashes[index] == hash && dataOutput.equals(m.row, tuple)) {
+                return m;
+            }
+            index = (index + 1) & mask;
         }
-        return m;
+        return null;
     }
     
     /**
@@ -344,18 +360,13 @@ public class HashGroupify {
         int[] columns = microaggregationData.getMicroaggregationColumns();
         
         // Prepare result
-        Data result = Data.createWrapper(new DataMatrix(dataOutput.getNumRows(), indices.length), header, columns, dictionary);
+        Data result = Data.createWrapper(dataOutput.createEmpty(dataOutput.getNumRows(), indices.length), header, columns, dictionary);
 
         // TODO: To improve performance, microaggregation and marking of outliers could be performed in one pass
         ObjectIntOpenHashMap<Distribution> cache = new ObjectIntOpenHashMap<Distribution>();
         for (int row = 0; row < dataOutput.getNumRows(); row++) {
             if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(row)) {
-                final int hash = dataOutput.hashCode(row);
-                final int index = hash & (hashTableBuckets.length - 1);
-                HashGroupifyEntry m = hashTableBuckets[index];
-                while ((m != null) && ((m.hashcode != hash) || !dataOutput.equalsIgnoringOutliers(row, m.row))) {
-                    m = m.next;
-                }
+                final HashGroupifyEntry m = findEntryIgnoringOutliers(row, dataOutput.hashCode(row));
                 if (m == null) { throw new RuntimeException("Invalid state! Groupify the data before performing microaggregation!"); }
                 result.getArray().iterator(row);
                 for (int i = 0; i < indices.length; i++) {
@@ -388,12 +399,7 @@ public class HashGroupify {
         
         for (int row = 0; row < dataOutput.getNumRows(); row++) {
             if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(row)) {
-                final int hash = dataOutput.hashCode(row);
-                final int index = hash & (hashTableBuckets.length - 1);
-                HashGroupifyEntry m = hashTableBuckets[index];
-                while ((m != null) && ((m.hashcode != hash) || !dataOutput.equalsIgnoringOutliers(row, m.row))) {
-                    m = m.next;
-                }
+                final HashGroupifyEntry m = findEntryIgnoringOutliers(row, dataOutput.hashCode(row));
                 if (m == null) {
                     throw new RuntimeException("Invalid state! Group the data before suppressing records!");
                 }
@@ -425,7 +431,7 @@ public class HashGroupify {
             this.currentNumOutliers = 0;
             this.hashTableFirstEntry = null;
             this.hashTableLastEntry = null;
-            HashTableUtil.nullifyArray(hashTableBuckets);
+            Arrays.fill(hashTableSlots, 0);
         }
     }
     
@@ -454,14 +460,12 @@ public class HashGroupify {
     private HashGroupifyEntry addInternal(final int generalized, final int hash, final int representative, int count, final int pcount) {
         
         // Find or create entry
-        int index = hash & (hashTableBuckets.length - 1);
-        HashGroupifyEntry entry = findEntry(generalized, index, hash);
+        HashGroupifyEntry entry = findEntry(generalized, hash);
         if (entry == null) {
-            if (++hashTableElementCount > hashTableThreshold) {
+            if (hashTableElementCount + 1 > hashTableThreshold) {
                 rehash();
-                index = hash & (hashTableBuckets.length - 1);
             }
-            entry = createEntry(generalized, index, hash, representative);
+            entry = createEntry(generalized, hash, representative);
         }
         
         // If we enforce d-presence and the tuple is not contained in the research subset: set its count to zero
@@ -658,23 +662,33 @@ public class HashGroupify {
     }
         
     /**
-     * Creates a new entry.
+     * Creates a new entry or reuses an entry that has been cleared.
      * 
      * @param row
      *            the row
-     * @param index
-     *            the index
      * @param hash
      *            the hash
      * @param line
      *            the line
      * @return the hash groupify entry
      */
-    private HashGroupifyEntry createEntry(final int row, final int index, final int hash, final int line) {
-        final HashGroupifyEntry entry = new HashGroupifyEntry(this.dataOutput, row, hash);
-        entry.next = hashTableBuckets[index];
+    private HashGroupifyEntry createEntry(final int row, final int hash, final int line) {
+        
+        // Obtain entry
+        if (hashTableElementCount == hashTableEntries.length) {
+            hashTableEntries = Arrays.copyOf(hashTableEntries, hashTableEntries.length << 1);
+        }
+        HashGroupifyEntry entry = hashTableEntries[hashTableElementCount];
+        if (entry == null) {
+            entry = new HashGroupifyEntry(this.dataOutput, row, hash);
+            hashTableEntries[hashTableElementCount] = entry;
+        } else {
+            entry.reset(row, hash);
+        }
         entry.representative = line;
-        hashTableBuckets[index] = entry;
+        
+        // Store in table
+        insert(hash, ++hashTableElementCount);
         if (hashTableFirstEntry == null) {
             hashTableFirstEntry = entry;
             hashTableLastEntry = entry;
@@ -690,18 +704,72 @@ public class HashGroupify {
      * 
      * @param row
      *            the row
-     * @param index
-     *            the index
      * @param keyHash
      *            the key hash
      * @return the hash groupify entry
      */
-    private HashGroupifyEntry findEntry(final int row, final int index, final int keyHash) {
-        HashGroupifyEntry m = hashTableBuckets[index];
-        while ((m != null) && ((m.hashcode != keyHash) || !dataOutput.equals(row, m.row))) {
-            m = m.next;
+    private HashGroupifyEntry findEntry(final int row, final int keyHash) {
+        final int mask = hashTableSlots.length - 1;
+        int index = getIndex(keyHash, mask);
+        while (hashTableSlots[index] != 0) {
+            HashGroupifyEntry m = hashTableEntries[hashTableSlots[index] - 1];
+            if (hashTableHashes[index] == keyHash && dataOutput.equals(row, m.row)) {
+                return m;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the according entry, ignoring whether the row is marked as an outlier.
+     * 
+     * @param row
+     *            the row
+     * @param keyHash
+     *            the key hash
+     * @return the hash groupify entry
+     */
+    private HashGroupifyEntry findEntryIgnoringOutliers(final int row, final int keyHash) {
+        final int mask = hashTableSlots.length - 1;
+        int index = getIndex(keyHash, mask);
+        while (hashTableSlots[index] != 0) {
+            HashGroupifyEntry m = hashTableEntries[hashTableSlots[index] - 1];
+            if (hashTableHashes[index] == keyHash && dataOutput.equalsIgnoringOutliers(row, m.row)) {
+                return m;
+            }
+            index = (index + 1) & mask;
         }
-        return m;
+        return null;
+    }
+
+    /**
+     * Returns the initial slot for the given hashcode. Hashcodes are spread, as
+     * hashcodes of similar rows tend to be similar, too.
+     * 
+     * @param hash
+     * @param mask
+     * @return
+     */
+    private int getIndex(final int hash, final int mask) {
+        final int spread = hash * 0x9E3779B9;
+        return (spread ^ (spread >>> 16)) & mask;
+    }
+
+    /**
+     * Stores the entry with the given index plus one in the first free slot.
+     * 
+     * @param hash
+     * @param slot
+     */
+    private void insert(final int hash, final int slot) {
+        final int mask = hashTableSlots.length - 1;
+        int index = getIndex(hash, mask);
+        while (hashTableSlots[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        hashTableSlots[index] = slot;
+        hashTableHashes[index] = hash;
     }
 
     /**
@@ -734,16 +802,12 @@ public class HashGroupify {
      */
     private void rehash() {
         
-        final int length = HashTableUtil.calculateCapacity((hashTableBuckets.length == 0 ? 1 : hashTableBuckets.length << 1));
-        final HashGroupifyEntry[] newData = new HashGroupifyEntry[length];
-        HashGroupifyEntry entry = hashTableFirstEntry;
-        while (entry != null) {
-            final int index = entry.hashcode & (length - 1);
-            entry.next = newData[index];
-            newData[index] = entry;
-            entry = entry.nextOrdered;
+        final int length = HashTableUtil.calculateCapacity((hashTableSlots.length == 0 ? 1 : hashTableSlots.length << 1));
+        hashTableSlots = new int[length];
+        hashTableHashes = new int[length];
+        for (int i = 0; i < hashTableElementCount; i++) {
+            insert(hashTableEntries[i].hashcode, i + 1);
         }
-        hashTableBuckets = newData;
-        hashTableThreshold = HashTableUtil.calculateThreshold(hashTableBuckets.length, hashTableLoadFactor);
+        hashTableThreshold = HashTableUtil.calculateThreshold(hashTableSlots.length, hashTableLoadFactor);
     }
 }
@@ -17,11 +17,11 @@
 
 package org.deidentifier.arx.framework.check.history;
 
-import java.util.HashMap;
 import java.util.Iterator;
 
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.framework.check.TransformationCheckerStatistics;
 import org.deidentifier.arx.framework.check.distribution.Distribution;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
@@ -59,8 +59,8 @@ public class History {
     /** The dictionary for values of the distributions. */
     private final IntArrayDictionary        dictionarySensValue;
 
-    /** A map from nodes to snapshots. */
-    private HashMap<Long, int[]>            nodeToSnapshot                = null;
+    /** The snapshots. */
+    private final SnapshotStore             snapshots;
 
     /** The current requirements. */
     private final int                       requirements;
@@ -99,6 +99,12 @@ public class History {
     /** The current storage strategy. */
     private DependentAction                      storageTrigger;
 
+    /** The current storage strategy. */
+    private StorageStrategy                      storageStrategy;
+
+    /** Performance statistics */
+    private final TransformationCheckerStatistics statistics;
+
     /**
      * Creates a new history.
      *
@@ -106,31 +112,41 @@ public class History {
      * @param size the max size
      * @param snapshotSizeDataset the snapshotSizeDataset
      * @param snapshotSizeSnapshot
+     * @param memoryLimit the memory budget for snapshots in bytes, Long.MAX_VALUE for storing uncompressed snapshots
      * @param config
      * @param dictionarySensValue
      * @param dictionarySensFreq
      * @param solutionSpace
+     * @param statistics
      */
     public History(final int rowCount,
                    final int size,
                    final double snapshotSizeDataset,
                    final double snapshotSizeSnapshot,
+                   final long memoryLimit,
                    final ARXConfigurationInternal config,
                    final IntArrayDictionary dictionarySensValue,
                    final IntArrayDictionary dictionarySensFreq,
-                   final SolutionSpace solutionSpace) {
+                   final SolutionSpace solutionSpace,
+                   final TransformationCheckerStatistics statistics) {
         
         this.snapshotSizeDataset = (long) (rowCount * snapshotSizeDataset);
         this.snapshotSizeSnapshot = snapshotSizeSnapshot;
         this.cache = new MRUCache<MRUCacheEntryMetadata>(size);
-        this.nodeToSnapshot = new HashMap<Long, int[]>(size);
+        if (memoryLimit == Long.MAX_VALUE) {
+            this.snapshots = new SnapshotStoreMemory(size);
+        } else {
+            this.snapshots = new SnapshotStoreCompressed(config.getSnapshotLength(), memoryLimit);
+        }
         this.size = size;
         this.dictionarySensFreq = dictionarySensFreq;
         this.dictionarySensValue = dictionarySensValue;
         this.config = config;
         this.requirements = config.getRequirements();
         this.storageTrigger = STORAGE_TRIGGER_NON_ANONYMOUS;
+        this.storageStrategy = StorageStrategy.NON_ANONYMOUS;
         this.solutionSpace = solutionSpace;
+        this.statistics = statistics;
     }
     
     /**
@@ -142,7 +158,7 @@ public class History {
     public int[] get(final int[] transformation) {
 
         // Init
-        int[] resultSnapshot = null;
+        int resultLength = 0;
         MRUCacheEntryMetadata resultMetadata = null;
         int level = solutionSpace.getLevel(transformation);
 
@@ -151,11 +167,11 @@ public class History {
         while (entry != null) {
             MRUCacheEntryMetadata currentMetadata = entry.data;
             if (currentMetadata.level < level) {
-                final int[] currentSnapshot = nodeToSnapshot.get(currentMetadata.id);
-                if ((resultMetadata == null) || (currentSnapshot.length < resultSnapshot.length)) {
+                final int currentLength = snapshots.getLength(currentMetadata.id);
+                if ((resultMetadata == null) || (currentLength < resultLength)) {
                     if (solutionSpace.isParentChildOrEqual(transformation, currentMetadata.transformation)) {
                         resultMetadata = currentMetadata;
-                        resultSnapshot = currentSnapshot;
+                        resultLength = currentLength;
                     }
                 }
             }
@@ -167,9 +183,10 @@ public class History {
             cache.touch(resultMetadata);
         }
         this.resultMetadata = resultMetadata;
+        this.statistics.addHistoryLookup(resultMetadata != null);
 
         // Return
-        return resultSnapshot;
+        return resultMetadata == null ? null : snapshots.get(resultMetadata.id);
     }
 
     /**
@@ -217,12 +234,20 @@ public class History {
      */
     public void reset() {
         this.cache.clear();
-        this.nodeToSnapshot.clear();
+        this.snapshots.clear();
         this.dictionarySensFreq.clear();
         this.dictionarySensValue.clear();
         this.resultMetadata = null;
     }
 
+    /**
+     * Returns the storage strategy
+     * @return
+     */
+    public StorageStrategy getStorageStrategy() {
+        return this.storageStrategy;
+    }
+
     /**
      * Sets the size of this history.
      *
@@ -242,6 +267,7 @@ public class History {
         } else if (strategy == StorageStrategy.NON_ANONYMOUS) {
             this.storageTrigger = STORAGE_TRIGGER_NON_ANONYMOUS;
         }
+        this.storageStrategy = strategy;
     }
     
     /**
@@ -277,14 +303,16 @@ public class History {
         // Perform LRU eviction, if still too large
         if (cache.size() >= size) {
             removeHistoryEntry(cache.removeHead());
+            statistics.addHistoryEviction();
         }
         
         // Create the snapshot
         final int[] data = createSnapshot(groupify);
 
         // Assign snapshot and keep reference for cache
-        nodeToSnapshot.put(transformation.getIdentifier(), data);
+        snapshots.put(transformation.getIdentifier(), data);
         cache.append(new MRUCacheEntryMetadata(transformation));
+        statistics.addHistoryStore();
 
         // Success
         return true;
@@ -363,7 +391,10 @@ public class History {
      * @param metadata
      */
     private final void removeHistoryEntry(final MRUCacheEntryMetadata metadata) {
-        final int[] snapshot = nodeToSnapshot.remove(metadata.id);
+        
+        // Snapshots only need to be accessed if they reference distributions
+        final int[] snapshot = (requirements & ARXConfiguration.REQUIREMENT_DISTRIBUTION) != 0 ? snapshots.get(metadata.id) : null;
+        snapshots.remove(metadata.id);
 
         switch (requirements) {
         case ARXConfiguration.REQUIREMENT_COUNTER | ARXConfiguration.REQUIREMENT_SECONDARY_COUNTER | ARXConfiguration.REQUIREMENT_DISTRIBUTION:
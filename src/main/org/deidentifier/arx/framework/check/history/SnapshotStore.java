@@ -0,0 +1,63 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+/**
+ * Storage for the snapshots managed by the history. Snapshots are identified by
+ * the identifiers of the associated transformations.
+ *
+ * @author Fabian Prasser
+ */
+public interface SnapshotStore {
+
+    /**
+     * Removes all snapshots and frees all resources.
+     */
+    public void clear();
+
+    /**
+     * Returns the snapshot with the given identifier, or null if there is none.
+     *
+     * @param id
+     * @return
+     */
+    public int[] get(long id);
+
+    /**
+     * Returns the length of the snapshot with the given identifier.
+     *
+     * @param id
+     * @return
+     */
+    public int getLength(long id);
+
+    /**
+     * Stores the given snapshot.
+     *
+     * @param id
+     * @param snapshot
+     */
+    public void put(long id, int[] snapshot);
+
+    /**
+     * Removes the snapshot with the given identifier.
+     *
+     * @param id
+     */
+    public void remove(long id);
+}
@@ -0,0 +1,434 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Stores compressed snapshots within a given memory budget. Snapshots consist of
+ * records, which start with the index of the representative of a class, followed by
+ * counters and references to distributions. Representatives are delta-encoded, as they
+ * are mostly ascending, and all values are stored as variable-length integers. If the
+ * budget is exceeded, the least recently used snapshots are moved to a temporary file,
+ * which is accessed via memory-mapped I/O.
+ *
+ * @author Fabian Prasser
+ */
+public class SnapshotStoreCompressed implements SnapshotStore {
+
+    /**
+     * A compressed snapshot
+     * @author Fabian Prasser
+     */
+    private static class Entry {
+
+        /** Number of integers in the uncompressed snapshot */
+        private final int length;
+
+        /** Compressed data, null if spilled to disk */
+        private byte[]    data;
+
+        /** Region of the file storing the data, if spilled to disk */
+        private Region    region;
+
+        /** Offset within the region */
+        private int       offset;
+
+        /**
+         * Creates a new instance
+         * @param length
+         * @param data
+         */
+        private Entry(int length, byte[] data) {
+            this.length = length;
+            this.data = data;
+        }
+    }
+
+    /**
+     * A region of the temporary file which is mapped into memory
+     * @author Fabian Prasser
+     */
+    private static class Region {
+
+        /** The buffer */
+        private final MappedByteBuffer buffer;
+
+        /** Next free position */
+        private int                    position = 0;
+
+        /** Number of entries stored in this region */
+        private int                    live     = 0;
+
+        /**
+         * Creates a new instance
+         * @param buffer
+         */
+        private Region(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    /** Size of the regions of the file that are mapped into memory */
+    private static final int                REGION_SIZE = 1 << 24;
+
+    /** Snapshots in order of use, from the least recently used to the most recently used one */
+    private final LinkedHashMap<Long, Entry> entries     = new LinkedHashMap<Long, Entry>();
+
+    /** The number of integers per record */
+    private final int                        snapshotLength;
+
+    /** The memory budget in bytes */
+    private final long                       memoryLimit;
+
+    /** Bytes currently used by snapshots kept in memory */
+    private long                             memoryUsed  = 0;
+
+    /** Buffer for compression */
+    private byte[]                           buffer      = new byte[1024];
+
+    /** The temporary file, if any */
+    private File                             file;
+
+    /** The temporary file, if any */
+    private RandomAccessFile                 raf;
+
+    /** The size of the temporary file */
+    private long                             fileSize    = 0;
+
+    /** The region currently written to */
+    private Region                           current;
+
+    /** Regions that do not store any entries */
+    private final List<Region>               free        = new ArrayList<Region>();
+
+    /** All regions that have been mapped into memory */
+    private final List<Region>               regions     = new ArrayList<Region>();
+
+    /**
+     * Creates a new instance
+     * @param snapshotLength The number of integers per record
+     * @param memoryLimit The memory budget in bytes
+     */
+    public SnapshotStoreCompressed(int snapshotLength, long memoryLimit) {
+        if (snapshotLength <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        if (memoryLimit < 0) { throw new IllegalArgumentException("Memory limit must be positive or 0"); }
+        this.snapshotLength = snapshotLength;
+        this.memoryLimit = memoryLimit;
+    }
+
+    @Override
+    public void clear() {
+
+        // Drop all references to the regions before releasing them
+        this.entries.clear();
+        this.memoryUsed = 0;
+        this.current = null;
+        this.free.clear();
+        this.fileSize = 0;
+        for (Region region : this.regions) {
+            unmap(region.buffer);
+        }
+        this.regions.clear();
+
+        // Delete the file
+        if (this.raf != null) {
+            try {
+                this.raf.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+            this.raf = null;
+            if (!this.file.delete()) {
+                this.file.deleteOnExit();
+            }
+            this.file = null;
+        }
+    }
+
+    @Override
+    public int[] get(long id) {
+
+        // Touch
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        entries.put(id, entry);
+
+        // Decompress
+        ByteBuffer input;
+        if (entry.data != null) {
+            input = ByteBuffer.wrap(entry.data);
+        } else {
+            input = entry.region.buffer.duplicate();
+            input.position(entry.offset);
+        }
+        return decompress(input, entry.length);
+    }
+
+    /**
+     * Returns the number of bytes used by snapshots kept in memory
+     * @return
+     */
+    public long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    @Override
+    public int getLength(long id) {
+        return entries.get(id).length;
+    }
+
+    @Override
+    public void put(long id, int[] snapshot) {
+        byte[] data = compress(snapshot);
+        Entry previous = entries.put(id, new Entry(snapshot.length, data));
+        if (previous != null) {
+            release(previous);
+        }
+        memoryUsed += data.length;
+        enforceLimit();
+    }
+
+    @Override
+    public void remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            release(entry);
+        }
+    }
+
+    /**
+     * Compresses the given snapshot
+     * @param snapshot
+     * @return
+     */
+    private byte[] compress(int[] snapshot) {
+        int position = 0;
+        int previous = 0;
+        for (int i = 0; i < snapshot.length; i += snapshotLength) {
+            int delta = snapshot[i] - previous;
+            previous = snapshot[i];
+            position = write((delta << 1) ^ (delta >> 31), position);
+            for (int j = i + 1; j < i + snapshotLength; j++) {
+                position = write(snapshot[j], position);
+            }
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Decompresses a snapshot
+     * @param input
+     * @param length
+     * @return
+     */
+    private int[] decompress(ByteBuffer input, int length) {
+        int[] snapshot = new int[length];
+        int previous = 0;
+        for (int i = 0; i < length; i += snapshotLength) {
+            int delta = read(input);
+            previous += (delta >>> 1) ^ -(delta & 1);
+            snapshot[i] = previous;
+            for (int j = i + 1; j < i + snapshotLength; j++) {
+                snapshot[j] = read(input);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Moves the least recently used snapshots to disk, until the budget is met
+     */
+    private void enforceLimit() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (memoryUsed > memoryLimit && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.data != null) {
+                spill(entry);
+            }
+        }
+    }
+
+    /**
+     * Returns a region with enough free space for the given number of bytes
+     * @param size
+     * @return
+     * @throws IOException
+     */
+    private Region getRegion(int size) throws IOException {
+
+        // Current region
+        if (current != null && current.buffer.capacity() - current.position >= size) {
+            return current;
+        }
+
+        // Retire current region
+        if (current != null && current.live == 0) {
+            free.add(current);
+        }
+
+        // Free region
+        Iterator<Region> iterator = free.iterator();
+        while (iterator.hasNext()) {
+            Region region = iterator.next();
+            if (region.buffer.capacity() >= size) {
+                iterator.remove();
+                region.position = 0;
+                current = region;
+                return current;
+            }
+        }
+
+        // New region
+        if (raf == null) {
+            file = File.createTempFile("arx-history", ".tmp");
+            file.deleteOnExit();
+            raf = new RandomAccessFile(file, "rw");
+        }
+        int capacity = Math.max(REGION_SIZE, size);
+        current = new Region(raf.getChannel().map(FileChannel.MapMode.READ_WRITE, fileSize, capacity));
+        regions.add(current);
+        fileSize += capacity;
+        return current;
+    }
+
+    /**
+     * Reads a variable-length integer
+     * @param input
+     * @return
+     */
+    private int read(ByteBuffer input) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = input.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Releases the resources of the given entry
+     * @param entry
+     */
+    private void release(Entry entry) {
+        if (entry.data != null) {
+            memoryUsed -= entry.data.length;
+        } else {
+            Region region = entry.region;
+            region.live--;
+            if (region.live == 0) {
+                if (region == current) {
+                    region.position = 0;
+                } else {
+                    free.add(region);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the given entry to disk
+     * @param entry
+     */
+    private void spill(Entry entry) {
+        Region region;
+        try {
+            region = getRegion(entry.data.length);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot store snapshot on disk", e);
+        }
+        ByteBuffer output = region.buffer.duplicate();
+        output.position(region.position);
+        output.put(entry.data);
+        entry.region = region;
+        entry.offset = region.position;
+        region.position += entry.data.length;
+        region.live++;
+        memoryUsed -= entry.data.length;
+        entry.data = null;
+    }
+
+    /**
+     * Releases the memory mapping of the given buffer. The buffer must not be accessed afterwards.
+     * If the mapping cannot be released explicitly, it will be released when the buffer
+     * is garbage collected.
+     *
+     * @param buffer
+     */
+    private void unmap(MappedByteBuffer buffer) {
+
+        // Java 9 and later
+        try {
+            Class<?> clazz = Class.forName("sun.misc.Unsafe");
+            Method method = clazz.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = clazz.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            method.invoke(field.get(null), buffer);
+            return;
+        } catch (Exception e) {
+            // Try the alternative
+        }
+
+        // Java 8 and earlier
+        try {
+            Method method = buffer.getClass().getMethod("cleaner");
+            method.setAccessible(true);
+            Object cleaner = method.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (Exception e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * Writes a variable-length integer into the buffer
+     * @param value
+     * @param position
+     * @return
+     */
+    private int write(int value, int position) {
+        if (position + 5 > buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length << 1);
+        }
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+import java.util.HashMap;
+
+/**
+ * Stores uncompressed snapshots on the heap.
+ *
+ * @author Fabian Prasser
+ */
+public class SnapshotStoreMemory implements SnapshotStore {
+
+    /** A map from nodes to snapshots. */
+    private final HashMap<Long, int[]> nodeToSnapshot;
+
+    /**
+     * Creates a new instance
+     * @param size
+     */
+    public SnapshotStoreMemory(int size) {
+        this.nodeToSnapshot = new HashMap<Long, int[]>(size);
+    }
+
+    @Override
+    public void clear() {
+        this.nodeToSnapshot.clear();
+    }
+
+    @Override
+    public int[] get(long id) {
+        return nodeToSnapshot.get(id);
+    }
+
+    @Override
+    public int getLength(long id) {
+        return nodeToSnapshot.get(id).length;
+    }
+
+    @Override
+    public void put(long id, int[] snapshot) {
+        nodeToSnapshot.put(id, snapshot);
+    }
+
+    @Override
+    public void remove(long id) {
+        nodeToSnapshot.remove(id);
+    }
+}
@@ -55,6 +55,24 @@ public class Data implements Cloneable, Serializable {
                                         final String[] header,
                                         final int[] columns,
                                         final Dictionary dictionary) {
+        return createProjection(data, header, columns, dictionary, false);
+    }
+
+    /**
+     * Creates an object which projects the given data onto the given set of columns
+     * 
+     * @param data
+     * @param header
+     * @param columns
+     * @param dictionary
+     * @param offHeap Whether the projection should be stored in off-heap memory
+     * @return
+     */
+    public static Data createProjection(final DataMatrix data,
+                                        final String[] header,
+                                        final int[] columns,
+                                        final Dictionary dictionary,
+                                        final boolean offHeap) {
         
         // Empty object
         if (columns.length == 0) {
@@ -62,7 +80,7 @@ public class Data implements Cloneable, Serializable {
         }
 
         // Clone matrix
-        DataMatrix matrix = new DataMatrix(data.getNumRows(), columns.length);
+        DataMatrix matrix = DataMatrix.create(data.getNumRows(), columns.length, offHeap);
         for (int row = 0; row < data.getNumRows(); row++) {
             
             // Prepare row
@@ -213,7 +231,25 @@ public class Data implements Cloneable, Serializable {
                 rows[index++] = row;
             }
         }
-        return new Data(new DataMatrixSubset(data, rows), header, columns, dictionary);
+        // Subsets maintain their own iterator state, so that they can be used concurrently
+        return new Data(new DataMatrixSubset(data == null ? null : data.createView(), rows), header, columns, dictionary);
+    }
+
+    /**
+     * Returns a new instance in which the data is stored in a bit-packed matrix.
+     * The number of bits used for each column is derived from the dictionary,
+     * which must therefore be finalized.
+     * @return
+     */
+    public Data getPackedInstance() {
+        if (data == null) {
+            return this;
+        }
+        int[] bits = new int[header.length];
+        for (int column = 0; column < bits.length; column++) {
+            bits[column] = DataMatrixPacked.getBits(dictionary.getMapping()[column].length);
+        }
+        return new Data(new DataMatrixPacked(data, bits), header, columns, dictionary);
     }
 
     /**
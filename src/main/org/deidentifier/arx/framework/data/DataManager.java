@@ -25,6 +25,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXConfiguration.DataStorage;
 import org.deidentifier.arx.DataDefinition;
 import org.deidentifier.arx.DataGeneralizationScheme;
 import org.deidentifier.arx.DataSubset;
@@ -178,13 +179,15 @@ public class DataManager {
         hotOtherAttributes.removeAll(definition.getQuasiIdentifiersWithMicroaggregation());
         
         // Create data objects
-        this.dataGeneralized = Data.createProjection(data, header, getColumns(header, qisGeneralized), dictionary);
+        boolean offHeap = config.getDataStorage() == DataStorage.OFF_HEAP;
+        Data dataGeneralized = Data.createProjection(data, header, getColumns(header, qisGeneralized), dictionary, offHeap);
         this.dataAnalyzed = Data.createProjection(data, header, getColumns(header, 
                                                                            hotOtherAttributes,
                                                                            hotQIsNotGeneralized,
                                                                            hotQIsGeneralized,
                                                                            coldQIs), 
-                                                                           dictionary);
+                                                                           dictionary,
+                                                                           offHeap);
         this.dataInput = Data.createWrapper(data, header, getColumns(header), dictionary);
         
         // Store information about aggregated attributes
@@ -196,7 +199,7 @@ public class DataManager {
                                                                    coldQIs);
 
         // Make the dictionaries ready for additions
-        this.dataGeneralized.getDictionary().definalizeAll();
+        dataGeneralized.getDictionary().definalizeAll();
         this.dataAnalyzed.getDictionary().definalizeAll();
         
         // Register hierarchies used for generalization
@@ -215,7 +218,7 @@ public class DataManager {
                 this.hierarchiesGeneralized[index] = new GeneralizationHierarchy(attribute,
                                                                             definition.getHierarchy(attribute),
                                                                             index,
-                                                                            this.dataGeneralized.getDictionary());
+                                                                            dataGeneralized.getDictionary());
                 
                 // Initialize hierarchy height and minimum / maximum generalization
                 Integer min = definition.getMinimumGeneralization(attribute);
@@ -274,6 +277,12 @@ public class DataManager {
         dataGeneralized.getDictionary().finalizeAll();
         dataAnalyzed.getDictionary().finalizeAll();
 
+        // Pack data, which is possible only now that the domains are known
+        if (config.getDataStorage() == DataStorage.PACKED) {
+            dataGeneralized = dataGeneralized.getPackedInstance();
+        }
+        this.dataGeneralized = dataGeneralized;
+
         // Store research subset
         for (PrivacyCriterion c : config.getPrivacyModels()) {
             if (c instanceof EDDifferentialPrivacy) {
@@ -409,7 +418,7 @@ public class DataManager {
      * Returns the domain shares for all generalized quasi-identifiers
      * @return
      */
-    public DomainShare[] getDomainShares() {
+    public synchronized DomainShare[] getDomainShares() {
 
         // Build on-demand
         if (this.shares == null) {
@@ -451,7 +460,7 @@ public class DataManager {
      * Returns the reliable domain shares for all generalized quasi-identifiers
      * @return
      */
-    public DomainShareReliable[] getDomainSharesReliable() {
+    public synchronized DomainShareReliable[] getDomainSharesReliable() {
 
         // Build on-demand
         if (this.sharesReliable == null) {
@@ -48,6 +48,23 @@ public class DataMatrix implements Serializable {
     /** Iterate */
     private int               baseOffset       = 0;
 
+    /**
+     * Creates a new matrix. Off-heap storage is used if requested, or if the number
+     * of cells exceeds the capacity of an array.
+     *
+     * @param rows the num rows
+     * @param columns the num columns
+     * @param offHeap whether off-heap storage is requested
+     * @return
+     */
+    public static DataMatrix create(final int rows, final int columns, final boolean offHeap) {
+        if (offHeap || (long) rows * (long) columns > Integer.MAX_VALUE) {
+            return new DataMatrixOffHeap(rows, columns);
+        } else {
+            return new DataMatrix(rows, columns);
+        }
+    }
+
     /**
      * Instantiates a new memory block.
      *
@@ -65,6 +82,19 @@ public class DataMatrix implements Serializable {
         }
     }
 
+    /**
+     * Instantiates a new view on the given memory block.
+     *
+     * @param array the backing array
+     * @param rows the num rows
+     * @param columns the num columns
+     */
+    private DataMatrix(final int[] array, final int rows, final int columns) {
+        this.array = array;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
     /**
      * ANDs the first value of the row with the given value
      * @param row
@@ -88,9 +118,15 @@ public class DataMatrix implements Serializable {
      * @param sourceRow
      */
     public void copyFrom(int row, DataMatrix sourceMatrix, int sourceRow) {
-        int sourceOffset = sourceRow * columns;
         int thisOffset = row * columns;
-        System.arraycopy(sourceMatrix.array, sourceOffset, this.array, thisOffset, columns);
+        if (sourceMatrix.getClass() == DataMatrix.class) {
+            int sourceOffset = sourceRow * columns;
+            System.arraycopy(sourceMatrix.array, sourceOffset, this.array, thisOffset, columns);
+        } else {
+            for (int i = 0; i < columns; i++) {
+                this.array[thisOffset + i] = sourceMatrix.get(sourceRow, i);
+            }
+        }
     }
 
     /**
@@ -236,6 +272,37 @@ public class DataMatrix implements Serializable {
         return this.equals(row1, row2, Data.REMOVE_OUTLIER_MASK);
     }
 
+    /**
+     * Returns a new, empty matrix with the given dimensions, which is backed by
+     * the same type of storage as this matrix.
+     * @param rows
+     * @param columns
+     * @return
+     */
+    public DataMatrix createEmpty(int rows, int columns) {
+        return new DataMatrix(rows, columns);
+    }
+
+    /**
+     * Returns a new, empty matrix with the given number of rows, which has the
+     * same columns and is backed by the same type of storage as this matrix.
+     * @param rows
+     * @return
+     */
+    public DataMatrix createEmpty(int rows) {
+        return createEmpty(rows, getNumColumns());
+    }
+
+    /**
+     * Returns a view on this matrix. The view is backed by the same data,
+     * but maintains its own iterator state. It can thus be used to read
+     * the matrix concurrently from multiple threads.
+     * @return
+     */
+    public DataMatrix createView() {
+        return new DataMatrix(this.array, this.rows, this.columns);
+    }
+
     /**
      * Returns the specified value
      * @param row
@@ -292,7 +359,7 @@ public class DataMatrix implements Serializable {
      * @param array
      * @return the hashcode
      */
-    public final int hashCode(final int[] array) {
+    public int hashCode(final int[] array) {
         final int len = array.length;
         int result = 23;
         int i = 0;
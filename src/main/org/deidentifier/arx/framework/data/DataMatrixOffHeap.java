@@ -0,0 +1,360 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * An implementation of a data matrix which is stored in off-heap memory. Cells are
+ * addressed with long indices and stored in chunks of direct buffers. This allows
+ * storing matrices with more than 2^31-1 cells, which do not consume heap space.
+ *
+ * @author Fabian Prasser
+ */
+public class DataMatrixOffHeap extends DataMatrix {
+
+    /** SVUID */
+    private static final long serialVersionUID = -1851337164374497166L;
+
+    /** Number of bits used for addressing cells within a chunk */
+    private static final int  CHUNK_SHIFT      = 27;
+
+    /** Number of cells per chunk */
+    private static final int  CHUNK_SIZE       = 1 << CHUNK_SHIFT;
+
+    /** Mask for addressing cells within a chunk */
+    private static final long CHUNK_MASK       = CHUNK_SIZE - 1;
+
+    /** Backing buffers */
+    private transient IntBuffer[] chunks;
+
+    /** The number of rows. */
+    private final int         rows;
+
+    /** The number of columns. */
+    private final int         columns;
+
+    /** Iterate */
+    private int               iteratorI        = 0;
+
+    /** Iterate */
+    private long              iteratorOffset   = 0;
+
+    /** Iterate */
+    private long              baseOffset       = 0;
+
+    /**
+     * Instantiates a new memory block.
+     *
+     * @param rows the num rows
+     * @param columns the num columns
+     */
+    public DataMatrixOffHeap(final int rows, final int columns) {
+        super(0, 0);
+        this.rows = rows;
+        this.columns = columns;
+        this.chunks = allocate((long) rows * (long) columns);
+    }
+
+    /**
+     * Instantiates a new view on the given memory block.
+     *
+     * @param chunks the backing buffers
+     * @param rows the num rows
+     * @param columns the num columns
+     */
+    private DataMatrixOffHeap(final IntBuffer[] chunks, final int rows, final int columns) {
+        super(0, 0);
+        this.chunks = chunks;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Allocates the given number of cells
+     * @param cells
+     * @return
+     */
+    private static IntBuffer[] allocate(long cells) {
+        int numChunks = (int) ((cells + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+        IntBuffer[] result = new IntBuffer[numChunks];
+        for (int i = 0; i < numChunks; i++) {
+            int size = (int) Math.min(CHUNK_SIZE, cells - ((long) i << CHUNK_SHIFT));
+            result[i] = ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        return result;
+    }
+
+    @Override
+    public void and(int row, int value) {
+        long offset = (long) row * columns;
+        write(offset, read(offset) & value);
+    }
+
+    @Override
+    public DataMatrix clone() {
+        DataMatrixOffHeap result = new DataMatrixOffHeap(this.rows, this.columns);
+        for (int i = 0; i < chunks.length; i++) {
+            IntBuffer source = chunks[i].duplicate();
+            source.rewind();
+            IntBuffer target = result.chunks[i].duplicate();
+            target.rewind();
+            target.put(source);
+        }
+        return result;
+    }
+
+    @Override
+    public void copyFrom(int row, DataMatrix sourceMatrix, int sourceRow) {
+        long offset = (long) row * columns;
+        for (int i = 0; i < columns; i++) {
+            write(offset++, sourceMatrix.get(sourceRow, i));
+        }
+    }
+
+    @Override
+    public DataMatrix createEmpty(int rows, int columns) {
+        return new DataMatrixOffHeap(rows, columns);
+    }
+
+    @Override
+    public DataMatrix createView() {
+        return new DataMatrixOffHeap(this.chunks, this.rows, this.columns);
+    }
+
+    @Override
+    public boolean equals(int row1, int row2) {
+        return equals(row1, row2, ~0);
+    }
+
+    @Override
+    public boolean equals(int row, int[] data) {
+        long offset = (long) row * columns;
+        for (int i = 0; i < columns; i++) {
+            if (read(offset++) != data[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equalsIgnore(int row1, int row2, int ignore) {
+        long offset1 = (long) row1 * columns;
+        long offset2 = (long) row2 * columns;
+        for (int i = 0; i < columns; i++) {
+            if ((ignore != i) && read(offset1 + i) != read(offset2 + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equalsIgnoringOutliers(int row1, int row2) {
+        return equals(row1, row2, Data.REMOVE_OUTLIER_MASK);
+    }
+
+    @Override
+    public int get(final int row, final int col) {
+        return read((long) row * columns + col);
+    }
+
+    @Override
+    public int getNumColumns() {
+        return columns;
+    }
+
+    @Override
+    public int getNumRows() {
+        return rows;
+    }
+
+    @Override
+    public int getValueAtColumn(int column) {
+        return read(baseOffset + column);
+    }
+
+    @Override
+    public int hashCode(final int row) {
+        long offset = (long) row * columns;
+        int result = 23;
+        for (int i = 0; i < columns; i++) {
+            result = (37 * result) + read(offset++);
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCodeIgnore(final int row, final int ignore) {
+        long offset = (long) row * columns;
+        int result = 23;
+        for (int i = 0; i < columns; i++) {
+            result = (i == ignore) ? result : ((37 * result) + read(offset));
+            offset++;
+        }
+        return result;
+    }
+
+    @Override
+    public void iterator(int row) {
+        iteratorOffset = (long) row * columns;
+        iteratorI = 0;
+    }
+
+    @Override
+    public boolean iterator_hasNext() {
+        return iteratorI < columns;
+    }
+
+    @Override
+    public int iterator_next() {
+        int result = read(iteratorOffset++);
+        iteratorI++;
+        return result;
+    }
+
+    @Override
+    public void iterator_write(int value) {
+        write(iteratorOffset++, value);
+        iteratorI++;
+    }
+
+    @Override
+    public void or(int row, int value) {
+        long offset = (long) row * columns;
+        write(offset, read(offset) | value);
+    }
+
+    @Override
+    public void set(int row, int column, int value) {
+        write((long) row * columns + column, value);
+    }
+
+    @Override
+    public void setRow(int row) {
+        this.baseOffset = (long) row * columns;
+    }
+
+    @Override
+    public void setRow(int row, int[] data) {
+        long offset = (long) row * columns;
+        for (int i = 0; i < data.length; i++) {
+            write(offset++, data[i]);
+        }
+    }
+
+    @Override
+    public void setValueAtColumn(int column, int value) {
+        write(baseOffset + column, value);
+    }
+
+    @Override
+    public void swap(int row1, int row2) {
+        long offset1 = (long) row1 * columns;
+        long offset2 = (long) row2 * columns;
+        for (int i = 0; i < this.columns; i++) {
+            int temp = read(offset1);
+            write(offset1, read(offset2));
+            write(offset2, temp);
+            offset1++;
+            offset2++;
+        }
+    }
+
+    /**
+     * Internal equals
+     * @param row1
+     * @param row2
+     * @param flag
+     * @return
+     */
+    private boolean equals(int row1, int row2, int flag) {
+        long offset1 = (long) row1 * columns;
+        long offset2 = (long) row2 * columns;
+        if (columns > 0 && (read(offset1) & flag) != (read(offset2) & flag)) {
+            return false;
+        }
+        for (int i = 1; i < columns; i++) {
+            if (read(offset1 + i) != read(offset2 + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the cell with the given index
+     * @param index
+     * @return
+     */
+    private int read(long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+    }
+
+    /**
+     * Deserialization
+     * @param stream
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        long cells = (long) rows * (long) columns;
+        this.chunks = allocate(cells);
+        for (long index = 0; index < cells; index++) {
+            write(index, stream.readInt());
+        }
+    }
+
+    /**
+     * Writes the cell with the given index
+     * @param index
+     * @param value
+     */
+    private void write(long index, int value) {
+        chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), value);
+    }
+
+    /**
+     * Serialization
+     * @param stream
+     * @throws IOException
+     */
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        long cells = (long) rows * (long) columns;
+        for (long index = 0; index < cells; index++) {
+            stream.writeInt(read(index));
+        }
+    }
+
+    @Override
+    protected DataMatrix clone(int[] subset) {
+        DataMatrixOffHeap result = new DataMatrixOffHeap(subset.length, this.columns);
+        for (int row = 0; row < subset.length; row++) {
+            result.copyFrom(row, this, subset[row]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,425 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import java.util.Arrays;
+
+/**
+ * An implementation of a data matrix in which each row is packed into an array of longs.
+ * The number of bits used for each column is defined by the cardinality of its domain.
+ * Values never span multiple words and each row starts with a new word, which means that
+ * rows can be written concurrently. The most significant bit of the first word of each
+ * row is reserved for the outlier flag, which is stored in the first column of
+ * unpacked matrices. Rows are hashed and compared word-wise.
+ *
+ * @author Fabian Prasser
+ */
+public class DataMatrixPacked extends DataMatrix {
+
+    /** SVUID */
+    private static final long serialVersionUID = 4426946404286640536L;
+
+    /** Bit used for storing the outlier flag in the first word of each row */
+    private static final long OUTLIER_BIT      = 1L << 63;
+
+    /**
+     * Returns the number of bits needed for storing values from a domain with the given cardinality
+     * @param cardinality
+     * @return
+     */
+    public static int getBits(int cardinality) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(1, cardinality - 1));
+    }
+
+    /** Backing array */
+    private final long[] words;
+
+    /** The number of bits per column */
+    private final int[]  bits;
+
+    /** The word storing each column */
+    private final int[]  wordOf;
+
+    /** The offset of each column within its word */
+    private final int[]  shiftOf;
+
+    /** The mask of each column */
+    private final long[] maskOf;
+
+    /** The number of words per row */
+    private final int    wordsPerRow;
+
+    /** The number of rows. */
+    private final int    rows;
+
+    /** The number of columns. */
+    private final int    columns;
+
+    /** Iterate */
+    private int          iteratorI   = 0;
+
+    /** Iterate */
+    private int          iteratorRow = 0;
+
+    /** Iterate */
+    private int          baseRow     = 0;
+
+    /**
+     * Creates a packed copy of the given matrix
+     *
+     * @param source the matrix
+     * @param bits the number of bits per column
+     */
+    public DataMatrixPacked(final DataMatrix source, final int[] bits) {
+        this(source.getNumRows(), bits);
+        if (source.getNumColumns() != bits.length) {
+            throw new IllegalArgumentException("Number of columns does not match");
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int value = source.get(row, column);
+                if (((value & Data.REMOVE_OUTLIER_MASK) & ~maskOf[column]) != 0) {
+                    throw new IllegalArgumentException("Value does not fit into " + bits[column] + " bits");
+                }
+                set(row, column, value);
+            }
+        }
+    }
+
+    /**
+     * Instantiates a new memory block.
+     *
+     * @param rows the num rows
+     * @param bits the number of bits per column
+     */
+    public DataMatrixPacked(final int rows, final int[] bits) {
+        super(0, 0);
+
+        // Prepare layout
+        this.rows = rows;
+        this.columns = bits.length;
+        this.bits = bits.clone();
+        this.wordOf = new int[columns];
+        this.shiftOf = new int[columns];
+        this.maskOf = new long[columns];
+        int word = 0;
+        int offset = 0;
+        for (int column = 0; column < columns; column++) {
+            if (bits[column] <= 0 || bits[column] > 31) {
+                throw new IllegalArgumentException("Number of bits must be in [1, 31]");
+            }
+            int limit = word == 0 ? 63 : 64;
+            if (offset + bits[column] > limit) {
+                word++;
+                offset = 0;
+            }
+            this.wordOf[column] = word;
+            this.shiftOf[column] = offset;
+            this.maskOf[column] = (1L << bits[column]) - 1L;
+            offset += bits[column];
+        }
+        this.wordsPerRow = word + 1;
+
+        // Allocate
+        try {
+            this.words = new long[Math.multiplyExact(rows, wordsPerRow)];
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Not more then 2^31-1 words supported");
+        }
+    }
+
+    /**
+     * Instantiates a new view on the given memory block.
+     *
+     * @param other the matrix
+     * @param words the backing array
+     * @param rows the num rows
+     */
+    private DataMatrixPacked(final DataMatrixPacked other, final long[] words, final int rows) {
+        super(0, 0);
+        this.words = words;
+        this.rows = rows;
+        this.columns = other.columns;
+        this.bits = other.bits;
+        this.wordOf = other.wordOf;
+        this.shiftOf = other.shiftOf;
+        this.maskOf = other.maskOf;
+        this.wordsPerRow = other.wordsPerRow;
+    }
+
+    @Override
+    public void and(int row, int value) {
+        set(row, 0, get(row, 0) & value);
+    }
+
+    @Override
+    public DataMatrix clone() {
+        return new DataMatrixPacked(this, this.words.clone(), this.rows);
+    }
+
+    @Override
+    public void copyFrom(int row, DataMatrix sourceMatrix, int sourceRow) {
+        if (sourceMatrix instanceof DataMatrixPacked && hasSameLayout((DataMatrixPacked) sourceMatrix)) {
+            System.arraycopy(((DataMatrixPacked) sourceMatrix).words, sourceRow * wordsPerRow,
+                             this.words, row * wordsPerRow, wordsPerRow);
+        } else {
+            for (int i = 0; i < columns; i++) {
+                set(row, i, sourceMatrix.get(sourceRow, i));
+            }
+        }
+    }
+
+    @Override
+    public DataMatrix createEmpty(int rows) {
+        try {
+            return new DataMatrixPacked(this, new long[Math.multiplyExact(rows, wordsPerRow)], rows);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Not more then 2^31-1 words supported");
+        }
+    }
+
+    @Override
+    public DataMatrix createView() {
+        return new DataMatrixPacked(this, this.words, this.rows);
+    }
+
+    @Override
+    public boolean equals(int row1, int row2) {
+        int offset1 = row1 * wordsPerRow;
+        int offset2 = row2 * wordsPerRow;
+        for (int i = 0; i < wordsPerRow; i++) {
+            if (words[offset1 + i] != words[offset2 + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(int row, int[] data) {
+        for (int i = 0; i < columns; i++) {
+            if (get(row, i) != data[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equalsIgnore(int row1, int row2, int ignore) {
+        for (int i = 0; i < columns; i++) {
+            if ((ignore != i) && get(row1, i) != get(row2, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equalsIgnoringOutliers(int row1, int row2) {
+        int offset1 = row1 * wordsPerRow;
+        int offset2 = row2 * wordsPerRow;
+        if (((words[offset1] ^ words[offset2]) & ~OUTLIER_BIT) != 0L) {
+            return false;
+        }
+        for (int i = 1; i < wordsPerRow; i++) {
+            if (words[offset1 + i] != words[offset2 + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int get(final int row, final int col) {
+        int offset = row * wordsPerRow;
+        int value = (int) ((words[offset + wordOf[col]] >>> shiftOf[col]) & maskOf[col]);
+        if (col == 0 && (words[offset] & OUTLIER_BIT) != 0L) {
+            value |= Data.OUTLIER_MASK;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of bits used for each column
+     * @return
+     */
+    public int[] getBits() {
+        return bits.clone();
+    }
+
+    @Override
+    public int getNumColumns() {
+        return columns;
+    }
+
+    @Override
+    public int getNumRows() {
+        return rows;
+    }
+
+    @Override
+    public int getValueAtColumn(int column) {
+        return get(baseRow, column);
+    }
+
+    @Override
+    public int hashCode(final int row) {
+        return hashCode(this.words, row * wordsPerRow);
+    }
+
+    @Override
+    public int hashCode(final int[] array) {
+
+        // Pack each word in place and hash it like a stored row
+        int result = 23;
+        int index = 0;
+        long word = columns > 0 && (array[0] & Data.OUTLIER_MASK) != 0 ? OUTLIER_BIT : 0L;
+        for (int i = 0; i < columns; i++) {
+            if (wordOf[i] != index) {
+                result = (37 * result) + (int) (word ^ (word >>> 32));
+                index = wordOf[i];
+                word = 0L;
+            }
+            word |= ((long) array[i] & maskOf[i]) << shiftOf[i];
+        }
+        return (37 * result) + (int) (word ^ (word >>> 32));
+    }
+
+    @Override
+    public int hashCodeIgnore(final int row, final int ignore) {
+        int result = 23;
+        for (int i = 0; i < columns; i++) {
+            result = (i == ignore) ? result : ((37 * result) + get(row, i));
+        }
+        return result;
+    }
+
+    @Override
+    public void iterator(int row) {
+        iteratorRow = row;
+        iteratorI = 0;
+    }
+
+    @Override
+    public boolean iterator_hasNext() {
+        return iteratorI < columns;
+    }
+
+    @Override
+    public int iterator_next() {
+        return get(iteratorRow, iteratorI++);
+    }
+
+    @Override
+    public void iterator_write(int value) {
+        set(iteratorRow, iteratorI++, value);
+    }
+
+    @Override
+    public void or(int row, int value) {
+        set(row, 0, get(row, 0) | value);
+    }
+
+    @Override
+    public void set(int row, int column, int value) {
+        write(this.words, row * wordsPerRow, column, value);
+    }
+
+    @Override
+    public void setRow(int row) {
+        this.baseRow = row;
+    }
+
+    @Override
+    public void setRow(int row, int[] data) {
+        for (int i = 0; i < data.length; i++) {
+            set(row, i, data[i]);
+        }
+    }
+
+    @Override
+    public void setValueAtColumn(int column, int value) {
+        set(baseRow, column, value);
+    }
+
+    @Override
+    public void swap(int row1, int row2) {
+        int offset1 = row1 * wordsPerRow;
+        int offset2 = row2 * wordsPerRow;
+        for (int i = 0; i < wordsPerRow; i++) {
+            long temp = words[offset1];
+            words[offset1] = words[offset2];
+            words[offset2] = temp;
+            offset1++;
+            offset2++;
+        }
+    }
+
+    /**
+     * Computes a hashcode for the row stored at the given offset
+     * @param words
+     * @param offset
+     * @return
+     */
+    private int hashCode(long[] words, int offset) {
+        int result = 23;
+        for (int i = 0; i < wordsPerRow; i++) {
+            long word = words[offset++];
+            result = (37 * result) + (int) (word ^ (word >>> 32));
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether both matrices use the same layout
+     * @param other
+     * @return
+     */
+    private boolean hasSameLayout(DataMatrixPacked other) {
+        return this.bits == other.bits || Arrays.equals(this.bits, other.bits);
+    }
+
+    /**
+     * Writes the value into the row stored at the given offset
+     * @param words
+     * @param offset
+     * @param column
+     * @param value
+     */
+    private void write(long[] words, int offset, int column, int value) {
+        int index = offset + wordOf[column];
+        int shift = shiftOf[column];
+        long mask = maskOf[column];
+        words[index] = (words[index] & ~(mask << shift)) | (((long) value & mask) << shift);
+        if (column == 0) {
+            words[offset] = (value & Data.OUTLIER_MASK) != 0 ? words[offset] | OUTLIER_BIT : words[offset] & ~OUTLIER_BIT;
+        }
+    }
+
+    @Override
+    protected DataMatrix clone(int[] subset) {
+        DataMatrixPacked result = new DataMatrixPacked(this, new long[subset.length * wordsPerRow], subset.length);
+        int targetOffset = 0;
+        for (int source : subset) {
+            System.arraycopy(this.words, source * wordsPerRow, result.words, targetOffset, wordsPerRow);
+            targetOffset += wordsPerRow;
+        }
+        return result;
+    }
+}
@@ -53,6 +53,21 @@ public class DataMatrixSubset extends DataMatrix {
         return matrix.clone(this.subset);
     }
 
+    @Override
+    public DataMatrix createEmpty(int rows, int columns) {
+        return matrix.createEmpty(rows, columns);
+    }
+
+    @Override
+    public DataMatrix createEmpty(int rows) {
+        return matrix.createEmpty(rows);
+    }
+
+    @Override
+    public DataMatrix createView() {
+        return (matrix == null) ? this : new DataMatrixSubset(matrix.createView(), subset);
+    }
+
     @Override
     public boolean equals(int row1, int row2) {
         return matrix.equals(subset[row1], subset[row2]);
@@ -93,6 +108,11 @@ public class DataMatrixSubset extends DataMatrix {
         return matrix.hashCode(subset[row]);
     }
 
+    @Override
+    public int hashCode(int[] array) {
+        return matrix.hashCode(array);
+    }
+
     @Override
     public void iterator(int row) {
 //        if (matrix != null) {
@@ -32,13 +32,16 @@ import de.linearbits.jhpl.PredictiveProperty;
 import de.linearbits.jhpl.PredictiveProperty.Direction;
 
 /**
- * A class representing the solution space
+ * A class representing the solution space. Access to properties and associated
+ * data is synchronized, as transformations may be checked concurrently.
  * @author Fabian Prasser
  */
 public class SolutionSpace {
 
     /** Information loss */
     private LongObjectOpenHashMap<Object>             data                        = new LongObjectOpenHashMap<Object>();
+    /** The number of generalization levels of each dimension */
+    private final int[]                               heights;
     /** The backing JHPL lattice */
     private final Lattice<Integer, Integer>           lattice;
     /** Information loss */
@@ -123,12 +126,14 @@ public class SolutionSpace {
         this.offsetIndices = minLevels.clone();
         int lvl = 0; for (int i : offsetIndices) lvl+=i;
         this.offsetLevel = lvl;
+        this.heights = new int[minLevels.length];
         
         
         // Create lattice
         Integer[][] elements = new Integer[minLevels.length][];
         for (int i = 0; i < elements.length; i++) {
             Integer[] element = new Integer[maxLevels[i] - minLevels[i] + 1];
+            heights[i] = element.length;
             int idx = 0;
             for (int j = minLevels[i]; j <= maxLevels[i]; j++) {
                 element[idx++] = j;
@@ -167,6 +172,36 @@ public class SolutionSpace {
         return lattice.listNodesAsIdentifiers();
     }
 
+    /**
+     * Returns the number of transformations on the largest level of the solution space.
+     * The result is computed without enumerating any level.
+     * @return
+     */
+    public long getMaxLevelSize() {
+
+        // Count the transformations on each level, dimension by dimension
+        long[] sizes = new long[] { 1L };
+        for (int height : heights) {
+            long[] next = new long[sizes.length + height - 1];
+            for (int level = 0; level < sizes.length; level++) {
+                for (int offset = 0; offset < height; offset++) {
+                    next[level + offset] += sizes[level];
+                    if (next[level + offset] < 0) {
+                        next[level + offset] = Long.MAX_VALUE;
+                    }
+                }
+            }
+            sizes = next;
+        }
+
+        // Return the maximum
+        long result = 0L;
+        for (long size : sizes) {
+            result = Math.max(result, size);
+        }
+        return result;
+    }
+
     /**
      * Returns the multipliers
      * @return
@@ -314,7 +349,7 @@ public class SolutionSpace {
      * @param identifier
      * @return
      */
-    public InformationLoss<?> getUtility(long identifier) {
+    public synchronized InformationLoss<?> getUtility(long identifier) {
         return utility.getOrDefault(identifier, null);
     }
     
@@ -324,7 +359,7 @@ public class SolutionSpace {
      * @param property
      * @return
      */
-    public boolean hasProperty(int[] transformation, PredictiveProperty property) {
+    public synchronized boolean hasProperty(int[] transformation, PredictiveProperty property) {
         int[] index = toJHPL(transformation);
         int level = getLevel(index);
         return lattice.hasProperty(index, level, property);
@@ -442,17 +477,28 @@ public class SolutionSpace {
      * @param id
      * @return
      */
-    protected Object getData(long id) {
+    protected synchronized Object getData(long id) {
         return data.getOrDefault(id, null);
     }
     
 
+    /**
+     * Returns whether the given transformation has the given property
+     * @param transformationJHPL
+     * @param levelJHPL
+     * @param property
+     * @return
+     */
+    protected synchronized boolean hasProperty(int[] transformationJHPL, int levelJHPL, PredictiveProperty property) {
+        return lattice.hasProperty(transformationJHPL, levelJHPL, property);
+    }
+
     /**
      * Returns the information loss
      * @param identifier
      * @return
      */
-    protected InformationLoss<?> getInformationLoss(long identifier) {
+    protected synchronized InformationLoss<?> getInformationLoss(long identifier) {
         return utility.getOrDefault(identifier, null);
     }
     
@@ -461,7 +507,7 @@ public class SolutionSpace {
      * @param identifier
      * @return
      */
-    protected InformationLoss<?> getLowerBound(long identifier) {
+    protected synchronized InformationLoss<?> getLowerBound(long identifier) {
         return lowerBound.getOrDefault(identifier, null);
     }
 
@@ -470,7 +516,7 @@ public class SolutionSpace {
      * @param id
      * @param object
      */
-    protected void setData(long id, Object object) {
+    protected synchronized void setData(long id, Object object) {
         data.put(id, object);
     }
 
@@ -479,7 +525,7 @@ public class SolutionSpace {
      * @param identifier
      * @param loss
      */
-    protected void setInformationLoss(long identifier, InformationLoss<?> loss) {
+    protected synchronized void setInformationLoss(long identifier, InformationLoss<?> loss) {
         utility.put(identifier, loss);
     }
 
@@ -488,10 +534,20 @@ public class SolutionSpace {
      * @param identifier
      * @param loss
      */
-    protected void setLowerBound(long identifier, InformationLoss<?> loss) {
+    protected synchronized void setLowerBound(long identifier, InformationLoss<?> loss) {
         lowerBound.put(identifier, loss);
     }
 
+    /**
+     * Sets the given property for the given transformation
+     * @param transformationJHPL
+     * @param levelJHPL
+     * @param property
+     */
+    protected synchronized void setProperty(int[] transformationJHPL, int levelJHPL, PredictiveProperty property) {
+        lattice.putProperty(transformationJHPL, levelJHPL, property);
+    }
+
     /**
      * Internal method that subtracts the offset
      * @param level
@@ -0,0 +1,214 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import org.deidentifier.arx.framework.data.DataMatrix;
+
+/**
+ * Provides methods for reading data in the binary columnar format written by
+ * <code>BinaryDataOutput</code>. The file is memory-mapped and the codes are
+ * transferred into a data matrix without any parsing.
+ *
+ * @author Fabian Prasser
+ */
+public class BinaryDataInput {
+
+    /** Maximal number of bytes mapped at once */
+    private static final long MAX_MAPPING = 1L << 30;
+
+    /** The file */
+    private final File        file;
+
+    /** Header */
+    private String[]          header;
+
+    /** Distinct values of each column, ordered by code */
+    private String[][]        values;
+
+    /** Codes */
+    private DataMatrix        data;
+
+    /**
+     * Instantiates a new binary data input.
+     *
+     * @param file the file
+     */
+    public BinaryDataInput(final File file) {
+        this.file = file;
+    }
+
+    /**
+     * Instantiates a new binary data input.
+     *
+     * @param filename the filename
+     */
+    public BinaryDataInput(final String filename) {
+        this(new File(filename));
+    }
+
+    /**
+     * Returns the encoded data. Reads the file, if required.
+     *
+     * @return the data
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public DataMatrix getData() throws IOException {
+        read();
+        return data;
+    }
+
+    /**
+     * Returns the header. Reads the file, if required.
+     *
+     * @return the header
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public String[] getHeader() throws IOException {
+        read();
+        return header;
+    }
+
+    /**
+     * Returns the distinct values of each column, ordered by code. Reads the file, if required.
+     *
+     * @return the values
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public String[][] getValues() throws IOException {
+        read();
+        return values;
+    }
+
+    /**
+     * Maps the given region of the file
+     * @param channel
+     * @param position
+     * @param size
+     * @return
+     * @throws IOException
+     */
+    private MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Reads the file
+     * @throws IOException
+     */
+    private void read() throws IOException {
+
+        // Already read
+        if (data != null) {
+            return;
+        }
+
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+
+            // Header
+            long size = channel.size();
+            MappedByteBuffer buffer = map(channel, 0, Math.min(size, MAX_MAPPING));
+            if (buffer.remaining() < 16 || buffer.getInt() != BinaryDataOutput.MAGIC) {
+                throw new IOException("Not a binary data file");
+            }
+            int version = buffer.getInt();
+            if (version != BinaryDataOutput.VERSION) {
+                throw new IOException("Unsupported version: " + version);
+            }
+            int columns = buffer.getInt();
+            int rows = buffer.getInt();
+
+            // Dictionary, remapping before each entry, as a single column may exceed the mapped region
+            String[] header = new String[columns];
+            String[][] values = new String[columns][];
+            long base = 0;
+            for (int column = 0; column < columns; column++) {
+
+                // Remap, if required
+                if (buffer.position() > MAX_MAPPING / 2) {
+                    base += buffer.position();
+                    buffer = map(channel, base, Math.min(size - base, MAX_MAPPING));
+                }
+                header[column] = readString(buffer);
+                values[column] = new String[buffer.getInt()];
+                for (int code = 0; code < values[column].length; code++) {
+
+                    // Remap, if required
+                    if (buffer.position() > MAX_MAPPING / 2) {
+                        base += buffer.position();
+                        buffer = map(channel, base, Math.min(size - base, MAX_MAPPING));
+                    }
+                    values[column][code] = readString(buffer);
+                }
+            }
+            long position = (base + buffer.position() + 3) & ~3L;
+
+            // Codes
+            DataMatrix data = DataMatrix.create(rows, columns, false);
+            long chunk = MAX_MAPPING / 4;
+            for (int column = 0; column < columns; column++) {
+                for (long start = 0; start < rows; start += chunk) {
+                    int length = (int) Math.min(chunk, rows - start);
+                    if (position + (long) length * 4L > size) {
+                        throw new IOException("Unexpected end of file");
+                    }
+                    IntBuffer codes = map(channel, position, (long) length * 4L).asIntBuffer();
+                    int numValues = values[column].length;
+                    for (int i = 0; i < length; i++) {
+                        int code = codes.get(i);
+                        if (code < 0 || code >= numValues) {
+                            throw new IOException("Invalid code in column " + header[column]);
+                        }
+                        data.set((int) start + i, column, code);
+                    }
+                    position += (long) length * 4L;
+                }
+            }
+
+            // Store
+            this.header = header;
+            this.values = values;
+            this.data = data;
+
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads a string
+     * @param buffer
+     * @return
+     */
+    private String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
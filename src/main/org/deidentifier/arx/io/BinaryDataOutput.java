@@ -0,0 +1,211 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deidentifier.arx.DataHandle;
+
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+
+/**
+ * Provides methods for writing data in a binary columnar format, which can be opened
+ * with <code>BinaryDataInput</code> without parsing. The file consists of:
+ * <ul>
+ * <li>a header: magic number, version, number of columns and number of rows</li>
+ * <li>for each column: its name and its distinct values, ordered by code</li>
+ * <li>padding to a multiple of four bytes</li>
+ * <li>for each column: the codes of all rows</li>
+ * </ul>
+ * Numbers are stored as little-endian 32-bit integers and strings as their length
+ * followed by their UTF-8 encoding.
+ *
+ * @author Fabian Prasser
+ */
+public class BinaryDataOutput {
+
+    /** Magic number */
+    static final int         MAGIC       = 0x41525844;
+
+    /** Version of the format */
+    static final int         VERSION     = 1;
+
+    /** Size of the buffer */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /** The file */
+    private final File       file;
+
+    /** The channel */
+    private FileChannel      channel;
+
+    /** The buffer */
+    private ByteBuffer       buffer;
+
+    /**
+     * Instantiates a new binary data output.
+     *
+     * @param file the file
+     */
+    public BinaryDataOutput(final File file) {
+        this.file = file;
+    }
+
+    /**
+     * Instantiates a new binary data output.
+     *
+     * @param filename the filename
+     */
+    public BinaryDataOutput(final String filename) {
+        this(new File(filename));
+    }
+
+    /**
+     * Writes the data represented by the given handle, including its header.
+     *
+     * @param handle the handle
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void write(final DataHandle handle) throws IOException {
+
+        // Prepare
+        int columns = handle.getNumColumns();
+        int rows = handle.getNumRows();
+        this.channel = FileChannel.open(file.toPath(),
+                                        StandardOpenOption.CREATE,
+                                        StandardOpenOption.TRUNCATE_EXISTING,
+                                        StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        try {
+
+            // Collect distinct values in the order of their first occurrence
+            List<ObjectIntOpenHashMap<String>> codes = new ArrayList<ObjectIntOpenHashMap<String>>();
+            List<List<String>> values = new ArrayList<List<String>>();
+            for (int column = 0; column < columns; column++) {
+                ObjectIntOpenHashMap<String> map = new ObjectIntOpenHashMap<String>();
+                List<String> list = new ArrayList<String>();
+                for (int row = 0; row < rows; row++) {
+                    String value = handle.getValue(row, column);
+                    if (!map.containsKey(value)) {
+                        map.put(value, list.size());
+                        list.add(value);
+                    }
+                }
+                codes.add(map);
+                values.add(list);
+            }
+
+            // Header
+            long position = 0;
+            position += writeInt(MAGIC);
+            position += writeInt(VERSION);
+            position += writeInt(columns);
+            position += writeInt(rows);
+
+            // Dictionary
+            for (int column = 0; column < columns; column++) {
+                position += writeString(handle.getAttributeName(column));
+                position += writeInt(values.get(column).size());
+                for (String value : values.get(column)) {
+                    position += writeString(value);
+                }
+            }
+
+            // Padding
+            while (position % 4 != 0) {
+                ensure(1);
+                buffer.put((byte) 0);
+                position++;
+            }
+
+            // Codes
+            for (int column = 0; column < columns; column++) {
+                ObjectIntOpenHashMap<String> map = codes.get(column);
+                for (int row = 0; row < rows; row++) {
+                    map.containsKey(handle.getValue(row, column));
+                    writeInt(map.lget());
+                }
+            }
+
+            // Flush
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+        } finally {
+            channel.close();
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    /**
+     * Makes sure that the given number of bytes can be put into the buffer
+     * @param bytes
+     * @throws IOException
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Writes the given integer and returns the number of bytes written
+     * @param value
+     * @return
+     * @throws IOException
+     */
+    private int writeInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+        return 4;
+    }
+
+    /**
+     * Writes the given string and returns the number of bytes written
+     * @param value
+     * @return
+     * @throws IOException
+     */
+    private int writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int written = writeInt(bytes.length);
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensure(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+        return written + bytes.length;
+    }
+}
@@ -0,0 +1,510 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.framework.data.DataMatrix;
+
+/**
+ * Parses and encodes a CSV file in one pass. Values are interned per column directly from
+ * the characters read, so that a string is only created once for each distinct value, and
+ * codes are collected in blocks of primitive arrays from which a data matrix is built.
+ * The first row is interpreted as the header. Codes are assigned in the order of the first
+ * occurrence of each value, as in <code>DataHandleInput</code>.
+ * <br>
+ * The syntax supported matches the configuration of <code>CSVDataInput</code>: leading and trailing
+ * whitespace of values is ignored, empty lines are skipped and quotes can be escaped.
+ *
+ * @author Fabian Prasser
+ */
+public class CSVDataEncoder {
+
+    /**
+     * Distinct values of a column, interned from character slices
+     *
+     * @author Fabian Prasser
+     */
+    private static class Values {
+
+        /** Load factor */
+        private static final float loadFactor = 0.75f;
+
+        /** Values, by code */
+        private String[]           strings    = new String[16];
+        /** Hash codes, by code */
+        private int[]              hashcodes  = new int[16];
+        /** Slots pointing to codes, offset by one */
+        private int[]              slots      = new int[32];
+        /** Number of values */
+        private int                size       = 0;
+
+        /**
+         * Returns the code of the given value, registering it if required
+         * @param buffer
+         * @param length
+         * @return
+         */
+        private int register(char[] buffer, int length) {
+
+            // Hash
+            int hashcode = 0;
+            for (int i = 0; i < length; i++) {
+                hashcode = 31 * hashcode + buffer[i];
+            }
+
+            // Probe
+            int mask = slots.length - 1;
+            int slot = hash(hashcode) & mask;
+            while (slots[slot] != 0) {
+                int code = slots[slot] - 1;
+                if (hashcodes[code] == hashcode && equals(strings[code], buffer, length)) {
+                    return code;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            // Register
+            return register(new String(buffer, 0, length), hashcode, slot);
+        }
+
+        /**
+         * Returns the code of the given value, registering it if required
+         * @param value
+         * @return
+         */
+        private int register(String value) {
+            char[] buffer = value.toCharArray();
+            return register(buffer, buffer.length);
+        }
+
+        /**
+         * Returns all values, by code
+         * @return
+         */
+        private String[] toArray() {
+            return Arrays.copyOf(strings, size);
+        }
+
+        /**
+         * Compares a string to a slice
+         * @param string
+         * @param buffer
+         * @param length
+         * @return
+         */
+        private boolean equals(String string, char[] buffer, int length) {
+            if (string.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (string.charAt(i) != buffer[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Spreads the bits of the given hash code
+         * @param hashcode
+         * @return
+         */
+        private int hash(int hashcode) {
+            hashcode *= 0x9E3779B9;
+            return hashcode ^ (hashcode >>> 16);
+        }
+
+        /**
+         * Registers a new value in the given slot
+         * @param value
+         * @param hashcode
+         * @param slot
+         * @return
+         */
+        private int register(String value, int hashcode, int slot) {
+            int code = size++;
+            if (code == strings.length) {
+                strings = Arrays.copyOf(strings, code << 1);
+                hashcodes = Arrays.copyOf(hashcodes, code << 1);
+            }
+            strings[code] = value;
+            hashcodes[code] = hashcode;
+            slots[slot] = code + 1;
+
+            // Rehash
+            if (size > slots.length * loadFactor) {
+                slots = new int[slots.length << 1];
+                int mask = slots.length - 1;
+                for (int i = 0; i < size; i++) {
+                    int index = hash(hashcodes[i]) & mask;
+                    while (slots[index] != 0) {
+                        index = (index + 1) & mask;
+                    }
+                    slots[index] = i + 1;
+                }
+            }
+            return code;
+        }
+    }
+
+    /** Size of the character buffer */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /** Number of rows per block of codes */
+    private static final int BLOCK_SIZE  = 1 << 16;
+
+    /** Reader */
+    private final Reader     reader;
+    /** Delimiter */
+    private final char       delimiter;
+    /** Quote */
+    private final char       quote;
+    /** Escape */
+    private final char       escape;
+    /** Linebreak */
+    private final boolean    crlf;
+    /** Character terminating a row */
+    private final char       newline;
+    /** Buffer */
+    private final char[]     buffer = new char[BUFFER_SIZE];
+    /** Position in buffer */
+    private int              position;
+    /** Number of characters in buffer */
+    private int              limit;
+    /** Current value */
+    private char[]           value  = new char[64];
+    /** Length of current value */
+    private int              length;
+
+    /** Header */
+    private String[]         header;
+    /** Distinct values, by column */
+    private String[][]       values;
+    /** Data */
+    private DataMatrix       data;
+
+    /**
+     * Creates a new instance
+     *
+     * @param file
+     * @param charset
+     * @param config
+     * @throws IOException
+     */
+    public CSVDataEncoder(final File file, final Charset charset, final CSVSyntax config) throws IOException {
+        this(Channels.newReader(FileChannel.open(file.toPath(), StandardOpenOption.READ),
+                                charset.newDecoder()
+                                       .onMalformedInput(CodingErrorAction.REPLACE)
+                                       .onUnmappableCharacter(CodingErrorAction.REPLACE),
+                                BUFFER_SIZE),
+             config);
+    }
+
+    /**
+     * Creates a new instance
+     *
+     * @param reader
+     * @param config
+     */
+    public CSVDataEncoder(final Reader reader, final CSVSyntax config) {
+        this.reader = reader;
+        this.delimiter = config.getDelimiter();
+        this.quote = config.getQuote();
+        this.escape = config.getEscape();
+        char[] linebreak = config.getLinebreak();
+        this.crlf = linebreak.length > 1 && linebreak[0] == '\r';
+        this.newline = CSVSyntax.getNormalizedLinebreak(linebreak);
+    }
+
+    /**
+     * Parses and encodes the data. Closes the reader.
+     *
+     * @throws IOException
+     */
+    public void encode() throws IOException {
+
+        try {
+
+            // Header
+            List<String> names = new ArrayList<String>();
+            while (names.isEmpty()) {
+                if (!parseRow(names, null, null)) {
+                    this.header = null;
+                    this.values = new String[0][];
+                    this.data = DataMatrix.create(0, 0, false);
+                    return;
+                }
+            }
+            this.header = names.toArray(new String[names.size()]);
+            int columns = header.length;
+
+            // Prepare
+            Values[] dictionary = new Values[columns];
+            int[] nulls = new int[columns];
+            for (int column = 0; column < columns; column++) {
+                dictionary[column] = new Values();
+                nulls[column] = -1;
+            }
+
+            // Data
+            List<int[]> blocks = new ArrayList<int[]>();
+            int[] block = null;
+            int offset = 0;
+            int rows = 0;
+            while (true) {
+
+                // Prepare block
+                if (block == null || offset == block.length) {
+                    block = new int[BLOCK_SIZE * columns];
+                    blocks.add(block);
+                    offset = 0;
+                }
+
+                // Parse
+                int fields = parseRow(null, dictionary, block, offset);
+                if (fields == -1) {
+                    break;
+                } else if (fields == 0) {
+                    continue;
+                }
+
+                // Missing values
+                for (int column = fields; column < columns; column++) {
+                    if (nulls[column] == -1) {
+                        nulls[column] = dictionary[column].register(DataType.NULL_VALUE);
+                    }
+                    block[offset + column] = nulls[column];
+                }
+                offset += columns;
+                rows++;
+            }
+
+            // Build matrix
+            this.data = DataMatrix.create(rows, columns, false);
+            int[] tuple = new int[columns];
+            int row = 0;
+            for (int[] codes : blocks) {
+                for (offset = 0; offset < codes.length && row < rows; offset += columns) {
+                    System.arraycopy(codes, offset, tuple, 0, columns);
+                    this.data.setRow(row++, tuple);
+                }
+            }
+
+            // Values
+            this.values = new String[columns][];
+            for (int column = 0; column < columns; column++) {
+                this.values[column] = dictionary[column].toArray();
+            }
+
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns the encoded data
+     * @return
+     */
+    public DataMatrix getData() {
+        return data;
+    }
+
+    /**
+     * Returns the header, null if the file is empty
+     * @return
+     */
+    public String[] getHeader() {
+        return header;
+    }
+
+    /**
+     * Returns the distinct values of each column, ordered by code
+     * @return
+     */
+    public String[][] getValues() {
+        return values;
+    }
+
+    /**
+     * Appends a character to the current value
+     * @param c
+     */
+    private void append(char c) {
+        if (length == value.length) {
+            value = Arrays.copyOf(value, length << 1);
+        }
+        value[length++] = c;
+    }
+
+    /**
+     * Returns whether the character is whitespace which is to be ignored
+     * @param c
+     * @return
+     */
+    private boolean isWhitespace(char c) {
+        return c <= ' ' && c != delimiter && c != newline;
+    }
+
+    /**
+     * Returns the next character without consuming it, -1 at the end of input
+     * @return
+     * @throws IOException
+     */
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    /**
+     * Parses a row. Values are either added to the list or encoded into the block.
+     * Returns the number of fields parsed, or -1 at the end of input. Empty lines
+     * are returned as rows without fields.
+     *
+     * @param list
+     * @param dictionary
+     * @param block
+     * @param offset
+     * @return
+     * @throws IOException
+     */
+    private int parseRow(List<String> list, Values[] dictionary, int[] block, int offset) throws IOException {
+
+        // End of input
+        if (peek() == -1) {
+            return -1;
+        }
+
+        int fields = 0;
+        boolean empty = true;
+        while (true) {
+
+            // Parse value
+            length = 0;
+            int c = peek();
+            while (c != -1 && isWhitespace((char) c)) {
+                position++;
+                c = peek();
+            }
+            if (c == quote) {
+                position++;
+                parseQuoted();
+                empty = false;
+                c = peek();
+            }
+            int trimmed = length;
+            while (c != -1 && c != delimiter && c != newline) {
+                append((char) c);
+                if (!isWhitespace((char) c)) {
+                    trimmed = length;
+                }
+                position++;
+                c = peek();
+            }
+            length = trimmed;
+            empty = empty && length == 0 && c != delimiter;
+
+            // Consume separator
+            if (c != -1) {
+                position++;
+            }
+
+            // Skip empty lines
+            if (empty && fields == 0) {
+                return 0;
+            }
+
+            // Store
+            if (list != null) {
+                list.add(new String(value, 0, length));
+            } else if (fields < dictionary.length) {
+                block[offset + fields] = dictionary[fields].register(value, length);
+            }
+            fields++;
+
+            // End of row
+            if (c != delimiter) {
+                return Math.min(fields, list != null ? fields : dictionary.length);
+            }
+        }
+    }
+
+    /**
+     * Parses a row into the given list. Returns false at the end of input.
+     * @param list
+     * @param dictionary
+     * @param block
+     * @return
+     * @throws IOException
+     */
+    private boolean parseRow(List<String> list, Values[] dictionary, int[] block) throws IOException {
+        return parseRow(list, dictionary, block, 0) != -1;
+    }
+
+    /**
+     * Parses a quoted value, after the opening quote
+     * @throws IOException
+     */
+    private void parseQuoted() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == -1) {
+                return;
+            }
+            position++;
+            if (c == escape && escape != quote) {
+                int next = peek();
+                if (next == quote || next == escape) {
+                    append((char) next);
+                    position++;
+                } else {
+                    append((char) c);
+                }
+            } else if (c == quote) {
+                if (escape == quote && peek() == quote) {
+                    append(quote);
+                    position++;
+                } else {
+                    return;
+                }
+            } else if (c == '\r' && crlf && peek() == '\n') {
+                append('\n');
+                position++;
+            } else {
+                append((char) c);
+            }
+        }
+    }
+}
@@ -77,6 +77,14 @@ public class ImportAdapterExcel extends ImportAdapter {
     /** TODO */
     private FileInputStream          input;
 
+    /** Reader used for parsing XLSX files incrementally, if enabled */
+    private XLSXSheetReader          reader;
+
+    /**
+     * Contains the last row as returned by {@link #reader}.
+     */
+    private String[]                 values;
+
     /**
      * Creates a new instance of this object with given configuration
      * 
@@ -96,6 +104,25 @@ public class ImportAdapterExcel extends ImportAdapter {
         super(config);
         this.config = config;
 
+        /* Parse XLSX files incrementally */
+        if (config.isStreaming() && config.getExcelFileType() == ExcelFileTypes.XLSX) {
+
+            reader = new XLSXSheetReader(config.getFileLocation(), config.getSheetIndex());
+            values = reader.next();
+            if (values == null) {
+                reader.close();
+                throw new IOException("File contains no data");
+            }
+
+            // Create header
+            header = createHeader();
+            if (config.getContainsHeader() && values == null) {
+                reader.close();
+                throw new IOException("File contains nothing but header");
+            }
+            return;
+        }
+
         /* Get row iterator */
         input = new FileInputStream(config.getFileLocation());
         Workbook workbook = null;
@@ -144,6 +171,9 @@ public class ImportAdapterExcel extends ImportAdapter {
      */
     @Override
     public int getProgress() {
+        if (reader != null) {
+            return reader.getProgress();
+        }
         return (int) (((double) currentRow / (double) totalRows) * 100d);
     }
 
@@ -160,7 +190,7 @@ public class ImportAdapterExcel extends ImportAdapter {
      */
     @Override
     public boolean hasNext() {
-        return row != null;
+        return row != null || values != null;
     }
 
     /**
@@ -185,8 +215,7 @@ public class ImportAdapterExcel extends ImportAdapter {
         String[] result = new String[indexes.length];
         for (int i = 0; i < indexes.length; i++) {
 
-            row.getCell(indexes[i]).setCellType(Cell.CELL_TYPE_STRING);
-            result[i] = IOUtil.trim(row.getCell(indexes[i]).getStringCellValue());
+            result[i] = IOUtil.trim(getValue(indexes[i]));
 
             if (!dataTypes[i].isValid(result[i])) {
                 if (config.columns.get(i).isCleansing()) {
@@ -198,13 +227,13 @@ public class ImportAdapterExcel extends ImportAdapter {
         }
 
         /* Fetches the next row, which will be used in next iteration */
-        if (iterator.hasNext()) {
-            row = iterator.next();
-            currentRow++;
-        } else {
-            row = null;
+        if (!fetchNext()) {
             try {
-                input.close();
+                if (reader != null) {
+                    reader.close();
+                } else {
+                    input.close();
+                }
             } catch (Exception e) {
                 /* Die silently */
             }
@@ -238,7 +267,11 @@ public class ImportAdapterExcel extends ImportAdapter {
 
         /* Preparation work */
         if (config.getContainsHeader()) {
-            config.prepare(row);
+            if (reader != null) {
+                config.prepare(values);
+            } else {
+                config.prepare(row);
+            }
         }
         indexes = getIndexesToImport();
         dataTypes = getColumnDatatypes();
@@ -252,8 +285,7 @@ public class ImportAdapterExcel extends ImportAdapter {
 
             ImportColumn column = columns.get(i);
 
-            row.getCell(((ImportColumnExcel) column).getIndex()).setCellType(Cell.CELL_TYPE_STRING);
-            String name = IOUtil.trim(row.getCell(((ImportColumnExcel) column).getIndex()).getStringCellValue());
+            String name = IOUtil.trim(getValue(((ImportColumnExcel) column).getIndex()));
 
             if (config.getContainsHeader() && !name.equals("")) {
                 /* Assign name of file itself */
@@ -273,19 +305,60 @@ public class ImportAdapterExcel extends ImportAdapter {
 
         /* Fetch next row in preparation for next iteration */
         if (config.getContainsHeader()) {
-
-            if (iterator.hasNext()) {
-                row = iterator.next();
-                currentRow++;
-            } else {
-                row = null;
-            }
+            fetchNext();
         }
 
         /* Return header */
         return header;
     }
 
+    /**
+     * Fetches the next row. Returns false if there is none.
+     *
+     * @return
+     */
+    private boolean fetchNext() {
+
+        /* Incremental parsing */
+        if (reader != null) {
+            try {
+                values = reader.next();
+            } catch (IOException e) {
+                reader.close();
+                throw new RuntimeException("Couldn't read data from file", e);
+            }
+            return values != null;
+        }
+
+        /* Object model */
+        if (iterator.hasNext()) {
+            row = iterator.next();
+            currentRow++;
+            return true;
+        } else {
+            row = null;
+            return false;
+        }
+    }
+
+    /**
+     * Returns the value of the cell with the given index in the current row as a string
+     *
+     * @param index
+     * @return
+     */
+    private String getValue(int index) {
+
+        /* Incremental parsing */
+        if (reader != null) {
+            return index < values.length ? values[index] : "";
+        }
+
+        /* Object model */
+        row.getCell(index).setCellType(Cell.CELL_TYPE_STRING);
+        return row.getCell(index).getStringCellValue();
+    }
+
     /**
      * Returns an array with indexes of columns that should be imported
      * 
@@ -18,13 +18,26 @@
 package org.deidentifier.arx.io;
 
 import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.common.ThreadUtil;
+
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
 
 /**
  * Import adapter for JDBC
@@ -36,6 +49,90 @@ import org.deidentifier.arx.DataType;
  * @author Fabian Prasser
  */
 public class ImportAdapterJDBC extends ImportAdapter {
+
+    /**
+     * Converts rows of a result set into strings. Values of integral columns are read
+     * as numbers and their string representations are cached, values of all other
+     * columns are read as strings.
+     *
+     * @author Fabian Prasser
+     */
+    private class Reader {
+
+        /** String representations of integral values, null for other columns */
+        private final LongObjectOpenHashMap<String>[] cache;
+
+        /** Data types, which are cloned as they may not be thread-safe */
+        private final DataType<?>[]                   types;
+
+        /**
+         * Creates a new instance
+         * @param metadata
+         * @throws SQLException
+         */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private Reader(ResultSetMetaData metadata) throws SQLException {
+            this.cache = new LongObjectOpenHashMap[indexes.length];
+            this.types = new DataType<?>[indexes.length];
+            for (int i = 0; i < indexes.length; i++) {
+                types[i] = dataTypes[i].clone();
+                switch (metadata.getColumnType(indexes[i])) {
+                case Types.BIGINT:
+                case Types.INTEGER:
+                case Types.SMALLINT:
+                case Types.TINYINT:
+                    cache[i] = new LongObjectOpenHashMap<String>();
+                    break;
+                default:
+                    cache[i] = null;
+                }
+            }
+        }
+
+        /**
+         * Converts the current row of the given result set
+         * @param resultSet
+         * @return
+         * @throws SQLException
+         */
+        private String[] read(ResultSet resultSet) throws SQLException {
+
+            String[] result = new String[indexes.length];
+            for (int i = 0; i < indexes.length; i++) {
+
+                // Read
+                if (cache[i] != null) {
+                    long value = resultSet.getLong(indexes[i]);
+                    if (resultSet.wasNull()) {
+                        result[i] = null;
+                    } else if (cache[i].containsKey(value)) {
+                        result[i] = cache[i].lget();
+                    } else {
+                        result[i] = String.valueOf(value);
+                        cache[i].put(value, result[i]);
+                    }
+                } else {
+                    result[i] = IOUtil.trim(resultSet.getString(indexes[i]));
+                }
+
+                // Check
+                if (!types[i].isValid(result[i])) {
+                    if (config.columns.get(i).isCleansing()) {
+                        result[i] = DataType.NULL_VALUE;
+                    } else {
+                        throw new IllegalArgumentException("Data value does not match data type");
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    /** Marks the end of a key range in the queue */
+    private static final String[] END        = new String[0];
+
+    /** Maximal number of rows buffered when reading key ranges in parallel */
+    private static final int      QUEUE_SIZE = 10000;
     
     /** The configuration describing the CSV file being used. */
     private ImportConfigurationJDBC config;
@@ -69,6 +166,27 @@ public class ImportAdapterJDBC extends ImportAdapter {
      */
     private int                     totalRows;
     
+    /** Converts rows of the result set */
+    private Reader                  reader;
+
+    /** Rows of each key range, which are read in parallel, null if data is read sequentially */
+    private List<BlockingQueue<String[]>> queues;
+
+    /** Index of the key range from which rows are currently returned */
+    private int                     range;
+
+    /** Threads reading key ranges */
+    private ExecutorService         executor;
+
+    /** First failure of a thread reading key ranges */
+    private AtomicReference<Throwable> failure;
+
+    /** Next row to return when reading in parallel */
+    private String[]                row;
+
+    /** Number of rows returned */
+    private int                     rowsReturned;
+
     /**
      * Creates a new instance of this object with given configuration.
      *
@@ -86,6 +204,39 @@ public class ImportAdapterJDBC extends ImportAdapter {
         dataTypes = getColumnDatatypes();
         
         try {
+
+            /* Read partitions in parallel, if possible */
+            if (config.getPartitionColumn() != null && config.getNumThreads() > 1 && config.isManageConnection()) {
+
+                /* Used to keep track of progress */
+                statement = config.getConnection().createStatement();
+                resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + config.getTable());
+                if (!resultSet.next()) {
+                    closeResources();
+                    throw new IOException("Couldn't determine number of rows");
+                }
+                totalRows = resultSet.getInt(1);
+                resultSet.close();
+
+                /* Metadata */
+                resultSet = statement.executeQuery("SELECT * FROM " + config.getTable() + " WHERE 1 = 0");
+                header = createHeader(resultSet.getMetaData());
+
+                /* Start reading */
+                try {
+                    readPartitions();
+                } finally {
+                    closeResources();
+                }
+
+                /* First row */
+                row = nextPartitioned();
+                if (row == null) {
+                    throw new IOException("Table doesn't contain any rows");
+                }
+                hasNext = true;
+                return;
+            }
             
             /* Used to keep track of progress */
             statement = config.getConnection().createStatement();
@@ -106,9 +257,13 @@ public class ImportAdapterJDBC extends ImportAdapter {
             }
             
             /* Query for actual data */
-            statement = config.getConnection().createStatement();
+            statement = config.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            if (config.getFetchSize() > 0) {
+                statement.setFetchSize(config.getFetchSize());
+            }
             statement.execute("SELECT * FROM " + config.getTable());
             resultSet = statement.getResultSet();
+            reader = new Reader(resultSet.getMetaData());
             hasNext = resultSet.next();
             
         } catch (SQLException e) {
@@ -117,12 +272,12 @@ public class ImportAdapterJDBC extends ImportAdapter {
         }
         
         // Create header
-        header = createHeader();
+        header = createHeader(resultSet);
     }
     
     @Override
     public Integer getLength() {
-        return totalRows + 1;
+        return totalRows;
     }
     
     /**
@@ -136,6 +291,10 @@ public class ImportAdapterJDBC extends ImportAdapter {
      */
     @Override
     public int getProgress() {
+
+        if (queues != null) {
+            return (int) (((double) rowsReturned / (double) totalRows) * 100d);
+        }
         
         try {
             return (int) (((double) resultSet.getRow() / (double) totalRows) * 100d);
@@ -170,21 +329,28 @@ public class ImportAdapterJDBC extends ImportAdapter {
             return header;
         }
         
+        /* Return rows which are read in parallel */
+        if (queues != null) {
+            String[] result = row;
+            try {
+                row = nextPartitioned();
+            } catch (IOException e) {
+                throw new RuntimeException("Couldn't retrieve data from database");
+            }
+            rowsReturned++;
+            hasNext = row != null;
+            return result;
+        }
+
         try {
             
             /* Create regular row */
-            String[] result = new String[indexes.length];
-            for (int i = 0; i < indexes.length; i++) {
-                
-                result[i] = IOUtil.trim(resultSet.getString(indexes[i]));
-                if (!dataTypes[i].isValid(result[i])) {
-                    if (config.columns.get(i).isCleansing()) {
-                        result[i] = DataType.NULL_VALUE;
-                    } else {
-                        closeResources();
-                        throw new IllegalArgumentException("Data value does not match data type");
-                    }
-                }
+            String[] result;
+            try {
+                result = reader.read(resultSet);
+            } catch (IllegalArgumentException e) {
+                closeResources();
+                throw e;
             }
             
             /* Move cursor forward and assign result to {@link #hasNext} */
@@ -245,9 +411,10 @@ public class ImportAdapterJDBC extends ImportAdapter {
      * or not names have been assigned explicitly either the appropriate values
      * will be returned, or names from the JDBC metadata will be used.
      *
+     * @param metadata
      * @return
      */
-    private String[] createHeader() {
+    private String[] createHeader(ResultSetMetaData metadata) {
         
         /* Initialization */
         String[] header = new String[config.getColumns().size()];
@@ -269,7 +436,7 @@ public class ImportAdapterJDBC extends ImportAdapter {
                 /* Assign name from JDBC metadata */
                 try {
                     /* +1 offset, because counting in JDBC starts at 1 */
-                    header[i] = IOUtil.trim(resultSet.getMetaData().getColumnName(((ImportColumnJDBC) column).getIndex() + 1));
+                    header[i] = IOUtil.trim(metadata.getColumnName(((ImportColumnJDBC) column).getIndex() + 1));
                 } catch (SQLException e) {
                     throw new IllegalArgumentException("Index for column '" + ((ImportColumnJDBC) column).getIndex() + "' couldn't be found");
                 }
@@ -282,6 +449,168 @@ public class ImportAdapterJDBC extends ImportAdapter {
         
     }
 
+    /**
+     * Creates the header row from the metadata of the given result set
+     *
+     * @param resultSet
+     * @return
+     */
+    private String[] createHeader(ResultSet resultSet) {
+        try {
+            return createHeader(resultSet.getMetaData());
+        } catch (SQLException e) {
+            throw new IllegalArgumentException("Metadata couldn't be retrieved");
+        }
+    }
+
+    /**
+     * Returns the next row read in parallel, null if all key ranges have been read. Key ranges
+     * are returned one after another in ascending order of keys, followed by rows with a null key.
+     *
+     * @return
+     * @throws IOException
+     */
+    private String[] nextPartitioned() throws IOException {
+
+        while (range < queues.size()) {
+
+            /* Wait for the next row, checking for failures */
+            String[] result = null;
+            while (result == null) {
+                Throwable throwable = failure.get();
+                if (throwable != null) {
+                    executor.shutdownNow();
+                    if (throwable instanceof RuntimeException) {
+                        throw (RuntimeException) throwable;
+                    } else if (throwable instanceof Error) {
+                        throw (Error) throwable;
+                    } else {
+                        throw new IOException(throwable.getMessage());
+                    }
+                }
+                try {
+                    result = queues.get(range).poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    executor.shutdownNow();
+                    throw new IOException(e);
+                }
+            }
+
+            /* Return row or track end of range */
+            if (result != END) {
+                return result;
+            }
+            range++;
+        }
+
+        /* Done */
+        executor.shutdown();
+        return null;
+    }
+
+    /**
+     * Splits the value range of the partitioning column into key ranges and starts reading
+     * them in parallel, each thread using its own connection. Rows with a null key are read
+     * as a separate range. Ranges are assigned to threads in ascending order and the rows of
+     * each range are passed on through a separate bounded queue, so that they can be returned
+     * in a deterministic order. In total, at most {@link #QUEUE_SIZE} rows are buffered in
+     * addition to the rows returned.
+     *
+     * @throws SQLException
+     */
+    private void readPartitions() throws SQLException {
+
+        /* Determine value range */
+        final String column = config.getPartitionColumn();
+        final String table = config.getTable();
+        ResultSet range = statement.executeQuery("SELECT MIN(" + column + "), MAX(" + column + ") FROM " + table);
+        range.next();
+        long min = range.getLong(1);
+        boolean empty = range.wasNull();
+        long max = range.getLong(2);
+        range.close();
+
+        /* Create key ranges. The last one is closed, all others are half-open */
+        int numThreads = config.getNumThreads();
+        final List<long[]> ranges = new ArrayList<long[]>();
+        if (!empty) {
+            long width = Math.max(1L, (long) Math.ceil(((double) max - (double) min + 1d) / (numThreads * 4d)));
+            for (long lower = min; lower <= max; lower += width) {
+                long upper = max - lower < width ? max : lower + width;
+                ranges.add(new long[] { lower, upper });
+                if (upper == max) {
+                    break;
+                }
+            }
+        }
+
+        /* Prepare */
+        final String query = "SELECT * FROM " + table + " WHERE " + column + " >= ? AND " + column + " < ?";
+        final String last = "SELECT * FROM " + table + " WHERE " + column + " >= ? AND " + column + " <= ?";
+        final String nulls = "SELECT * FROM " + table + " WHERE " + column + " IS NULL";
+        final int numRanges = ranges.size() + 1;
+        final AtomicInteger next = new AtomicInteger(0);
+        final List<BlockingQueue<String[]>> queues = new ArrayList<BlockingQueue<String[]>>();
+        for (int i = 0; i < numRanges; i++) {
+            queues.add(new ArrayBlockingQueue<String[]>(Math.max(1, QUEUE_SIZE / numRanges)));
+        }
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        /* Read */
+        ExecutorService executor = ThreadUtil.createThreadPool(numThreads, "ARX JDBC import");
+        for (int i = 0; i < numThreads; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Connection connection = config.createConnection();
+                        try {
+                            for (int index = next.getAndIncrement(); index < numRanges; index = next.getAndIncrement()) {
+
+                                /* Query */
+                                PreparedStatement statement = connection.prepareStatement(index == ranges.size() ? nulls :
+                                                                                          index == ranges.size() - 1 ? last : query,
+                                                                                          ResultSet.TYPE_FORWARD_ONLY,
+                                                                                          ResultSet.CONCUR_READ_ONLY);
+                                try {
+                                    if (config.getFetchSize() > 0) {
+                                        statement.setFetchSize(config.getFetchSize());
+                                    }
+                                    if (index < ranges.size()) {
+                                        statement.setLong(1, ranges.get(index)[0]);
+                                        statement.setLong(2, ranges.get(index)[1]);
+                                    }
+
+                                    /* Read */
+                                    BlockingQueue<String[]> queue = queues.get(index);
+                                    ResultSet resultSet = statement.executeQuery();
+                                    Reader reader = new Reader(resultSet.getMetaData());
+                                    while (resultSet.next()) {
+                                        queue.put(reader.read(resultSet));
+                                    }
+                                    resultSet.close();
+                                    queue.put(END);
+                                } finally {
+                                    statement.close();
+                                }
+                            }
+                        } finally {
+                            connection.close();
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+        }
+
+        /* Store */
+        this.queues = queues;
+        this.range = 0;
+        this.executor = executor;
+        this.failure = failure;
+    }
+
     /**
      * Returns an array with indexes of columns that should be imported
      * 
@@ -68,6 +68,13 @@ public class ImportConfigurationExcel extends ImportConfigurationFile implements
      */
     private boolean        containsHeader;
 
+    /**
+     * Indicates whether XLSX files are parsed incrementally instead of being loaded into memory.
+     *
+     * @see {@link #setStreaming(boolean)}
+     */
+    private boolean        streaming = false;
+
     /**
      * Creates a new instance of this object.
      *
@@ -187,6 +194,37 @@ public class ImportConfigurationExcel extends ImportConfigurationFile implements
         return sheetIndex;
     }
 
+    /**
+     * @return {@link #streaming}
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Sets the indexes based on the header.
+     *
+     * @param row
+     */
+    public void prepare(String[] row) {
+
+        for (ImportColumn c : super.getColumns()) {
+            ImportColumnExcel column = (ImportColumnExcel) c;
+            if (!column.isIndexSpecified()) {
+                boolean found = false;
+                for (int i = 0; i < row.length; i++) {
+                    if (row[i].equals(column.getName())) {
+                        found = true;
+                        column.setIndex(i);
+                    }
+                }
+                if (!found) {
+                    throw new IllegalArgumentException("Index for column '" + column.getName() + "' couldn't be found");
+                }
+            }
+        }
+    }
+
     /**
      * Sets the indexes based on the header.
      *
@@ -221,6 +259,18 @@ public class ImportConfigurationExcel extends ImportConfigurationFile implements
         this.containsHeader = containsHeader;
     }
 
+    /**
+     * Sets whether XLSX files are parsed incrementally. In this mode, only the shared
+     * strings table is kept in memory and rows are read from the sheet on demand. This
+     * setting has no effect on XLS files.
+     * 
+     * @param streaming
+     *            {@link #streaming}
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     /**
      * @param excelFileType
      *            {@link #ExcelFileTypes}
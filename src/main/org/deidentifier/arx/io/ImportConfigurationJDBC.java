@@ -51,6 +51,24 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
      * Determines whether we need to manage the JDBC connection.
      */
     private final boolean manageConnection;
+
+    /** URL, if connections can be opened by ARX */
+    private final String  url;
+
+    /** User */
+    private final String  user;
+
+    /** Password */
+    private final String  password;
+
+    /** Number of rows to fetch per round trip, 0 for the driver's default */
+    private int           fetchSize       = 0;
+
+    /** Numeric column used for partitioning reads into key ranges */
+    private String        partitionColumn = null;
+
+    /** Number of threads used for reading partitions */
+    private int           numThreads      = 1;
     
     /**
      * Creates a new instance of this object.
@@ -62,6 +80,9 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         this.connection = connection;
         this.table = table;
         this.manageConnection = false;
+        this.url = null;
+        this.user = null;
+        this.password = null;
     }
     
     /**
@@ -75,6 +96,9 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         this.connection = DriverManager.getConnection(url);
         this.table = table;
         this.manageConnection = true;
+        this.url = url;
+        this.user = null;
+        this.password = null;
     }
     
     /**
@@ -90,6 +114,9 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         this.connection = DriverManager.getConnection(url, user, password);
         this.table = table;
         this.manageConnection = true;
+        this.url = url;
+        this.user = user;
+        this.password = password;
     }
     
     /**
@@ -138,6 +165,60 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         }
     }
     
+    /**
+     * Returns the number of rows fetched per round trip, 0 for the driver's default
+     * @return
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Returns the number of threads used for reading partitions
+     * @return
+     */
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    /**
+     * Returns the column used for partitioning reads, null if reads are not partitioned
+     * @return
+     */
+    public String getPartitionColumn() {
+        return partitionColumn;
+    }
+
+    /**
+     * Sets the number of rows fetched per round trip, 0 for the driver's default
+     * @param fetchSize
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException("Parameter must be >= 0");
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Enables partitioned reads. The value range of the given integral column is split into
+     * key ranges, which are read in parallel via separate connections using the given number
+     * of threads. This is only supported if the configuration has been created with a URL,
+     * as otherwise no additional connections can be opened. Otherwise, data is read sequentially.
+     * Rows are returned in ascending order of key ranges, followed by rows with a null key, so
+     * that the order is the same for each import. At most 10,000 rows are buffered.
+     * 
+     * @param column
+     * @param numThreads
+     */
+    public void setPartitioning(String column, int numThreads) {
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("Parameter must be > 0");
+        }
+        this.partitionColumn = column;
+        this.numThreads = numThreads;
+    }
+
     /**
      * 
      *
@@ -181,6 +262,21 @@ public class ImportConfigurationJDBC extends ImportConfiguration {
         
     }
     
+    /**
+     * Opens a new connection to the data source, if supported. Returns null otherwise.
+     * @return
+     * @throws SQLException
+     */
+    protected Connection createConnection() throws SQLException {
+        if (url == null) {
+            return null;
+        } else if (user == null) {
+            return DriverManager.getConnection(url);
+        } else {
+            return DriverManager.getConnection(url, user, password);
+        }
+    }
+
     /**
      * @return {@link #connection}
      */
@@ -0,0 +1,289 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+
+/**
+ * Reads the rows of a sheet in an XLSX file without building an object model of the workbook.
+ * Only the shared strings table is held in memory, the sheet itself is parsed incrementally.
+ * Cell values are converted into strings in the same way as by Apache POI's user model.
+ *
+ * @author Fabian Prasser
+ */
+class XLSXSheetReader {
+
+    /** Namespace of relationship identifiers */
+    private static final String              NAMESPACE_RELATIONSHIPS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    /** Factory for parsers, which neither supports DTDs nor external entities */
+    private final XMLInputFactory            factory;
+
+    /** The package */
+    private final OPCPackage                 pkg;
+
+    /** Shared strings */
+    private ReadOnlySharedStringsTable       strings;
+
+    /** Input stream of the sheet */
+    private CountingInputStream              input;
+
+    /** Parser */
+    private XMLStreamReader                  parser;
+
+    /** Size of the sheet in bytes, -1 if unknown */
+    private long                             size;
+
+    /**
+     * Creates a new instance
+     *
+     * @param file
+     * @param sheetIndex
+     * @throws IOException
+     */
+    XLSXSheetReader(String file, int sheetIndex) throws IOException {
+
+        // Prevent XML external entity attacks
+        this.factory = XMLInputFactory.newInstance();
+        this.factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        try {
+            this.pkg = OPCPackage.open(file, PackageAccess.READ);
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+
+        try {
+
+            // Shared strings
+            this.strings = new ReadOnlySharedStringsTable(pkg);
+
+            // Find sheet
+            PackageRelationship relationship = pkg.getRelationshipsByType(PackageRelationshipTypes.CORE_DOCUMENT).getRelationship(0);
+            PackagePart workbook = pkg.getPart(relationship);
+            List<String> sheets = getSheets(workbook);
+            if (sheetIndex < 0 || sheetIndex >= sheets.size()) {
+                throw new IOException("Sheet " + sheetIndex + " doesn't exist");
+            }
+            relationship = workbook.getRelationship(sheets.get(sheetIndex));
+            PackagePart sheet = pkg.getPart(PackagingURIHelper.createPartName(relationship.getTargetURI()));
+
+            // Open
+            this.size = sheet.getSize();
+            this.input = new CountingInputStream(sheet.getInputStream());
+            this.parser = factory.createXMLStreamReader(input);
+
+        } catch (IOException e) {
+            close();
+            throw e;
+        } catch (Exception e) {
+            close();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Closes the file
+     */
+    void close() {
+        try {
+            if (parser != null) {
+                parser.close();
+            }
+        } catch (Exception e) {
+            /* Die silently */
+        }
+        try {
+            if (input != null) {
+                input.close();
+            }
+        } catch (Exception e) {
+            /* Die silently */
+        }
+        try {
+            pkg.revert();
+        } catch (Exception e) {
+            /* Die silently */
+        }
+    }
+
+    /**
+     * Returns the progress in [0, 100], based on the number of bytes parsed
+     *
+     * @return
+     */
+    int getProgress() {
+        if (size <= 0) {
+            return 0;
+        }
+        return (int) Math.min(100L, input.getByteCount() * 100L / size);
+    }
+
+    /**
+     * Returns the next row or null, if there is none. Missing cells are represented by empty strings.
+     *
+     * @return
+     * @throws IOException
+     */
+    String[] next() throws IOException {
+        try {
+
+            // Find row
+            while (parser.hasNext()) {
+                if (parser.next() == XMLStreamConstants.START_ELEMENT && parser.getLocalName().equals("row")) {
+                    return readRow();
+                }
+            }
+            return null;
+
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Returns the index of the column from the given cell reference, e.g. "AB12"
+     *
+     * @param reference
+     * @return
+     */
+    private int getColumn(String reference) {
+        int column = 0;
+        for (int i = 0; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * Returns the relationship identifiers of all sheets in the given workbook, in order
+     *
+     * @param workbook
+     * @return
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    private List<String> getSheets(PackagePart workbook) throws IOException, XMLStreamException {
+        List<String> result = new ArrayList<String>();
+        InputStream stream = workbook.getInputStream();
+        try {
+            XMLStreamReader parser = factory.createXMLStreamReader(stream);
+            while (parser.hasNext()) {
+                if (parser.next() == XMLStreamConstants.START_ELEMENT && parser.getLocalName().equals("sheet")) {
+                    result.add(parser.getAttributeValue(NAMESPACE_RELATIONSHIPS, "id"));
+                }
+            }
+            parser.close();
+        } finally {
+            stream.close();
+        }
+        return result;
+    }
+
+    /**
+     * Reads a cell
+     *
+     * @return
+     * @throws XMLStreamException
+     */
+    private String readCell() throws XMLStreamException {
+
+        String type = parser.getAttributeValue(null, "t");
+        String value = null;
+        StringBuilder inline = null;
+
+        // Collect
+        while (parser.hasNext()) {
+            int event = parser.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (parser.getLocalName().equals("v")) {
+                    value = parser.getElementText();
+                } else if (parser.getLocalName().equals("t")) {
+                    inline = inline == null ? new StringBuilder() : inline;
+                    inline.append(parser.getElementText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && parser.getLocalName().equals("c")) {
+                break;
+            }
+        }
+
+        // Convert
+        if ("inlineStr".equals(type)) {
+            return inline == null ? "" : inline.toString();
+        } else if (value == null) {
+            return "";
+        } else if ("s".equals(type)) {
+            return strings.getEntryAt(Integer.parseInt(value.trim()));
+        } else if ("b".equals(type)) {
+            return "1".equals(value) ? "TRUE" : "FALSE";
+        } else {
+            return value;
+        }
+    }
+
+    /**
+     * Reads a row
+     *
+     * @return
+     * @throws XMLStreamException
+     */
+    private String[] readRow() throws XMLStreamException {
+
+        List<String> row = new ArrayList<String>();
+        while (parser.hasNext()) {
+            int event = parser.next();
+            if (event == XMLStreamConstants.START_ELEMENT && parser.getLocalName().equals("c")) {
+                String reference = parser.getAttributeValue(null, "r");
+                int column = reference != null ? getColumn(reference) : row.size();
+                while (row.size() < column) {
+                    row.add("");
+                }
+                String value = readCell();
+                if (column < row.size()) {
+                    row.set(column, value);
+                } else {
+                    row.add(value);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && parser.getLocalName().equals("row")) {
+                break;
+            }
+        }
+        return row.toArray(new String[row.size()]);
+    }
+}
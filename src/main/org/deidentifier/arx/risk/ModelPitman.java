@@ -20,6 +20,7 @@ package org.deidentifier.arx.risk;
 import org.deidentifier.arx.ARXPopulationModel;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
+import org.deidentifier.arx.risk.RiskModelPopulationUniqueness.PopulationUniquenessModel;
 
 import de.linearbits.newtonraphson.Constraint2D;
 import de.linearbits.newtonraphson.Function;
@@ -49,11 +50,13 @@ class ModelPitman extends RiskModelPopulation {
      * @param histogram
      * @param config
      * @param stop
+     * @param cache may be null
      */
     ModelPitman(final ARXPopulationModel model,
                 final RiskModelHistogram histogram,
                 final NewtonRaphsonConfiguration<?> config,
-                final WrappedBoolean stop) {
+                final WrappedBoolean stop,
+                final RiskModelPopulationUniquenessCache cache) {
 
         super(histogram, model, stop, new WrappedInteger());
 
@@ -71,38 +74,50 @@ class ModelPitman extends RiskModelPopulation {
                    (((2 * c1 * u) + (c1 * c)) - (n * c));
         double a = ((t * (c1 - n)) + ((n - 1) * c1)) / (n * u);
 
-        // Solve the Maximum Likelihood Estimates with Polygamma functions
-        NewtonRaphson2D solver = new NewtonRaphson2D(getMasterFunctionClosed(histogram.getHistogram(), u, n),
-                                                     getConstraint()).configure(config);
-        Vector2D result = solver.solve(new Vector2D(t, a));
-
-        // If no result found, use iterative implementation
-        if (Double.isNaN(result.x) || Double.isNaN(result.y)) {
-
-            solver = new NewtonRaphson2D(getMasterFunctionIterative(histogram.getHistogram(), u, n),
-                                         getConstraint()).configure(config);
+        // Try to start with the solution for the most similar histogram, if any. The solution
+        // is only used if it is accurate and results in an estimate.
+        Vector2D result = null;
+        Vector2D start = cache == null ? null : cache.getStartValues(PopulationUniquenessModel.PITMAN, u, c1, n);
+        if (start != null) {
+            result = new NewtonRaphson2D(getMasterFunctionClosed(histogram.getHistogram(), u, n),
+                                         getConstraint()).configure(config).solve(start);
+            if (!isAccurate(result, histogram.getHistogram(), u, n, config) || !isValid(getResult(result, p))) {
+                result = null;
+            }
+        }
+        
+        // Else, use the initial guess
+        if (result == null) {
+            
+            // Solve the Maximum Likelihood Estimates with Polygamma functions
+            NewtonRaphson2D solver = new NewtonRaphson2D(getMasterFunctionClosed(histogram.getHistogram(), u, n),
+                                                         getConstraint()).configure(config);
             result = solver.solve(new Vector2D(t, a));
-
-            // Else check the result against the iterative implementation
-        } else {
-
-            // Run test
-            Vector2D test = getObjectFunctionsIterative(histogram.getHistogram(), u, n).evaluate(result);
-
-            // Check result of test
-            if (Double.isNaN(test.x) || Double.isNaN(test.y) ||
-                Math.abs(test.x) > config.getAccuracy() ||
-                Math.abs(test.y) > config.getAccuracy()) {
-
+    
+            // If no result found, use iterative implementation
+            if (Double.isNaN(result.x) || Double.isNaN(result.y)) {
+    
+                solver = new NewtonRaphson2D(getMasterFunctionIterative(histogram.getHistogram(), u, n),
+                                             getConstraint()).configure(config);
+                result = solver.solve(new Vector2D(t, a));
+    
+                // Else check the result against the iterative implementation
+            } else if (!isAccurate(result, histogram.getHistogram(), u, n, config)) {
+    
                 // Use iterative implementation
                 solver = new NewtonRaphson2D(getMasterFunctionIterative(histogram.getHistogram(), u, n),
                                                                         getConstraint()).configure(config);
                 result = solver.solve(new Vector2D(t, a));
             }
         }
-
+        
         // Compile the result
         this.numUniques = getResult(result, p);
+
+        // Remember solution, if it results in an estimate
+        if (cache != null && isValid(numUniques)) {
+            cache.putSolution(PopulationUniquenessModel.PITMAN, u, c1, n, result);
+        }
     }
 
     /**
@@ -114,6 +129,46 @@ class ModelPitman extends RiskModelPopulation {
         return this.numUniques;
     }
 
+    /**
+     * Checks the given result against the iterative implementation
+     * 
+     * @param result
+     * @param classes
+     * @param u
+     * @param n
+     * @param config
+     * @return
+     */
+    private boolean isAccurate(Vector2D result,
+                               int[] classes,
+                               double u,
+                               double n,
+                               NewtonRaphsonConfiguration<?> config) {
+        
+        // No result
+        if (Double.isNaN(result.x) || Double.isNaN(result.y)) {
+            return false;
+        }
+        
+        // Run test
+        Vector2D test = getObjectFunctionsIterative(classes, u, n).evaluate(result);
+        
+        // Check result of test
+        return !(Double.isNaN(test.x) || Double.isNaN(test.y) ||
+                 Math.abs(test.x) > config.getAccuracy() ||
+                 Math.abs(test.y) > config.getAccuracy());
+    }
+
+    /**
+     * Returns whether the given estimate is valid
+     * 
+     * @param estimate
+     * @return
+     */
+    private boolean isValid(double estimate) {
+        return !Double.isNaN(estimate) && estimate != 0d;
+    }
+
     /**
      * Returns a constraint on theta
      * @return
@@ -20,6 +20,7 @@ package org.deidentifier.arx.risk;
 import org.deidentifier.arx.ARXPopulationModel;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
+import org.deidentifier.arx.risk.RiskModelPopulationUniqueness.PopulationUniquenessModel;
 
 import de.linearbits.newtonraphson.Function;
 import de.linearbits.newtonraphson.NewtonRaphson2D;
@@ -47,11 +48,13 @@ class ModelSNB extends RiskModelPopulation {
      * @param histogram
      * @param config
      * @param stop
+     * @param cache may be null
      */
     ModelSNB(final ARXPopulationModel model,
              final RiskModelHistogram histogram,
              final NewtonRaphsonConfiguration<?> config,
-             final WrappedBoolean stop) {
+             final WrappedBoolean stop,
+             final RiskModelPopulationUniquenessCache cache) {
 
         super(histogram, model, stop, new WrappedInteger());
 
@@ -63,14 +66,35 @@ class ModelSNB extends RiskModelPopulation {
                                                       c1, super.getSamplingFraction());
         double f = getSamplingFraction();
 
-        // Solve the maximum likelihood estimates
-        Vector2D result = new NewtonRaphson2D(getObjectFunction(k, f, c1, c2),
-                                              getDerivatives(k, f, c1, c2))
-                                             .configure(config)
-                                             .solve();
-
+        // Solve the maximum likelihood estimates, starting with the solution for the most similar histogram, if any.
+        // The solution is only used if it is accurate and results in an estimate.
+        Vector2D result = null;
+        Vector2D start = cache == null ? null : cache.getStartValues(PopulationUniquenessModel.SNB, super.getNumClasses(), c1, super.getSampleSize());
+        if (start != null) {
+            result = new NewtonRaphson2D(getObjectFunction(k, f, c1, c2),
+                                         getDerivatives(k, f, c1, c2))
+                                        .configure(config)
+                                        .solve(start);
+            if (!isAccurate(result, k, f, c1, c2, config) || !isValid(k * Math.pow(result.y, result.x))) {
+                result = null;
+            }
+        }
+        
+        // Else, use the default start values
+        if (result == null) {
+            result = new NewtonRaphson2D(getObjectFunction(k, f, c1, c2),
+                                         getDerivatives(k, f, c1, c2))
+                                        .configure(config)
+                                        .solve();
+        }
+        
         // Compile and store
         this.uniques = k * Math.pow(result.y, result.x);
+
+        // Remember solution, if it results in an estimate
+        if (cache != null && isValid(uniques)) {
+            cache.putSolution(PopulationUniquenessModel.SNB, super.getNumClasses(), c1, super.getSampleSize(), result);
+        }
     }
 
     /**
@@ -107,6 +131,48 @@ class ModelSNB extends RiskModelPopulation {
         return n + n1 * (var1 / var2) * (var3 / var4) * (var3 / var4);
     }
 
+    /**
+     * Checks the given result against the object function
+     * 
+     * @param result
+     * @param k
+     * @param f
+     * @param c1
+     * @param c2
+     * @param config
+     * @return
+     */
+    private boolean isAccurate(Vector2D result,
+                               double k,
+                               double f,
+                               double c1,
+                               double c2,
+                               NewtonRaphsonConfiguration<?> config) {
+        
+        // No result
+        if (Double.isNaN(result.x) || Double.isNaN(result.y)) {
+            return false;
+        }
+        
+        // Run test
+        Vector2D test = getObjectFunction(k, f, c1, c2).evaluate(result);
+        
+        // Check result of test
+        return !(Double.isNaN(test.x) || Double.isNaN(test.y) ||
+                 Math.abs(test.x) > config.getAccuracy() ||
+                 Math.abs(test.y) > config.getAccuracy());
+    }
+
+    /**
+     * Returns whether the given estimate is valid
+     * 
+     * @param estimate
+     * @return
+     */
+    private boolean isValid(double estimate) {
+        return !Double.isNaN(estimate) && estimate != 0d;
+    }
+
     /**
      * Returns the derivatives
      * 
@@ -174,8 +174,21 @@ public class RiskEstimateBuilder {
      * @return the RiskModelAttributes data from risk analysis
      */
     public RiskModelAttributes getAttributeRisks() {
+        return getAttributeRisks(Integer.MAX_VALUE, 1);
+    }
+
+    /**
+     * Returns a class providing access to an analysis of potential quasi-identifiers using
+     * the concepts of alpha distinction and alpha separation. Only quasi-identifiers consisting
+     * of at most <code>maxSize</code> attributes are analyzed, using the given number of threads.
+     *
+     * @param maxSize
+     * @param numThreads
+     * @return the RiskModelAttributes data from risk analysis
+     */
+    public RiskModelAttributes getAttributeRisks(int maxSize, int numThreads) {
         progress.value = 0;
-        return new RiskModelAttributes(this.population, this.handle, this.identifiers, this.stop, progress, this.solverconfig, this.arxconfig);
+        return new RiskModelAttributes(this.handle, this.identifiers, this.stop, progress, maxSize, numThreads);
     }
 
     /**
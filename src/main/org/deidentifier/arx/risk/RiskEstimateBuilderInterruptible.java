@@ -53,6 +53,23 @@ public class RiskEstimateBuilderInterruptible {
         }
     }
 
+    /**
+     * Returns a class providing access to an analysis of potential quasi-identifiers using
+     * the concepts of alpha distinction and alpha separation. Only quasi-identifiers consisting
+     * of at most <code>maxSize</code> attributes are analyzed, using the given number of threads.
+     *
+     * @param maxSize
+     * @param numThreads
+     * @return the RiskModelAttributes data from risk analysis
+     */
+    public RiskModelAttributes getAttributeRisks(int maxSize, int numThreads) throws InterruptedException {
+        try {
+            return parent.getAttributeRisks(maxSize, numThreads);
+        } catch (ComputationInterruptedException e) {
+            throw new InterruptedException("Computation interrupted");
+        }
+    }
+
     /**
      * Returns a model of the equivalence classes in this data set
      * 
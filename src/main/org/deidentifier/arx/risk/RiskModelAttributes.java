@@ -19,27 +19,33 @@ package org.deidentifier.arx.risk;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.deidentifier.arx.ARXConfiguration;
-import org.deidentifier.arx.ARXPopulationModel;
-import org.deidentifier.arx.ARXSolverConfiguration;
 import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.common.ThreadUtil;
+import org.deidentifier.arx.common.TupleEncoder;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
 
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+import com.carrotsearch.hppc.LongIntOpenHashMap;
+
 /**
  * A class for analyzing attribute-related risks. Calculates alpha-distinction and
  * alpha separation as described in R. Motwani et al.
  * "Efficient algorithms for masking and finding quasi-identifiers" Proc. VLDB Conf., 2007.
- *
+ * <br>
+ * Subsets of attributes are enumerated in a depth-first manner and the equivalence classes
+ * of each subset are derived by refining the classes of the subset it extends with one
+ * additional attribute. Supersets of keys are keys and are not evaluated again. The
+ * enumeration can be split by prefixes and performed by multiple threads.
  *
  * @author Fabian Prasser
  * @author Maximilian Zitzmann
@@ -65,23 +71,13 @@ public class RiskModelAttributes {
          * Creates a new instance
          *
          * @param identifier
+         * @param alphaDistinction
+         * @param alphaSeparation
          */
-        private QuasiIdentifierRisk(List<String> identifier) {
-
-            // Store identifier
+        private QuasiIdentifierRisk(List<String> identifier, double alphaDistinction, double alphaSeparation) {
             this.identifier = identifier;
-
-            // Calculate distribution of class sizes
-            RiskModelHistogram histogram = new RiskEstimateBuilder(population,
-                                                                   handle,
-                                                                   new HashSet<String>(identifier),
-                                                                   stop,
-                                                                   solverconfig,
-                                                                   arxconfig).getEquivalenceClassModel();
-
-            // Calculate distinction and separation
-            this.alphaDistinction = getAlphaDistinction(histogram);
-            this.alphaSeparation = getAlphaSeparation(histogram);
+            this.alphaDistinction = alphaDistinction;
+            this.alphaSeparation = alphaSeparation;
         }
 
         @Override
@@ -136,82 +132,310 @@ public class RiskModelAttributes {
             return alphaSeparation;
         }
     }
+
+    /**
+     * Evaluates all subsets of attributes that start with prefixes which are obtained
+     * from a shared counter. Instances are not thread-safe.
+     *
+     * @author Fabian Prasser
+     */
+    private class Worker implements Callable<List<QuasiIdentifierRisk>> {
+
+        /** Results */
+        private final List<QuasiIdentifierRisk> result = new ArrayList<QuasiIdentifierRisk>();
+        /** Classes of all records, per depth */
+        private final int[][]                   partitions;
+        /** Sizes of the classes of the last partition */
+        private final int[]                     sizes;
+        /** Attributes in the current subset */
+        private final int[]                     members;
+        /** Maps pairs of classes and values to classes */
+        private final LongIntOpenHashMap        map   = new LongIntOpenHashMap();
+
+        /**
+         * Creates a new instance
+         */
+        private Worker() {
+            int depth = Math.min(attributes.length, maxSize);
+            this.partitions = new int[depth + 1][];
+            this.partitions[0] = records;
+            this.sizes = new int[numRecords + 1];
+            this.members = new int[depth];
+        }
+
+        @Override
+        public List<QuasiIdentifierRisk> call() {
+            
+            // For each prefix
+            int numPrefixes = 1 << prefixLength;
+            for (int prefix = nextPrefix.getAndIncrement(); prefix < numPrefixes; prefix = nextPrefix.getAndIncrement()) {
+                
+                // Check size
+                if (Integer.bitCount(prefix) > maxSize) {
+                    continue;
+                }
+                
+                // Build classes of prefix
+                int size = 0;
+                int numClasses = numRecords == 0 ? 0 : 1;
+                for (int attribute = 0; attribute < prefixLength; attribute++) {
+                    if ((prefix & (1 << attribute)) != 0) {
+                        members[size] = attribute;
+                        numClasses = refine(size, attribute);
+                        size++;
+                    }
+                }
+                
+                // Evaluate all subsets starting with the prefix
+                evaluate(size, numClasses, prefixLength);
+            }
+            return result;
+        }
+
+        /**
+         * Adds supersets of a key with the given parameters
+         * @param size
+         * @param from
+         * @param alphaDistinction
+         * @param alphaSeparation
+         */
+        private void addKeys(int size, int from, double alphaDistinction, double alphaSeparation) {
+            if (size == maxSize) {
+                return;
+            }
+            for (int attribute = from; attribute < attributes.length; attribute++) {
+                checkInterrupt();
+                members[size] = attribute;
+                result.add(new QuasiIdentifierRisk(getIdentifier(size + 1), alphaDistinction, alphaSeparation));
+                trackProgress();
+                addKeys(size + 1, attribute + 1, alphaDistinction, alphaSeparation);
+            }
+        }
+
+        /**
+         * Evaluates the current subset and all subsets extending it with attributes
+         * starting at the given index
+         * @param size
+         * @param numClasses
+         * @param from
+         */
+        private void evaluate(int size, int numClasses, int from) {
+            
+            // Evaluate
+            if (size != 0) {
+                
+                // Calculate distribution of class sizes
+                IntIntOpenHashMap distribution = new IntIntOpenHashMap();
+                for (int clazz = 0; clazz < numClasses; clazz++) {
+                    distribution.putOrAdd(sizes[clazz], 1, 1);
+                }
+                RiskModelHistogram histogram = new RiskModelHistogram(distribution);
+                
+                // Calculate distinction and separation
+                double alphaDistinction = getAlphaDistinction(histogram);
+                double alphaSeparation = getAlphaSeparation(histogram);
+                result.add(new QuasiIdentifierRisk(getIdentifier(size), alphaDistinction, alphaSeparation));
+                trackProgress();
+                
+                // Supersets of keys are keys
+                if (numClasses == numRecords) {
+                    addKeys(size, from, alphaDistinction, alphaSeparation);
+                    return;
+                }
+            }
+            
+            // Check size
+            if (size == maxSize) {
+                return;
+            }
+            
+            // Extend
+            for (int attribute = from; attribute < attributes.length; attribute++) {
+                members[size] = attribute;
+                int classes = refine(size, attribute);
+                evaluate(size + 1, classes, attribute + 1);
+            }
+        }
+
+        /**
+         * Returns the names of the attributes in the current subset
+         * @param size
+         * @return
+         */
+        private List<String> getIdentifier(int size) {
+            List<String> identifier = new ArrayList<String>(size);
+            for (int i = 0; i < size; i++) {
+                identifier.add(attributes[members[i]]);
+            }
+            return identifier;
+        }
+
+        /**
+         * Refines the partition at the given depth with the values of the given attribute.
+         * Stores the result at the next depth and returns the number of classes.
+         * @param depth
+         * @param attribute
+         * @return
+         */
+        private int refine(int depth, int attribute) {
+            
+            // Prepare
+            int[] parent = partitions[depth];
+            int[] child = partitions[depth + 1];
+            if (child == null) {
+                child = new int[parent.length];
+                partitions[depth + 1] = child;
+            }
+            int[] values = columns[attribute];
+            map.clear();
+            
+            // Refine
+            int numClasses = 0;
+            for (int row = 0; row < parent.length; row++) {
+                
+                // Skip suppressed records
+                int parentClass = parent[row];
+                if (parentClass == -1) {
+                    child[row] = -1;
+                    continue;
+                }
+                
+                // Find class
+                long key = ((long) parentClass << 32) | (values[row] & 0xffffffffL);
+                int clazz;
+                if (map.containsKey(key)) {
+                    clazz = map.lget();
+                } else {
+                    clazz = numClasses++;
+                    map.put(key, clazz);
+                    sizes[clazz] = 0;
+                }
+                child[row] = clazz;
+                sizes[clazz]++;
+                
+                // Check interrupt
+                if ((row & 0xffff) == 0) {
+                    checkInterrupt();
+                }
+            }
+            return numClasses;
+        }
+    }
+
     /** Stop flag */
     private final WrappedBoolean        stop;
     /** Results */
     private final QuasiIdentifierRisk[] risks;
-    /** Just needed for creating risk models */
-    private ARXPopulationModel          population;
-    /** Data handle */
-    private DataHandleInternal          handle;
-    /** Just needed for creating risk models */
-    private ARXSolverConfiguration      solverconfig;
-    /** Just needed for creating risk models */
-    private ARXConfiguration            arxconfig;
+    /** Names of attributes, ordered by column index */
+    private final String[]              attributes;
+    /** Identifiers of the values of each attribute, per record */
+    private final int[][]               columns;
+    /** Initial partition, -1 for suppressed records */
+    private final int[]                 records;
+    /** Number of records which are not suppressed */
+    private final int                   numRecords;
+    /** Maximal size of quasi-identifiers */
+    private final int                   maxSize;
+    /** Number of attributes used for splitting the work */
+    private final int                   prefixLength;
+    /** Next prefix to evaluate */
+    private final AtomicInteger         nextPrefix = new AtomicInteger();
+    /** Progress */
+    private final WrappedInteger        percentageDone;
+    /** Progress */
+    private final AtomicLong            done       = new AtomicLong();
+    /** Progress */
+    private final double                total;
 
     /**
      * Creates a new instance
-     * @param population
      * @param handle
      * @param identifiers
      * @param stop
      * @param percentageDone
-     * @param solverconfig
-     * @param arxconfig
+     * @param maxSize
+     * @param numThreads
      */
-    RiskModelAttributes(final ARXPopulationModel population,
-                        final DataHandleInternal handle,
+    RiskModelAttributes(final DataHandleInternal handle,
                         final Set<String> identifiers,
                         final WrappedBoolean stop,
                         final WrappedInteger percentageDone,
-                        final ARXSolverConfiguration solverconfig,
-                        final ARXConfiguration arxconfig) {
+                        final int maxSize,
+                        final int numThreads) {
+        
+        // Check
+        if (maxSize <= 0 || numThreads <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        for (String identifier : identifiers) {
+            if (handle.getColumnIndexOf(identifier) == -1) { throw new IllegalArgumentException(identifier + " is not an attribute"); }
+        }
         
-        this.population = population;
-        this.handle = handle;
         this.stop = stop;
-        this.solverconfig = solverconfig;
-        this.arxconfig = arxconfig;
-
-        // Find order list of qis
-        List<List<String>> qis = new ArrayList<>();
-        Set<Set<String>> powerset = getPowerSet(identifiers);
-        for (Set<String> set : powerset) {
-            
-            // Exclude empty set
-            if (!set.isEmpty()) {
-                
-                // Create and add
-                List<String> qi = new ArrayList<String>(set);
-                qis.add(qi);
-                
-                // Sort by column index
-                Collections.sort(qi, new Comparator<String>(){
-                    @Override
-                    public int compare(String o1, String o2) {
-                        int index1 = handle.getColumnIndexOf(o1);
-                        int index2 = handle.getColumnIndexOf(o2);
-                        return new Integer(index1).compareTo(index2);
-                    }
-                });
-            }
+        this.percentageDone = percentageDone;
+        this.maxSize = maxSize;
+        
+        // Order attributes by column index
+        int[] indices = new int[identifiers.size()];
+        int index = 0;
+        for (String identifier : identifiers) {
+            indices[index++] = handle.getColumnIndexOf(identifier);
+        }
+        Arrays.sort(indices);
+        this.attributes = new String[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            this.attributes[i] = handle.getAttributeName(indices[i]);
         }
         
-        // Compute risk estimates for all elements in the power set
-        Map<List<String>, QuasiIdentifierRisk> scores = new HashMap<>();
-        int done = 0;
-        for (List<String> qi : qis) {
+        // Encode data
+        int numRows = handle.getNumRows();
+        this.columns = new int[indices.length][numRows];
+        for (int i = 0; i < indices.length; i++) {
+            TupleEncoder encoder = new TupleEncoder(handle, new int[] { indices[i] }, false);
+            for (int row = 0; row < numRows; row++) {
+                this.columns[i][row] = encoder.encode(row, 0);
+            }
             checkInterrupt();
-            scores.put(qi, new QuasiIdentifierRisk(qi));
-            percentageDone.value = (int) Math.round((double) done++ / (double) (powerset.size() - 1) * 100d);
+        }
+        
+        // Suppressed records are ignored
+        int numRecords = 0;
+        this.records = new int[numRows];
+        for (int row = 0; row < numRows; row++) {
+            if (handle.isOutlier(row)) {
+                this.records[row] = -1;
+            } else {
+                numRecords++;
+            }
+        }
+        this.numRecords = numRecords;
+        
+        // Calculate number of subsets to evaluate
+        double total = 0d;
+        double subsets = 1d;
+        for (int size = 1; size <= Math.min(attributes.length, maxSize); size++) {
+            subsets = subsets * (attributes.length - size + 1) / size;
+            total += subsets;
+        }
+        this.total = total;
+        
+        // Split into prefixes, such that work can be balanced among threads
+        int prefixLength = 0;
+        while (prefixLength < attributes.length && prefixLength < 16 && (1 << prefixLength) < numThreads * 4) {
+            prefixLength++;
+        }
+        this.prefixLength = numThreads == 1 ? 0 : prefixLength;
+        
+        // Compute risk estimates for all subsets
+        List<QuasiIdentifierRisk> scores = new ArrayList<QuasiIdentifierRisk>();
+        if (numThreads == 1) {
+            scores.addAll(new Worker().call());
+        } else {
+            for (List<QuasiIdentifierRisk> result : evaluate(numThreads)) {
+                scores.addAll(result);
+            }
         }
 
         // Now create sorted array
-        risks = new QuasiIdentifierRisk[scores.size()];
-        int idx = 0;
-        for (QuasiIdentifierRisk value : scores.values()) {
-            risks[idx++] = value;
-        }
+        risks = scores.toArray(new QuasiIdentifierRisk[scores.size()]);
         Arrays.sort(risks);
     }
 
@@ -233,6 +457,36 @@ public class RiskModelAttributes {
         }
     }
 
+    /**
+     * Evaluates all subsets with the given number of threads
+     * @param numThreads
+     * @return
+     */
+    private List<List<QuasiIdentifierRisk>> evaluate(int numThreads) {
+        
+        // Prepare
+        ExecutorService executor = ThreadUtil.createThreadPool(numThreads, "ARX attribute risks");
+        
+        try {
+            
+            // Submit
+            List<Future<List<QuasiIdentifierRisk>>> futures = new ArrayList<Future<List<QuasiIdentifierRisk>>>();
+            for (int i = 0; i < numThreads; i++) {
+                futures.add(executor.submit(new Worker()));
+            }
+            
+            // Collect
+            List<List<QuasiIdentifierRisk>> results = new ArrayList<List<QuasiIdentifierRisk>>();
+            for (Future<List<QuasiIdentifierRisk>> future : futures) {
+                results.add(ThreadUtil.get(future, "Interrupted while analyzing attributes"));
+            }
+            return results;
+            
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Calculates the Gaussian sum formula
      * 
@@ -309,29 +563,9 @@ public class RiskModelAttributes {
     }
 
     /**
-     * Returns the power set
-     *
-     * @param originalSet
-     * @return
+     * Tracks progress
      */
-    private <T> Set<Set<T>> getPowerSet(Set<T> originalSet) {
-        checkInterrupt();
-        Set<Set<T>> sets = new HashSet<Set<T>>();
-        if (originalSet.isEmpty()) {
-            sets.add(new HashSet<T>());
-            return sets;
-        }
-        List<T> list = new ArrayList<T>(originalSet);
-        T head = list.get(0);
-        Set<T> rest = new HashSet<T>(list.subList(1, list.size()));
-        for (Set<T> set : getPowerSet(rest)) {
-            checkInterrupt();
-            Set<T> newSet = new HashSet<T>();
-            newSet.add(head);
-            newSet.addAll(set);
-            sets.add(newSet);
-            sets.add(set);
-        }
-        return sets;
+    private void trackProgress() {
+        percentageDone.value = (int) Math.round((double) done.incrementAndGet() / total * 100d);
     }
-}
\ No newline at end of file
+}
@@ -22,9 +22,8 @@ import java.util.Comparator;
 import java.util.Set;
 
 import org.deidentifier.arx.DataHandleInternal;
-import org.deidentifier.arx.common.Groupify;
-import org.deidentifier.arx.common.Groupify.Group;
-import org.deidentifier.arx.common.TupleWrapper;
+import org.deidentifier.arx.common.GroupifyEncoded;
+import org.deidentifier.arx.common.TupleEncoder;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
@@ -93,7 +92,7 @@ public class RiskModelHistogram {
         // Calculate equivalence classes
         int capacity = handle.getNumRows() / 10;
         capacity = capacity > 10 ? capacity : 10;
-        Groupify<TupleWrapper> map = new Groupify<TupleWrapper>(capacity);
+        GroupifyEncoded map = new GroupifyEncoded(new TupleEncoder(handle, indices, false), capacity);
         int numRows = handle.getNumRows();
         for (int row = 0; row < numRows; row++) {
 
@@ -103,8 +102,7 @@ public class RiskModelHistogram {
             }
 
             if (!handle.isOutlier(row)) {
-                TupleWrapper tuple = new TupleWrapper(handle, indices, row, false);
-                map.add(tuple);
+                map.add(row);
             }
             if (stop.value) { throw new ComputationInterruptedException(); }
         }
@@ -112,16 +110,13 @@ public class RiskModelHistogram {
         // Group by size
         IntIntOpenHashMap grouped = new IntIntOpenHashMap();
 
-        int i = 0;
         int size = map.size();
-        Group<TupleWrapper> element = map.first();
-        while (element != null) {
-            int prog = (int) Math.round((80d + (double) i++ / (double) size * 20d) * factor);
+        for (int group = 0; group < size; group++) {
+            int prog = (int) Math.round((80d + (double) group / (double) size * 20d) * factor);
             if (prog != progress.value) {
                 progress.value = prog;
             }
-            grouped.putOrAdd(element.getCount(), 1, 1);
-            element = element.next();
+            grouped.putOrAdd(map.getCount(group), 1, 1);
             if (stop.value) { throw new ComputationInterruptedException(); }
         }
 
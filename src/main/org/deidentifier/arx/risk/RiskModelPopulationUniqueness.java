@@ -45,27 +45,29 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
     }
 
     /** Estimate */
-    private double                    numUniquesZayatz = -1d;
+    private double                                   numUniquesZayatz = -1d;
     /** Estimate */
-    private double                    numUniquesSNB    = -1d;
+    private double                                   numUniquesSNB    = -1d;
     /** Estimate */
-    private double                    numUniquesPitman = -1d;
+    private double                                   numUniquesPitman = -1d;
     /** Estimate */
-    private double                    numUniquesDankar = -1d;
+    private double                                   numUniquesDankar = -1d;
     /** Model */
-    private PopulationUniquenessModel dankarModel      = null;
+    private PopulationUniquenessModel                dankarModel      = null;
     /** Parameter */
-    private int                       numClassesOfSize1;
+    private int                                      numClassesOfSize1;
     /** Parameter */
-    private double                    samplingFraction;
+    private double                                   samplingFraction;
     /** Parameter */
-    private ARXPopulationModel        model;
+    private ARXPopulationModel                       model;
     /** Parameter */
-    private RiskModelHistogram        histogram;
+    private RiskModelHistogram                       histogram;
     /** Parameter */
-    private ARXSolverConfiguration    config;
+    private ARXSolverConfiguration                   config;
     /** Parameter */
-    private WrappedBoolean            stop;
+    private WrappedBoolean                           stop;
+    /** Cache for solutions, may be null */
+    private final RiskModelPopulationUniquenessCache cache;
 
     /**
      * Creates a new instance
@@ -85,6 +87,28 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
              false);
     }
 
+    /**
+     * Creates a new instance, which uses solutions for similar histograms stored
+     * in the given cache as start values for solvers
+     * 
+     * @param model
+     * @param classes
+     * @param config
+     * @param cache
+     */
+    public RiskModelPopulationUniqueness(ARXPopulationModel model,
+                                         RiskModelHistogram classes,
+                                         ARXSolverConfiguration config,
+                                         RiskModelPopulationUniquenessCache cache) {
+        this(model,
+             classes,
+             new WrappedBoolean(),
+             new WrappedInteger(),
+             config,
+             false,
+             cache);
+    }
+
     /**
      * Creates a new instance
      * 
@@ -101,6 +125,27 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
                                   WrappedInteger progress,
                                   ARXSolverConfiguration config,
                                   boolean precompute) {
+        this(model, histogram, stop, progress, config, precompute, null);
+    }
+
+    /**
+     * Creates a new instance
+     * 
+     * @param model
+     * @param histogram
+     * @param stop
+     * @param progress
+     * @param config
+     * @param precompute
+     * @param cache
+     */
+    private RiskModelPopulationUniqueness(ARXPopulationModel model,
+                                          RiskModelHistogram histogram,
+                                          WrappedBoolean stop,
+                                          WrappedInteger progress,
+                                          ARXSolverConfiguration config,
+                                          boolean precompute,
+                                          RiskModelPopulationUniquenessCache cache) {
         super(histogram, model, stop, progress);
 
         // Init
@@ -110,6 +155,7 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
         this.histogram = histogram;
         this.config = config;
         this.stop = stop;
+        this.cache = cache;
 
         // Handle cases where there are no sample uniques
         if (numClassesOfSize1 == 0) {
@@ -273,7 +319,8 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
                 numUniquesPitman = new ModelPitman(model,
                                                    histogram,
                                                    config,
-                                                   stop).getNumUniques();
+                                                   stop,
+                                                   cache).getNumUniques();
             }
         }
         return isValid(numUniquesPitman) ? numUniquesPitman : 0d;
@@ -291,7 +338,8 @@ public class RiskModelPopulationUniqueness extends RiskModelPopulation {
                 numUniquesSNB = new ModelSNB(model,
                                              histogram,
                                              config,
-                                             stop).getNumUniques();
+                                             stop,
+                                             cache).getNumUniques();
             }
         }
         return isValid(numUniquesSNB) ? numUniquesSNB : 0d;
@@ -0,0 +1,249 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.risk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.deidentifier.arx.risk.RiskModelPopulationUniqueness.PopulationUniquenessModel;
+
+import de.linearbits.newtonraphson.Vector2D;
+
+/**
+ * A bounded cache for estimates of population uniqueness, which is meant to be shared by all
+ * checks performed with a fixed population model and solver configuration. It memoizes estimates
+ * by class size histogram and remembers the solutions of the Newton-Raphson solvers, which are used
+ * as start values when estimating the uniqueness of similar histograms. This class is thread-safe.
+ *
+ * @author Fabian Prasser
+ */
+public class RiskModelPopulationUniquenessCache {
+
+    /**
+     * A class size histogram, which can be used as a key
+     *
+     * @author Fabian Prasser
+     */
+    private static class Histogram {
+
+        /** Data */
+        private final int[] histogram;
+        /** Hash code */
+        private final int   hashcode;
+
+        /**
+         * Creates a new instance
+         * @param histogram
+         */
+        private Histogram(int[] histogram) {
+            this.histogram = histogram;
+            this.hashcode = Arrays.hashCode(histogram);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            return Arrays.equals(histogram, ((Histogram) obj).histogram);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashcode;
+        }
+    }
+
+    /**
+     * A solution found for a histogram
+     *
+     * @author Fabian Prasser
+     */
+    private static class Solution {
+
+        /** Number of classes */
+        private final double   numClasses;
+        /** Number of classes of size one */
+        private final double   numClassesOfSize1;
+        /** Number of records */
+        private final double   numRecords;
+        /** Solution */
+        private final Vector2D solution;
+
+        /**
+         * Creates a new instance
+         * @param numClasses
+         * @param numClassesOfSize1
+         * @param numRecords
+         * @param solution
+         */
+        private Solution(double numClasses, double numClassesOfSize1, double numRecords, Vector2D solution) {
+            this.numClasses = numClasses;
+            this.numClassesOfSize1 = numClassesOfSize1;
+            this.numRecords = numRecords;
+            this.solution = solution;
+        }
+
+        /**
+         * Returns the relative distance to the given histogram
+         * @param numClasses
+         * @param numClassesOfSize1
+         * @param numRecords
+         * @return
+         */
+        private double getDistance(double numClasses, double numClassesOfSize1, double numRecords) {
+            return getDistance(this.numClasses, numClasses) +
+                   getDistance(this.numClassesOfSize1, numClassesOfSize1) +
+                   getDistance(this.numRecords, numRecords);
+        }
+
+        /**
+         * Returns the relative distance between both values
+         * @param value1
+         * @param value2
+         * @return
+         */
+        private double getDistance(double value1, double value2) {
+            double max = Math.max(Math.abs(value1), Math.abs(value2));
+            return max == 0d ? 0d : Math.abs(value1 - value2) / max;
+        }
+    }
+
+    /** Default number of estimates */
+    public static final int                                      DEFAULT_CAPACITY = 10000;
+    /** Number of solutions remembered per model */
+    private static final int                                     NUM_SOLUTIONS    = 64;
+    /** Maximal distance of histograms for which solutions are used as start values */
+    private static final double                                  MAX_DISTANCE     = 0.05d;
+
+    /** Estimates */
+    private final Map<Histogram, Double>                         estimates;
+    /** Solutions */
+    private final Map<PopulationUniquenessModel, List<Solution>> solutions;
+
+    /**
+     * Creates a new instance with default capacity
+     */
+    public RiskModelPopulationUniquenessCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new instance
+     * @param capacity Maximal number of estimates
+     */
+    @SuppressWarnings("serial")
+    public RiskModelPopulationUniquenessCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be > 0");
+        }
+        this.estimates = new LinkedHashMap<Histogram, Double>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Histogram, Double> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.solutions = new EnumMap<PopulationUniquenessModel, List<Solution>>(PopulationUniquenessModel.class);
+    }
+
+    /**
+     * Returns the estimate for the given histogram, null if there is none
+     *
+     * @param histogram
+     * @return
+     */
+    public synchronized Double getEstimate(RiskModelHistogram histogram) {
+        return estimates.get(new Histogram(histogram.getHistogram()));
+    }
+
+    /**
+     * Stores the estimate for the given histogram
+     *
+     * @param histogram
+     * @param estimate
+     */
+    public synchronized void putEstimate(RiskModelHistogram histogram, double estimate) {
+        int[] data = histogram.getHistogram();
+        estimates.put(new Histogram(Arrays.copyOf(data, data.length)), estimate);
+    }
+
+    /**
+     * Returns the solution found for the most similar histogram, null if there is none. Only
+     * solutions for histograms within a small relative distance are considered, as solvers
+     * started with solutions for very different histograms may converge to different roots.
+     *
+     * @param model
+     * @param numClasses
+     * @param numClassesOfSize1
+     * @param numRecords
+     * @return
+     */
+    synchronized Vector2D getStartValues(PopulationUniquenessModel model,
+                                         double numClasses,
+                                         double numClassesOfSize1,
+                                         double numRecords) {
+        List<Solution> list = solutions.get(model);
+        if (list == null) {
+            return null;
+        }
+        Solution nearest = null;
+        double distance = MAX_DISTANCE;
+        for (Solution solution : list) {
+            double current = solution.getDistance(numClasses, numClassesOfSize1, numRecords);
+            if (current <= distance) {
+                nearest = solution;
+                distance = current;
+            }
+        }
+        return nearest == null ? null : nearest.solution.clone();
+    }
+
+    /**
+     * Stores a solution
+     *
+     * @param model
+     * @param numClasses
+     * @param numClassesOfSize1
+     * @param numRecords
+     * @param solution
+     */
+    synchronized void putSolution(PopulationUniquenessModel model,
+                                  double numClasses,
+                                  double numClassesOfSize1,
+                                  double numRecords,
+                                  Vector2D solution) {
+        if (solution == null || solution.isNaN()) {
+            return;
+        }
+        List<Solution> list = solutions.get(model);
+        if (list == null) {
+            list = new ArrayList<Solution>();
+            solutions.put(model, list);
+        }
+        if (list.size() == NUM_SOLUTIONS) {
+            list.remove(0);
+        }
+        list.add(new Solution(numClasses, numClassesOfSize1, numRecords, solution.clone()));
+    }
+}
@@ -20,9 +20,8 @@ import java.util.Arrays;
 import java.util.Set;
 
 import org.deidentifier.arx.DataHandleInternal;
-import org.deidentifier.arx.common.Groupify;
-import org.deidentifier.arx.common.Groupify.Group;
-import org.deidentifier.arx.common.TupleWrapper;
+import org.deidentifier.arx.common.GroupifyEncoded;
+import org.deidentifier.arx.common.TupleEncoder;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
@@ -209,19 +208,26 @@ public class RiskModelSampleSummary {
         this.threshold = threshold;
         
         // Prepare
-        Groupify<TupleWrapper> sample;
-        Groupify<TupleWrapper> population;
+        GroupifyEncoded sample;
+        GroupifyEncoded population;
         if (handle.getSuperset() != null) {
-            sample = getGroups(handle, identifiers, 0d, 0.45d, stop, progress, false, suppressed);
-            population = getGroups(handle.getSuperset(), identifiers,  0.45d, 0.45d, stop, progress, true, suppressed);
+            sample = getGroups(handle, identifiers, 0d, 0.45d, stop, progress, false, null);
+            population = getGroups(handle.getSuperset(), identifiers,  0.45d, 0.45d, stop, progress, true, sample.getEncoder());
         } else {
-            sample = getGroups(handle, identifiers, 0d, 0.9d, stop, progress, false, suppressed);
+            sample = getGroups(handle, identifiers, 0d, 0.9d, stop, progress, false, null);
             population = sample;
         }
         
-        this.prosecutorRisk = getProsecutorRisk(population, sample, 0.9d, stop, progress);
-        this.journalistRisk = getJournalistRisk(population, sample, 0.933d, stop, progress);
-        this.marketerRisk = getMarketerRisk(population, sample, 0.966d, stop, progress);
+        // Determine suppressed groups
+        boolean[] suppressedGroups = new boolean[sample.size()];
+        for (int group = 0; group < suppressedGroups.length; group++) {
+            suppressedGroups[group] = handle.isOutlier(sample.getRow(group)) ||
+                                      (suppressed != null && sample.isEqualTo(group, suppressed));
+        }
+        
+        this.prosecutorRisk = getProsecutorRisk(population, sample, suppressedGroups, 0.9d, stop, progress);
+        this.journalistRisk = getJournalistRisk(population, sample, suppressedGroups, 0.933d, stop, progress);
+        this.marketerRisk = getMarketerRisk(population, sample, suppressedGroups, 0.966d, stop, progress);
     }
     
     /**
@@ -283,17 +289,17 @@ public class RiskModelSampleSummary {
      * @param stop
      * @param progress
      * @param ignoreOutliers 
-     * @param suppressed 
+     * @param encoder Encoder to share identifiers with, may be null
      * @return
      */
-    private Groupify<TupleWrapper> getGroups(DataHandleInternal handle,
-                                             Set<String> qis,
-                                             double offset,
-                                             double factor,
-                                             WrappedBoolean stop,
-                                             WrappedInteger progress,
-                                             boolean ignoreOutliers,
-                                             String suppressed) {
+    private GroupifyEncoded getGroups(DataHandleInternal handle,
+                                      Set<String> qis,
+                                      double offset,
+                                      double factor,
+                                      WrappedBoolean stop,
+                                      WrappedInteger progress,
+                                      boolean ignoreOutliers,
+                                      TupleEncoder encoder) {
 
         /* ********************************
          * Check 
@@ -317,7 +323,8 @@ public class RiskModelSampleSummary {
         // Calculate equivalence classes
         int capacity = handle.getNumRows() / 10;
         capacity = capacity > 10 ? capacity : 10;
-        Groupify<TupleWrapper> map = new Groupify<TupleWrapper>(capacity);
+        encoder = encoder == null ? new TupleEncoder(handle, indices, ignoreOutliers) : new TupleEncoder(handle, ignoreOutliers, encoder);
+        GroupifyEncoded map = new GroupifyEncoded(encoder, capacity);
         int numRows = handle.getNumRows();
         for (int row = 0; row < numRows; row++) {
 
@@ -326,8 +333,7 @@ public class RiskModelSampleSummary {
                 progress.value = prog;
             }
 
-            TupleWrapper tuple = new TupleWrapper(handle, indices, row, ignoreOutliers, suppressed);
-            map.add(tuple);
+            map.add(row);
             if (stop.value) { throw new ComputationInterruptedException(); }
         }
 
@@ -339,13 +345,15 @@ public class RiskModelSampleSummary {
      * Computes risks
      * @param population
      * @param sample
+     * @param suppressed
      * @param offset
      * @param progress 
      * @param stop 
      * @return
      */
-    private JournalistRisk getJournalistRisk(Groupify<TupleWrapper> population,
-                                             Groupify<TupleWrapper> sample,
+    private JournalistRisk getJournalistRisk(GroupifyEncoded population,
+                                             GroupifyEncoded sample,
+                                             boolean[] suppressed,
                                              double offset,
                                              WrappedBoolean stop,
                                              WrappedInteger progress) {
@@ -359,25 +367,23 @@ public class RiskModelSampleSummary {
         double numClassesInSample = 0d;
         double smallestClassSizeInPopulation = Integer.MAX_VALUE;
         int maxindex = sample.size();
-        int index = 0;
         
         // For each group
-        Group<TupleWrapper> element = sample.first();
-        while (element != null) {
+        for (int group = 0; group < maxindex; group++) {
             
             // Track progress
-            int prog = (int) Math.round(offset + (double) index++ / (double) maxindex * 3.3d);
+            int prog = (int) Math.round(offset + (double) group / (double) maxindex * 3.3d);
             if (prog != progress.value) {
                 progress.value = prog;
             }
             
             // Only process unsuppressed records
-            if (!element.getElement().isSuppressed()) {
+            if (!suppressed[group]) {
                 
-                int groupSizeInSample = element.getCount();
+                int groupSizeInSample = sample.getCount(group);
                 int groupSizeInPopulation = groupSizeInSample;
                 if (population != sample) {
-                    groupSizeInPopulation = population.get(element.getElement()).getCount();
+                    groupSizeInPopulation = population.getCount(population.get(sample, group));
                 }
                 
                 // Compute rA
@@ -394,10 +400,7 @@ public class RiskModelSampleSummary {
                 rC1 += groupSizeInPopulation;
                 rC2 += (double)groupSizeInSample / (double)groupSizeInPopulation;
             }
-                
-            // Next element
-            element = element.next();
-            
+
             // Stop, if required
             if (stop.value) { throw new ComputationInterruptedException(); }
         }
@@ -421,13 +424,15 @@ public class RiskModelSampleSummary {
      * Computes risks
      * @param population
      * @param sample
+     * @param suppressed
      * @param offset
      * @param progress 
      * @param stop 
      * @return
      */
-    private MarketerRisk getMarketerRisk(Groupify<TupleWrapper> population,
-                                         Groupify<TupleWrapper> sample,
+    private MarketerRisk getMarketerRisk(GroupifyEncoded population,
+                                         GroupifyEncoded sample,
+                                         boolean[] suppressed,
                                          double offset,
                                          WrappedBoolean stop,
                                          WrappedInteger progress) {
@@ -436,35 +441,30 @@ public class RiskModelSampleSummary {
         double rC = 0d;
         double numRecordsInSample = 0d;
         int maxindex = sample.size();
-        int index = 0;
         
         // For each group
-        Group<TupleWrapper> element = sample.first();
-        while (element != null) {
+        for (int group = 0; group < maxindex; group++) {
             
             // Track progress
-            int prog = (int) Math.round(offset + (double) index++ / (double) maxindex * 3.3d);
+            int prog = (int) Math.round(offset + (double) group / (double) maxindex * 3.3d);
             if (prog != progress.value) {
                 progress.value = prog;
             }
             
             // Only process unsuppressed records
-            if (!element.getElement().isSuppressed()) {
+            if (!suppressed[group]) {
                 
-                int groupSizeInSample = element.getCount();
+                int groupSizeInSample = sample.getCount(group);
                 int groupSizeInPopulation = groupSizeInSample;
                 if (population != sample) {
-                    groupSizeInPopulation = population.get(element.getElement()).getCount();
+                    groupSizeInPopulation = population.getCount(population.get(sample, group));
                 }
                 
                 // Compute rC
                 numRecordsInSample += groupSizeInSample;
                 rC += (double)groupSizeInSample / (double)groupSizeInPopulation;
             }
-                
-            // Next element
-            element = element.next();
-            
+
             // Stop, if required
             if (stop.value) { throw new ComputationInterruptedException(); }
         }
@@ -480,13 +480,15 @@ public class RiskModelSampleSummary {
      * Computes risks
      * @param population
      * @param sample
+     * @param suppressed
      * @param offset
      * @param progress 
      * @param stop 
      * @return
      */
-    private ProsecutorRisk getProsecutorRisk(Groupify<TupleWrapper> population,
-                                             Groupify<TupleWrapper> sample,
+    private ProsecutorRisk getProsecutorRisk(GroupifyEncoded population,
+                                             GroupifyEncoded sample,
+                                             boolean[] suppressed,
                                              double offset,
                                              WrappedBoolean stop,
                                              WrappedInteger progress) {
@@ -499,23 +501,21 @@ public class RiskModelSampleSummary {
         double numClasses = 0d;
         double smallestClassSize = Integer.MAX_VALUE;
         int maxindex = sample.size();
-        int index = 0;
         
         // For each group
-        Group<TupleWrapper> element = sample.first();
-        while (element != null) {
+        for (int group = 0; group < maxindex; group++) {
             
             // Track progress
-            int prog = (int) Math.round(offset + (double) index++ / (double) maxindex * 3.3d);
+            int prog = (int) Math.round(offset + (double) group / (double) maxindex * 3.3d);
             if (prog != progress.value) {
                 progress.value = prog;
             }
             
             // Only process unsuppressed records
-            if (!element.getElement().isSuppressed()) {
+            if (!suppressed[group]) {
                 
                 // Compute rA
-                int groupSize = element.getCount();
+                int groupSize = sample.getCount(group);
                 if (1d / groupSize > threshold) {
                     rA += groupSize;
                 }
@@ -527,10 +527,7 @@ public class RiskModelSampleSummary {
                 numClasses++;
                 numRecords += groupSize;
             }
-                
-            // Next element
-            element = element.next();
-            
+
             // Stop, if required
             if (stop.value) { throw new ComputationInterruptedException(); }
         }
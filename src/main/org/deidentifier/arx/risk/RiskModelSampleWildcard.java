@@ -18,15 +18,12 @@ package org.deidentifier.arx.risk;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.deidentifier.arx.DataHandleInternal;
-import org.deidentifier.arx.common.Groupify;
-import org.deidentifier.arx.common.Groupify.Group;
-import org.deidentifier.arx.common.TupleWrapper;
+import org.deidentifier.arx.common.GroupifyEncoded;
+import org.deidentifier.arx.common.TupleEncoder;
 import org.deidentifier.arx.common.WrappedBoolean;
 import org.deidentifier.arx.common.WrappedInteger;
 import org.deidentifier.arx.exceptions.ComputationInterruptedException;
@@ -55,7 +52,7 @@ public class RiskModelSampleWildcard {
          * Creates a new instance
          * @param value
          */
-        protected InnerNode(String value) {
+        protected InnerNode(int value) {
             super(value);
         }   
     }
@@ -67,15 +64,14 @@ public class RiskModelSampleWildcard {
     private class LeafNode extends Node {
      
         /** Pointer to records */
-        private final Group<TupleWrapper> records;
+        private final int records;
 
         /**
          * Creates a new instance
          * @param value
          * @param records
-         * @param frequency
          */
-        protected LeafNode(String value, Group<TupleWrapper> records) {
+        protected LeafNode(int value, int records) {
             super(value);
             this.records = records;
         }
@@ -88,13 +84,13 @@ public class RiskModelSampleWildcard {
     private abstract class Node {
 
         /** Value at this level*/
-        protected final String value;
+        protected final int value;
         
         /**
          * Creates a new instance
          * @param value
          */
-        protected Node(String value) {
+        protected Node(int value) {
             this.value = value;
         }
     }
@@ -109,8 +105,6 @@ public class RiskModelSampleWildcard {
     private final int    sizeThreshold;
     /** Records at risk */
     private final double recordsAtRisk;
-    /** Suppressed records */
-    private final String wildcard;
 
     /**
      * Creates a new instance
@@ -129,7 +123,6 @@ public class RiskModelSampleWildcard {
                                   WrappedInteger progress) {
 
         // Init
-        this.wildcard = wildcard;
         this.threshold = threshold;
         this.sizeThreshold = ParameterTranslation.getSizeThreshold(threshold);
         
@@ -138,51 +131,55 @@ public class RiskModelSampleWildcard {
         }
         
         // Calculate groups
-        Groupify<TupleWrapper> groups = getGroups(handle, identifiers, 0d, 0.3d, wildcard, stop, progress);
+        GroupifyEncoded groups = getGroups(handle, identifiers, 0d, 0.3d, stop, progress);
         
-        // Map of original frequencies
-        Map<Group<TupleWrapper>, Integer> frequencies = new HashMap<>();
+        // Identifiers of the wildcard
+        int[] wildcards = new int[groups.getEncoder().getNumColumns()];
+        for (int column = 0; column < wildcards.length; column++) {
+            wildcards[column] = groups.getEncoder().getIdentifier(column, wildcard);
+        }
+        
+        // Original frequencies and suppressed groups
+        int progressMax = groups.size();
+        int[] frequencies = new int[progressMax];
+        boolean[] suppressed = new boolean[progressMax];
+        for (int group = 0; group < progressMax; group++) {
+            frequencies[group] = groups.getCount(group);
+            suppressed[group] = groups.isEqualTo(group, wildcard);
+        }
         
         // Now determine frequencies
         List<Node> index = new ArrayList<Node>();
-        Group<TupleWrapper> group = groups.first();
-        int progressMax = groups.size();
-        int progressCount = 0;
         int numRecords = 0;
-        while (group != null) {
-            progress.value = (int)Math.round((0.3d + (double)(progressCount++) / (double)progressMax * 0.6d) * 100d); 
+        for (int group = 0; group < progressMax; group++) {
+            progress.value = (int)Math.round((0.3d + (double)group / (double)progressMax * 0.6d) * 100d); 
             if (stop.value) {
                 throw new ComputationInterruptedException();
             }
-            if (!group.getElement().isSuppressed()) {
-                frequencies.put(group, group.getCount());
-                numRecords += group.getCount();
-                add(stop, frequencies, group, index, 0);
-                index(stop, frequencies, group, index, 0);
+            if (!suppressed[group]) {
+                numRecords += frequencies[group];
+                add(stop, groups, frequencies, wildcards, group, index, 0);
+                index(stop, groups, group, index, 0);
             }
-            group = group.next();
         }
         
         // And evaluate
         double totalRisk = 0d;
         double highestRisk = 0d;
         int numAtRisk = 0;
-        group = groups.first();
-        progressCount = 0;
-        while (group != null) {
-            progress.value = (int)Math.round((0.9d + (double)(progressCount++) / (double)progressMax * 0.1d) * 100d);
+        for (int group = 0; group < progressMax; group++) {
+            progress.value = (int)Math.round((0.9d + (double)group / (double)progressMax * 0.1d) * 100d);
             if (stop.value) {
                 throw new ComputationInterruptedException();
             }
-            if (!group.getElement().isSuppressed()) {
-                double risk = 1d / (double)group.getCount();
+            if (!suppressed[group]) {
+                double risk = 1d / (double)groups.getCount(group);
                 highestRisk = Math.max(highestRisk, risk);
-                totalRisk += risk * (double)frequencies.get(group);
-                if (group.getCount() < sizeThreshold) {
-                    numAtRisk += frequencies.get(group);
+                totalRisk += risk * (double)frequencies[group];
+                if (groups.getCount(group) < sizeThreshold) {
+                    numAtRisk += frequencies[group];
                 }
             }
-            group = group.next();
         }
         
         // Records at risk
@@ -247,16 +244,19 @@ public class RiskModelSampleWildcard {
     /**
      * Adds frequency counts
      * @param stop
+     * @param groups
      * @param frequencies 
+     * @param wildcards
      * @param group
      * @param index
      * @param depth
      */
-    private void add(WrappedBoolean stop, Map<Group<TupleWrapper>, Integer> frequencies, Group<TupleWrapper> group, List<Node> index, int depth) {
+    private void add(WrappedBoolean stop, GroupifyEncoded groups, int[] frequencies, int[] wildcards, int group, List<Node> index, int depth) {
 
         // Extract
-        boolean isLeafLevel = group.getElement().getValues().length - 1 == depth;
-        String value = group.getElement().getValues()[depth];
+        boolean isLeafLevel = wildcards.length - 1 == depth;
+        int value = groups.getValue(group, depth);
+        int wildcard = wildcards[depth];
         
         // For each potential match
         for (Node node : index) {
@@ -267,17 +267,17 @@ public class RiskModelSampleWildcard {
             }
             
             // Match
-            if (node.value.equals(wildcard) || value.equals(wildcard) || node.value.equals(value)) {
+            if (node.value == wildcard || value == wildcard || node.value == value) {
 
                 // Leaf
                 if (isLeafLevel) {
                     LeafNode leaf = (LeafNode)node;
-                    group.incCount(frequencies.get(leaf.records));
-                    leaf.records.incCount(frequencies.get(group));
+                    groups.incCount(group, frequencies[leaf.records]);
+                    groups.incCount(leaf.records, frequencies[group]);
                     
                 // Inner node
                 } else {
-                    add(stop, frequencies, group, ((InnerNode)node).children, depth + 1);
+                    add(stop, groups, frequencies, wildcards, group, ((InnerNode)node).children, depth + 1);
                 }
             }
         }
@@ -289,18 +289,16 @@ public class RiskModelSampleWildcard {
      * @param qis
      * @param offset
      * @param factor
-     * @param wildcard
      * @param stop
      * @param progress
      * @return
      */
-    private Groupify<TupleWrapper> getGroups(DataHandleInternal handle,
-                                             Set<String> qis,
-                                             double offset,
-                                             double factor,
-                                             String wildcard,
-                                             WrappedBoolean stop,
-                                             WrappedInteger progress) {
+    private GroupifyEncoded getGroups(DataHandleInternal handle,
+                                      Set<String> qis,
+                                      double offset,
+                                      double factor,
+                                      WrappedBoolean stop,
+                                      WrappedInteger progress) {
 
         /* ********************************
          * Check 
@@ -333,7 +331,7 @@ public class RiskModelSampleWildcard {
          * ********************************/
         int capacity = handle.getNumRows() / 10;
         capacity = capacity > 10 ? capacity : 10;
-        Groupify<TupleWrapper> map = new Groupify<TupleWrapper>(capacity);
+        GroupifyEncoded map = new GroupifyEncoded(new TupleEncoder(handle, indices, false), capacity);
         int numRows = handle.getNumRows();
         for (int row = 0; row < numRows; row++) {
 
@@ -342,8 +340,7 @@ public class RiskModelSampleWildcard {
                 progress.value = prog;
             }
 
-            TupleWrapper tuple = new TupleWrapper(handle, indices, row, wildcard);
-            map.add(tuple);
+            map.add(row);
             if (stop.value) { 
                 throw new ComputationInterruptedException();
             }
@@ -356,16 +353,16 @@ public class RiskModelSampleWildcard {
     /**
      * Adds element to index
      * @param stop
-     * @param frequencies
+     * @param groups
      * @param group
      * @param index
      * @param depth
      */
-    private void index(WrappedBoolean stop, Map<Group<TupleWrapper>, Integer> frequencies, Group<TupleWrapper> group, List<Node> index, int depth) {
+    private void index(WrappedBoolean stop, GroupifyEncoded groups, int group, List<Node> index, int depth) {
 
         // Extract
-        boolean isLeafLevel = group.getElement().getValues().length - 1 == depth;
-        String value = group.getElement().getValues()[depth];
+        boolean isLeafLevel = groups.getEncoder().getNumColumns() - 1 == depth;
+        int value = groups.getValue(group, depth);
         
         // For each potential match
         for (Node node : index) {
@@ -376,7 +373,7 @@ public class RiskModelSampleWildcard {
             }
             
             // Match
-            if (node.value.equals(value)) {
+            if (node.value == value) {
 
                 // Leaf
                 if (isLeafLevel) {
@@ -386,7 +383,7 @@ public class RiskModelSampleWildcard {
                 } else {
                     
                     // Go on
-                    index(stop, frequencies, group, ((InnerNode)node).children, depth + 1);
+                    index(stop, groups, group, ((InnerNode)node).children, depth + 1);
                     return;
                 }
             }
@@ -400,7 +397,7 @@ public class RiskModelSampleWildcard {
             index.add(node);
             
             // Go on
-            index(stop, frequencies, group, node.children, depth + 1);
+            index(stop, groups, group, node.children, depth + 1);
         }
     }
 }
\ No newline at end of file
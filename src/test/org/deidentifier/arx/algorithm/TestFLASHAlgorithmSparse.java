@@ -0,0 +1,98 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.deidentifier.arx.test.AbstractAnonymizationTest;
+import org.deidentifier.arx.test.TestAnonymizationKAnonymity;
+import org.deidentifier.arx.test.TestAnonymizationLDiversity;
+import org.deidentifier.arx.test.TestAnonymizationRiskBased;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Test for the FLASH algorithm with solution spaces that are backed by hash maps. The expected
+ * optima have been determined with solution spaces that are backed by arrays.
+ *
+ * @author Fabian Prasser
+ */
+@RunWith(Parameterized.class)
+public class TestFLASHAlgorithmSparse extends AbstractAnonymizationTest {
+
+    /**
+     * Returns the test cases.
+     *
+     * @return
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() {
+        List<Object[]> cases = new ArrayList<Object[]>();
+        add(cases, TestAnonymizationKAnonymity.cases());
+        add(cases, TestAnonymizationLDiversity.cases());
+        add(cases, TestAnonymizationRiskBased.cases());
+        return cases;
+    }
+
+    /**
+     * Adds all cases with the adult dataset
+     *
+     * @param cases
+     * @param candidates
+     */
+    private static void add(List<Object[]> cases, Collection<Object[]> candidates) {
+        for (Object[] candidate : candidates) {
+            if (((ARXAnonymizationTestCase) candidate[0]).dataset.endsWith("adult.csv")) {
+                cases.add(candidate);
+            }
+        }
+    }
+
+    /** The previous size up to which solution spaces are backed by arrays */
+    private int maxDenseSize;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param testCase
+     */
+    public TestFLASHAlgorithmSparse(final ARXAnonymizationTestCase testCase) {
+        super(testCase);
+    }
+
+    /**
+     * Backs all solution spaces by hash maps
+     */
+    @Before
+    public void setUpSparse() {
+        maxDenseSize = FLASHStrategy.getMaxDenseSize();
+        FLASHStrategy.setMaxDenseSize(0);
+    }
+
+    /**
+     * Restores the previous size
+     */
+    @After
+    public void tearDownSparse() {
+        FLASHStrategy.setMaxDenseSize(maxDenseSize);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.algorithm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.test.AbstractTest;
+import org.junit.Test;
+
+import de.linearbits.jhpl.JHPLIterator.LongIterator;
+
+/**
+ * Tests the size of the largest level of solution spaces, which determines whether
+ * they can be searched with the FLASH algorithm.
+ *
+ * @author Fabian Prasser
+ */
+public class TestFLASHLevelSize extends AbstractTest {
+
+    /**
+     * Test with a solution space whose levels are enumerated
+     */
+    @Test
+    public void testSmall() {
+
+        // Prepare
+        SolutionSpace solutionSpace = new SolutionSpace(new int[] { 0, 1, 0, 2, 0 }, new int[] { 4, 3, 2, 5, 1 });
+
+        // Count
+        long expected = 0L;
+        for (int level = solutionSpace.getBottom().getLevel(); level <= solutionSpace.getTop().getLevel(); level++) {
+            long size = 0L;
+            for (LongIterator iter = solutionSpace.unsafeGetLevel(level); iter.hasNext(); iter.next()) {
+                size++;
+            }
+            expected = Math.max(expected, size);
+        }
+
+        // Compare
+        assertEquals(expected, solutionSpace.getMaxLevelSize());
+        assertTrue(FLASHAlgorithm.isSupported(solutionSpace));
+    }
+
+    /**
+     * Test with a solution space whose largest level does not fit into an array
+     */
+    @Test
+    public void testLarge() {
+        int[] maxLevels = new int[18];
+        Arrays.fill(maxLevels, 9);
+        SolutionSpace solutionSpace = new SolutionSpace(new int[maxLevels.length], maxLevels);
+        assertTrue(solutionSpace.getMaxLevelSize() > Integer.MAX_VALUE);
+        assertFalse(FLASHAlgorithm.isSupported(solutionSpace));
+    }
+}
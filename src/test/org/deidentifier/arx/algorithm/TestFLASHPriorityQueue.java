@@ -0,0 +1,130 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.algorithm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.deidentifier.arx.algorithm.FLASHAlgorithmImpl.LongPriorityQueue;
+import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.test.AbstractTest;
+import org.junit.Test;
+
+/**
+ * Tests the order of transformations in the priority queue of the FLASH algorithm
+ * against the order in java.util.PriorityQueue.
+ *
+ * @author Fabian Prasser
+ */
+public class TestFLASHPriorityQueue extends AbstractTest {
+
+    /** Maximal generalization levels */
+    private static final int[] MAX_LEVELS = { 4, 3, 2, 5, 1, 2 };
+
+    /**
+     * Test with a strategy backed by arrays
+     */
+    @Test
+    public void testDense() {
+        test(new FLASHStrategy(getSolutionSpace(), getHierarchies()));
+    }
+
+    /**
+     * Test with a strategy backed by hash maps
+     */
+    @Test
+    public void testSparse() {
+        int maxDenseSize = FLASHStrategy.getMaxDenseSize();
+        try {
+            FLASHStrategy.setMaxDenseSize(0);
+            test(new FLASHStrategy(getSolutionSpace(), getHierarchies()));
+        } finally {
+            FLASHStrategy.setMaxDenseSize(maxDenseSize);
+        }
+    }
+
+    /**
+     * Returns hierarchies, in which the number of distinct values decreases with each level
+     * @return
+     */
+    private GeneralizationHierarchy[] getHierarchies() {
+        Dictionary dictionary = new Dictionary(MAX_LEVELS.length);
+        GeneralizationHierarchy[] hierarchies = new GeneralizationHierarchy[MAX_LEVELS.length];
+        for (int dimension = 0; dimension < MAX_LEVELS.length; dimension++) {
+            int height = MAX_LEVELS[dimension] + 1;
+            int values = 1 << (height + dimension);
+            String[][] hierarchy = new String[values][height];
+            for (int value = 0; value < values; value++) {
+                for (int level = 0; level < height; level++) {
+                    hierarchy[value][level] = level + "-" + (level == 0 ? value : value >> (level + dimension % 2));
+                }
+                dictionary.register(dimension, hierarchy[value][0]);
+            }
+            hierarchies[dimension] = new GeneralizationHierarchy(String.valueOf(dimension), hierarchy, dimension, dictionary);
+        }
+        return hierarchies;
+    }
+
+    /**
+     * Returns the solution space
+     * @return
+     */
+    private SolutionSpace getSolutionSpace() {
+        return new SolutionSpace(new int[MAX_LEVELS.length], MAX_LEVELS);
+    }
+
+    /**
+     * Adds and polls random transformations and compares the order with the expected order
+     * @param strategy
+     */
+    private void test(FLASHStrategy strategy) {
+
+        // Prepare
+        Random random = new Random(0xDECAFBADL);
+        int size = 1;
+        for (int level : MAX_LEVELS) {
+            size *= level + 1;
+        }
+        LongPriorityQueue queue = new LongPriorityQueue(strategy);
+        PriorityQueue<Long> expected = new PriorityQueue<Long>(11, strategy);
+
+        // Add more transformations than polled, including duplicates and transformations that are ranked equally
+        for (int i = 0; i < 10000; i++) {
+            if (random.nextInt(3) == 0 && !expected.isEmpty()) {
+                assertFalse(queue.isEmpty());
+                assertEquals(expected.poll().longValue(), queue.poll());
+            } else {
+                long id = random.nextInt(size);
+                queue.add(id);
+                expected.add(id);
+            }
+        }
+
+        // Drain
+        while (!expected.isEmpty()) {
+            assertFalse(queue.isEmpty());
+            assertEquals(expected.poll().longValue(), queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -437,7 +437,7 @@ public abstract class AbstractAnonymizationTest extends AbstractTest {
         final Data data = getDataObject(testCase);
         
         // Create an instance of the anonymizer
-        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        final ARXAnonymizer anonymizer = getAnonymizer();
         testCase.config.setPracticalMonotonicity(testCase.practical);
         
         // Test or warmup
@@ -664,6 +664,15 @@ public abstract class AbstractAnonymizationTest extends AbstractTest {
         }
     }
     
+    /**
+     * Returns the anonymizer used for the test.
+     *
+     * @return
+     */
+    protected ARXAnonymizer getAnonymizer() {
+        return new ARXAnonymizer();
+    }
+    
     /**
      * Returns the configuration of FLASH.
      *
@@ -0,0 +1,176 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXImprovementListener;
+import org.deidentifier.arx.ARXListener;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.ARXConfiguration.HeuristicSearchAlgorithm;
+import org.deidentifier.arx.criteria.EDDifferentialPrivacy;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests reporting improved transformations during the search and terminating the search early.
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationAnytime extends AbstractTest {
+
+    /**
+     * Records improvements and terminates the search after a given number of improvements
+     *
+     * @author Fabian Prasser
+     */
+    private static class Recorder implements ARXImprovementListener {
+
+        /** Transformations */
+        private final List<int[]>              transformations = new ArrayList<int[]>();
+        /** Information loss */
+        private final List<InformationLoss<?>> losses          = new ArrayList<InformationLoss<?>>();
+        /** Number of improvements after which the search is terminated */
+        private final int                      limit;
+
+        /**
+         * Creates a new instance
+         * @param limit
+         */
+        private Recorder(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean improvement(int[] transformation, InformationLoss<?> informationLoss) {
+            transformations.add(transformation);
+            losses.add(informationLoss);
+            return transformations.size() < limit;
+        }
+
+        @Override
+        public void progress(double progress) {
+            // Ignore
+        }
+    }
+
+    /**
+     * Test with data-dependent differential privacy
+     * @throws IOException
+     */
+    @Test
+    public void testDataDependentDifferentialPrivacy() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(1d, Metric.createLossMetric());
+        config.addPrivacyModel(new EDDifferentialPrivacy(2d, 1E-5d, null, true));
+        config.setHeuristicSearchStepLimit(300);
+        test(config, true);
+    }
+
+    /**
+     * Test with FLASH
+     * @throws IOException
+     */
+    @Test
+    public void testFLASH() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        test(config, false);
+    }
+
+    /**
+     * Test with the genetic algorithm
+     * @throws IOException
+     */
+    @Test
+    public void testGenetic() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setHeuristicSearchEnabled(true);
+        config.setHeuristicSearchAlgorithm(HeuristicSearchAlgorithm.GENETIC);
+        config.setHeuristicSearchStepLimit(1000);
+        test(config, true);
+    }
+
+    /**
+     * Test with LIGHTNING
+     * @throws IOException
+     */
+    @Test
+    public void testLIGHTNING() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setHeuristicSearchEnabled(true);
+        config.setHeuristicSearchStepLimit(1000);
+        test(config, true);
+    }
+
+    /**
+     * Performs the test
+     * @param config
+     * @param heuristic
+     * @throws IOException
+     */
+    private void test(ARXConfiguration config, boolean heuristic) throws IOException {
+
+        // Complete search
+        Recorder recorder = new Recorder(Integer.MAX_VALUE);
+        ARXResult result = anonymize(config.clone(), recorder);
+        assertFalse(recorder.transformations.isEmpty());
+        for (int i = 1; i < recorder.losses.size(); i++) {
+            assertTrue(recorder.losses.get(i).compareTo(recorder.losses.get(i - 1)) <= 0);
+        }
+        int last = recorder.transformations.size() - 1;
+        assertArrayEquals(recorder.transformations.get(last), result.getGlobalOptimum().getTransformation());
+        assertEquals(0, recorder.losses.get(last).compareTo(result.getGlobalOptimum().getHighestScore()));
+        assertTrue(heuristic || result.getOptimumFound());
+
+        // Terminate after the first improvement
+        Recorder terminating = new Recorder(1);
+        result = anonymize(config.clone(), terminating);
+        assertEquals(1, terminating.transformations.size());
+        assertArrayEquals(recorder.transformations.get(0), terminating.transformations.get(0));
+        assertArrayEquals(terminating.transformations.get(0), result.getGlobalOptimum().getTransformation());
+        assertFalse(result.getOptimumFound() && recorder.transformations.size() > 1);
+    }
+
+    /**
+     * Anonymizes the adult dataset
+     * @param config
+     * @param listener
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize(ARXConfiguration config, ARXListener listener) throws IOException {
+        ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, new int[0], false);
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setListener(listener);
+        return anonymizer.anonymize(AbstractAnonymizationTest.getDataObject(testCase), config);
+    }
+}
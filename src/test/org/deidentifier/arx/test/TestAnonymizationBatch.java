@@ -0,0 +1,149 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.EDDifferentialPrivacy;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests anonymizing data with multiple configurations at once.
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationBatch extends AbstractTest {
+
+    /**
+     * Test with differential privacy, which is not supported
+     * @throws IOException
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentialPrivacy() throws IOException {
+        List<ARXConfiguration> configs = getConfigurations();
+        configs.get(0).addPrivacyModel(new EDDifferentialPrivacy(2d, 1E-5d, null, true));
+        new ARXAnonymizer().anonymize(getData(), configs);
+    }
+
+    /**
+     * Test with multiple threads
+     * @throws IOException
+     */
+    @Test
+    public void testParallel() throws IOException {
+        test(3);
+    }
+
+    /**
+     * Test with one thread
+     * @throws IOException
+     */
+    @Test
+    public void testSequential() throws IOException {
+        test(1);
+    }
+
+    /**
+     * Test with privacy models shared between configurations
+     * @throws IOException
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSharedPrivacyModels() throws IOException {
+        List<ARXConfiguration> configs = getConfigurations();
+        configs.add(configs.get(0).clone());
+        new ARXAnonymizer().anonymize(getData(), configs);
+    }
+
+    /**
+     * Returns the data
+     * @return
+     * @throws IOException
+     */
+    private Data getData() throws IOException {
+        ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(ARXConfiguration.create(), "./data/adult.csv", 0d, new int[0], false);
+        return AbstractAnonymizationTest.getDataObject(testCase);
+    }
+
+    /**
+     * Returns the configurations
+     * @return
+     */
+    private List<ARXConfiguration> getConfigurations() {
+        List<ARXConfiguration> configs = new ArrayList<ARXConfiguration>();
+        for (int k : new int[] { 2, 5, 10 }) {
+            ARXConfiguration config = ARXConfiguration.create(0d, Metric.createLossMetric());
+            config.addPrivacyModel(new KAnonymity(k));
+            configs.add(config);
+        }
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createDiscernabilityMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        configs.add(config);
+        config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setHeuristicSearchEnabled(true);
+        config.setHeuristicSearchStepLimit(500);
+        configs.add(config);
+        return configs;
+    }
+
+    /**
+     * Performs the test
+     * @param numThreads
+     * @throws IOException
+     */
+    private void test(int numThreads) throws IOException {
+
+        // Anonymize with all configurations at once
+        List<ARXResult> results = new ARXAnonymizer().anonymize(getData(), getConfigurations(), numThreads);
+        List<DataHandle> outputs = new ArrayList<DataHandle>();
+        for (ARXResult result : results) {
+            outputs.add(result.getOutput(false));
+        }
+
+        // Compare with anonymizing each configuration individually
+        List<ARXConfiguration> configs = getConfigurations();
+        assertEquals(configs.size(), results.size());
+        for (int i = 0; i < configs.size(); i++) {
+            ARXResult expected = new ARXAnonymizer().anonymize(getData(), configs.get(i));
+            ARXResult result = results.get(i);
+            assertArrayEquals(expected.getGlobalOptimum().getTransformation(), result.getGlobalOptimum().getTransformation());
+            assertEquals(0, expected.getGlobalOptimum().getHighestScore().compareTo(result.getGlobalOptimum().getHighestScore()));
+            assertEquals(expected.getOptimumFound(), result.getOptimumFound());
+            DataHandle expectedOutput = expected.getOutput(false);
+            DataHandle output = outputs.get(i);
+            assertEquals(expectedOutput.getNumRows(), output.getNumRows());
+            for (int row = 0; row < output.getNumRows(); row++) {
+                for (int column = 0; column < output.getNumColumns(); column++) {
+                    assertEquals(expectedOutput.getValue(row, column), output.getValue(row, column));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXConfiguration.HeuristicSearchAlgorithm;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests the heuristic genetic algorithm. Results must not depend on the number of threads.
+ *
+ * @author Fabian Prasser
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationGenetic extends AbstractAnonymizationTest {
+    
+    /**
+     * Returns the test cases.
+     *
+     * @return
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() {
+        
+        // Create list
+        List<Object[]> cases = Arrays.asList(new Object[][] {
+             /* 0 */{ new ARXAnonymizationTestCase(ARXConfiguration.create(1d, Metric.createLossMetric()).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", 0.22041192847984292, new int[] {0, 3, 0, 0, 2, 1, 1, 1, 0}, false) },
+             { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d)).addPrivacyModel(new KAnonymity(100)), "./data/adult.csv", 383803.4034066361, new int[] {1, 1, 1, 1, 3, 2, 2, 1, 1}, false) },
+             { new ARXAnonymizationTestCase(ARXConfiguration.create(1d, Metric.createLossMetric(0.1d)).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", 0.09257312971977383, new int[] {0, 3, 0, 0, 0, 0, 0, 0, 0}, false) },
+             { new ARXAnonymizationTestCase(ARXConfiguration.create(1d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addPrivacyModel(new KAnonymity(100)), "./data/adult.csv", 366795.2003839407, new int[] {0, 1, 1, 1, 3, 2, 2, 1, 0}, false) },
+             { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createLossMetric()).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", 0.26968907873942327, new int[] {0, 3, 0, 2, 2, 1, 1, 1, 0}, true) },
+             { new ARXAnonymizationTestCase(ARXConfiguration.create(1d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addPrivacyModel(new KAnonymity(100)), "./data/adult.csv", 366795.2003839407, new int[] {0, 1, 1, 1, 3, 2, 2, 1, 0}, true) },
+             { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d)).addPrivacyModel(new KAnonymity(100)), "./data/adult.csv", 383803.4034066361, new int[] {1, 1, 1, 1, 3, 2, 2, 1, 1}, false) },
+             { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createLossMetric()).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", 0.26968907873942327, new int[] {0, 3, 0, 2, 2, 1, 1, 1, 0}, true) },
+             { new ARXAnonymizationTestCase(ARXConfiguration.create(1d, Metric.createLossMetric()).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", 0.22041192847984292, new int[] {0, 3, 0, 0, 2, 1, 1, 1, 0}, false) },
+             { new ARXAnonymizationTestCase(ARXConfiguration.create(1d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addPrivacyModel(new KAnonymity(100)), "./data/adult.csv", 366795.2003839407, new int[] {0, 1, 1, 1, 3, 2, 2, 1, 0}, false) },
+        });
+        
+        // Enable genetic search
+        for (Object[] testcase : cases) {
+            ((ARXAnonymizationTestCase)testcase[0]).config.setHeuristicSearchEnabled(true);
+            ((ARXAnonymizationTestCase)testcase[0]).config.setHeuristicSearchAlgorithm(HeuristicSearchAlgorithm.GENETIC);
+            ((ARXAnonymizationTestCase)testcase[0]).config.setHeuristicSearchTimeLimit(Integer.MAX_VALUE);
+            ((ARXAnonymizationTestCase)testcase[0]).config.setHeuristicSearchStepLimit(1000);
+        }
+        
+        // Check populations in parallel
+        for (int i = 6; i < 8; i++) {
+            ((ARXAnonymizationTestCase)cases.get(i)[0]).config.setNumThreads(2);
+        }
+        
+        // Check populations with more threads than transformations in the population
+        for (int i = 8; i < cases.size(); i++) {
+            ((ARXAnonymizationTestCase)cases.get(i)[0]).config.setNumThreads(32);
+        }
+        
+        // Return
+        return cases;
+    }
+    
+    /**
+     * Creates a new instance.
+     *
+     * @param testCase
+     */
+    public TestAnonymizationGenetic(final ARXAnonymizationTestCase testCase) {
+        super(testCase);
+    }
+}
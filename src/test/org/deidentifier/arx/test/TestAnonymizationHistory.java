@@ -0,0 +1,73 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests anonymization with a history which stores compressed snapshots on disk.
+ * Results must be identical to the results obtained with snapshots stored in memory.
+ *
+ * @author Fabian Prasser
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationHistory extends AbstractAnonymizationTest {
+
+    /**
+     * Returns the test cases.
+     *
+     * @return
+     * @throws IOException
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() throws IOException {
+
+        // Create list
+        List<Object[]> cases = new ArrayList<Object[]>();
+        cases.addAll(TestAnonymizationKAnonymity.cases());
+        cases.addAll(TestAnonymizationLDiversity.cases());
+        cases.addAll(TestAnonymizationDPresence.cases());
+
+        // Return
+        return cases;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param testCase
+     */
+    public TestAnonymizationHistory(final ARXAnonymizationTestCase testCase) {
+        super(testCase);
+    }
+
+    @Override
+    protected ARXAnonymizer getAnonymizer() {
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setHistoryMemoryLimit(0);
+        return anonymizer;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.criteria.EntropyLDiversity;
+import org.deidentifier.arx.criteria.EqualDistanceTCloseness;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Test for local recoding performed on multiple partitions in parallel
+ *
+ * @author Fabian Prasser
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationLocalRecodingParallel extends AbstractAnonymizationTest {
+    
+    /**
+     * Returns the test cases.
+     * 
+     * @return
+     * @throws IOException
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() throws IOException {
+        return Arrays.asList(new Object[][] {
+                                              { new ARXAnonymizationTestCase(getConfiguration().addPrivacyModel(new EntropyLDiversity("occupation", 5)), "./data/adult.csv", "occupation", -1247321682) },
+                                              { new ARXAnonymizationTestCase(getConfiguration().addPrivacyModel(new KAnonymity(100)), "./data/adult.csv", "occupation", 466032062) },
+                                              { new ARXAnonymizationTestCase(getConfiguration().addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", "occupation", -1954840439) },
+                                              // Not supported by t-closeness, results must equal the ones obtained with a single thread
+                                              { new ARXAnonymizationTestCase(getConfiguration().addPrivacyModel(new EqualDistanceTCloseness("occupation", 0.2d)).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", "occupation", 464405537) },
+        });
+    }
+    
+    /**
+     * Returns a configuration with parallel local recoding
+     * @return
+     */
+    private static ARXConfiguration getConfiguration() {
+        ARXConfiguration config = ARXConfiguration.create(1d, Metric.createLossMetric(0.05d));
+        config.setNumThreadsForLocalRecoding(4);
+        return config;
+    }
+    
+    /**
+     * Creates a new instance.
+     * 
+     * @param testCase
+     */
+    public TestAnonymizationLocalRecodingParallel(final ARXAnonymizationTestCase testCase) {
+        super(testCase);
+    }
+}
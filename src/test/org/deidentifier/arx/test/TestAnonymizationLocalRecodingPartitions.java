@@ -0,0 +1,135 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXListener;
+import org.deidentifier.arx.ARXProcessStatistics;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.exceptions.RollbackRequiredException;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests the number of records optimized when local recoding is performed on multiple partitions.
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationLocalRecodingPartitions extends AbstractTest {
+
+    /** Number of partitions */
+    private static final int    PARTITIONS = 4;
+
+    /** Fraction of records to optimize */
+    private static final double RECORDS    = 0.05d;
+
+    /**
+     * Test with a single step of local recoding
+     * @throws IOException
+     * @throws RollbackRequiredException
+     */
+    @Test
+    public void testOptimize() throws IOException, RollbackRequiredException {
+
+        // Prepare
+        ARXResult result = anonymize();
+        DataHandle output = result.getOutput();
+        int requested = (int) (RECORDS * output.getNumRows());
+        int outliers = getNumOutliers(output);
+
+        // Optimize
+        ARXProcessStatistics statistics = result.optimizeFast(output, RECORDS);
+
+        // Each partition optimizes its share, all partitions together optimize at least the requested number of records
+        assertEquals(PARTITIONS, statistics.getNumberOfSteps());
+        int optimized = 0;
+        for (ARXProcessStatistics.Step step : statistics.getSteps()) {
+            assertTrue(step.getNumberOfRecordsTransformed() < requested);
+            optimized += step.getNumberOfRecordsTransformed();
+        }
+        assertTrue(optimized >= requested);
+        assertEquals(outliers - optimized, getNumOutliers(output));
+    }
+
+    /**
+     * Test with iterative local recoding
+     * @throws IOException
+     * @throws RollbackRequiredException
+     */
+    @Test
+    public void testOptimizeIterative() throws IOException, RollbackRequiredException {
+
+        // Prepare
+        ARXResult result = anonymize();
+        DataHandle output = result.getOutput();
+        int requested = (int) (RECORDS * output.getNumRows());
+        int outliers = getNumOutliers(output);
+
+        // Optimize
+        ARXProcessStatistics statistics = result.optimizeIterativeFast(output, RECORDS, new ARXListener() {
+            @Override
+            public void progress(double progress) {
+                // Ignore
+            }
+        });
+
+        // Each partition optimizes its share in each iteration
+        assertTrue(statistics.getNumberOfSteps() > PARTITIONS);
+        int optimized = 0;
+        for (ARXProcessStatistics.Step step : statistics.getSteps()) {
+            assertTrue(step.getNumberOfRecordsTransformed() < requested);
+            optimized += step.getNumberOfRecordsTransformed();
+        }
+        assertEquals(outliers, optimized);
+        assertEquals(0, getNumOutliers(output));
+    }
+
+    /**
+     * Anonymizes the adult dataset
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(1d, Metric.createLossMetric(0.05d));
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setNumThreadsForLocalRecoding(PARTITIONS);
+        ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, new int[0], false);
+        return new ARXAnonymizer().anonymize(AbstractAnonymizationTest.getDataObject(testCase), config);
+    }
+
+    /**
+     * Returns the number of outliers in the given output
+     * @param output
+     * @return
+     */
+    private int getNumOutliers(DataHandle output) {
+        int outliers = 0;
+        for (int row = 0; row < output.getNumRows(); row++) {
+            outliers += output.isOutlier(row) ? 1 : 0;
+        }
+        return outliers;
+    }
+}
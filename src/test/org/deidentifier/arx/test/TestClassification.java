@@ -260,4 +260,25 @@ public class TestClassification {
         assertEquals(30162, classResult.getNumMeasurements(), 0d);
     }
 
+    @Test
+    public void testParallelFolds() throws IOException, ParseException {
+
+        // Classify
+        ARXClassificationConfiguration<?> config = ARXClassificationConfiguration.createRandomForest().setNumberOfTrees(5);
+        StatisticsClassification sequential = getResult().getOutput().getStatistics().getClassificationPerformance(getFeatures(), getClazz(), config);
+        config = ARXClassificationConfiguration.createRandomForest().setNumberOfTrees(5).setNumThreads(4);
+        StatisticsClassification parallel = getResult().getOutput().getStatistics().getClassificationPerformance(getFeatures(), getClazz(), config);
+
+        // Compare
+        assertEquals(sequential.getOriginalAccuracy(), parallel.getOriginalAccuracy(), 0d);
+        assertEquals(sequential.getZeroRAccuracy(), parallel.getZeroRAccuracy(), 0d);
+        assertEquals(sequential.getAccuracy(), parallel.getAccuracy(), 0d);
+        assertEquals(sequential.getOriginalAverageError(), parallel.getOriginalAverageError(), 0d);
+        assertEquals(sequential.getAverageError(), parallel.getAverageError(), 0d);
+        for (String clazz : new String[] { "Divorced", "Widowed", "Married-civ-spouse", "Never-married" }) {
+            assertEquals(sequential.getROCCurve(clazz).getAUC(), parallel.getROCCurve(clazz).getAUC(), 0d);
+            assertEquals(sequential.getROCCurve(clazz).getBrierScore(), parallel.getROCCurve(clazz).getBrierScore(), 0d);
+        }
+        assertEquals(sequential.getNumMeasurements(), parallel.getNumMeasurements(), 0d);
+    }
 }
@@ -17,11 +17,15 @@
 
 package org.deidentifier.arx.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 
 import org.deidentifier.arx.ARXAnonymizer;
 import org.deidentifier.arx.ARXConfiguration;
@@ -498,4 +502,42 @@ public class TestDataHandle extends AbstractTest {
         
         assertTrue(Arrays.deepEquals(given, expected));
     }
+
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testParallelEncoding() throws IllegalArgumentException, IOException {
+        
+        final DataHandle sequential = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';').getHandle();
+        for (int numThreads : new int[] { 2, 5 }) {
+            
+            // Unknown and known length
+            Data data1 = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+            List<String[]> rows = new ArrayList<String[]>();
+            Iterator<String[]> iterator = data1.getHandle().iterator();
+            while (iterator.hasNext()) {
+                rows.add(iterator.next());
+            }
+            Data data2 = Data.create(rows.iterator(), rows.size() - 1);
+            data1 = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+            data1.setNumThreadsForEncoding(numThreads);
+            data2.setNumThreadsForEncoding(numThreads);
+            
+            // Compare
+            for (Data data : new Data[] { data1, data2 }) {
+                DataHandle parallel = data.getHandle();
+                assertEquals(sequential.getNumRows(), parallel.getNumRows());
+                for (int column = 0; column < sequential.getNumColumns(); column++) {
+                    assertTrue(Arrays.equals(sequential.getDistinctValues(column), parallel.getDistinctValues(column)));
+                    for (int row = 0; row < sequential.getNumRows(); row++) {
+                        assertEquals(sequential.getValue(row, column), parallel.getValue(row, column));
+                    }
+                }
+            }
+        }
+    }
 }
@@ -17,18 +17,46 @@
 
 package org.deidentifier.arx.test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataSource;
+import org.deidentifier.arx.DataType;
+import org.deidentifier.arx.io.BinaryDataInput;
+import org.deidentifier.arx.io.BinaryDataOutput;
+import org.deidentifier.arx.io.CSVSyntax;
 import org.junit.Test;
 
-import cern.colt.Arrays;
-
 /**
  * Tests for importing complex csv files
  * 
@@ -52,4 +80,261 @@ public class TestDataImport extends AbstractTest {
             System.out.println(Arrays.toString(result.get(result.size() - 1)));
         }
     }
+
+    /**
+     * Test
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testEncoded() throws IllegalArgumentException, IOException {
+        
+        // Files in repository
+        for (String file : new String[] { "data/adult.csv", "data/example.csv", "data/test.csv", "data/test_dirty.csv", "data/test-import.csv" }) {
+            compare(Data.create(new File(file), StandardCharsets.UTF_8, ';'),
+                    Data.createEncoded(new File(file), StandardCharsets.UTF_8, ';'));
+        }
+        
+        // Special cases
+        File file = File.createTempFile("arx", ".csv");
+        file.deleteOnExit();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+        writer.write("a,\"b\" , c\r\n");
+        writer.write(" 1 ,\"x, \"\"y\"\"\",2\r\n");
+        writer.write("\r\n");
+        writer.write("3,\"\",\r\n");
+        writer.write("4\r\n");
+        writer.write("5,\"multi\r\nline\",6,7\r\n");
+        writer.write("1,\"x, \"\"y\"\"\",2");
+        writer.close();
+        CSVSyntax syntax = new CSVSyntax(',', '"', '"', "\r\n");
+        compare(Data.create(file, StandardCharsets.UTF_8, syntax),
+                Data.createEncoded(file, StandardCharsets.UTF_8, syntax));
+    }
+
+    /**
+     * Test
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testBinary() throws IllegalArgumentException, IOException {
+        for (String file : new String[] { "data/adult.csv", "data/example.csv", "data/test-import.csv" }) {
+            Data expected = Data.create(new File(file), StandardCharsets.UTF_8, ';');
+            File binary = File.createTempFile("arx", ".bin");
+            binary.deleteOnExit();
+            new BinaryDataOutput(binary).write(expected.getHandle());
+            compare(expected, Data.create(new BinaryDataInput(binary)));
+        }
+    }
+
+    /**
+     * Test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testExcelStreaming() throws IOException {
+
+        // File in repository
+        compare(Data.create(createExcelSource("data/test.xlsx", 3, false)),
+                Data.create(createExcelSource("data/test.xlsx", 3, true)));
+
+        // Numbers, booleans and missing cells
+        File file = File.createTempFile("arx", ".xlsx");
+        file.deleteOnExit();
+        Workbook workbook = new XSSFWorkbook();
+        Sheet sheet = workbook.createSheet();
+        Iterator<String[]> iter = Data.create(new File("data/adult.csv"), StandardCharsets.UTF_8, ';').getHandle().iterator();
+        for (int index = 0; index < 1000 && iter.hasNext(); index++) {
+            String[] values = iter.next();
+            Row row = sheet.createRow(index + (index / 100));
+            row.createCell(0).setCellValue(values[0]);
+            if (index == 0) {
+                row.createCell(1).setCellValue(values[1]);
+                row.createCell(2).setCellValue("flag");
+                row.createCell(3).setCellValue(values[4]);
+            } else {
+                row.createCell(1).setCellValue(Double.valueOf(values[1]) + (index % 2 == 0 ? 0.5d : 0d));
+                row.createCell(2).setCellValue(index % 3 == 0);
+                if (index % 7 != 0) {
+                    row.createCell(3).setCellValue(values[4]);
+                }
+            }
+        }
+        FileOutputStream output = new FileOutputStream(file);
+        workbook.write(output);
+        output.close();
+        compare(Data.create(createExcelSource(file.getAbsolutePath(), 4, false)),
+                Data.create(createExcelSource(file.getAbsolutePath(), 4, true)));
+    }
+
+    /**
+     * Test with a sheet that references an external entity, which must not be resolved
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testExcelStreamingExternalEntities() throws IOException {
+
+        // Secret
+        File secret = File.createTempFile("arx", ".txt");
+        secret.deleteOnExit();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(secret), StandardCharsets.UTF_8);
+        writer.write("secret");
+        writer.close();
+
+        // Replace the sheet of the file in the repository
+        File file = File.createTempFile("arx", ".xlsx");
+        file.deleteOnExit();
+        ZipInputStream input = new ZipInputStream(new FileInputStream("data/test.xlsx"));
+        ZipOutputStream output = new ZipOutputStream(new FileOutputStream(file));
+        for (ZipEntry entry = input.getNextEntry(); entry != null; entry = input.getNextEntry()) {
+            output.putNextEntry(new ZipEntry(entry.getName()));
+            if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                output.write(("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                              "<!DOCTYPE worksheet [<!ENTITY xxe SYSTEM \"" + secret.toURI() + "\">]>" +
+                              "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>" +
+                              "<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t>value</t></is></c></row>" +
+                              "<row r=\"2\"><c r=\"A2\" t=\"inlineStr\"><is><t>&xxe;</t></is></c></row>" +
+                              "</sheetData></worksheet>").getBytes(StandardCharsets.UTF_8));
+            } else {
+                IOUtils.copy(input, output);
+            }
+            output.closeEntry();
+        }
+        input.close();
+        output.close();
+
+        // The entity must either be rejected or not be resolved
+        try {
+            DataHandle handle = Data.create(createExcelSource(file.getAbsolutePath(), 1, true)).getHandle();
+            for (int row = 0; row < handle.getNumRows(); row++) {
+                assertFalse(handle.getValue(row, 0).contains("secret"));
+            }
+        } catch (RuntimeException e) {
+            // Expected, as the entity has not been declared
+        }
+    }
+
+    /**
+     * Test
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testJDBC() throws Exception {
+
+        // Create database
+        File file = File.createTempFile("arx", ".db");
+        file.deleteOnExit();
+        String url = "jdbc:sqlite:" + file.getAbsolutePath();
+        Class.forName("org.sqlite.JDBC");
+        Connection connection = DriverManager.getConnection(url);
+        connection.setAutoCommit(false);
+        Statement statement = connection.createStatement();
+        statement.execute("CREATE TABLE adult (id INTEGER, age INTEGER, sex TEXT, education TEXT)");
+        statement.close();
+        PreparedStatement insert = connection.prepareStatement("INSERT INTO adult VALUES (?, ?, ?, ?)");
+        Iterator<String[]> iter = Data.create(new File("data/adult.csv"), StandardCharsets.UTF_8, ';').getHandle().iterator();
+        iter.next();
+        for (int id = 0; iter.hasNext(); id++) {
+            String[] row = iter.next();
+            if (id % 100 == 0) {
+                insert.setNull(1, Types.INTEGER);
+            } else {
+                insert.setInt(1, id);
+            }
+            insert.setInt(2, Integer.valueOf(row[1]));
+            insert.setString(3, row[0]);
+            insert.setString(4, row[4]);
+            insert.executeUpdate();
+        }
+        insert.close();
+        connection.commit();
+        connection.close();
+
+        // Compare sequential and partitioned reads
+        Data expected = Data.create(createJDBCSource(url, 0, 1));
+        assertEquals(30162, expected.getHandle().getNumRows());
+        DataHandle handle1 = expected.getHandle();
+        DataHandle handle2 = Data.create(createJDBCSource(url, 100, 4)).getHandle();
+        DataHandle handle3 = Data.create(createJDBCSource(url, 100, 4)).getHandle();
+        assertEquals(handle1.getNumRows(), handle2.getNumRows());
+        assertEquals(handle1.getNumRows(), handle3.getNumRows());
+        List<String> rows1 = new ArrayList<String>();
+        List<String> rows2 = new ArrayList<String>();
+        List<String> rows3 = new ArrayList<String>();
+        Iterator<String[]> iter1 = handle1.iterator();
+        Iterator<String[]> iter2 = handle2.iterator();
+        Iterator<String[]> iter3 = handle3.iterator();
+        while (iter1.hasNext()) {
+            rows1.add(Arrays.toString(iter1.next()));
+            rows2.add(Arrays.toString(iter2.next()));
+            rows3.add(Arrays.toString(iter3.next()));
+        }
+
+        // Partitioned reads return rows in the same order
+        assertEquals(rows2, rows3);
+        Collections.sort(rows1);
+        Collections.sort(rows2);
+        assertEquals(rows1, rows2);
+    }
+
+    /**
+     * Creates an Excel source for the given file
+     * @param file
+     * @param columns
+     * @param streaming
+     * @return
+     */
+    private DataSource createExcelSource(String file, int columns, boolean streaming) {
+        DataSource source = DataSource.createExcelSource(file, 0, true);
+        for (int column = 0; column < columns; column++) {
+            source.addColumn(column);
+        }
+        source.setStreaming(streaming);
+        return source;
+    }
+
+    /**
+     * Creates a JDBC source for the test table
+     * @param url
+     * @param fetchSize
+     * @param numThreads
+     * @return
+     * @throws SQLException
+     */
+    private DataSource createJDBCSource(String url, int fetchSize, int numThreads) throws SQLException {
+        DataSource source = DataSource.createJDBCSource(url, "adult");
+        source.addColumn("age", DataType.INTEGER);
+        source.addColumn("sex", DataType.STRING);
+        source.addColumn("education", DataType.STRING);
+        source.setFetchSize(fetchSize);
+        if (numThreads > 1) {
+            source.setPartitioning("id", numThreads);
+        }
+        return source;
+    }
+
+    /**
+     * Compares the data
+     * @param expected
+     * @param actual
+     */
+    private void compare(Data expected, Data actual) {
+        DataHandle handle1 = expected.getHandle();
+        DataHandle handle2 = actual.getHandle();
+        assertEquals(handle1.getNumRows(), handle2.getNumRows());
+        assertEquals(handle1.getNumColumns(), handle2.getNumColumns());
+        for (int column = 0; column < handle1.getNumColumns(); column++) {
+            assertEquals(handle1.getAttributeName(column), handle2.getAttributeName(column));
+            assertTrue(Arrays.equals(handle1.getDistinctValues(column), handle2.getDistinctValues(column)));
+            for (int row = 0; row < handle1.getNumRows(); row++) {
+                assertEquals(handle1.getValue(row, column), handle2.getValue(row, column));
+            }
+        }
+    }
 }
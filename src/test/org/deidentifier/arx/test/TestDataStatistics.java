@@ -17,6 +17,7 @@
 
 package org.deidentifier.arx.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -29,13 +30,19 @@ import java.util.Set;
 import org.deidentifier.arx.ARXAnonymizer;
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
 import org.deidentifier.arx.DataSubset;
 import org.deidentifier.arx.DataType;
 import org.deidentifier.arx.aggregates.StatisticsContingencyTable;
 import org.deidentifier.arx.aggregates.StatisticsContingencyTable.Entry;
 import org.deidentifier.arx.aggregates.StatisticsFrequencyDistribution;
+import org.deidentifier.arx.aggregates.StatisticsSummary;
 import org.deidentifier.arx.criteria.DPresence;
 import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.exceptions.RollbackRequiredException;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
 import org.junit.Test;
 
 /**
@@ -296,6 +303,83 @@ public class TestDataStatistics extends AbstractTest {
         assertTrue(Arrays.equals(frequency, distribution.frequency));
     }
     
+    /**
+     * Performs a test. Checks that cached numeric values follow changes to the data.
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testSummary() throws IllegalArgumentException, IOException {
+        
+        this.provider.createDataDefinition();
+        this.provider.getData().getDefinition().setDataType("age", DataType.INTEGER);
+        DataHandle handle = this.provider.getData().getHandle();
+        
+        // Check input
+        StatisticsSummary<?> summary = handle.getStatistics().getSummaryStatistics(false).get("age");
+        assertEquals(364d / 7d, summary.getArithmeticMeanAsDouble(), 1e-9);
+        
+        // Check after replacing a value
+        handle.replace(0, "66", "67");
+        summary = handle.getStatistics().getSummaryStatistics(false).get("age");
+        assertEquals(365d / 7d, summary.getArithmeticMeanAsDouble(), 1e-9);
+        
+        // Check after changing the data type
+        this.provider.getData().getDefinition().setDataType("age", DataType.DECIMAL);
+        summary = handle.getStatistics().getSummaryStatistics(false).get("age");
+        assertEquals(365d / 7d, summary.getArithmeticMeanAsDouble(), 1e-9);
+    }
+    
+    /**
+     * Performs a test. Checks that cached numeric values follow local recoding.
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     * @throws RollbackRequiredException
+     */
+    @Test
+    public void testSummaryLocalRecoding() throws IllegalArgumentException, IOException, RollbackRequiredException {
+        
+        // Anonymize, keeping age ungeneralized
+        ARXConfiguration config = ARXConfiguration.create(1d, Metric.createLossMetric(0.05d));
+        config.addPrivacyModel(new KAnonymity(5));
+        ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, new int[0], false);
+        Data data = AbstractAnonymizationTest.getDataObject(testCase);
+        data.getDefinition().setDataType("age", DataType.INTEGER);
+        data.getDefinition().setMinimumGeneralization("age", 0);
+        data.getDefinition().setMaximumGeneralization("age", 0);
+        ARXResult result = new ARXAnonymizer().anonymize(data, config);
+        DataHandle output = result.getOutput();
+        
+        // Check before and after local recoding
+        StatisticsSummary<?> summary = output.getStatistics().getSummaryStatistics(false).get("age");
+        assertEquals(getMean(output, "age"), summary.getArithmeticMeanAsDouble(), 1e-9);
+        result.optimizeFast(output, 0.05d);
+        summary = output.getStatistics().getSummaryStatistics(false).get("age");
+        assertEquals(getMean(output, "age"), summary.getArithmeticMeanAsDouble(), 1e-9);
+    }
+    
+    /**
+     * Returns the arithmetic mean of the given attribute, ignoring suppressed records
+     * 
+     * @param handle
+     * @param attribute
+     * @return
+     */
+    private double getMean(DataHandle handle, String attribute) {
+        int column = handle.getColumnIndexOf(attribute);
+        double sum = 0d;
+        int count = 0;
+        for (int row = 0; row < handle.getNumRows(); row++) {
+            if (!handle.isOutlier(row)) {
+                sum += Double.valueOf(handle.getValue(row, column));
+                count++;
+            }
+        }
+        return sum / count;
+    }
+    
     /**
      * Checks the two arrays regarding equality, treating a double[][]
      * as a set of comparable double[]'s
@@ -0,0 +1,231 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.DataHandleInternal;
+import org.deidentifier.arx.common.Groupify;
+import org.deidentifier.arx.common.GroupifyEncoded;
+import org.deidentifier.arx.common.TupleEncoder;
+import org.deidentifier.arx.common.TupleWrapper;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests grouping encoded tuples against grouping string tuples.
+ *
+ * @author Fabian Prasser
+ */
+public class TestGroupifyEncoded extends AbstractTest {
+
+    /**
+     * Internal handle, which can only be created by subclasses outside of its package
+     *
+     * @author Fabian Prasser
+     */
+    private static class InternalHandle extends DataHandleInternal {
+
+        /**
+         * Creates a new instance
+         * @param handle
+         */
+        private InternalHandle(DataHandle handle) {
+            super(handle);
+        }
+    }
+
+    /**
+     * Test with the input, which contains no suppressed records
+     * @throws IOException
+     */
+    @Test
+    public void testInput() throws IOException {
+        DataHandle input = getData().getHandle();
+        test(new InternalHandle(input), getIndices(input), false);
+    }
+
+    /**
+     * Test with the output, which contains suppressed records
+     * @throws IOException
+     */
+    @Test
+    public void testOutput() throws IOException {
+        DataHandle output = anonymize(getData()).getOutput();
+        test(new InternalHandle(output), getIndices(output), false);
+        test(new InternalHandle(output), getIndices(output), true);
+    }
+
+    /**
+     * Test with encoders that share identifiers
+     * @throws IOException
+     */
+    @Test
+    public void testShared() throws IOException {
+
+        // Prepare
+        DataHandle handle = anonymize(getData()).getOutput();
+        DataHandleInternal output = new InternalHandle(handle);
+        int[] indices = getIndices(handle);
+
+        // Group with and without suppression, using encoders that share identifiers
+        TupleEncoder unsuppressedEncoder = new TupleEncoder(output, indices, true);
+        TupleEncoder suppressedEncoder = new TupleEncoder(output, false, unsuppressedEncoder);
+        GroupifyEncoded unsuppressedGroups = groupify(unsuppressedEncoder);
+        GroupifyEncoded suppressedGroups = groupify(suppressedEncoder);
+        Groupify<TupleWrapper> expected = groupify(output, indices, true);
+
+        // A group must be found in the other table iff its values are found in the other table
+        int found = 0;
+        for (int group = 0; group < suppressedGroups.size(); group++) {
+            TupleWrapper tuple = new TupleWrapper(output, indices, suppressedGroups.getRow(group), false);
+            Groupify.Group<TupleWrapper> element = expected.get(tuple);
+            int other = unsuppressedGroups.get(suppressedGroups, group);
+            assertEquals(element != null, other != -1);
+            if (other != -1) {
+                assertEquals(element.getCount(), unsuppressedGroups.getCount(other));
+                found++;
+            }
+        }
+
+        // All groups but the group of suppressed records are found
+        assertEquals(suppressedGroups.size() - 1, found);
+    }
+
+    /**
+     * Anonymizes the given data
+     * @param data
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize(Data data) throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        return new ARXAnonymizer().anonymize(data, config);
+    }
+
+    /**
+     * Returns the data
+     * @return
+     * @throws IOException
+     */
+    private Data getData() throws IOException {
+        ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(ARXConfiguration.create(), "./data/adult.csv", 0d, new int[0], false);
+        return AbstractAnonymizationTest.getDataObject(testCase);
+    }
+
+    /**
+     * Returns the indices of all columns
+     * @param handle
+     * @return
+     */
+    private int[] getIndices(DataHandle handle) {
+        int[] indices = new int[handle.getNumColumns()];
+        for (int column = 0; column < indices.length; column++) {
+            indices[column] = column;
+        }
+        return indices;
+    }
+
+    /**
+     * Groups the given handle with the given encoder, starting with the smallest capacity to enforce rehashing
+     * @param encoder
+     * @return
+     */
+    private GroupifyEncoded groupify(TupleEncoder encoder) {
+        GroupifyEncoded groupify = new GroupifyEncoded(encoder, 0);
+        for (int row = 0; row < encoder.getHandle().getNumRows(); row++) {
+            groupify.add(row);
+        }
+        return groupify;
+    }
+
+    /**
+     * Groups the string tuples of the given handle
+     * @param handle
+     * @param indices
+     * @param ignoreSuppression
+     * @return
+     */
+    private Groupify<TupleWrapper> groupify(DataHandleInternal handle, int[] indices, boolean ignoreSuppression) {
+        Groupify<TupleWrapper> groupify = new Groupify<TupleWrapper>(10);
+        for (int row = 0; row < handle.getNumRows(); row++) {
+            groupify.add(new TupleWrapper(handle, indices, row, ignoreSuppression));
+        }
+        return groupify;
+    }
+
+    /**
+     * Performs the test
+     * @param handle
+     * @param indices
+     * @param ignoreSuppression
+     */
+    private void test(DataHandleInternal handle, int[] indices, boolean ignoreSuppression) {
+
+        // Group
+        TupleEncoder encoder = new TupleEncoder(handle, indices, ignoreSuppression);
+        GroupifyEncoded groupify = new GroupifyEncoded(encoder, 0);
+        Groupify<TupleWrapper> expected = groupify(handle, indices, ignoreSuppression);
+        List<TupleWrapper> tuples = new ArrayList<TupleWrapper>();
+        for (int row = 0; row < handle.getNumRows(); row++) {
+
+            // Groups are numbered in order of creation, all records of a group have equal values
+            TupleWrapper tuple = new TupleWrapper(handle, indices, row, ignoreSuppression);
+            int group = groupify.add(row);
+            if (group == tuples.size()) {
+                tuples.add(tuple);
+                assertEquals(row, groupify.getRow(group));
+            } else {
+                assertTrue(group < tuples.size());
+                assertArrayEquals(tuples.get(group).getValues(), tuple.getValues());
+            }
+        }
+
+        // Number of groups and sizes must match, more groups than the initial capacity must have been created
+        assertEquals(expected.size(), groupify.size());
+        assertTrue(groupify.size() > 16);
+        for (int group = 0; group < groupify.size(); group++) {
+            TupleWrapper tuple = tuples.get(group);
+            Groupify.Group<TupleWrapper> element = expected.get(tuple);
+            assertNotNull(element);
+            assertEquals(element.getCount(), groupify.getCount(group));
+
+            // Identifiers must represent the values
+            String[] values = tuple.getValues();
+            for (int column = 0; column < indices.length; column++) {
+                assertEquals(encoder.getIdentifier(column, values[column]), groupify.getValue(group, column));
+            }
+            assertFalse(groupify.isEqualTo(group, "not contained"));
+        }
+    }
+}
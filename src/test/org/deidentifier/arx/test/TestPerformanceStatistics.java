@@ -0,0 +1,88 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXPerformanceListener;
+import org.deidentifier.arx.ARXPerformanceStatistics;
+import org.deidentifier.arx.ARXPerformanceStatistics.Transition;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.junit.Test;
+
+/**
+ * Test for performance statistics.
+ *
+ * @author Fabian Prasser
+ */
+public class TestPerformanceStatistics extends AbstractTest {
+
+    /**
+     * Performs a test.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStatistics() throws IOException {
+
+        provider.createDataDefinition();
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+
+        final ARXPerformanceStatistics[] reported = new ARXPerformanceStatistics[1];
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setListener(new ARXPerformanceListener() {
+            @Override
+            public void progress(double progress) {
+                // Ignore
+            }
+
+            @Override
+            public void performance(ARXPerformanceStatistics statistics) {
+                reported[0] = statistics;
+            }
+        });
+        final ARXResult result = anonymizer.anonymize(provider.getData(), config);
+        final ARXPerformanceStatistics statistics = result.getProcessStatistics().getPerformanceStatistics();
+
+        assertSame(statistics, reported[0]);
+        assertTrue(statistics.getNumberOfChecks() > 0);
+        assertTrue(statistics.getNumberOfChecks() <= result.getProcessStatistics().getTransformationsChecked());
+        long transitions = 0;
+        for (Transition transition : Transition.values()) {
+            transitions += statistics.getNumberOfTransitions(transition);
+            assertTrue(statistics.getTransitionTime(transition) >= 0);
+        }
+        assertEquals(statistics.getNumberOfChecks(), transitions);
+        assertTrue(statistics.getEncodingTime() > 0);
+        assertTrue(statistics.getMaximalNumberOfEquivalenceClasses() <= provider.getData().getHandle().getNumRows());
+        assertTrue(statistics.getAverageNumberOfEquivalenceClasses() <= statistics.getMaximalNumberOfEquivalenceClasses());
+
+        final ARXPerformanceStatistics merged = statistics.merge(statistics);
+        assertEquals(2 * statistics.getNumberOfChecks(), merged.getNumberOfChecks());
+        assertEquals(2 * statistics.getNumberOfHistoryHits(), merged.getNumberOfHistoryHits());
+        assertEquals(statistics.getMaximalNumberOfEquivalenceClasses(), merged.getMaximalNumberOfEquivalenceClasses());
+    }
+}
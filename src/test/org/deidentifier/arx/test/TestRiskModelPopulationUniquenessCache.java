@@ -0,0 +1,142 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2018 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXPopulationModel;
+import org.deidentifier.arx.ARXSolverConfiguration;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.risk.RiskModelHistogram;
+import org.deidentifier.arx.risk.RiskModelPopulationUniqueness;
+import org.deidentifier.arx.risk.RiskModelPopulationUniquenessCache;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
+/**
+ * Tests the cache for estimates of population uniqueness and starting solvers with cached solutions.
+ *
+ * @author Fabian Prasser
+ */
+public class TestRiskModelPopulationUniquenessCache extends AbstractTest {
+
+    /**
+     * Test with estimates obtained from the cache
+     */
+    @Test
+    public void testEstimate() {
+        RiskModelPopulationUniquenessCache cache = new RiskModelPopulationUniquenessCache();
+        RiskModelHistogram histogram = getHistogram(1, 10, 2, 5, 3, 2);
+        ARXPopulationModel model = ARXPopulationModel.create((int) histogram.getNumRecords(), 0.1d);
+        double estimate = new RiskModelPopulationUniqueness(model, histogram, ARXSolverConfiguration.create(), cache).getNumUniqueTuplesPitman();
+        cache.putEstimate(histogram, estimate);
+        assertEquals(estimate, cache.getEstimate(getHistogram(1, 10, 2, 5, 3, 2)), 0d);
+        assertNull(cache.getEstimate(getHistogram(1, 10, 2, 5, 3, 3)));
+    }
+
+    /**
+     * Test with more estimates than the capacity of the cache
+     */
+    @Test
+    public void testEviction() {
+
+        // Fill
+        RiskModelPopulationUniquenessCache cache = new RiskModelPopulationUniquenessCache(2);
+        cache.putEstimate(getHistogram(1, 1), 1d);
+        cache.putEstimate(getHistogram(1, 2), 2d);
+
+        // Access the eldest entry and add another one, evicting the least recently used entry
+        assertEquals(1d, cache.getEstimate(getHistogram(1, 1)), 0d);
+        cache.putEstimate(getHistogram(1, 3), 3d);
+        assertEquals(1d, cache.getEstimate(getHistogram(1, 1)), 0d);
+        assertNull(cache.getEstimate(getHistogram(1, 2)));
+        assertEquals(3d, cache.getEstimate(getHistogram(1, 3)), 0d);
+    }
+
+    /**
+     * Test with start values obtained from the cache. The solution for the Pitman model
+     * is not accurate for the second histogram, so that the default start values are used.
+     * The solution for the SNB model is used.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStartValues() throws IOException {
+
+        // Prepare a histogram and a similar histogram with less small classes
+        ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(ARXConfiguration.create(), "./data/adult.csv", 0d, new int[0], false);
+        DataHandle handle = AbstractAnonymizationTest.getDataObject(testCase).getHandle();
+        ARXPopulationModel model = ARXPopulationModel.create(handle.getNumRows(), 0.9d);
+        ARXSolverConfiguration config = ARXSolverConfiguration.create();
+        RiskModelHistogram histogram1 = handle.getRiskEstimator(model, new HashSet<String>(Arrays.asList("sex", "age", "education")))
+                                              .getEquivalenceClassModel();
+        RiskModelHistogram histogram2 = getHistogram(histogram1, 0.99d);
+
+        // Store solutions for the first histogram
+        RiskModelPopulationUniquenessCache cache = new RiskModelPopulationUniquenessCache();
+        new RiskModelPopulationUniqueness(model, histogram1, config, cache).getNumUniqueTuplesPitman();
+        new RiskModelPopulationUniqueness(model, histogram1, config, cache).getNumUniqueTuplesSNB();
+
+        // Compare the estimates for the second histogram with estimates obtained with default start values
+        RiskModelPopulationUniqueness warm = new RiskModelPopulationUniqueness(model, histogram2, config, cache);
+        RiskModelPopulationUniqueness cold = new RiskModelPopulationUniqueness(model, histogram2, config);
+        assertTrue(cold.getNumUniqueTuplesPitman() > 0d);
+        assertEquals(cold.getNumUniqueTuplesPitman(), warm.getNumUniqueTuplesPitman(), 0d);
+        assertTrue(cold.getNumUniqueTuplesSNB() > 0d);
+        assertEquals(cold.getNumUniqueTuplesSNB(), warm.getNumUniqueTuplesSNB(), cold.getNumUniqueTuplesSNB() * 1e-6d);
+    }
+
+    /**
+     * Returns a histogram with the given pairs of class sizes and numbers of classes
+     * @param histogram
+     * @return
+     */
+    private RiskModelHistogram getHistogram(int... histogram) {
+        IntIntOpenHashMap distribution = new IntIntOpenHashMap();
+        for (int i = 0; i < histogram.length; i += 2) {
+            distribution.put(histogram[i], histogram[i + 1]);
+        }
+        return new RiskModelHistogram(distribution);
+    }
+
+    /**
+     * Returns a histogram in which the number of classes of size one and two is reduced by the given factor
+     * @param histogram
+     * @param factor
+     * @return
+     */
+    private RiskModelHistogram getHistogram(RiskModelHistogram histogram, double factor) {
+        int[] classes = histogram.getHistogram();
+        IntIntOpenHashMap distribution = new IntIntOpenHashMap();
+        for (int i = 0; i < classes.length; i += 2) {
+            int count = classes[i] <= 2 ? (int) (classes[i + 1] * factor) : classes[i + 1];
+            if (count > 0) {
+                distribution.put(classes[i], count);
+            }
+        }
+        return new RiskModelHistogram(distribution);
+    }
+}
@@ -17,12 +17,21 @@
 
 package org.deidentifier.arx.test;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
 import org.deidentifier.arx.AttributeType;
 import org.deidentifier.arx.Data;
 import org.deidentifier.arx.risk.RiskEstimateBuilder;
 import org.deidentifier.arx.risk.RiskModelAttributes;
+import org.deidentifier.arx.risk.RiskModelAttributes.QuasiIdentifierRisk;
+import org.deidentifier.arx.risk.RiskModelHistogram;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -104,4 +113,49 @@ public class TestRiskQuasiIdentifiers {
             assertTrue("Separation expected: " + expectedResults[i].separation + "; got: " + risks[i].getSeparation(), expectedResults[i].separation == risks[i].getSeparation());
         }
     }
+
+    @Test
+    public void testParallelAndLimited() throws IOException {
+        
+        // Define data
+        Data data = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+        for (int i = 0; i < data.getHandle().getNumColumns(); i++) {
+            data.getDefinition().setAttributeType(data.getHandle().getAttributeName(i), AttributeType.QUASI_IDENTIFYING_ATTRIBUTE);
+        }
+        
+        // Perform calculations
+        RiskEstimateBuilder builder = data.getHandle().getRiskEstimator(null);
+        QuasiIdentifierRisk[] sequential = builder.getAttributeRisks().getAttributeRisks();
+        QuasiIdentifierRisk[] parallel = builder.getAttributeRisks(Integer.MAX_VALUE, 4).getAttributeRisks();
+        QuasiIdentifierRisk[] limited = builder.getAttributeRisks(2, 3).getAttributeRisks();
+        
+        // Check against equivalence classes of each quasi-identifier
+        assertEquals((1 << data.getHandle().getNumColumns()) - 1, sequential.length);
+        for (QuasiIdentifierRisk risk : sequential) {
+            RiskModelHistogram histogram = data.getHandle().getRiskEstimator(null, new HashSet<String>(risk.getIdentifier())).getEquivalenceClassModel();
+            assertEquals(risk.getIdentifier().toString(), histogram.getNumClasses() / histogram.getNumRecords(), risk.getDistinction(), 0d);
+        }
+        
+        // Check parallel execution
+        assertEquals(sequential.length, parallel.length);
+        for (int i = 0; i < sequential.length; i++) {
+            assertEquals(sequential[i].getIdentifier(), parallel[i].getIdentifier());
+            assertEquals(sequential[i].getDistinction(), parallel[i].getDistinction(), 0d);
+            assertEquals(sequential[i].getSeparation(), parallel[i].getSeparation(), 0d);
+        }
+        
+        // Check limited size
+        List<QuasiIdentifierRisk> expected = new ArrayList<QuasiIdentifierRisk>();
+        for (QuasiIdentifierRisk risk : sequential) {
+            if (risk.getIdentifier().size() <= 2) {
+                expected.add(risk);
+            }
+        }
+        assertEquals(expected.size(), limited.length);
+        for (int i = 0; i < limited.length; i++) {
+            assertEquals(expected.get(i).getIdentifier(), limited[i].getIdentifier());
+            assertEquals(expected.get(i).getDistinction(), limited[i].getDistinction(), 0d);
+            assertEquals(expected.get(i).getSeparation(), limited[i].getSeparation(), 0d);
+        }
+    }
 }